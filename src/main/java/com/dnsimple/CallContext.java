@@ -0,0 +1,341 @@
+package com.dnsimple;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.dnsimple.exception.CallCancelledException;
+import com.dnsimple.exception.DeadlineExceededException;
+
+/**
+ * A deadline and a cancellation signal for the API calls made by a thread.
+ * <p>
+ * All calls made while a context is attached share its time budget, including every retry
+ * and every page fetched by the listAll methods. Waiting for a rate limit permit, connecting,
+ * reading and backing off before a retry are all cut short when the budget runs out, and the
+ * call fails with a {@link DeadlineExceededException}. The budget starts when the context is
+ * built.
+ * <p>
+ * {@link #cancel()} can be called from any thread. It aborts the request in flight and fails
+ * the call with a {@link CallCancelledException}. Requests sent with the default transport or
+ * an {@link Http2Transport} are aborted at once; other transports stop at the next retry or
+ * page.
+ * <p>
+ * Connect and read timeouts set on the context replace the client's for the attached calls.
+ * <p>
+ * For example:
+ * <p>
+ * CallContext call = CallContext.builder().timeout(5000).readTimeout(2000).build();
+ * CallContext.Scope scope = call.attach();
+ * try {
+ *   records = client.templates.listAllTemplateRecords(accountId, templateId);
+ * } finally {
+ *   scope.detach();
+ * }
+ */
+public final class CallContext {
+  private static final ThreadLocal<CallContext> CURRENT = new ThreadLocal<CallContext>();
+  private static final ThreadLocal<Request> REQUEST = new ThreadLocal<Request>();
+
+  private final long deadlineNanos;
+  private final boolean hasDeadline;
+  private final Integer connectTimeout;
+  private final Integer readTimeout;
+  private final List<Request> requests = new ArrayList<Request>(2);
+
+  private volatile boolean cancelled;
+
+  private CallContext(Builder builder) {
+    this.hasDeadline = builder.timeoutMillis >= 0;
+    this.deadlineNanos = hasDeadline ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(builder.timeoutMillis) : 0;
+    this.connectTimeout = builder.connectTimeout;
+    this.readTimeout = builder.readTimeout;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @return The context attached to the calling thread, or null if there is none
+   */
+  public static CallContext current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Attach this context to the calling thread, until the returned scope is detached.
+   *
+   * @return The scope
+   */
+  public Scope attach() {
+    Scope scope = new Scope(this, CURRENT.get());
+    CURRENT.set(this);
+    return scope;
+  }
+
+  /**
+   * Stop the calls made under this context, aborting the request in flight.
+   */
+  public void cancel() {
+    List<Request> aborted;
+    synchronized (this) {
+      if (cancelled) {
+        return;
+      }
+      cancelled = true;
+      aborted = new ArrayList<Request>(requests);
+      notifyAll();
+    }
+    for (Request request : aborted) {
+      request.abort();
+    }
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * @return Whether the time budget has run out
+   */
+  public boolean isExpired() {
+    return hasDeadline && deadlineNanos - System.nanoTime() <= 0;
+  }
+
+  /**
+   * @return The milliseconds left in the time budget, or Long.MAX_VALUE if there is no deadline
+   */
+  public long remainingMillis() {
+    if (!hasDeadline) {
+      return Long.MAX_VALUE;
+    }
+    return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+  }
+
+  /**
+   * @return The connect timeout for attached calls, or null to keep the client's
+   */
+  public Integer getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  /**
+   * @return The read timeout for attached calls, or null to keep the client's
+   */
+  public Integer getReadTimeout() {
+    return readTimeout;
+  }
+
+  boolean isActive() {
+    return !cancelled && !isExpired();
+  }
+
+  /**
+   * @param method The method of the request about to be sent
+   * @param url The URL of the request
+   * @throws InterruptedIOException If the context is cancelled or out of time
+   */
+  void check(String method, String url) throws InterruptedIOException {
+    if (!isActive()) {
+      throw stopped(method, url, null);
+    }
+  }
+
+  /**
+   * @param method The method of the request that was stopped
+   * @param url The URL of the request
+   * @param cause The error the request failed with, or null
+   * @return The exception to stop the request with
+   */
+  InterruptedIOException stopped(String method, String url, Throwable cause) {
+    if (cancelled) {
+      return new CallCancelledException("Cancelled " + method + " " + url, cause);
+    }
+    return new DeadlineExceededException("Deadline exceeded for " + method + " " + url, cause);
+  }
+
+  /**
+   * Limit a timeout to the time left.
+   *
+   * @param timeoutMillis The timeout, where 0 means none
+   * @return The timeout to use, never 0 while there is a deadline
+   */
+  int clamp(int timeoutMillis) {
+    long remaining = remainingMillis();
+    if (remaining == Long.MAX_VALUE) {
+      return timeoutMillis;
+    }
+    remaining = Math.max(1, Math.min(Integer.MAX_VALUE, remaining));
+    return timeoutMillis == 0 ? (int) remaining : (int) Math.min(timeoutMillis, remaining);
+  }
+
+  /**
+   * Sleep for a retry back-off, waking up early when cancelled or out of time.
+   */
+  void sleep(long millis) throws InterruptedException {
+    long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    if (hasDeadline && until - deadlineNanos > 0) {
+      // Wake up at the deadline itself, not up to a millisecond before it
+      until = deadlineNanos;
+    }
+    synchronized (this) {
+      long left;
+      while (!cancelled && (left = until - System.nanoTime()) > 0) {
+        TimeUnit.NANOSECONDS.timedWait(this, left);
+      }
+    }
+  }
+
+  /**
+   * Start tracking the connections of a request made by the calling thread, so
+   * {@link #cancel()} can abort them.
+   *
+   * @return The request, to end once it has completed
+   */
+  Request begin() {
+    Request request = new Request(this);
+    synchronized (this) {
+      requests.add(request);
+    }
+    REQUEST.set(request);
+    return request;
+  }
+
+  /**
+   * Register a way to abort the connection the calling thread is about to use, if it is
+   * making a request under a context. Called by transports.
+   *
+   * @param abort Closes the connection
+   */
+  static void opened(Closeable abort) {
+    Request request = REQUEST.get();
+    if (request != null) {
+      request.add(abort);
+    }
+  }
+
+  /**
+   * The connections of one request, including its retries.
+   */
+  static final class Request {
+    private final CallContext context;
+    private final List<Closeable> connections = new ArrayList<Closeable>(1);
+    private boolean aborted;
+
+    private Request(CallContext context) {
+      this.context = context;
+    }
+
+    private void add(Closeable abort) {
+      synchronized (this) {
+        if (!aborted) {
+          connections.add(abort);
+          return;
+        }
+      }
+      close(abort);
+    }
+
+    private void abort() {
+      List<Closeable> open;
+      synchronized (this) {
+        aborted = true;
+        open = new ArrayList<Closeable>(connections);
+        connections.clear();
+      }
+      for (Closeable abort : open) {
+        close(abort);
+      }
+    }
+
+    void end() {
+      REQUEST.remove();
+      synchronized (context) {
+        context.requests.remove(this);
+      }
+    }
+
+    private static void close(Closeable abort) {
+      try {
+        abort.close();
+      } catch (IOException e) {
+        // The request fails on its own once its connection is gone
+      }
+    }
+  }
+
+  /**
+   * The attachment of a context to a thread.
+   */
+  public static final class Scope {
+    static final Scope NONE = new Scope(null, null);
+
+    private final CallContext context;
+    private final CallContext previous;
+
+    private Scope(CallContext context, CallContext previous) {
+      this.context = context;
+      this.previous = previous;
+    }
+
+    /**
+     * Restore the context that was attached before, if any. Must be called on the thread
+     * that attached the context.
+     */
+    public void detach() {
+      if (context == null) {
+        return;
+      }
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+
+  public static class Builder {
+    private long timeoutMillis = -1;
+    private Integer connectTimeout;
+    private Integer readTimeout;
+
+    private Builder() {
+    }
+
+    /**
+     * @param timeoutMillis The time budget of all calls made under the context, from now
+     * @return The builder
+     */
+    public Builder timeout(long timeoutMillis) {
+      if (timeoutMillis < 0) {
+        throw new IllegalArgumentException("timeout must not be negative");
+      }
+      this.timeoutMillis = timeoutMillis;
+      return this;
+    }
+
+    public Builder connectTimeout(int connectTimeout) {
+      if (connectTimeout < 0) {
+        throw new IllegalArgumentException("connectTimeout must not be negative");
+      }
+      this.connectTimeout = connectTimeout;
+      return this;
+    }
+
+    public Builder readTimeout(int readTimeout) {
+      if (readTimeout < 0) {
+        throw new IllegalArgumentException("readTimeout must not be negative");
+      }
+      this.readTimeout = readTimeout;
+      return this;
+    }
+
+    public CallContext build() {
+      return new CallContext(this);
+    }
+  }
+}
@@ -18,6 +18,15 @@ public class CertificateBundle {
   @Key("chain")
   private List<String> intermediateCertificates;
 
+  public CertificateBundle() {}
+
+  CertificateBundle(String privateKey, String serverCertificate, String rootCertificate, List<String> intermediateCertificates) {
+    this.privateKey = privateKey;
+    this.serverCertificate = serverCertificate;
+    this.rootCertificate = rootCertificate;
+    this.intermediateCertificates = intermediateCertificates;
+  }
+
   public String getPrivateKey() {
     return privateKey;
   }
@@ -0,0 +1,372 @@
+package com.dnsimple;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.dnsimple.exception.DnsimpleException;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.Base64;
+import com.google.api.client.util.Data;
+
+/**
+ * Fetches certificate bundles, private key included, once per certificate version and keeps
+ * them encrypted on local disk.
+ * <p>
+ * A bundle is identified by the certificate ID and its "updated_at" time, so a reissued
+ * certificate is fetched again and the old files are deleted. Before a bundle is stored, its
+ * certificates are parsed, the chain is checked to link up, and the private key is checked
+ * to match the server certificate.
+ * <p>
+ * Files are encrypted with AES-128-CBC and authenticated with HMAC-SHA256, so a file that was
+ * tampered with or written with another key is discarded and fetched again. They are created
+ * readable and writable by their owner only, and loading fails where those permissions cannot
+ * be set. They are read through a read-only memory mapping. Concurrent requests for the same
+ * bundle share one load, and loaded bundles are kept in memory.
+ * <p>
+ * For example:
+ * <p>
+ * CertificateCache cache = new CertificateCache(client.certificates, new File("/var/cache/dnsimple"), key);
+ * CertificateBundle bundle = cache.getBundle(accountId, "example.com", certificateId);
+ */
+public class CertificateCache {
+  private static final byte[] MAGIC = { 'D', 'N', 'S', 'C', '1' };
+  private static final int IV_LENGTH = 16;
+  private static final int MAC_LENGTH = 32;
+  private static final String FILE_SUFFIX = ".bundle";
+
+  private final Certificates certificates;
+  private final File directory;
+  private final SecretKeySpec encryptionKey;
+  private final SecretKeySpec macKey;
+  private final SecureRandom random = new SecureRandom();
+  private final ConcurrentHashMap<String, FutureTask<CertificateBundle>> bundles = new ConcurrentHashMap<String, FutureTask<CertificateBundle>>();
+
+  /**
+   * @param certificates The certificates API
+   * @param directory The directory the encrypted bundles are stored in
+   * @param key A 32 byte secret: the first 16 bytes encrypt the files, the last 16 authenticate them
+   */
+  public CertificateCache(Certificates certificates, File directory, byte[] key) {
+    if (key.length != 32) {
+      throw new IllegalArgumentException("key must be 32 bytes");
+    }
+    this.certificates = certificates;
+    this.directory = directory;
+    this.encryptionKey = new SecretKeySpec(key, 0, 16, "AES");
+    this.macKey = new SecretKeySpec(key, 16, 16, "HmacSHA256");
+  }
+
+  /**
+   * Get the bundle of a certificate, checking with the API whether it changed.
+   *
+   * @param accountId The account ID
+   * @param domainId The domain name or ID
+   * @param certificateId The certificate ID
+   * @return The certificate bundle, including the private key
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors, or a bundle that fails verification
+   */
+  public CertificateBundle getBundle(String accountId, String domainId, String certificateId) throws DnsimpleException, IOException {
+    return getBundle(accountId, domainId, certificates.getCertificate(accountId, domainId, certificateId).getData());
+  }
+
+  /**
+   * Get the bundle of a certificate whose details the caller already has, for example from
+   * a certificate listing. No API call is made if this version of the bundle is cached.
+   *
+   * @param accountId The account ID
+   * @param domainId The domain name or ID
+   * @param certificate The certificate
+   * @return The certificate bundle, including the private key
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors, or a bundle that fails verification
+   */
+  public CertificateBundle getBundle(final String accountId, final String domainId, final Certificate certificate) throws DnsimpleException, IOException {
+    final String version = certificate.getId() + "-" + sanitize(certificate.getUpdatedAt());
+    FutureTask<CertificateBundle> load = bundles.get(version);
+    if (load == null) {
+      FutureTask<CertificateBundle> created = new FutureTask<CertificateBundle>(new Callable<CertificateBundle>() {
+        public CertificateBundle call() throws Exception {
+          return load(accountId, domainId, certificate, version);
+        }
+      });
+      load = bundles.putIfAbsent(version, created);
+      if (load == null) {
+        load = created;
+        created.run();
+      }
+    }
+
+    try {
+      return load.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while loading certificate " + certificate.getId());
+    } catch (ExecutionException e) {
+      bundles.remove(version, load);
+      Throwable cause = e.getCause();
+      if (cause instanceof DnsimpleException) {
+        throw (DnsimpleException) cause;
+      }
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException("Cannot load certificate " + certificate.getId(), cause);
+    }
+  }
+
+  private CertificateBundle load(String accountId, String domainId, Certificate certificate, String version) throws DnsimpleException, IOException {
+    File file = new File(directory, version + FILE_SUFFIX);
+    CertificateBundle bundle = file.exists() ? read(file) : null;
+    if (bundle == null) {
+      String certificateId = String.valueOf(certificate.getId());
+      CertificateBundle download = certificates.downloadCertificate(accountId, domainId, certificateId).getData();
+      String privateKey = certificates.getCertificatePrivateKey(accountId, domainId, certificateId).getData().getPrivateKey();
+      bundle = new CertificateBundle(privateKey, download.getServerCertificate(), download.getRootCertificate(), download.getIntermediateCertificates());
+      verify(bundle);
+      write(file, bundle);
+    }
+    forgetOtherVersions(certificate.getId() + "-", version);
+    return bundle;
+  }
+
+  private void forgetOtherVersions(String prefix, String version) {
+    for (Iterator<String> versions = bundles.keySet().iterator(); versions.hasNext(); ) {
+      String cached = versions.next();
+      if (cached.startsWith(prefix) && !cached.equals(version)) {
+        versions.remove();
+      }
+    }
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        String name = file.getName();
+        if (name.startsWith(prefix) && !name.equals(version + FILE_SUFFIX)) {
+          file.delete();
+        }
+      }
+    }
+  }
+
+  /**
+   * Check that the certificates parse, that each one is issued by the next in the chain, and
+   * that the private key belongs to the server certificate.
+   */
+  static void verify(CertificateBundle bundle) throws IOException {
+    try {
+      CertificateFactory factory = CertificateFactory.getInstance("X.509");
+      List<X509Certificate> chain = new ArrayList<X509Certificate>();
+      chain.add(parseCertificate(factory, bundle.getServerCertificate()));
+      if (!absent(bundle.getIntermediateCertificates())) {
+        for (String pem : bundle.getIntermediateCertificates()) {
+          chain.add(parseCertificate(factory, pem));
+        }
+      }
+      if (!absent(bundle.getRootCertificate())) {
+        chain.add(parseCertificate(factory, bundle.getRootCertificate()));
+      }
+      for (int i = 0; i + 1 < chain.size(); i++) {
+        if (!chain.get(i).getIssuerX500Principal().equals(chain.get(i + 1).getSubjectX500Principal())) {
+          throw new IOException("Certificate chain is broken at " + chain.get(i).getSubjectX500Principal());
+        }
+      }
+
+      if (absent(bundle.getPrivateKey())) {
+        throw new IOException("Certificate bundle has no private key");
+      }
+      BigInteger keyModulus = privateKeyModulus(bundle.getPrivateKey());
+      if (keyModulus != null && chain.get(0).getPublicKey() instanceof RSAPublicKey
+        && !keyModulus.equals(((RSAPublicKey) chain.get(0).getPublicKey()).getModulus())) {
+        throw new IOException("Private key does not match the server certificate");
+      }
+    } catch (GeneralSecurityException e) {
+      throw new IOException("Invalid certificate bundle: " + e.getMessage(), e);
+    }
+  }
+
+  private static X509Certificate parseCertificate(CertificateFactory factory, String pem) throws GeneralSecurityException, IOException {
+    if (absent(pem)) {
+      throw new IOException("Certificate bundle has no server certificate");
+    }
+    return (X509Certificate) factory.generateCertificate(new ByteArrayInputStream(pem.getBytes("US-ASCII")));
+  }
+
+  /**
+   * The modulus of an RSA private key in PKCS#1 or PKCS#8 PEM form, or null for other key types.
+   */
+  private static BigInteger privateKeyModulus(String pem) throws GeneralSecurityException, IOException {
+    byte[] der = Base64.decodeBase64(pem.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", ""));
+    if (pem.contains("BEGIN RSA PRIVATE KEY")) {
+      // RSAPrivateKey ::= SEQUENCE { version INTEGER, modulus INTEGER, ... }
+      ByteBuffer in = ByteBuffer.wrap(der);
+      readDerHeader(in, 0x30);
+      int versionLength = readDerHeader(in, 0x02);
+      in.position(in.position() + versionLength);
+      byte[] modulus = new byte[readDerHeader(in, 0x02)];
+      in.get(modulus);
+      return new BigInteger(modulus);
+    }
+    if (pem.contains("BEGIN PRIVATE KEY")) {
+      try {
+        PrivateKey key = KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(der));
+        return ((RSAPrivateKey) key).getModulus();
+      } catch (GeneralSecurityException e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  private static int readDerHeader(ByteBuffer in, int expectedTag) throws IOException {
+    if ((in.get() & 0xff) != expectedTag) {
+      throw new IOException("Malformed RSA private key");
+    }
+    int length = in.get() & 0xff;
+    if ((length & 0x80) != 0) {
+      int bytes = length & 0x7f;
+      length = 0;
+      for (int i = 0; i < bytes; i++) {
+        length = (length << 8) | (in.get() & 0xff);
+      }
+    }
+    return length;
+  }
+
+  private CertificateBundle read(File file) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    ByteBuffer mapped;
+    try {
+      mapped = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+    } finally {
+      raf.close();
+    }
+
+    int bodyLength = mapped.capacity() - MAC_LENGTH;
+    if (bodyLength < MAGIC.length + IV_LENGTH) {
+      file.delete();
+      return null;
+    }
+    try {
+      Mac mac = Mac.getInstance("HmacSHA256");
+      mac.init(macKey);
+      ByteBuffer body = mapped.duplicate();
+      body.limit(bodyLength);
+      mac.update(body);
+      byte[] expected = new byte[MAC_LENGTH];
+      ByteBuffer trailer = mapped.duplicate();
+      trailer.position(bodyLength);
+      trailer.get(expected);
+      byte[] magic = new byte[MAGIC.length];
+      mapped.duplicate().get(magic);
+      if (!MessageDigest.isEqual(mac.doFinal(), expected) || !Arrays.equals(magic, MAGIC)) {
+        file.delete();
+        return null;
+      }
+
+      byte[] iv = new byte[IV_LENGTH];
+      ByteBuffer ciphertext = mapped.duplicate();
+      ciphertext.position(MAGIC.length);
+      ciphertext.get(iv);
+      ciphertext.limit(bodyLength);
+      Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+      cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new IvParameterSpec(iv));
+      ByteBuffer plaintext = ByteBuffer.allocate(cipher.getOutputSize(ciphertext.remaining()));
+      cipher.doFinal(ciphertext, plaintext);
+      plaintext.flip();
+
+      return GsonFactory.getDefaultInstance()
+        .createJsonParser(new ByteArrayInputStream(plaintext.array(), 0, plaintext.limit()))
+        .parse(CertificateBundle.class);
+    } catch (GeneralSecurityException e) {
+      throw new IOException("Cannot decrypt " + file, e);
+    }
+  }
+
+  private void write(File file, CertificateBundle bundle) throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Cannot create " + directory);
+    }
+
+    byte[] iv = new byte[IV_LENGTH];
+    random.nextBytes(iv);
+    byte[] ciphertext;
+    byte[] tag;
+    try {
+      Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+      cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new IvParameterSpec(iv));
+      ciphertext = cipher.doFinal(GsonFactory.getDefaultInstance().toByteArray(bundle));
+
+      Mac mac = Mac.getInstance("HmacSHA256");
+      mac.init(macKey);
+      mac.update(MAGIC);
+      mac.update(iv);
+      tag = mac.doFinal(ciphertext);
+    } catch (GeneralSecurityException e) {
+      throw new IOException("Cannot encrypt certificate bundle", e);
+    }
+
+    File temporary = new File(directory, file.getName() + ".tmp");
+    if (temporary.exists() && !temporary.delete()) {
+      throw new IOException("Cannot delete " + temporary);
+    }
+    if (!temporary.createNewFile() || !FileTokenStore.restrictToOwner(temporary)) {
+      temporary.delete();
+      throw new IOException("Cannot create " + temporary + " readable only by its owner");
+    }
+    OutputStream out = new FileOutputStream(temporary);
+    try {
+      out.write(MAGIC);
+      out.write(iv);
+      out.write(ciphertext);
+      out.write(tag);
+    } finally {
+      out.close();
+    }
+    if (!temporary.renameTo(file)) {
+      temporary.delete();
+      throw new IOException("Cannot write " + file);
+    }
+  }
+
+  private static boolean absent(Object value) {
+    return value == null || Data.isNull(value);
+  }
+
+  private static String sanitize(String value) {
+    return value == null ? "unknown" : value.replaceAll("[^A-Za-z0-9]", "_");
+  }
+}
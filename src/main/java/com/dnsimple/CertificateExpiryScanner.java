@@ -0,0 +1,248 @@
+package com.dnsimple;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dnsimple.response.ListCertificatesResponse;
+import com.dnsimple.response.ListDomainsResponse;
+
+import com.dnsimple.exception.DnsimpleException;
+
+import com.google.api.client.util.Data;
+
+/**
+ * Keeps the certificates of all the domains in an account ordered by expiration date.
+ * <p>
+ * A scan walks the domain list and lists the certificates of each domain on a pool of
+ * threads, so certificate listing overlaps with paging through the domains. Later scans
+ * only list the certificates of domains whose "updated_at" time changed since the last
+ * successful scan of that domain; pass {@code full} to list them all again.
+ * Certificates without an expiration date, such as pending requests, are not indexed.
+ * <p>
+ * For example:
+ * <p>
+ * CertificateExpiryScanner scanner = new CertificateExpiryScanner(client.domains, client.certificates, accountId);
+ * scanner.scan(16, false);
+ * List&lt;Certificate&gt; expiring = scanner.expiringWithin(30);
+ */
+public class CertificateExpiryScanner {
+  private final Domains domains;
+  private final Certificates certificates;
+  private final String accountId;
+
+  private final ExpiryIndex<Certificate> index = new ExpiryIndex<Certificate>() {
+    String expiresOn(Certificate certificate) {
+      String expiresOn = certificate.getExpiresOn();
+      return Data.isNull(expiresOn) ? null : expiresOn;
+    }
+
+    int id(Certificate certificate) {
+      return certificate.getId();
+    }
+  };
+  private final ConcurrentHashMap<Integer, String> scannedVersions = new ConcurrentHashMap<Integer, String>();
+
+  public CertificateExpiryScanner(Domains domains, Certificates certificates, String accountId) {
+    this.domains = domains;
+    this.certificates = certificates;
+    this.accountId = accountId;
+  }
+
+  /**
+   * Walk all the domains in the account and bring the index up to date.
+   * <p>
+   * Domains that are no longer returned by the API have their certificates removed from
+   * the index. A domain whose certificates cannot be listed keeps its previous entries and
+   * is listed again on the next scan.
+   *
+   * @param concurrency The maximum number of certificate listings in flight at once
+   * @param full Whether to list the certificates of unchanged domains too
+   * @return The outcome of the scan
+   * @throws DnsimpleException Any API errors while listing domains
+   * @throws IOException Any IO errors while listing domains
+   */
+  public Scan scan(int concurrency, final boolean full) throws DnsimpleException, IOException {
+    final Scan scan = new Scan();
+    final Set<Integer> seen = new HashSet<Integer>();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, concurrency));
+    final CompletionService<Domain> completion = new ExecutorCompletionService<Domain>(executor);
+    Map<Domain, Throwable> errors = new LinkedHashMap<Domain, Throwable>();
+    final AtomicInteger submitted = new AtomicInteger();
+    CallContext.Scope scope = domains.beginCall();
+    final CallContext context = CallContext.current();
+
+    try {
+      new Paginator() {
+        Pagination fetch(Map<String, Object> options) throws DnsimpleException, IOException {
+          ListDomainsResponse response = domains.listDomains(accountId, options);
+          for (final Domain domain : response.getData()) {
+            seen.add(domain.getId());
+            if (!full && version(domain).equals(scannedVersions.get(domain.getId()))) {
+              scan.skipped++;
+              continue;
+            }
+            completion.submit(new Callable<Domain>() {
+              public Domain call() throws Exception {
+                CallContext.Scope scope = context == null ? CallContext.Scope.NONE : context.attach();
+                try {
+                  scanDomain(domain);
+                } catch (Exception e) {
+                  throw new DomainScanException(domain, e);
+                } finally {
+                  scope.detach();
+                }
+                return domain;
+              }
+            });
+            submitted.incrementAndGet();
+          }
+          return response.getPagination();
+        }
+      }.fetchAll();
+
+      for (int i = 0; i < submitted.get(); i++) {
+        try {
+          completion.take().get();
+          scan.scanned++;
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof Error) {
+            throw (Error) e.getCause();
+          }
+          DomainScanException failure = (DomainScanException) e.getCause();
+          errors.put(failure.domain, failure.getCause());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while scanning certificates");
+    } finally {
+      executor.shutdownNow();
+      scope.detach();
+    }
+
+    for (Integer domainId : index.domainIds()) {
+      if (!seen.contains(domainId)) {
+        index.remove(domainId);
+      }
+    }
+    for (Integer domainId : scannedVersions.keySet()) {
+      if (!seen.contains(domainId)) {
+        scannedVersions.remove(domainId);
+      }
+    }
+
+    scan.errors = errors;
+    return scan;
+  }
+
+  /**
+   * List the certificates of a single domain and replace its entries in the index.
+   *
+   * @param domain The domain as returned by the API
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public void scanDomain(final Domain domain) throws DnsimpleException, IOException {
+    final List<Certificate> found = new ArrayList<Certificate>();
+    new Paginator() {
+      Pagination fetch(Map<String, Object> options) throws DnsimpleException, IOException {
+        ListCertificatesResponse response = certificates.listCertificates(accountId, domain.getId().toString(), options);
+        found.addAll(response.getData());
+        return response.getPagination();
+      }
+    }.fetchAll();
+
+    index.replace(domain.getId(), found);
+    scannedVersions.put(domain.getId(), version(domain));
+  }
+
+  /**
+   * @return The number of certificates in the index
+   */
+  public int size() {
+    return index.size();
+  }
+
+  /**
+   * List the certificates expiring within the given number of days.
+   *
+   * @param days The number of days from today
+   * @return The certificates, ordered by expiration date
+   */
+  public List<Certificate> expiringWithin(int days) {
+    return expiringOnOrBefore(ExpiryIndex.daysFromToday(days));
+  }
+
+  /**
+   * List the certificates expiring on or before the given date.
+   *
+   * @param date The date, formatted as yyyy-MM-dd
+   * @return The certificates, ordered by expiration date
+   */
+  public List<Certificate> expiringOnOrBefore(String date) {
+    return index.onOrBefore(date);
+  }
+
+  private static String version(Domain domain) {
+    return String.valueOf(domain.getUpdatedAt());
+  }
+
+  /**
+   * The outcome of a scan.
+   */
+  public static class Scan {
+    private int scanned;
+    private int skipped;
+    private Map<Domain, Throwable> errors;
+
+    /**
+     * @return The number of domains whose certificates were listed
+     */
+    public int getScanned() {
+      return scanned;
+    }
+
+    /**
+     * @return The number of domains skipped because they had not changed
+     */
+    public int getSkipped() {
+      return skipped;
+    }
+
+    /**
+     * @return The domains whose certificates could not be listed, with the error
+     */
+    public Map<Domain, Throwable> getErrors() {
+      return errors;
+    }
+
+    public boolean isSuccessful() {
+      return errors.isEmpty();
+    }
+  }
+
+  private static final class DomainScanException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    final transient Domain domain;
+
+    DomainScanException(Domain domain, Exception cause) {
+      super(cause);
+      this.domain = domain;
+    }
+  }
+}
@@ -17,8 +17,22 @@ public class Client {
     public final Zones zones;
 
     public Client() {
-        HttpClient httpClient = new HttpClient();
+        this(new HttpClient());
+    }
+
+    /**
+     * Construct a new API client with its own configuration.
+     * <p>
+     * Clients built from different configurations share no state and can be used
+     * side by side, for example against production and the sandbox.
+     *
+     * @param config The client configuration
+     */
+    public Client(ClientConfig config) {
+        this(new HttpClient(config));
+    }
 
+    protected Client(HttpClient httpClient) {
         this.accounts = new Accounts(httpClient);
         this.certificates = new Certificates(httpClient);
         this.contacts = new Contacts(httpClient);
@@ -0,0 +1,292 @@
+package com.dnsimple;
+
+import com.google.api.client.http.HttpTransport;
+
+/**
+ * Immutable configuration for a {@link Client}.
+ * <p>
+ * Each client built from a configuration has its own transport and settings, so clients for
+ * different environments or accounts can be used side by side in the same JVM.
+ * <p>
+ * For example:
+ * <p>
+ * ClientConfig config = ClientConfig.builder()
+ *   .apiBase("https://api.sandbox.dnsimple.com")
+ *   .readTimeout(10000)
+ *   .build();
+ * Client client = new Client(config);
+ */
+public final class ClientConfig {
+  private final String apiBase;
+  private final HttpTransport transport;
+  private final Integer connectTimeout;
+  private final Integer readTimeout;
+  private final Integer callTimeout;
+  private final int maxRetries;
+  private final String accessToken;
+  private final double requestsPerSecond;
+  private final int requestBurst;
+  private final TokenStore tokenStore;
+  private final String acceptEncoding;
+  private final int requestCompressionThreshold;
+  private final HedgePolicy hedgePolicy;
+
+  private ClientConfig(Builder builder) {
+    this.apiBase = builder.apiBase;
+    this.transport = builder.transport;
+    this.connectTimeout = builder.connectTimeout;
+    this.readTimeout = builder.readTimeout;
+    this.callTimeout = builder.callTimeout;
+    this.maxRetries = builder.maxRetries;
+    this.accessToken = builder.accessToken;
+    this.requestsPerSecond = builder.requestsPerSecond;
+    this.requestBurst = builder.requestBurst;
+    this.tokenStore = builder.tokenStore;
+    this.acceptEncoding = builder.acceptEncoding;
+    this.requestCompressionThreshold = builder.requestCompressionThreshold;
+    this.hedgePolicy = builder.hedgePolicy;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Start a builder with the values of an existing configuration.
+   *
+   * @param config The configuration to copy
+   * @return The builder
+   */
+  public static Builder builder(ClientConfig config) {
+    Builder builder = new Builder();
+    builder.apiBase = config.apiBase;
+    builder.transport = config.transport;
+    builder.connectTimeout = config.connectTimeout;
+    builder.readTimeout = config.readTimeout;
+    builder.callTimeout = config.callTimeout;
+    builder.maxRetries = config.maxRetries;
+    builder.accessToken = config.accessToken;
+    builder.requestsPerSecond = config.requestsPerSecond;
+    builder.requestBurst = config.requestBurst;
+    builder.tokenStore = config.tokenStore;
+    builder.acceptEncoding = config.acceptEncoding;
+    builder.requestCompressionThreshold = config.requestCompressionThreshold;
+    builder.hedgePolicy = config.hedgePolicy;
+    return builder;
+  }
+
+  /**
+   * @return The API base URL, or null to follow {@link Dnsimple#getApiBase()}
+   */
+  public String getApiBase() {
+    return apiBase;
+  }
+
+  /**
+   * @return The transport, or null to create a new one for each client
+   */
+  public HttpTransport getTransport() {
+    return transport;
+  }
+
+  /**
+   * @return The connect timeout in milliseconds, or null for the transport default
+   */
+  public Integer getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  /**
+   * @return The read timeout in milliseconds, or null for the transport default
+   */
+  public Integer getReadTimeout() {
+    return readTimeout;
+  }
+
+  /**
+   * @return The time budget in milliseconds of each call, including its retries, or null for none
+   */
+  public Integer getCallTimeout() {
+    return callTimeout;
+  }
+
+  /**
+   * @return The number of times an idempotent request is retried after an IO error or a server error
+   */
+  public int getMaxRetries() {
+    return maxRetries;
+  }
+
+  /**
+   * @return The OAuth access token sent as a bearer credential, or null to send none
+   */
+  public String getAccessToken() {
+    return accessToken;
+  }
+
+  /**
+   * @return The maximum sustained request rate of a client, or 0 for no limit
+   */
+  public double getRequestsPerSecond() {
+    return requestsPerSecond;
+  }
+
+  /**
+   * @return The number of requests a client can send at once after an idle period
+   */
+  public int getRequestBurst() {
+    return requestBurst;
+  }
+
+  /**
+   * @return The store of per-account access tokens, or null to use only {@link #getAccessToken()}
+   */
+  public TokenStore getTokenStore() {
+    return tokenStore;
+  }
+
+  /**
+   * @return The Accept-Encoding header sent with every request, or null for the transport default of "gzip"
+   */
+  public String getAcceptEncoding() {
+    return acceptEncoding;
+  }
+
+  /**
+   * @return The size in bytes from which request bodies are sent gzip compressed, or -1 to never compress them
+   */
+  public int getRequestCompressionThreshold() {
+    return requestCompressionThreshold;
+  }
+
+  /**
+   * @return The policy for hedging latency-critical GET requests, or null to never hedge
+   */
+  public HedgePolicy getHedgePolicy() {
+    return hedgePolicy;
+  }
+
+  public static class Builder {
+    private String apiBase;
+    private HttpTransport transport;
+    private Integer connectTimeout;
+    private Integer readTimeout;
+    private Integer callTimeout;
+    private int maxRetries;
+    private String accessToken;
+    private double requestsPerSecond;
+    private int requestBurst = 1;
+    private TokenStore tokenStore;
+    private String acceptEncoding;
+    private int requestCompressionThreshold = -1;
+    private HedgePolicy hedgePolicy;
+
+    private Builder() {
+    }
+
+    public Builder apiBase(String apiBase) {
+      this.apiBase = apiBase;
+      return this;
+    }
+
+    public Builder transport(HttpTransport transport) {
+      this.transport = transport;
+      return this;
+    }
+
+    public Builder connectTimeout(int connectTimeout) {
+      if (connectTimeout < 0) {
+        throw new IllegalArgumentException("connectTimeout must not be negative");
+      }
+      this.connectTimeout = connectTimeout;
+      return this;
+    }
+
+    public Builder readTimeout(int readTimeout) {
+      if (readTimeout < 0) {
+        throw new IllegalArgumentException("readTimeout must not be negative");
+      }
+      this.readTimeout = readTimeout;
+      return this;
+    }
+
+    /**
+     * Limit the time each call may take, including retries and back-off. Calls that follow
+     * pagination get one budget for all their pages. A {@link CallContext} attached to the
+     * calling thread takes precedence.
+     *
+     * @param callTimeout The time budget in milliseconds
+     * @return The builder
+     */
+    public Builder callTimeout(int callTimeout) {
+      if (callTimeout < 0) {
+        throw new IllegalArgumentException("callTimeout must not be negative");
+      }
+      this.callTimeout = callTimeout;
+      return this;
+    }
+
+    public Builder maxRetries(int maxRetries) {
+      if (maxRetries < 0) {
+        throw new IllegalArgumentException("maxRetries must not be negative");
+      }
+      this.maxRetries = maxRetries;
+      return this;
+    }
+
+    public Builder accessToken(String accessToken) {
+      this.accessToken = accessToken;
+      return this;
+    }
+
+    public Builder requestsPerSecond(double requestsPerSecond, int burst) {
+      if (requestsPerSecond < 0) {
+        throw new IllegalArgumentException("requestsPerSecond must not be negative");
+      }
+      if (burst < 1) {
+        throw new IllegalArgumentException("burst must be at least 1");
+      }
+      this.requestsPerSecond = requestsPerSecond;
+      this.requestBurst = burst;
+      return this;
+    }
+
+    public Builder tokenStore(TokenStore tokenStore) {
+      this.tokenStore = tokenStore;
+      return this;
+    }
+
+    /**
+     * @param acceptEncoding The response encodings to accept, such as "gzip, deflate", or "identity" for none
+     * @return The builder
+     */
+    public Builder acceptEncoding(String acceptEncoding) {
+      this.acceptEncoding = acceptEncoding;
+      return this;
+    }
+
+    /**
+     * Compress request bodies of at least the given size with gzip. The server must accept
+     * a Content-Encoding of gzip.
+     *
+     * @param bytes The smallest body to compress, or -1 to never compress
+     * @return The builder
+     */
+    public Builder requestCompressionThreshold(int bytes) {
+      if (bytes < -1) {
+        throw new IllegalArgumentException("requestCompressionThreshold must be -1 or more");
+      }
+      this.requestCompressionThreshold = bytes;
+      return this;
+    }
+
+    public Builder hedgePolicy(HedgePolicy hedgePolicy) {
+      this.hedgePolicy = hedgePolicy;
+      return this;
+    }
+
+    public ClientConfig build() {
+      return new ClientConfig(this);
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package com.dnsimple;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Hands out a {@link Client} per tenant, where each tenant is a DNSimple account reached
+ * with its own OAuth access token.
+ * <p>
+ * All clients share a single transport, and therefore a single connection pool, and a
+ * limit on the number of requests in flight across all tenants. Waiting requests are
+ * admitted in arrival order. Each tenant also gets its own request rate, so a busy tenant
+ * slows itself down instead of the others.
+ * <p>
+ * Clients of tenants that have not been used for the idle timeout are dropped, and are
+ * rebuilt from the registered token on next use.
+ * <p>
+ * For example:
+ * <p>
+ * ClientRegistry registry = new ClientRegistry(ClientConfig.builder().build(), 5, 64, 600000);
+ * registry.register("acme", accessToken);
+ * registry.client("acme").domains.listDomains(accountId);
+ */
+public class ClientRegistry {
+  private final ClientConfig tenantConfig;
+  private final double requestsPerSecondPerTenant;
+  private final int burst;
+  private final Semaphore concurrencyLimit;
+  private final long idleTimeoutMillis;
+  private final ConcurrentHashMap<String, Tenant> tenants = new ConcurrentHashMap<String, Tenant>();
+
+  private volatile long sweptAt = System.currentTimeMillis();
+
+  /**
+   * @param baseConfig The configuration shared by all tenants; its access token is ignored
+   * @param requestsPerSecondPerTenant The sustained request rate allowed for each tenant
+   * @param maxConcurrentRequests The number of requests in flight allowed across all tenants
+   * @param idleTimeoutMillis How long an unused tenant client is kept
+   */
+  public ClientRegistry(ClientConfig baseConfig, double requestsPerSecondPerTenant, int maxConcurrentRequests, long idleTimeoutMillis) {
+    if (requestsPerSecondPerTenant < 0) {
+      throw new IllegalArgumentException("requestsPerSecondPerTenant must not be negative");
+    }
+    this.burst = Math.max(1, (int) requestsPerSecondPerTenant);
+    this.requestsPerSecondPerTenant = requestsPerSecondPerTenant;
+    this.tenantConfig = ClientConfig.builder(baseConfig)
+      .transport(baseConfig.getTransport() == null ? HttpClient.defaultTransport() : baseConfig.getTransport())
+      .build();
+    this.concurrencyLimit = new Semaphore(maxConcurrentRequests, true);
+    this.idleTimeoutMillis = idleTimeoutMillis;
+  }
+
+  /**
+   * Register a tenant, or replace its access token.
+   *
+   * @param tenantId The tenant identifier
+   * @param accessToken The OAuth access token for the tenant's account
+   */
+  public void register(String tenantId, String accessToken) {
+    Tenant previous = tenants.get(tenantId);
+    RateLimiter rateLimiter = previous != null ? previous.rateLimiter
+        : requestsPerSecondPerTenant > 0 ? new RateLimiter(requestsPerSecondPerTenant, burst) : null;
+    tenants.put(tenantId, new Tenant(accessToken, rateLimiter));
+  }
+
+  /**
+   * Forget a tenant and its access token.
+   *
+   * @param tenantId The tenant identifier
+   */
+  public void unregister(String tenantId) {
+    tenants.remove(tenantId);
+  }
+
+  /**
+   * Get the client for a tenant, building it if needed.
+   *
+   * @param tenantId The tenant identifier
+   * @return The client
+   * @throws IllegalArgumentException If the tenant is not registered
+   */
+  public Client client(String tenantId) {
+    long now = System.currentTimeMillis();
+    if (now - sweptAt > idleTimeoutMillis) {
+      sweptAt = now;
+      evictIdle(now);
+    }
+
+    Tenant tenant = tenants.get(tenantId);
+    if (tenant == null) {
+      throw new IllegalArgumentException("Unknown tenant " + tenantId);
+    }
+    tenant.usedAt = now;
+
+    Client client = tenant.client;
+    if (client == null) {
+      synchronized (tenant) {
+        client = tenant.client;
+        if (client == null) {
+          ClientConfig config = ClientConfig.builder(tenantConfig).accessToken(tenant.accessToken).build();
+          client = new Client(new HttpClient(config, tenant.rateLimiter, concurrencyLimit));
+          tenant.client = client;
+        }
+      }
+    }
+    return client;
+  }
+
+  /**
+   * Drop the clients of tenants that have been idle for longer than the idle timeout.
+   * The tenants stay registered.
+   *
+   * @return The number of clients dropped
+   */
+  public int evictIdle() {
+    return evictIdle(System.currentTimeMillis());
+  }
+
+  /**
+   * @return The number of tenants with a live client
+   */
+  public int activeClients() {
+    int active = 0;
+    for (Tenant tenant : tenants.values()) {
+      if (tenant.client != null) {
+        active++;
+      }
+    }
+    return active;
+  }
+
+  private int evictIdle(long now) {
+    int evicted = 0;
+    for (Tenant tenant : tenants.values()) {
+      if (tenant.client != null && now - tenant.usedAt >= idleTimeoutMillis) {
+        tenant.client = null;
+        evicted++;
+      }
+    }
+    return evicted;
+  }
+
+  /**
+   * A registered tenant. The rate limiter outlives the tenant's clients, so a client that is
+   * dropped while still in use shares its budget with the one that replaces it.
+   */
+  private static final class Tenant {
+    final String accessToken;
+    final RateLimiter rateLimiter;
+    volatile Client client;
+    volatile long usedAt;
+
+    Tenant(String accessToken, RateLimiter rateLimiter) {
+      this.accessToken = accessToken;
+      this.rateLimiter = rateLimiter;
+    }
+  }
+}
@@ -9,6 +9,8 @@ import com.dnsimple.response.CreateContactResponse;
 import com.dnsimple.response.UpdateContactResponse;
 import com.dnsimple.response.DeleteContactResponse;
 
+import com.dnsimple.request.ContactCreate;
+
 import com.dnsimple.exception.DnsimpleException;
 
 import com.google.api.client.http.HttpResponse;
@@ -87,6 +89,22 @@ public class Contacts {
     return (CreateContactResponse) httpClient.parseResponse(response, CreateContactResponse.class);
   }
 
+  /**
+   * Create a contact in the account.
+   *
+   * @see <a href="https://developer.dnsimple.com/v2/contacts/#create">https://developer.dnsimple.com/v2/contacts/#create</a>
+   *
+   * @param accountId The account ID
+   * @param contact The contact to create
+   * @return The create contact response
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public CreateContactResponse createContact(String accountId, ContactCreate contact) throws DnsimpleException, IOException {
+    HttpResponse response = httpClient.post(accountId + "/contacts", contact);
+    return (CreateContactResponse) httpClient.parseResponse(response, CreateContactResponse.class);
+  }
+
   /**
    * Update a contact in the account.
    *
@@ -1,5 +1,7 @@
 package com.dnsimple;
 
+import java.util.Date;
+
 import com.google.api.client.util.Key;
 
 public class Domain {
@@ -39,6 +41,12 @@ public class Domain {
   @Key("updated_at")
   private String updatedAt;
 
+  private volatile long expiresOnMillis = Timestamps.UNPARSED;
+
+  private volatile long createdAtMillis = Timestamps.UNPARSED;
+
+  private volatile long updatedAtMillis = Timestamps.UNPARSED;
+
   public Integer getId() {
     return id;
   }
@@ -79,11 +87,47 @@ public class Domain {
     return expiresOn;
   }
 
+  /**
+   * @return The expiration date, at midnight UTC, or null if unknown
+   */
+  public Date getExpiresOnDate() {
+    long millis = expiresOnMillis;
+    if (millis == Timestamps.UNPARSED) {
+      millis = Timestamps.parseDateMillis(getExpiresOn());
+      expiresOnMillis = millis;
+    }
+    return Timestamps.toDate(millis);
+  }
+
   public String getCreatedAt() {
     return createdAt;
   }
 
+  /**
+   * @return The creation time, or null if unknown
+   */
+  public Date getCreatedAtDate() {
+    long millis = createdAtMillis;
+    if (millis == Timestamps.UNPARSED) {
+      millis = Timestamps.parseMillis(getCreatedAt());
+      createdAtMillis = millis;
+    }
+    return Timestamps.toDate(millis);
+  }
+
   public String getUpdatedAt() {
     return updatedAt;
   }
+
+  /**
+   * @return The time of the last update, or null if unknown
+   */
+  public Date getUpdatedAtDate() {
+    long millis = updatedAtMillis;
+    if (millis == Timestamps.UNPARSED) {
+      millis = Timestamps.parseMillis(getUpdatedAt());
+      updatedAtMillis = millis;
+    }
+    return Timestamps.toDate(millis);
+  }
 }
@@ -0,0 +1,237 @@
+package com.dnsimple;
+
+import java.net.IDN;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Validates domain names and finds their registrable TLD without calling the API.
+ * <p>
+ * The TLDs are kept in a trie of labels, read from the right, so a name is matched against
+ * the longest known TLD ("co.uk" rather than "uk") in a single pass over its labels.
+ * Internationalized names are converted to their ASCII form and are only accepted for TLDs
+ * that support IDN.
+ * <p>
+ * For example:
+ * <p>
+ * DomainNameMatcher matcher = new DomainNameMatcher(catalog.getTlds());
+ * DomainNameMatcher.Match match = matcher.match("www.Example.co.uk");
+ * match.getRegistrableName(); // "example.co.uk"
+ */
+public class DomainNameMatcher {
+  private static final int MAX_NAME_LENGTH = 253;
+  private static final int MAX_LABEL_LENGTH = 63;
+
+  /**
+   * Why a name was rejected.
+   */
+  public enum Problem {
+    EMPTY,
+    TOO_LONG,
+    EMPTY_LABEL,
+    LABEL_TOO_LONG,
+    INVALID_CHARACTER,
+    INVALID_HYPHEN,
+    UNKNOWN_TLD,
+    NO_LABEL_BEFORE_TLD,
+    IDN_NOT_SUPPORTED
+  }
+
+  private final Node root = new Node();
+
+  /**
+   * @param tlds The TLDs to match against, for example from {@link TldCatalog#getTlds()}
+   */
+  public DomainNameMatcher(Collection<Tld> tlds) {
+    for (Tld tld : tlds) {
+      String[] labels = IDN.toASCII(tld.getTld()).toLowerCase(Locale.ENGLISH).split("\\.");
+      Node node = root;
+      for (int i = labels.length - 1; i >= 0; i--) {
+        Node child = node.children.get(labels[i]);
+        if (child == null) {
+          child = new Node();
+          node.children.put(labels[i], child);
+        }
+        node = child;
+      }
+      node.tld = tld;
+    }
+  }
+
+  /**
+   * Validate a name and find its TLD. Names below the registrable level, such as
+   * "www.example.com", are accepted and matched to their registrable name.
+   *
+   * @param name The domain name, in ASCII or Unicode form, with or without a trailing dot
+   * @return The match, which tells whether the name is valid
+   */
+  public Match match(String name) {
+    String trimmed = name == null ? "" : name.trim();
+    if (trimmed.endsWith(".")) {
+      trimmed = trimmed.substring(0, trimmed.length() - 1);
+    }
+    if (trimmed.length() == 0) {
+      return Match.invalid(name, Problem.EMPTY);
+    }
+
+    boolean unicode = false;
+    for (int i = 0; i < trimmed.length(); i++) {
+      if (trimmed.charAt(i) > 0x7f) {
+        unicode = true;
+        break;
+      }
+    }
+    String ascii;
+    if (unicode) {
+      try {
+        ascii = IDN.toASCII(trimmed, IDN.USE_STD3_ASCII_RULES);
+      } catch (IllegalArgumentException e) {
+        return Match.invalid(name, Problem.INVALID_CHARACTER);
+      }
+    } else {
+      ascii = trimmed;
+    }
+    ascii = ascii.toLowerCase(Locale.ENGLISH);
+    if (ascii.length() > MAX_NAME_LENGTH) {
+      return Match.invalid(name, Problem.TOO_LONG);
+    }
+
+    String[] labels = ascii.split("\\.", -1);
+    for (String label : labels) {
+      Problem problem = checkLabel(label);
+      if (problem != null) {
+        return Match.invalid(name, problem);
+      }
+    }
+
+    Node node = root;
+    Tld tld = null;
+    int tldLabels = 0;
+    for (int i = labels.length - 1; i >= 0; i--) {
+      node = node.children.get(labels[i]);
+      if (node == null) {
+        break;
+      }
+      if (node.tld != null) {
+        tld = node.tld;
+        tldLabels = labels.length - i;
+      }
+    }
+
+    if (tld == null) {
+      return Match.invalid(name, Problem.UNKNOWN_TLD);
+    }
+    int labelIndex = labels.length - tldLabels - 1;
+    if (labelIndex < 0) {
+      return Match.invalid(name, Problem.NO_LABEL_BEFORE_TLD);
+    }
+    if (labels[labelIndex].startsWith("xn--") && !Boolean.TRUE.equals(tld.getIdn())) {
+      return Match.invalid(name, Problem.IDN_NOT_SUPPORTED);
+    }
+
+    StringBuilder registrable = new StringBuilder(labels[labelIndex]);
+    for (int i = labelIndex + 1; i < labels.length; i++) {
+      registrable.append('.').append(labels[i]);
+    }
+    return new Match(name, null, tld, registrable.toString());
+  }
+
+  /**
+   * @param name The domain name
+   * @return Whether the name is valid and ends in a known TLD
+   */
+  public boolean isValid(String name) {
+    return match(name).isValid();
+  }
+
+  private static Problem checkLabel(String label) {
+    int length = label.length();
+    if (length == 0) {
+      return Problem.EMPTY_LABEL;
+    }
+    if (length > MAX_LABEL_LENGTH) {
+      return Problem.LABEL_TOO_LONG;
+    }
+    for (int i = 0; i < length; i++) {
+      char c = label.charAt(i);
+      if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-')) {
+        return Problem.INVALID_CHARACTER;
+      }
+    }
+    if (label.charAt(0) == '-' || label.charAt(length - 1) == '-') {
+      return Problem.INVALID_HYPHEN;
+    }
+    // Hyphens in the third and fourth positions are reserved for encodings such as "xn--"
+    if (length >= 4 && label.charAt(2) == '-' && label.charAt(3) == '-' && !label.startsWith("xn--")) {
+      return Problem.INVALID_HYPHEN;
+    }
+    return null;
+  }
+
+  private static final class Node {
+    final Map<String, Node> children = new HashMap<String, Node>(4);
+    Tld tld;
+  }
+
+  /**
+   * The result of matching a domain name.
+   */
+  public static class Match {
+    private final String name;
+    private final Problem problem;
+    private final Tld tld;
+    private final String registrableName;
+
+    Match(String name, Problem problem, Tld tld, String registrableName) {
+      this.name = name;
+      this.problem = problem;
+      this.tld = tld;
+      this.registrableName = registrableName;
+    }
+
+    static Match invalid(String name, Problem problem) {
+      return new Match(name, problem, null, null);
+    }
+
+    /**
+     * @return The name as given
+     */
+    public String getName() {
+      return name;
+    }
+
+    public boolean isValid() {
+      return problem == null;
+    }
+
+    /**
+     * @return Why the name was rejected, or null if it is valid
+     */
+    public Problem getProblem() {
+      return problem;
+    }
+
+    /**
+     * @return The matched TLD, or null if the name is invalid
+     */
+    public Tld getTld() {
+      return tld;
+    }
+
+    /**
+     * @return The registrable name in lower-case ASCII form, such as "example.co.uk", or null if the name is invalid
+     */
+    public String getRegistrableName() {
+      return registrableName;
+    }
+
+    /**
+     * @return The registrable name in Unicode form, or null if the name is invalid
+     */
+    public String getUnicodeRegistrableName() {
+      return registrableName == null ? null : IDN.toUnicode(registrableName);
+    }
+  }
+}
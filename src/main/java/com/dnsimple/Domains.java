@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.HashMap;
 
+import com.dnsimple.response.LazyListResponse;
 import com.dnsimple.response.ListDomainsResponse;
 import com.dnsimple.response.GetDomainResponse;
 import com.dnsimple.response.CreateDomainResponse;
@@ -20,6 +21,8 @@ import com.dnsimple.response.ListPushesResponse;
 import com.dnsimple.response.AcceptPushResponse;
 import com.dnsimple.response.RejectPushResponse;
 
+import com.dnsimple.request.DomainCreate;
+
 import com.dnsimple.exception.DnsimpleException;
 
 import com.google.api.client.http.HttpResponse;
@@ -37,6 +40,14 @@ public class Domains {
     this.httpClient = httpClient;
   }
 
+  /**
+   * @return The scope of an operation made of several calls, such as listing every domain
+   * @see HttpClient#beginCall()
+   */
+  CallContext.Scope beginCall() {
+    return httpClient.beginCall();
+  }
+
   // Domains
 
   /**
@@ -69,8 +80,30 @@ public class Domains {
     return (ListDomainsResponse) httpClient.parseResponse(response, ListDomainsResponse.class);
   }
 
+  /**
+   * Lists the domains in the account, decoding each field of a domain only when it is first read.
+   * <p>
+   * This suits scans of many domains that read a few fields, such as the ID and name.
+   * Naming those fields lets them be located while the page is scanned.
+   *
+   * @see <a href="https://developer.dnsimple.com/v2/domains/#list">https://developer.dnsimple.com/v2/domains/#list</a>
+   *
+   * @param accountId The account ID
+   * @param options A Map of options to pass to the domains API
+   * @param fields The JSON names of the fields that will be read, such as "id" and "name"
+   * @return The list domains response
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public LazyListResponse<Domain> listDomainsLazily(String accountId, Map<String,Object> options, String... fields) throws DnsimpleException, IOException {
+    HttpResponse response = httpClient.get(accountId + "/domains", options);
+    return LazyJson.listResponse(response, LazyDomain.KEYS, fields, LazyDomain.FACTORY);
+  }
+
   /**
    * Get a specific domain associated to an account using the domain's name or ID.
+   * <p>
+   * The request is hedged if the client is configured with a {@link HedgePolicy}.
    *
    * @see <a href="https://developer.dnsimple.com/v2/domains/#get">https://developer.dnsimple.com/v2/domains/#get</a>
    *
@@ -81,7 +114,7 @@ public class Domains {
    * @throws IOException Any IO errors
    */
   public GetDomainResponse getDomain(String accountId, String domainId) throws DnsimpleException, IOException {
-    HttpResponse response = httpClient.get(accountId + "/domains/" + domainId);
+    HttpResponse response = httpClient.hedgedGet("domains.get", accountId + "/domains/" + domainId);
     return (GetDomainResponse) httpClient.parseResponse(response, GetDomainResponse.class);
   }
 
@@ -101,6 +134,22 @@ public class Domains {
     return (CreateDomainResponse) httpClient.parseResponse(response, CreateDomainResponse.class);
   }
 
+  /**
+   * Create a domain in an account.
+   *
+   * @see <a href="https://developer.dnsimple.com/v2/domains/#create">https://developer.dnsimple.com/v2/domains/#create</a>
+   *
+   * @param accountId The account ID
+   * @param domain The domain to create
+   * @return The create domain response
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public CreateDomainResponse createDomain(String accountId, DomainCreate domain) throws DnsimpleException, IOException {
+    HttpResponse response = httpClient.post(accountId + "/domains", domain);
+    return (CreateDomainResponse) httpClient.parseResponse(response, CreateDomainResponse.class);
+  }
+
   /**
    * Delete a domain from an account.
    *
@@ -0,0 +1,133 @@
+package com.dnsimple;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Resources ordered by expiration date, grouped by the domain they belong to so that the
+ * entries of a domain can be replaced at once.
+ * <p>
+ * Lookups do not lock. Changes lock the index, so the entries of a domain are never seen
+ * half replaced by another change.
+ *
+ * @param <T> The type of the resources
+ */
+abstract class ExpiryIndex<T> {
+  private final ConcurrentSkipListMap<Key, T> index = new ConcurrentSkipListMap<Key, T>();
+  private final ConcurrentHashMap<Integer, List<Key>> keysByDomain = new ConcurrentHashMap<Integer, List<Key>>();
+
+  /**
+   * @param resource The resource
+   * @return Its expiration date, formatted as yyyy-MM-dd, or null if it does not expire
+   */
+  abstract String expiresOn(T resource);
+
+  /**
+   * @param resource The resource
+   * @return Its ID, which orders resources expiring on the same date
+   */
+  abstract int id(T resource);
+
+  /**
+   * Replace the entries of a domain. Resources that do not expire are left out.
+   *
+   * @param domainId The domain ID
+   * @param resources The resources of the domain
+   */
+  synchronized void replace(Integer domainId, Collection<T> resources) {
+    remove(domainId);
+    List<Key> keys = new ArrayList<Key>(resources.size());
+    for (T resource : resources) {
+      String expiresOn = expiresOn(resource);
+      if (expiresOn != null) {
+        Key key = new Key(expiresOn, id(resource));
+        keys.add(key);
+        index.put(key, resource);
+      }
+    }
+    keysByDomain.put(domainId, keys);
+  }
+
+  /**
+   * @param domainId The domain ID
+   */
+  synchronized void remove(Integer domainId) {
+    List<Key> previous = keysByDomain.remove(domainId);
+    if (previous != null) {
+      for (Key key : previous) {
+        index.remove(key);
+      }
+    }
+  }
+
+  /**
+   * @return The IDs of the domains with entries, which stays current as domains are added and removed
+   */
+  Set<Integer> domainIds() {
+    return keysByDomain.keySet();
+  }
+
+  int size() {
+    return index.size();
+  }
+
+  /**
+   * @param date The date, formatted as yyyy-MM-dd
+   * @return The resources expiring on or before the date, ordered by expiration date
+   */
+  List<T> onOrBefore(String date) {
+    return new ArrayList<T>(index.headMap(new Key(date, Integer.MAX_VALUE), true).values());
+  }
+
+  /**
+   * @param days The number of days from today
+   * @return The date that many days from today in UTC, formatted as yyyy-MM-dd
+   */
+  static String daysFromToday(int days) {
+    Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    calendar.add(Calendar.DAY_OF_MONTH, days);
+
+    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+    format.setTimeZone(calendar.getTimeZone());
+    return format.format(calendar.getTime());
+  }
+
+  private static final class Key implements Comparable<Key> {
+    private final String expiresOn;
+    private final int id;
+
+    Key(String expiresOn, int id) {
+      this.expiresOn = expiresOn;
+      this.id = id;
+    }
+
+    public int compareTo(Key other) {
+      int c = expiresOn.compareTo(other.expiresOn);
+      if (c != 0) {
+        return c;
+      }
+      return id < other.id ? -1 : (id == other.id ? 0 : 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return id == other.id && expiresOn.equals(other.expiresOn);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * expiresOn.hashCode() + id;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.dnsimple;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A {@link TokenStore} that keeps tokens in memory and saves them to a properties file,
+ * so they survive restarts.
+ * <p>
+ * Lookups are served from memory and do not lock or touch the file. Changes rewrite the
+ * whole file through a temporary file, which is then renamed over the original.
+ * The file holds credentials, so it is created readable and writable by its owner only, and
+ * tokens are not saved on a file system where those permissions cannot be set.
+ */
+public class FileTokenStore extends InMemoryTokenStore {
+  private final File file;
+
+  /**
+   * Load the tokens saved in the file, if it exists.
+   *
+   * @param file The properties file
+   * @throws IOException If the file exists but cannot be read
+   */
+  public FileTokenStore(File file) throws IOException {
+    this.file = file;
+    if (file.exists()) {
+      Properties properties = new Properties();
+      InputStream in = new FileInputStream(file);
+      try {
+        properties.load(in);
+      } finally {
+        in.close();
+      }
+      for (String accountId : properties.stringPropertyNames()) {
+        super.putToken(new OauthToken(properties.getProperty(accountId), "Bearer", null, Integer.valueOf(accountId)));
+      }
+    }
+  }
+
+  @Override
+  public void putToken(OauthToken token) {
+    super.putToken(token);
+    save();
+  }
+
+  @Override
+  public void removeToken(String accountId) {
+    super.removeToken(accountId);
+    save();
+  }
+
+  private synchronized void save() {
+    Properties properties = new Properties();
+    for (Map.Entry<String, OauthToken> entry : tokens().entrySet()) {
+      properties.setProperty(entry.getKey(), entry.getValue().getAccessToken());
+    }
+
+    File temporary = new File(file.getPath() + ".tmp");
+    try {
+      if (temporary.exists() && !temporary.delete()) {
+        throw new IOException("Cannot delete " + temporary);
+      }
+      if (!temporary.createNewFile() || !restrictToOwner(temporary)) {
+        temporary.delete();
+        throw new IOException("Cannot create " + temporary + " readable only by its owner");
+      }
+      OutputStream out = new FileOutputStream(temporary);
+      try {
+        properties.store(out, "DNSimple OAuth access tokens");
+      } finally {
+        out.close();
+      }
+      if (!temporary.renameTo(file) && !(file.delete() && temporary.renameTo(file))) {
+        throw new IOException("Cannot replace " + file);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot save tokens to " + file, e);
+    }
+  }
+
+  /**
+   * Make a file readable and writable by its owner only, before any secret is written to it.
+   *
+   * @return Whether the permissions could be set
+   */
+  static boolean restrictToOwner(File file) {
+    return file.setReadable(false, false) && file.setReadable(true, true)
+        && file.setWritable(false, false) && file.setWritable(true, true)
+        && file.setExecutable(false, false);
+  }
+}
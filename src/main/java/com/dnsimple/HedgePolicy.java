@@ -0,0 +1,443 @@
+package com.dnsimple;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dnsimple.exception.DnsimpleException;
+import com.google.api.client.http.HttpResponse;
+
+/**
+ * Sends a second, identical GET when the first has not been answered within the usual
+ * latency of its endpoint, and keeps whichever response arrives first.
+ * <p>
+ * The latency of each endpoint is tracked over its recent requests, and a request is hedged
+ * once it has taken longer than the chosen percentile, by default the 95th. No request is
+ * hedged until an endpoint has enough samples. The request that loses the race is cancelled.
+ * <p>
+ * Hedges are paid for from a budget shared by every client using the policy: each request
+ * adds a fraction of a hedge to it, so the extra load stays below that fraction of the
+ * traffic, plus a small burst.
+ * <p>
+ * Hedging applies to {@link Domains#getDomain} and {@link Zones#getZoneRecord}.
+ * <p>
+ * For example:
+ * <p>
+ * HedgePolicy hedging = HedgePolicy.builder().percentile(0.95).budget(0.05, 10).build();
+ * Client client = new Client(ClientConfig.builder().hedgePolicy(hedging).build());
+ */
+public final class HedgePolicy {
+  private static final long CANCEL_CHECK_MILLIS = 20;
+
+  private final double percentile;
+  private final double budgetRatio;
+  private final double budgetBurst;
+  private final int window;
+  private final int minSamples;
+  private final long minDelayMillis;
+  private final ConcurrentHashMap<String, Endpoint> endpoints = new ConcurrentHashMap<String, Endpoint>();
+  private final ExecutorService executor;
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong hedges = new AtomicLong();
+  private final AtomicLong hedgeWins = new AtomicLong();
+
+  private double budget;
+
+  private HedgePolicy(Builder builder) {
+    this.percentile = builder.percentile;
+    this.budgetRatio = builder.budgetRatio;
+    this.budgetBurst = builder.budgetBurst;
+    this.window = builder.window;
+    this.minSamples = Math.min(builder.minSamples, builder.window);
+    this.minDelayMillis = builder.minDelayMillis;
+    this.budget = builder.budgetBurst;
+    this.executor = Executors.newCachedThreadPool(new ThreadFactory() {
+      private final AtomicInteger count = new AtomicInteger();
+
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "dnsimple-hedge-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @return The number of requests sent under the policy, not counting hedges
+   */
+  public long getRequestCount() {
+    return requests.get();
+  }
+
+  /**
+   * @return The number of hedges sent
+   */
+  public long getHedgeCount() {
+    return hedges.get();
+  }
+
+  /**
+   * @return The number of hedges that answered before the request they hedged
+   */
+  public long getHedgeWinCount() {
+    return hedgeWins.get();
+  }
+
+  /**
+   * @param endpoint The endpoint name
+   * @return How long a request to the endpoint waits before being hedged, or -1 if there are not enough samples yet
+   */
+  long hedgeDelayMillis(String endpoint) {
+    Endpoint stats = endpoints.get(endpoint);
+    return stats == null ? -1 : stats.delayMillis();
+  }
+
+  private synchronized void deposit() {
+    budget = Math.min(budgetBurst, budget + budgetRatio);
+  }
+
+  private synchronized boolean withdraw() {
+    if (budget < 1) {
+      return false;
+    }
+    budget -= 1;
+    return true;
+  }
+
+  private Endpoint endpoint(String name) {
+    Endpoint stats = endpoints.get(name);
+    if (stats == null) {
+      Endpoint created = new Endpoint(window);
+      stats = endpoints.putIfAbsent(name, created);
+      if (stats == null) {
+        stats = created;
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * Send a request, hedging it if it is slow.
+   *
+   * @param endpoint The endpoint name the latency is tracked under
+   * @param url The URL of the request, for error messages
+   * @param request Sends the request; called at most twice, on pool threads
+   * @return The first response
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  HttpResponse send(String endpoint, String url, Request request) throws DnsimpleException, IOException {
+    requests.incrementAndGet();
+    deposit();
+    Endpoint stats = endpoint(endpoint);
+    long delayMillis = stats.delayMillis();
+    CallContext parent = CallContext.current();
+
+    Race race = new Race(request, parent, url);
+    race.start(0);
+    try {
+      Attempt winner = null;
+      if (delayMillis >= 0) {
+        winner = race.await(Math.max(minDelayMillis, delayMillis));
+        if (winner == null && withdraw()) {
+          hedges.incrementAndGet();
+          race.start(1);
+        }
+      }
+      while (winner == null) {
+        winner = race.await(Long.MAX_VALUE);
+      }
+      if (winner.index == 1) {
+        hedgeWins.incrementAndGet();
+      }
+      return winner.result();
+    } finally {
+      race.finish(stats);
+    }
+  }
+
+  /**
+   * Sends one attempt of a hedged request.
+   */
+  interface Request {
+    HttpResponse send() throws DnsimpleException, IOException;
+  }
+
+  /**
+   * The request and its hedge, racing for the first answer.
+   */
+  private final class Race {
+    private final Request request;
+    private final CallContext parent;
+    private final String url;
+    private final Attempt[] attempts = new Attempt[2];
+    private final BlockingQueue<Attempt> completed = new LinkedBlockingQueue<Attempt>();
+    private final AtomicBoolean decided = new AtomicBoolean();
+    private int started;
+    private int received;
+    private Attempt winner;
+
+    Race(Request request, CallContext parent, String url) {
+      this.request = request;
+      this.parent = parent;
+      this.url = url;
+    }
+
+    void start(int index) {
+      CallContext.Builder builder = CallContext.builder();
+      if (parent != null) {
+        if (parent.remainingMillis() != Long.MAX_VALUE) {
+          builder.timeout(parent.remainingMillis());
+        }
+        if (parent.getConnectTimeout() != null) {
+          builder.connectTimeout(parent.getConnectTimeout());
+        }
+        if (parent.getReadTimeout() != null) {
+          builder.readTimeout(parent.getReadTimeout());
+        }
+      }
+      final Attempt attempt = new Attempt(index, builder.build());
+      attempts[index] = attempt;
+      started++;
+      executor.execute(new Runnable() {
+        public void run() {
+          CallContext.Scope scope = attempt.context.attach();
+          try {
+            attempt.response = request.send();
+          } catch (DnsimpleException e) {
+            attempt.error = e;
+          } catch (IOException e) {
+            attempt.error = e;
+          } catch (RuntimeException e) {
+            attempt.error = e;
+          } finally {
+            scope.detach();
+            attempt.elapsedNanos = System.nanoTime() - attempt.startNanos;
+            if (decided.get() && attempt.response != null) {
+              // Lost the race after all
+              disconnect(attempt.response);
+            }
+            completed.add(attempt);
+          }
+        }
+      });
+    }
+
+    /**
+     * Wait for an answer, which is any response or API error. An IO error only counts
+     * when no other attempt is still running.
+     *
+     * @return The winning attempt, or null if there was none within the wait
+     */
+    Attempt await(long waitMillis) throws IOException {
+      long until = waitMillis == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+      while (true) {
+        if (parent != null && !parent.isActive()) {
+          throw parent.stopped("GET", url, null);
+        }
+        long left = until == Long.MAX_VALUE ? Long.MAX_VALUE : until - System.nanoTime();
+        if (left <= 0) {
+          return null;
+        }
+        Attempt attempt;
+        try {
+          attempt = completed.poll(Math.min(left, TimeUnit.MILLISECONDS.toNanos(CANCEL_CHECK_MILLIS)), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted waiting for a hedged request");
+        }
+        if (attempt == null) {
+          continue;
+        }
+        received++;
+        if (!(attempt.error instanceof IOException) || received == started) {
+          decided.set(true);
+          winner = attempt;
+          return attempt;
+        }
+      }
+    }
+
+    /**
+     * Cancel the attempts still running and record the latencies seen.
+     */
+    void finish(Endpoint stats) {
+      decided.set(true);
+      for (Attempt attempt : attempts) {
+        if (attempt == null) {
+          continue;
+        }
+        if (attempt.elapsedNanos < 0) {
+          // Still running: its latency is at least this long
+          stats.record(System.nanoTime() - attempt.startNanos);
+          attempt.context.cancel();
+        } else if (!(attempt.error instanceof IOException)) {
+          stats.record(attempt.elapsedNanos);
+        }
+      }
+      for (Attempt attempt = completed.poll(); attempt != null; attempt = completed.poll()) {
+        if (attempt.response != null && attempt != winner) {
+          disconnect(attempt.response);
+        }
+      }
+    }
+  }
+
+  private static final class Attempt {
+    final int index;
+    final CallContext context;
+    final long startNanos = System.nanoTime();
+    volatile long elapsedNanos = -1;
+    volatile HttpResponse response;
+    volatile Exception error;
+
+    Attempt(int index, CallContext context) {
+      this.index = index;
+      this.context = context;
+    }
+
+    HttpResponse result() throws DnsimpleException, IOException {
+      if (error instanceof DnsimpleException) {
+        throw (DnsimpleException) error;
+      }
+      if (error instanceof IOException) {
+        throw (IOException) error;
+      }
+      if (error instanceof RuntimeException) {
+        throw (RuntimeException) error;
+      }
+      return response;
+    }
+  }
+
+  private static void disconnect(HttpResponse response) {
+    try {
+      response.disconnect();
+    } catch (IOException e) {
+      // Nothing more to release
+    }
+  }
+
+  /**
+   * The latencies of the recent requests to one endpoint, and the hedging delay derived
+   * from them. The delay is recomputed after every few new samples rather than on each
+   * request.
+   */
+  private final class Endpoint {
+    private final long[] samples;
+    private final long[] sorted;
+    private int count;
+    private int next;
+    private int sinceUpdate;
+    private volatile long delayMillis = -1;
+
+    Endpoint(int window) {
+      this.samples = new long[window];
+      this.sorted = new long[window];
+    }
+
+    long delayMillis() {
+      return delayMillis;
+    }
+
+    synchronized void record(long nanos) {
+      samples[next] = nanos;
+      next = (next + 1) % samples.length;
+      if (count < samples.length) {
+        count++;
+      }
+      if (count >= minSamples && (++sinceUpdate >= Math.max(1, samples.length / 16) || delayMillis < 0)) {
+        sinceUpdate = 0;
+        System.arraycopy(samples, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        int index = Math.min(count - 1, (int) Math.ceil(percentile * count) - 1);
+        delayMillis = TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)] + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+      }
+    }
+  }
+
+  public static class Builder {
+    private double percentile = 0.95;
+    private double budgetRatio = 0.05;
+    private int budgetBurst = 10;
+    private int window = 256;
+    private int minSamples = 20;
+    private long minDelayMillis = 5;
+
+    private Builder() {
+    }
+
+    /**
+     * @param percentile The latency percentile after which a request is hedged, between 0 and 1; the default is 0.95
+     * @return The builder
+     */
+    public Builder percentile(double percentile) {
+      if (percentile <= 0 || percentile >= 1) {
+        throw new IllegalArgumentException("percentile must be between 0 and 1");
+      }
+      this.percentile = percentile;
+      return this;
+    }
+
+    /**
+     * @param ratio The hedges allowed per request, such as 0.05 for at most 5% extra requests
+     * @param burst The number of hedges that can be sent at once after a quiet period
+     * @return The builder
+     */
+    public Builder budget(double ratio, int burst) {
+      if (ratio < 0) {
+        throw new IllegalArgumentException("ratio must not be negative");
+      }
+      if (burst < 1) {
+        throw new IllegalArgumentException("burst must be at least 1");
+      }
+      this.budgetRatio = ratio;
+      this.budgetBurst = burst;
+      return this;
+    }
+
+    /**
+     * @param window The number of recent requests the latency of an endpoint is tracked over; the default is 256
+     * @param minSamples The number of requests needed before hedging starts; the default is 20
+     * @return The builder
+     */
+    public Builder samples(int window, int minSamples) {
+      if (window < 1 || minSamples < 1) {
+        throw new IllegalArgumentException("window and minSamples must be positive");
+      }
+      this.window = window;
+      this.minSamples = minSamples;
+      return this;
+    }
+
+    /**
+     * @param minDelayMillis The shortest wait before hedging, however fast the endpoint; the default is 5
+     * @return The builder
+     */
+    public Builder minDelay(long minDelayMillis) {
+      if (minDelayMillis < 0) {
+        throw new IllegalArgumentException("minDelay must not be negative");
+      }
+      this.minDelayMillis = minDelayMillis;
+      return this;
+    }
+
+    public HedgePolicy build() {
+      return new HedgePolicy(this);
+    }
+  }
+}
@@ -0,0 +1,544 @@
+package com.dnsimple;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.http.javanet.NetHttpTransport;
+
+/**
+ * A transport that multiplexes concurrent requests over a few HTTP/2 connections, using the
+ * java.net.http client of Java 11 and later.
+ * <p>
+ * Requests are spread over a fixed number of connections, each carrying at most a given
+ * number of requests at once; further requests wait for a free stream instead of opening
+ * more sockets. Servers that do not speak HTTP/2 are talked to over HTTP/1.1.
+ * <p>
+ * The SDK is built for older Java versions, so java.net.http is looked up at runtime. On a
+ * JVM without it, {@link Builder#build()} returns a {@link NetHttpTransport} instead.
+ * <p>
+ * For example:
+ * <p>
+ * HttpTransport transport = Http2Transport.builder().connections(2).maxConcurrentStreams(100).build();
+ * Client client = new Client(ClientConfig.builder().transport(transport).build());
+ */
+public class Http2Transport extends HttpTransport {
+  private static final Jdk JDK = Jdk.load();
+
+  // Headers java.net.http sets itself and refuses to take from callers
+  private static final Set<String> RESTRICTED_HEADERS = new HashSet<String>(Arrays.asList(
+      "connection", "content-length", "date", "expect", "from", "host", "upgrade", "via", "warning"));
+
+  private final Lane[] lanes;
+  private final AtomicLong responses = new AtomicLong();
+  private final AtomicLong http2Responses = new AtomicLong();
+
+  private Http2Transport(Builder builder) throws IOException {
+    this.lanes = new Lane[builder.connections];
+    for (int i = 0; i < lanes.length; i++) {
+      lanes[i] = new Lane(JDK.newClient(builder.connectTimeoutMillis), builder.maxConcurrentStreams);
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @return Whether this JVM has the java.net.http client
+   */
+  public static boolean isSupported() {
+    return JDK != null;
+  }
+
+  /**
+   * @return The number of responses received
+   */
+  public long getResponseCount() {
+    return responses.get();
+  }
+
+  /**
+   * @return The number of responses received over HTTP/2; the others used HTTP/1.1
+   */
+  public long getHttp2ResponseCount() {
+    return http2Responses.get();
+  }
+
+  @Override
+  public boolean supportsMethod(String method) {
+    return true;
+  }
+
+  @Override
+  protected LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+    return new Request(method, url);
+  }
+
+  private Lane acquireLane() throws IOException {
+    Lane lane = lanes[0];
+    for (int i = 1; i < lanes.length; i++) {
+      if (lanes[i].inFlight.get() < lane.inFlight.get()) {
+        lane = lanes[i];
+      }
+    }
+    lane.inFlight.incrementAndGet();
+    try {
+      lane.streams.acquire();
+    } catch (InterruptedException e) {
+      lane.inFlight.decrementAndGet();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for a free stream");
+    }
+    return lane;
+  }
+
+  private static final class Lane {
+    final Object client;
+    final Semaphore streams;
+    final AtomicInteger inFlight = new AtomicInteger();
+
+    Lane(Object client, int maxConcurrentStreams) {
+      this.client = client;
+      this.streams = new Semaphore(maxConcurrentStreams, true);
+    }
+
+    void release() {
+      streams.release();
+      inFlight.decrementAndGet();
+    }
+  }
+
+  private final class Request extends LowLevelHttpRequest {
+    private final String method;
+    private final String url;
+    private final List<String[]> headers = new ArrayList<String[]>();
+    private int readTimeout;
+
+    Request(String method, String url) {
+      this.method = method;
+      this.url = url;
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+      headers.add(new String[] { name, value });
+    }
+
+    @Override
+    public void setTimeout(int connectTimeout, int readTimeout) {
+      // The connect timeout belongs to the client and is set on the builder
+      this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public LowLevelHttpResponse execute() throws IOException {
+      byte[] body = null;
+      if (getStreamingContent() != null) {
+        long length = getContentLength();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length > 0 && length < Integer.MAX_VALUE ? (int) length : 1024);
+        getStreamingContent().writeTo(out);
+        body = out.toByteArray();
+      }
+
+      Object builder = JDK.newRequest(URI.create(url), method, body, readTimeout);
+      Set<String> names = new HashSet<String>();
+      for (String[] header : headers) {
+        String name = header[0].toLowerCase();
+        if (!RESTRICTED_HEADERS.contains(name)) {
+          names.add(name);
+          JDK.header(builder, header[0], header[1]);
+        }
+      }
+      if (getContentType() != null && !names.contains("content-type")) {
+        JDK.header(builder, "Content-Type", getContentType());
+      }
+      if (getContentEncoding() != null && !names.contains("content-encoding")) {
+        JDK.header(builder, "Content-Encoding", getContentEncoding());
+      }
+
+      Lane lane = acquireLane();
+      Object response;
+      try {
+        final Future<?> exchange = JDK.sendAsync(lane.client, builder);
+        CallContext.opened(new Closeable() {
+          public void close() {
+            exchange.cancel(true);
+          }
+        });
+        response = await(exchange);
+      } catch (IOException e) {
+        lane.release();
+        throw e;
+      } catch (RuntimeException e) {
+        lane.release();
+        throw e;
+      }
+
+      responses.incrementAndGet();
+      boolean http2 = JDK.isHttp2(response);
+      if (http2) {
+        http2Responses.incrementAndGet();
+      }
+      return new Response(response, http2, lane);
+    }
+  }
+
+  private static Object await(Future<?> exchange) throws IOException {
+    try {
+      return exchange.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof CancellationException) {
+        throw new InterruptedIOException("Request cancelled");
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    } catch (CancellationException e) {
+      throw new InterruptedIOException("Request cancelled");
+    } catch (InterruptedException e) {
+      exchange.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for a response");
+    }
+  }
+
+  private static final class Response extends LowLevelHttpResponse {
+    private final int status;
+    private final boolean http2;
+    private final List<String[]> headers = new ArrayList<String[]>();
+    private final InputStream content;
+    private final AtomicBoolean released = new AtomicBoolean();
+    private final Lane lane;
+
+    Response(Object response, boolean http2, Lane lane) throws IOException {
+      this.status = JDK.statusCode(response);
+      this.http2 = http2;
+      this.lane = lane;
+      for (Map.Entry<String, List<String>> header : JDK.headers(response).entrySet()) {
+        for (String value : header.getValue()) {
+          headers.add(new String[] { header.getKey(), value });
+        }
+      }
+      // The stream is held until the body has been read or closed
+      this.content = new FilterInputStream(JDK.body(response)) {
+        @Override
+        public int read() throws IOException {
+          int read = super.read();
+          if (read < 0) {
+            release();
+          }
+          return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+          int read = super.read(buffer, offset, length);
+          if (read < 0) {
+            release();
+          }
+          return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            release();
+          }
+        }
+      };
+    }
+
+    private void release() {
+      if (released.compareAndSet(false, true)) {
+        lane.release();
+      }
+    }
+
+    private String header(String name) {
+      for (String[] header : headers) {
+        if (header[0].equalsIgnoreCase(name)) {
+          return header[1];
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public InputStream getContent() {
+      return content;
+    }
+
+    @Override
+    public String getContentEncoding() {
+      return header("Content-Encoding");
+    }
+
+    @Override
+    public long getContentLength() {
+      String length = header("Content-Length");
+      return length == null ? -1 : Long.parseLong(length.trim());
+    }
+
+    @Override
+    public String getContentType() {
+      return header("Content-Type");
+    }
+
+    @Override
+    public String getStatusLine() {
+      return (http2 ? "HTTP/2 " : "HTTP/1.1 ") + status;
+    }
+
+    @Override
+    public int getStatusCode() {
+      return status;
+    }
+
+    @Override
+    public String getReasonPhrase() {
+      // Neither HTTP/2 nor java.net.http carry a reason phrase
+      return null;
+    }
+
+    @Override
+    public int getHeaderCount() {
+      return headers.size();
+    }
+
+    @Override
+    public String getHeaderName(int index) {
+      return headers.get(index)[0];
+    }
+
+    @Override
+    public String getHeaderValue(int index) {
+      return headers.get(index)[1];
+    }
+
+    @Override
+    public void disconnect() throws IOException {
+      content.close();
+    }
+  }
+
+  /**
+   * The parts of java.net.http and java.time used by the transport, looked up by reflection.
+   */
+  private static final class Jdk {
+    private final Method newClientBuilder;
+    private final Method clientVersion;
+    private final Method clientConnectTimeout;
+    private final Method clientBuild;
+    private final Method sendAsync;
+    private final Method newRequestBuilder;
+    private final Method requestMethod;
+    private final Method requestHeader;
+    private final Method requestTimeout;
+    private final Method requestBuild;
+    private final Method ofByteArray;
+    private final Method noBody;
+    private final Method statusCode;
+    private final Method responseHeaders;
+    private final Method responseBody;
+    private final Method responseVersion;
+    private final Method headersMap;
+    private final Method ofMillis;
+    private final Object http2;
+    private final Object inputStreamHandler;
+
+    private Jdk() throws Exception {
+      Class<?> client = Class.forName("java.net.http.HttpClient");
+      Class<?> clientBuilder = Class.forName("java.net.http.HttpClient$Builder");
+      Class<?> version = Class.forName("java.net.http.HttpClient$Version");
+      Class<?> request = Class.forName("java.net.http.HttpRequest");
+      Class<?> requestBuilder = Class.forName("java.net.http.HttpRequest$Builder");
+      Class<?> bodyPublisher = Class.forName("java.net.http.HttpRequest$BodyPublisher");
+      Class<?> bodyPublishers = Class.forName("java.net.http.HttpRequest$BodyPublishers");
+      Class<?> response = Class.forName("java.net.http.HttpResponse");
+      Class<?> bodyHandler = Class.forName("java.net.http.HttpResponse$BodyHandler");
+      Class<?> bodyHandlers = Class.forName("java.net.http.HttpResponse$BodyHandlers");
+      Class<?> headers = Class.forName("java.net.http.HttpHeaders");
+      Class<?> duration = Class.forName("java.time.Duration");
+
+      newClientBuilder = client.getMethod("newBuilder");
+      clientVersion = clientBuilder.getMethod("version", version);
+      clientConnectTimeout = clientBuilder.getMethod("connectTimeout", duration);
+      clientBuild = clientBuilder.getMethod("build");
+      sendAsync = client.getMethod("sendAsync", request, bodyHandler);
+      newRequestBuilder = request.getMethod("newBuilder", URI.class);
+      requestMethod = requestBuilder.getMethod("method", String.class, bodyPublisher);
+      requestHeader = requestBuilder.getMethod("header", String.class, String.class);
+      requestTimeout = requestBuilder.getMethod("timeout", duration);
+      requestBuild = requestBuilder.getMethod("build");
+      ofByteArray = bodyPublishers.getMethod("ofByteArray", byte[].class);
+      noBody = bodyPublishers.getMethod("noBody");
+      statusCode = response.getMethod("statusCode");
+      responseHeaders = response.getMethod("headers");
+      responseBody = response.getMethod("body");
+      responseVersion = response.getMethod("version");
+      headersMap = headers.getMethod("map");
+      ofMillis = duration.getMethod("ofMillis", long.class);
+      http2 = version.getField("HTTP_2").get(null);
+      inputStreamHandler = bodyHandlers.getMethod("ofInputStream").invoke(null);
+    }
+
+    static Jdk load() {
+      try {
+        return new Jdk();
+      } catch (Exception e) {
+        return null;
+      } catch (LinkageError e) {
+        return null;
+      }
+    }
+
+    Object newClient(int connectTimeoutMillis) throws IOException {
+      Object builder = invoke(newClientBuilder, null);
+      invoke(clientVersion, builder, http2);
+      if (connectTimeoutMillis > 0) {
+        invoke(clientConnectTimeout, builder, invoke(ofMillis, null, (long) connectTimeoutMillis));
+      }
+      return invoke(clientBuild, builder);
+    }
+
+    Object newRequest(URI uri, String method, byte[] body, int timeoutMillis) throws IOException {
+      Object builder = invoke(newRequestBuilder, null, uri);
+      invoke(requestMethod, builder, method, body == null ? invoke(noBody, null) : invoke(ofByteArray, null, body));
+      if (timeoutMillis > 0) {
+        invoke(requestTimeout, builder, invoke(ofMillis, null, (long) timeoutMillis));
+      }
+      return builder;
+    }
+
+    void header(Object builder, String name, String value) throws IOException {
+      invoke(requestHeader, builder, name, value);
+    }
+
+    Future<?> sendAsync(Object client, Object builder) throws IOException {
+      return (Future<?>) invoke(sendAsync, client, invoke(requestBuild, builder), inputStreamHandler);
+    }
+
+    int statusCode(Object response) throws IOException {
+      return (Integer) invoke(statusCode, response);
+    }
+
+    boolean isHttp2(Object response) throws IOException {
+      return http2.equals(invoke(responseVersion, response));
+    }
+
+    @SuppressWarnings("unchecked")
+    Map<String, List<String>> headers(Object response) throws IOException {
+      return (Map<String, List<String>>) invoke(headersMap, invoke(responseHeaders, response));
+    }
+
+    InputStream body(Object response) throws IOException {
+      return (InputStream) invoke(responseBody, response);
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) throws IOException {
+      try {
+        return method.invoke(target, args);
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      } catch (InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new IOException(cause);
+      }
+    }
+  }
+
+  public static class Builder {
+    private int connections = 2;
+    private int maxConcurrentStreams = 100;
+    private int connectTimeoutMillis;
+
+    private Builder() {
+    }
+
+    /**
+     * @param connections The number of HTTP/2 connections per host; the default is 2
+     * @return The builder
+     */
+    public Builder connections(int connections) {
+      if (connections < 1) {
+        throw new IllegalArgumentException("connections must be at least 1");
+      }
+      this.connections = connections;
+      return this;
+    }
+
+    /**
+     * @param maxConcurrentStreams The number of requests in flight on each connection; the default is 100
+     * @return The builder
+     */
+    public Builder maxConcurrentStreams(int maxConcurrentStreams) {
+      if (maxConcurrentStreams < 1) {
+        throw new IllegalArgumentException("maxConcurrentStreams must be at least 1");
+      }
+      this.maxConcurrentStreams = maxConcurrentStreams;
+      return this;
+    }
+
+    /**
+     * @param connectTimeoutMillis The connect timeout, or 0 for the JDK default; the SDK's per-request connect timeout is not used by this transport
+     * @return The builder
+     */
+    public Builder connectTimeout(int connectTimeoutMillis) {
+      if (connectTimeoutMillis < 0) {
+        throw new IllegalArgumentException("connectTimeout must not be negative");
+      }
+      this.connectTimeoutMillis = connectTimeoutMillis;
+      return this;
+    }
+
+    /**
+     * @return An {@link Http2Transport}, or a {@link NetHttpTransport} if this JVM has no java.net.http
+     * @throws IOException If the HTTP/2 client cannot be created
+     */
+    public HttpTransport build() throws IOException {
+      return isSupported() ? new Http2Transport(this) : new NetHttpTransport();
+    }
+  }
+}
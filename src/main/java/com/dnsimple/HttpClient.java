@@ -1,18 +1,36 @@
 package com.dnsimple;
 
+import com.dnsimple.exception.CallCancelledException;
+import com.dnsimple.exception.DeadlineExceededException;
 import com.dnsimple.exception.DnsimpleException;
 import com.dnsimple.request.Filter;
 import com.dnsimple.response.ApiResponse;
 import com.google.api.client.http.*;
+import com.google.api.client.http.javanet.ConnectionFactory;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.http.json.JsonHttpContent;
+import com.google.api.client.json.Json;
 import com.google.api.client.json.JsonParser;
 import com.google.api.client.json.gson.GsonFactory;
-import io.mikael.urlbuilder.UrlBuilder;
+import com.google.api.client.util.ExponentialBackOff;
+import com.google.api.client.util.Sleeper;
+import com.google.api.client.util.StringUtils;
 
+import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.PushbackInputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 import static java.util.Collections.emptyMap;
 
@@ -23,8 +41,22 @@ public class HttpClient {
 
     private static final String API_VERSION_PATH = "/v2/";
     private static final Map<String, Object> EMPTY_MAP = emptyMap();
+    private static final String ACCEPT = "application/json";
+    private static final String USER_AGENT = "dnsimple-java/" + readVersion();
+    private static final HttpContent EMPTY_BODY = new ByteArrayContent(Json.MEDIA_TYPE, new byte[] { '{', '}' });
+    private static final HttpEncoding GZIP_ENCODING = new GZipEncoding();
+    private static final String DEFLATE = "deflate";
+
+    private final ClientConfig config;
+    private final HttpRequestInitializer initializer;
+    private final VersionedBase configuredBase;
+    private final RateLimiter rateLimiter;
+    private final Semaphore concurrencyLimit;
+    private final TokenStore tokenStore;
 
     private HttpTransport transport;
+    private volatile HttpRequestFactory requestFactory;
+    private volatile VersionedBase versionedBase;
 
     /**
      * Construct a new API client.
@@ -38,7 +70,60 @@ public class HttpClient {
      * WhoamiResponse response = client.accounts.whoami();
      */
     public HttpClient() {
-        this.transport = new NetHttpTransport();
+        this(ClientConfig.builder().build());
+    }
+
+    /**
+     * Construct a new API client with the given configuration.
+     * <p>
+     * Nothing is shared with other clients: the API base URL, timeouts and transport all
+     * come from the configuration.
+     *
+     * @param config The client configuration
+     */
+    public HttpClient(ClientConfig config) {
+        this(config, config.getRequestsPerSecond() > 0 ? new RateLimiter(config.getRequestsPerSecond(), config.getRequestBurst()) : null, null);
+    }
+
+    /**
+     * Construct a new API client whose request rate and in-flight requests are limited
+     * together with other clients.
+     *
+     * @param config The client configuration; its request rate is ignored
+     * @param rateLimiter The rate limit, or null for none
+     * @param concurrencyLimit The shared limit on in-flight requests, or null for none
+     */
+    HttpClient(ClientConfig config, RateLimiter rateLimiter, Semaphore concurrencyLimit) {
+        this.config = config;
+        this.concurrencyLimit = concurrencyLimit;
+        this.tokenStore = config.getTokenStore();
+        this.rateLimiter = rateLimiter;
+        this.initializer = new RequestInitializer(config);
+        this.configuredBase = config.getApiBase() == null ? null : new VersionedBase(config.getApiBase());
+        setTransport(config.getTransport() == null ? defaultTransport() : config.getTransport());
+    }
+
+    /**
+     * The transport used when none is configured, whose connections {@link CallContext#cancel()} can abort.
+     *
+     * @return A new transport
+     */
+    static HttpTransport defaultTransport() {
+        return new NetHttpTransport.Builder().setConnectionFactory(new CancellableConnectionFactory()).build();
+    }
+
+    /**
+     * @return The API base URL used by this client
+     */
+    public String getApiBase() {
+        return configuredBase == null ? Dnsimple.getApiBase() : configuredBase.apiBase;
+    }
+
+    /**
+     * @return The store of per-account access tokens, or null if none is configured
+     */
+    public TokenStore getTokenStore() {
+        return tokenStore;
     }
 
     /**
@@ -50,9 +135,24 @@ public class HttpClient {
      */
     public void setTransport(HttpTransport transport) {
         this.transport = transport;
+        this.requestFactory = transport.createRequestFactory(initializer);
     }
 
 
+    /**
+     * Attach a context for an operation that makes several requests, such as following
+     * pagination, so they share the time budget of a single call. Nothing is attached if the
+     * calling thread already has a context or no call timeout is configured.
+     *
+     * @return The scope to detach once the operation is done
+     */
+    protected CallContext.Scope beginCall() {
+        if (CallContext.current() != null || config.getCallTimeout() == null) {
+            return CallContext.Scope.NONE;
+        }
+        return CallContext.builder().timeout(config.getCallTimeout()).build().attach();
+    }
+
     protected HttpResponse get(String path) throws DnsimpleException, IOException {
         return get(path, EMPTY_MAP);
     }
@@ -61,20 +161,62 @@ public class HttpClient {
         return request(HttpMethods.GET, versionedPath(path), null, options);
     }
 
+    /**
+     * Send a GET request that may be hedged under the configured {@link HedgePolicy}.
+     *
+     * @param endpoint The name the endpoint's latency is tracked under
+     * @param path The path relative to the versioned API base
+     * @return The response
+     * @throws DnsimpleException Any API errors
+     * @throws IOException Any IO errors
+     */
+    protected HttpResponse hedgedGet(String endpoint, final String path) throws DnsimpleException, IOException {
+        HedgePolicy hedgePolicy = config.getHedgePolicy();
+        if (hedgePolicy == null) {
+            return get(path);
+        }
+
+        final String url = versionedPath(path);
+        CallContext.Scope scope = beginCall();
+        try {
+            return hedgePolicy.send(endpoint, url, new HedgePolicy.Request() {
+                public HttpResponse send() throws DnsimpleException, IOException {
+                    return request(HttpMethods.GET, url, null, EMPTY_MAP);
+                }
+            });
+        } finally {
+            scope.detach();
+        }
+    }
+
+    /**
+     * Send a conditional GET request.
+     *
+     * @param path The path relative to the versioned API base
+     * @param options The query parameters
+     * @param etag The entity tag of the copy the caller holds, or null to always fetch
+     * @return The response, or null if the resource still matches the entity tag
+     * @throws DnsimpleException Any API errors
+     * @throws IOException Any IO errors
+     */
+    protected HttpResponse getIfNoneMatch(String path, Map<String, Object> options, String etag) throws DnsimpleException, IOException {
+        return request(HttpMethods.GET, versionedPath(path), null, options, etag);
+    }
+
     protected HttpResponse post(String path) throws DnsimpleException, IOException {
-        return post(path, EMPTY_MAP);
+        return post(path, EMPTY_BODY);
     }
 
-    protected HttpResponse post(String path, Map<String, Object> attributes) throws DnsimpleException, IOException {
+    protected HttpResponse post(String path, Object attributes) throws DnsimpleException, IOException {
         return post(path, attributes, EMPTY_MAP);
     }
 
-    protected HttpResponse post(String path, Map<String, Object> attributes, Map<String, Object> options) throws DnsimpleException, IOException {
+    protected HttpResponse post(String path, Object attributes, Map<String, Object> options) throws DnsimpleException, IOException {
         return request(HttpMethods.POST, versionedPath(path), attributes, options);
     }
 
     protected HttpResponse put(String path) throws DnsimpleException, IOException {
-        return put(path, EMPTY_MAP);
+        return put(path, EMPTY_BODY);
     }
 
     protected HttpResponse put(String path, Object attributes) throws DnsimpleException, IOException {
@@ -113,7 +255,12 @@ public class HttpClient {
      */
     protected ApiResponse parseResponse(HttpResponse response, Class<?> c) throws IOException {
         ApiResponse res = null;
-        InputStream in = response.getContent();
+        InputStream in = content(response);
+        if (in != null && response.getStatusCode() == HttpStatusCodes.STATUS_CODE_NO_CONTENT) {
+            // NetHttpTransport hands out an empty stream rather than none for 204 responses
+            in.close();
+            in = null;
+        }
 
         if (in == null) {
             try {
@@ -139,38 +286,392 @@ public class HttpClient {
         return res;
     }
 
+    /**
+     * The decoded body of a response. Gzip is decoded by the response itself, deflate here.
+     * Other encodings are left as they are.
+     *
+     * @param response The response
+     * @return The body, or null if there is none
+     * @throws IOException Any IO errors
+     */
+    public static InputStream content(HttpResponse response) throws IOException {
+        InputStream in = response.getContent();
+        String encoding = response.getContentEncoding();
+        if (in == null || encoding == null || !encoding.trim().equalsIgnoreCase(DEFLATE)) {
+            return in;
+        }
+
+        // "deflate" should be zlib wrapped, but some servers send raw deflate data
+        PushbackInputStream pushback = new PushbackInputStream(in, 2);
+        int first = pushback.read();
+        int second = first < 0 ? -1 : pushback.read();
+        if (second >= 0) {
+            pushback.unread(second);
+        }
+        if (first >= 0) {
+            pushback.unread(first);
+        }
+        boolean zlib = second >= 0 && (first & 0x0f) == 8 && (first * 256 + second) % 31 == 0;
+        final Inflater inflater = new Inflater(!zlib);
+        return new InflaterInputStream(pushback, inflater, 8192) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    /**
+     * The exception for an unsuccessful response, with its body decoded by {@link #content(HttpResponse)}.
+     *
+     * @param response The unsuccessful response, which is disconnected
+     * @return The exception
+     */
+    static HttpResponseException responseException(HttpResponse response) {
+        HttpResponseException.Builder builder = new HttpResponseException.Builder(response.getStatusCode(), response.getStatusMessage(), response.getHeaders());
+        StringBuilder message = HttpResponseException.computeMessageBuffer(response);
+        try {
+            String body = body(response);
+            if (body.length() > 0) {
+                message.append(StringUtils.LINE_SEPARATOR).append(body);
+                builder.setContent(body);
+            }
+        } catch (IOException e) {
+            // The status line is enough to report the error
+        } finally {
+            try {
+                response.disconnect();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+        }
+        return builder.setMessage(message.toString()).build();
+    }
+
+    private static String body(HttpResponse response) throws IOException {
+        InputStream in = content(response);
+        if (in == null) {
+            return "";
+        }
+        try {
+            Reader reader = new InputStreamReader(in, response.getContentCharset());
+            StringBuilder body = new StringBuilder();
+            char[] buffer = new char[4096];
+            for (int n = reader.read(buffer); n >= 0; n = reader.read(buffer)) {
+                body.append(buffer, 0, n);
+            }
+            return body.toString();
+        } finally {
+            in.close();
+        }
+    }
+
     protected HttpResponse request(String method, String url, Object data, Map<String, Object> options) throws DnsimpleException, IOException {
+        return request(method, url, data, options, null);
+    }
+
+    private HttpResponse request(String method, String url, Object data, Map<String, Object> options, String ifNoneMatch) throws DnsimpleException, IOException {
         HttpContent content = null;
-        if (data != null) {
-            content = new JsonHttpContent(new GsonFactory(), data);
+        if (data instanceof HttpContent) {
+            content = (HttpContent) data;
+        } else if (data != null) {
+            content = new JsonHttpContent(GsonFactory.getDefaultInstance(), data);
+        }
+
+        HttpRequest request = requestFactory.buildRequest(method, buildUrl(url, options), content);
+        if (content != null && config.getRequestCompressionThreshold() >= 0 && content.getLength() >= config.getRequestCompressionThreshold()) {
+            request.setEncoding(GZIP_ENCODING);
         }
+        if (tokenStore != null) {
+            OauthToken token = tokenStore.getToken(accountOf(url));
+            if (token != null) {
+                request.getHeaders().setAuthorization("Bearer " + token.getAccessToken());
+            }
+        }
+        if (ifNoneMatch != null) {
+            request.getHeaders().setIfNoneMatch(ifNoneMatch);
+        }
+        // Error bodies are read by responseException, which decodes deflate as well as gzip
+        request.setThrowExceptionOnExecuteError(false);
 
-        HttpRequest request = transport.createRequestFactory().buildRequest(method, buildUrl(url, options), content);
+        CallContext context = CallContext.current();
+        if (context == null && config.getCallTimeout() != null) {
+            context = CallContext.builder().timeout(config.getCallTimeout()).build();
+        }
+        boolean retries = config.getMaxRetries() > 0 && isIdempotent(method);
+        if (retries) {
+            request.setNumberOfRetries(config.getMaxRetries());
+        }
+        if (context != null) {
+            if (context.getConnectTimeout() != null) {
+                request.setConnectTimeout(context.getConnectTimeout());
+            }
+            if (context.getReadTimeout() != null) {
+                request.setReadTimeout(context.getReadTimeout());
+            }
+            CallRetryHandler handler = new CallRetryHandler(context, request);
+            if (retries) {
+                handler.ioExceptionHandler = new HttpBackOffIOExceptionHandler(new ExponentialBackOff()).setSleeper(handler);
+                handler.unsuccessfulResponseHandler = new HttpBackOffUnsuccessfulResponseHandler(new ExponentialBackOff()).setSleeper(handler);
+            }
+            request.setIOExceptionHandler(handler);
+            request.setUnsuccessfulResponseHandler(handler);
+        } else if (retries) {
+            request.setIOExceptionHandler(new HttpBackOffIOExceptionHandler(new ExponentialBackOff()));
+            request.setUnsuccessfulResponseHandler(new HttpBackOffUnsuccessfulResponseHandler(new ExponentialBackOff()));
+        }
 
+        CallContext.Request inFlight = context == null ? null : context.begin();
         try {
-            return request.execute();
-        } catch (HttpResponseException e) {
-            throw DnsimpleException.transformException(e);
+            acquire(method, url, context);
+            try {
+                if (context != null) {
+                    context.check(method, url);
+                    CallRetryHandler.clampTimeouts(request, context);
+                }
+                HttpResponse response = request.execute();
+                if (!response.isSuccessStatusCode()) {
+                    throw responseException(response);
+                }
+                return response;
+            } catch (HttpResponseException e) {
+                if (ifNoneMatch != null && e.getStatusCode() == HttpStatusCodes.STATUS_CODE_NOT_MODIFIED) {
+                    return null;
+                }
+                DnsimpleException error = DnsimpleException.transformException(e);
+                if (context != null && !context.isActive()) {
+                    throw context.stopped(method, url, error);
+                }
+                throw error;
+            } catch (IOException e) {
+                if (context != null && !context.isActive() && !(e instanceof CallCancelledException) && !(e instanceof DeadlineExceededException)) {
+                    throw context.stopped(method, url, e);
+                }
+                throw e;
+            } finally {
+                if (concurrencyLimit != null) {
+                    concurrencyLimit.release();
+                }
+            }
+        } finally {
+            if (inFlight != null) {
+                inFlight.end();
+            }
         }
     }
 
+    /**
+     * Wait for the rate limit and the concurrency limit, within the time budget of the call.
+     */
+    private void acquire(String method, String url, CallContext context) throws InterruptedIOException {
+        try {
+            if (context != null) {
+                context.check(method, url);
+            }
+            if (rateLimiter != null) {
+                if (context == null) {
+                    rateLimiter.acquire();
+                } else if (!rateLimiter.tryAcquire(context.remainingMillis(), TimeUnit.MILLISECONDS)) {
+                    throw context.stopped(method, url, null);
+                }
+            }
+            if (concurrencyLimit != null) {
+                if (context == null) {
+                    concurrencyLimit.acquire();
+                } else if (!concurrencyLimit.tryAcquire(context.remainingMillis(), TimeUnit.MILLISECONDS)) {
+                    throw context.stopped(method, url, null);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to send " + method + " " + url);
+        }
+    }
+
+    private static boolean isIdempotent(String method) {
+        return HttpMethods.GET.equals(method) || HttpMethods.PUT.equals(method) || HttpMethods.DELETE.equals(method);
+    }
+
+    /**
+     * The first path segment after the API version, which is the account ID for account
+     * scoped endpoints. Other endpoints yield a segment that no token is stored under.
+     */
+    private static String accountOf(String url) {
+        int start = url.indexOf(API_VERSION_PATH) + API_VERSION_PATH.length();
+        while (start < url.length() && url.charAt(start) == '/') {
+            start++;
+        }
+        int end = start;
+        while (end < url.length() && url.charAt(end) != '/' && url.charAt(end) != '?') {
+            end++;
+        }
+        return url.substring(start, end);
+    }
 
     private String versionedPath(String path) {
-        return Dnsimple.getApiBase() + API_VERSION_PATH + path;
+        if (configuredBase != null) {
+            return configuredBase.prefix.concat(path);
+        }
+
+        String apiBase = Dnsimple.getApiBase();
+        VersionedBase base = versionedBase;
+        if (base == null || base.apiBase != apiBase) {
+            base = new VersionedBase(apiBase);
+            versionedBase = base;
+        }
+        return base.prefix.concat(path);
     }
 
     private GenericUrl buildUrl(String url, Map<String, Object> options) {
-        UrlBuilder urlBuilder = UrlBuilder.fromString(url);
-        if (options.containsKey("filter")) {
-            Filter filter = (Filter) options.remove("filter");
-            urlBuilder = urlBuilder.addParameter(filter.name, filter.value);
+        GenericUrl genericUrl = new GenericUrl(url);
+        if (options == null) {
+            return genericUrl;
         }
 
         for (Map.Entry<String, Object> kv : options.entrySet()) {
-            urlBuilder = urlBuilder.addParameter(kv.getKey(), kv.getValue().toString());
+            Object value = kv.getValue();
+            if (value instanceof Filter) {
+                Filter filter = (Filter) value;
+                genericUrl.set(filter.name, filter.value);
+            } else {
+                genericUrl.set(kv.getKey(), value.toString());
+            }
         }
 
-        return new GenericUrl(urlBuilder.toUrl());
+        return genericUrl;
+    }
+
+    private static String readVersion() {
+        InputStream in = HttpClient.class.getResourceAsStream("/VERSION");
+        if (in == null) {
+            return "dev";
+        }
+        try {
+            try {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+                String version = reader.readLine();
+                return version == null ? "dev" : version.trim();
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return "dev";
+        }
+    }
+
+    /**
+     * Sets the headers and timeouts common to every request. The values are fixed when the
+     * client is built, so no per-request work is done beyond assigning them.
+     */
+    private static final class RequestInitializer implements HttpRequestInitializer {
+        private final Integer connectTimeout;
+        private final Integer readTimeout;
+        private final String authorization;
+        private final String acceptEncoding;
+
+        RequestInitializer(ClientConfig config) {
+            this.connectTimeout = config.getConnectTimeout();
+            this.readTimeout = config.getReadTimeout();
+            this.authorization = config.getAccessToken() == null ? null : "Bearer " + config.getAccessToken();
+            this.acceptEncoding = config.getAcceptEncoding();
+        }
+
+        public void initialize(HttpRequest request) {
+            request.getHeaders().setAccept(ACCEPT).setUserAgent(USER_AGENT);
+            if (authorization != null) {
+                request.getHeaders().setAuthorization(authorization);
+            }
+            if (acceptEncoding != null) {
+                request.getHeaders().setAcceptEncoding(acceptEncoding);
+            }
+            if (connectTimeout != null) {
+                request.setConnectTimeout(connectTimeout);
+            }
+            if (readTimeout != null) {
+                request.setReadTimeout(readTimeout);
+            }
+        }
+    }
+
+    /**
+     * Stops retries once the call is cancelled or out of time, and limits the timeouts of
+     * every retry to the time left. Back-off sleeps wake up early on cancellation.
+     */
+    private static final class CallRetryHandler implements HttpIOExceptionHandler, HttpUnsuccessfulResponseHandler, Sleeper {
+        private final CallContext context;
+        private final int connectTimeout;
+        private final int readTimeout;
+        HttpIOExceptionHandler ioExceptionHandler;
+        HttpUnsuccessfulResponseHandler unsuccessfulResponseHandler;
+
+        CallRetryHandler(CallContext context, HttpRequest request) {
+            this.context = context;
+            this.connectTimeout = request.getConnectTimeout();
+            this.readTimeout = request.getReadTimeout();
+        }
+
+        public boolean handleIOException(HttpRequest request, boolean supportsRetry) throws IOException {
+            return ioExceptionHandler != null && context.isActive()
+                && ioExceptionHandler.handleIOException(request, supportsRetry) && retry(request);
+        }
+
+        public boolean handleResponse(HttpRequest request, HttpResponse response, boolean supportsRetry) throws IOException {
+            return unsuccessfulResponseHandler != null && context.isActive()
+                && unsuccessfulResponseHandler.handleResponse(request, response, supportsRetry) && retry(request);
+        }
+
+        public void sleep(long millis) throws InterruptedException {
+            context.sleep(millis);
+        }
+
+        private boolean retry(HttpRequest request) {
+            if (!context.isActive()) {
+                return false;
+            }
+            request.setConnectTimeout(connectTimeout);
+            request.setReadTimeout(readTimeout);
+            clampTimeouts(request, context);
+            return true;
+        }
+
+        static void clampTimeouts(HttpRequest request, CallContext context) {
+            request.setConnectTimeout(context.clamp(request.getConnectTimeout()));
+            request.setReadTimeout(context.clamp(request.getReadTimeout()));
+        }
+    }
+
+    /**
+     * Opens connections the way NetHttpTransport does by default, and lets the call context
+     * of the request abort them.
+     */
+    private static final class CancellableConnectionFactory implements ConnectionFactory {
+        public HttpURLConnection openConnection(URL url) throws IOException {
+            final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            CallContext.opened(new Closeable() {
+                public void close() {
+                    connection.disconnect();
+                }
+            });
+            return connection;
+        }
+    }
+
+    /**
+     * The API base URL together with the versioned prefix derived from it, so the prefix is
+     * only rebuilt when the base URL changes.
+     */
+    private static final class VersionedBase {
+        final String apiBase;
+        final String prefix;
+
+        VersionedBase(String apiBase) {
+            this.apiBase = apiBase;
+            this.prefix = apiBase + API_VERSION_PATH;
+        }
     }
 
 }
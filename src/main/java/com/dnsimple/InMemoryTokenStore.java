@@ -0,0 +1,34 @@
+package com.dnsimple;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link TokenStore} that keeps tokens in memory. Lookups do not lock.
+ */
+public class InMemoryTokenStore implements TokenStore {
+  private final ConcurrentHashMap<String, OauthToken> tokens = new ConcurrentHashMap<String, OauthToken>();
+
+  public OauthToken getToken(String accountId) {
+    return tokens.get(accountId);
+  }
+
+  public void putToken(OauthToken token) {
+    if (token.getAccountId() == null) {
+      throw new IllegalArgumentException("Token has no account ID");
+    }
+    tokens.put(token.getAccountId().toString(), token);
+  }
+
+  public void removeToken(String accountId) {
+    tokens.remove(accountId);
+  }
+
+  /**
+   * @return A snapshot of the stored tokens, keyed by account ID
+   */
+  protected Map<String, OauthToken> tokens() {
+    return new HashMap<String, OauthToken>(tokens);
+  }
+}
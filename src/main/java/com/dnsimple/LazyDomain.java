@@ -0,0 +1,81 @@
+package com.dnsimple;
+
+/**
+ * A domain that decodes its fields from the JSON of a list page on first access.
+ */
+final class LazyDomain extends Domain {
+  static final String[] KEYS = { "id", "account_id", "registrant_id", "name", "unicode_name", "token", "state",
+      "auto_renew", "private_whois", "expires_on", "created_at", "updated_at" };
+
+  static final LazyJson.Factory<Domain> FACTORY = new LazyJson.Factory<Domain>() {
+    public Domain create(LazyJson.Fields fields) {
+      return new LazyDomain(fields);
+    }
+  };
+
+  private final LazyJson.Fields fields;
+
+  private LazyDomain(LazyJson.Fields fields) {
+    this.fields = fields;
+  }
+
+  @Override
+  public Integer getId() {
+    return (Integer) fields.get(0, Integer.class);
+  }
+
+  @Override
+  public Integer getAccountId() {
+    return (Integer) fields.get(1, Integer.class);
+  }
+
+  @Override
+  public Integer getRegistrantId() {
+    return (Integer) fields.get(2, Integer.class);
+  }
+
+  @Override
+  public String getName() {
+    return (String) fields.get(3, String.class);
+  }
+
+  @Override
+  public String getUnicodeName() {
+    return (String) fields.get(4, String.class);
+  }
+
+  @Override
+  public String getToken() {
+    return (String) fields.get(5, String.class);
+  }
+
+  @Override
+  public String getState() {
+    return (String) fields.get(6, String.class);
+  }
+
+  @Override
+  public boolean getAutoRenew() {
+    return Boolean.TRUE.equals(fields.get(7, Boolean.class));
+  }
+
+  @Override
+  public boolean getPrivateWhois() {
+    return Boolean.TRUE.equals(fields.get(8, Boolean.class));
+  }
+
+  @Override
+  public String getExpiresOn() {
+    return (String) fields.get(9, String.class);
+  }
+
+  @Override
+  public String getCreatedAt() {
+    return (String) fields.get(10, String.class);
+  }
+
+  @Override
+  public String getUpdatedAt() {
+    return (String) fields.get(11, String.class);
+  }
+}
@@ -0,0 +1,464 @@
+package com.dnsimple;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import com.dnsimple.response.LazyListResponse;
+
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.json.gson.GsonFactory;
+
+/**
+ * A JSON document kept as raw bytes, with just enough scanning to find values and
+ * decode them one at a time.
+ * <p>
+ * Only the UTF-8 encoding of the API is supported, and object keys are assumed to be plain
+ * ASCII without escapes, as they are for every model.
+ */
+final class LazyJson {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  /**
+   * Stands for a decoded JSON null, or a missing value.
+   */
+  static final Object NULL = new Object();
+
+  final byte[] json;
+
+  LazyJson(byte[] json) {
+    this.json = json;
+  }
+
+  /**
+   * Find a member of an object.
+   *
+   * @param object The offset of the opening brace
+   * @param key The member name
+   * @return The offset of the value, or -1 if there is no such member
+   * @throws IOException If the JSON is malformed
+   */
+  int member(int object, byte[] key) throws IOException {
+    int pos = expect(object, '{');
+    pos = skipWhitespace(pos);
+    if (json[pos] == '}') {
+      return -1;
+    }
+    while (true) {
+      int keyStart = expect(pos, '"');
+      int keyEnd = skipString(pos) - 1;
+      int value = skipWhitespace(expect(keyEnd + 1, ':'));
+      if (matches(keyStart, keyEnd, key)) {
+        return value;
+      }
+      pos = skipWhitespace(skipValue(value));
+      if (json[pos] == '}') {
+        return -1;
+      }
+      pos = skipWhitespace(expect(pos, ','));
+    }
+  }
+
+  /**
+   * Find the elements of an array, and optionally the offsets of some members of each.
+   *
+   * @param array The offset of the opening bracket
+   * @param keys The member names to locate in each element, which must then be objects
+   * @param offsets Receives, for each element, the value offsets of the keys, 0 for missing ones
+   * @return The offsets of the elements
+   * @throws IOException If the JSON is malformed
+   */
+  int[] elements(int array, byte[][] keys, List<int[]> offsets) throws IOException {
+    int[] starts = new int[16];
+    int count = 0;
+    int pos = skipWhitespace(expect(array, '['));
+    if (json[pos] == ']') {
+      return new int[0];
+    }
+    while (true) {
+      if (count == starts.length) {
+        int[] grown = new int[count * 2];
+        System.arraycopy(starts, 0, grown, 0, count);
+        starts = grown;
+      }
+      starts[count++] = pos;
+      pos = skipWhitespace(keys.length == 0 ? skipValue(pos) : index(pos, keys, offsets));
+      if (json[pos] == ']') {
+        int[] result = new int[count];
+        System.arraycopy(starts, 0, result, 0, count);
+        return result;
+      }
+      pos = skipWhitespace(expect(pos, ','));
+    }
+  }
+
+  private int index(int object, byte[][] keys, List<int[]> offsets) throws IOException {
+    int[] found = new int[keys.length];
+    offsets.add(found);
+    int pos = skipWhitespace(expect(object, '{'));
+    if (json[pos] == '}') {
+      return pos + 1;
+    }
+    while (true) {
+      int keyStart = expect(pos, '"');
+      int keyEnd = skipString(pos) - 1;
+      int value = skipWhitespace(expect(keyEnd + 1, ':'));
+      for (int i = 0; i < keys.length; i++) {
+        if (matches(keyStart, keyEnd, keys[i])) {
+          found[i] = value;
+          break;
+        }
+      }
+      pos = skipWhitespace(skipValue(value));
+      if (json[pos] == '}') {
+        return pos + 1;
+      }
+      pos = skipWhitespace(expect(pos, ','));
+    }
+  }
+
+  /**
+   * Decode a scalar value.
+   *
+   * @param pos The offset of the value
+   * @param type String, Integer or Boolean
+   * @return The value, or {@link #NULL}
+   * @throws IOException If the value is malformed or of another type
+   */
+  Object decode(int pos, Class<?> type) throws IOException {
+    byte first = json[pos];
+    if (first == 'n') {
+      return NULL;
+    }
+    if (type == String.class) {
+      return decodeString(pos);
+    }
+    if (type == Boolean.class) {
+      if (first == 't' || first == 'f') {
+        return Boolean.valueOf(first == 't');
+      }
+    } else if (type == Integer.class) {
+      return decodeInteger(pos);
+    }
+    throw new IOException("Unexpected " + (char) first + " at " + pos + " for " + type.getSimpleName());
+  }
+
+  /**
+   * Decode a value, of any type, with the default JSON parser.
+   */
+  <T> T parse(int pos, Class<T> type) throws IOException {
+    int end = skipValue(pos);
+    return GsonFactory.getDefaultInstance().createJsonParser(new ByteArrayInputStream(json, pos, end - pos)).parse(type);
+  }
+
+  private Integer decodeInteger(int pos) throws IOException {
+    int end = pos;
+    boolean simple = true;
+    long value = 0;
+    boolean negative = json[end] == '-';
+    if (negative) {
+      end++;
+    }
+    while (end < json.length) {
+      byte b = json[end];
+      if (b >= '0' && b <= '9') {
+        value = value * 10 + (b - '0');
+        if (value > (negative ? Integer.MAX_VALUE + 1L : Integer.MAX_VALUE)) {
+          simple = false;
+        }
+      } else if (b == '.' || b == 'e' || b == 'E' || b == '+' || b == '-') {
+        simple = false;
+      } else {
+        break;
+      }
+      end++;
+    }
+    if (simple && end > pos + (negative ? 1 : 0)) {
+      return Integer.valueOf((int) (negative ? -value : value));
+    }
+    try {
+      return Integer.valueOf(new BigDecimal(new String(json, pos, end - pos, UTF_8)).intValueExact());
+    } catch (ArithmeticException e) {
+      throw new IOException("Not an integer at " + pos);
+    } catch (NumberFormatException e) {
+      throw new IOException("Not a number at " + pos);
+    }
+  }
+
+  private String decodeString(int pos) throws IOException {
+    int start = expect(pos, '"');
+    int end = start;
+    while (end < json.length && json[end] != '"' && json[end] != '\\') {
+      end++;
+    }
+    if (end < json.length && json[end] == '"') {
+      return new String(json, start, end - start, UTF_8);
+    }
+
+    StringBuilder decoded = new StringBuilder(new String(json, start, end - start, UTF_8));
+    int chunk = end;
+    while (true) {
+      if (end >= json.length) {
+        throw new IOException("Unterminated string at " + pos);
+      }
+      byte b = json[end];
+      if (b == '"') {
+        decoded.append(new String(json, chunk, end - chunk, UTF_8));
+        return decoded.toString();
+      }
+      if (b != '\\') {
+        end++;
+        continue;
+      }
+      decoded.append(new String(json, chunk, end - chunk, UTF_8));
+      char escaped = (char) json[end + 1];
+      switch (escaped) {
+        case 'b': decoded.append('\b'); break;
+        case 'f': decoded.append('\f'); break;
+        case 'n': decoded.append('\n'); break;
+        case 'r': decoded.append('\r'); break;
+        case 't': decoded.append('\t'); break;
+        case 'u':
+          decoded.append((char) Integer.parseInt(new String(json, end + 2, 4, UTF_8), 16));
+          end += 4;
+          break;
+        default: decoded.append(escaped);
+      }
+      end += 2;
+      chunk = end;
+    }
+  }
+
+  int skipValue(int pos) throws IOException {
+    pos = skipWhitespace(pos);
+    byte first = json[pos];
+    if (first == '"') {
+      return skipString(pos);
+    }
+    if (first == '{' || first == '[') {
+      int depth = 0;
+      while (pos < json.length) {
+        byte b = json[pos];
+        if (b == '"') {
+          pos = skipString(pos);
+          continue;
+        }
+        if (b == '{' || b == '[') {
+          depth++;
+        } else if (b == '}' || b == ']') {
+          if (--depth == 0) {
+            return pos + 1;
+          }
+        }
+        pos++;
+      }
+      throw new IOException("Unterminated " + (char) first);
+    }
+    while (pos < json.length) {
+      byte b = json[pos];
+      if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+        return pos;
+      }
+      pos++;
+    }
+    return pos;
+  }
+
+  private int skipString(int pos) throws IOException {
+    for (int i = pos + 1; i < json.length; i++) {
+      if (json[i] == '\\') {
+        i++;
+      } else if (json[i] == '"') {
+        return i + 1;
+      }
+    }
+    throw new IOException("Unterminated string at " + pos);
+  }
+
+  int skipWhitespace(int pos) throws IOException {
+    while (pos < json.length) {
+      byte b = json[pos];
+      if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+        return pos;
+      }
+      pos++;
+    }
+    throw new IOException("Unexpected end of JSON");
+  }
+
+  private int expect(int pos, char c) throws IOException {
+    pos = skipWhitespace(pos);
+    if (json[pos] != c) {
+      throw new IOException("Expected " + c + " at " + pos + " but found " + (char) json[pos]);
+    }
+    return pos + 1;
+  }
+
+  private boolean matches(int start, int end, byte[] key) {
+    if (end - start != key.length) {
+      return false;
+    }
+    for (int i = 0; i < key.length; i++) {
+      if (json[start + i] != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static byte[][] keys(String[] names) {
+    byte[][] keys = new byte[names.length][];
+    for (int i = 0; i < names.length; i++) {
+      keys[i] = names[i].getBytes(UTF_8);
+    }
+    return keys;
+  }
+
+  /**
+   * Creates the lazy model for one element of a list.
+   */
+  interface Factory<T> {
+    T create(Fields fields);
+  }
+
+  /**
+   * Read a list response without decoding its elements.
+   *
+   * @param response The HTTP response
+   * @param names The model's keys, in field index order
+   * @param hints The keys that will be read, located while scanning the page
+   * @param factory Creates the model of each element
+   * @return The response
+   * @throws IOException Any IO errors, or malformed JSON
+   */
+  static <T> LazyListResponse<T> listResponse(HttpResponse response, String[] names, String[] hints, Factory<T> factory) throws IOException {
+    List<T> data = new ArrayList<T>();
+    Pagination pagination = null;
+    InputStream in = HttpClient.content(response);
+    if (in != null) {
+      Long length = response.getHeaders().getContentLength();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(length != null && length > 0 && length < Integer.MAX_VALUE ? length.intValue() + 1 : 8192);
+      try {
+        byte[] buffer = new byte[8192];
+        for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+          out.write(buffer, 0, read);
+        }
+      } finally {
+        in.close();
+      }
+
+      LazyJson json = new LazyJson(out.toByteArray());
+      for (Fields fields : json.list(names, Arrays.asList(hints))) {
+        data.add(factory.create(fields));
+      }
+      int pos = json.member(json.skipWhitespace(0), "pagination".getBytes(UTF_8));
+      if (pos >= 0 && json.json[pos] != 'n') {
+        pagination = json.parse(pos, Pagination.class);
+      }
+    }
+
+    LazyListResponse<T> res = new LazyListResponse<T>(data, pagination);
+    res.setHttpRequest(response.getRequest());
+    res.setHttpResponse(response);
+    return res;
+  }
+
+  /**
+   * The fields of one element of a list, decoded on first access.
+   */
+  static final class Fields {
+    private final LazyJson json;
+    private final int start;
+    private final byte[][] keys;
+    private final int[] offsets;
+    private final Object[] values;
+
+    Fields(LazyJson json, int start, byte[][] keys, int[] offsets) {
+      this.json = json;
+      this.start = start;
+      this.keys = keys;
+      this.offsets = offsets;
+      this.values = new Object[keys.length];
+    }
+
+    /**
+     * @param field The index of the field in the model's keys
+     * @param type String, Integer or Boolean
+     * @return The value, or null if it is null or missing
+     * @throws IllegalStateException If the element cannot be decoded
+     */
+    Object get(int field, Class<?> type) {
+      Object value = values[field];
+      if (value == null) {
+        try {
+          int pos = offsets == null || offsets[field] == 0 ? json.member(start, keys[field]) : offsets[field];
+          value = pos < 0 ? NULL : json.decode(pos, type);
+        } catch (IOException e) {
+          throw new IllegalStateException("Cannot decode " + new String(keys[field], UTF_8), e);
+        }
+        values[field] = value;
+      }
+      return value == NULL ? null : value;
+    }
+  }
+
+  /**
+   * Find the "data" array of a list response and build the fields of each element.
+   *
+   * @param names The model's keys, in field index order
+   * @param hints The keys to locate while scanning, or an empty collection
+   * @return The fields of each element
+   * @throws IOException If the JSON is malformed
+   */
+  List<Fields> list(String[] names, Collection<String> hints) throws IOException {
+    byte[][] keys = keys(names);
+    byte[][] hinted = new byte[hints.size()][];
+    int[] hintedField = new int[hints.size()];
+    int h = 0;
+    for (String hint : hints) {
+      int field = indexOf(names, hint);
+      if (field < 0) {
+        throw new IllegalArgumentException("Unknown field " + hint);
+      }
+      hinted[h] = keys[field];
+      hintedField[h++] = field;
+    }
+
+    int data = member(skipWhitespace(0), "data".getBytes(UTF_8));
+    if (data < 0 || json[data] == 'n') {
+      return new ArrayList<Fields>(0);
+    }
+    List<int[]> found = new ArrayList<int[]>();
+    int[] starts = elements(data, hinted, found);
+    List<Fields> elements = new ArrayList<Fields>(starts.length);
+    for (int i = 0; i < starts.length; i++) {
+      int[] offsets = null;
+      if (hinted.length > 0) {
+        offsets = new int[names.length];
+        int[] hintOffsets = found.get(i);
+        for (int j = 0; j < hinted.length; j++) {
+          // Hinted keys missing from the element point at a missing value
+          offsets[hintedField[j]] = hintOffsets[j] == 0 ? -1 : hintOffsets[j];
+        }
+      }
+      elements.add(new Fields(this, starts[i], keys, offsets));
+    }
+    return elements;
+  }
+
+  private static int indexOf(String[] names, String name) {
+    for (int i = 0; i < names.length; i++) {
+      if (names[i].equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
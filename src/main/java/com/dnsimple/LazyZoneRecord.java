@@ -0,0 +1,76 @@
+package com.dnsimple;
+
+/**
+ * A zone record that decodes its fields from the JSON of a list page on first access.
+ */
+final class LazyZoneRecord extends ZoneRecord {
+  static final String[] KEYS = { "id", "zone_id", "parent_id", "name", "content", "ttl", "priority", "type",
+      "system_record", "created_at", "updated_at" };
+
+  static final LazyJson.Factory<ZoneRecord> FACTORY = new LazyJson.Factory<ZoneRecord>() {
+    public ZoneRecord create(LazyJson.Fields fields) {
+      return new LazyZoneRecord(fields);
+    }
+  };
+
+  private final LazyJson.Fields fields;
+
+  private LazyZoneRecord(LazyJson.Fields fields) {
+    this.fields = fields;
+  }
+
+  @Override
+  public Integer getId() {
+    return (Integer) fields.get(0, Integer.class);
+  }
+
+  @Override
+  public String getZoneId() {
+    return (String) fields.get(1, String.class);
+  }
+
+  @Override
+  public Integer getParentId() {
+    return (Integer) fields.get(2, Integer.class);
+  }
+
+  @Override
+  public String getName() {
+    return (String) fields.get(3, String.class);
+  }
+
+  @Override
+  public String getContent() {
+    return (String) fields.get(4, String.class);
+  }
+
+  @Override
+  public Integer getTtl() {
+    return (Integer) fields.get(5, Integer.class);
+  }
+
+  @Override
+  public Integer getPriority() {
+    return (Integer) fields.get(6, Integer.class);
+  }
+
+  @Override
+  public String getType() {
+    return (String) fields.get(7, String.class);
+  }
+
+  @Override
+  public Boolean getSystemRecord() {
+    return (Boolean) fields.get(8, Boolean.class);
+  }
+
+  @Override
+  public String getCreatedAt() {
+    return (String) fields.get(9, String.class);
+  }
+
+  @Override
+  public String getUpdatedAt() {
+    return (String) fields.get(10, String.class);
+  }
+}
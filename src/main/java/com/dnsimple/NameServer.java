@@ -1,5 +1,7 @@
 package com.dnsimple;
 
+import java.util.Date;
+
 import com.google.api.client.util.Key;
 
 public class NameServer {
@@ -21,6 +23,10 @@ public class NameServer {
   @Key("updated_at")
   private String updatedAt;
 
+  private volatile long createdAtMillis = Timestamps.UNPARSED;
+
+  private volatile long updatedAtMillis = Timestamps.UNPARSED;
+
   public Integer getId() {
     return id;
   }
@@ -41,8 +47,32 @@ public class NameServer {
     return createdAt;
   }
 
+  /**
+   * @return The creation time, or null if unknown
+   */
+  public Date getCreatedAtDate() {
+    long millis = createdAtMillis;
+    if (millis == Timestamps.UNPARSED) {
+      millis = Timestamps.parseMillis(getCreatedAt());
+      createdAtMillis = millis;
+    }
+    return Timestamps.toDate(millis);
+  }
+
   public String getUpdatedAt() {
     return updatedAt;
   }
 
+  /**
+   * @return The time of the last update, or null if unknown
+   */
+  public Date getUpdatedAtDate() {
+    long millis = updatedAtMillis;
+    if (millis == Timestamps.UNPARSED) {
+      millis = Timestamps.parseMillis(getUpdatedAt());
+      updatedAtMillis = millis;
+    }
+    return Timestamps.toDate(millis);
+  }
+
 }
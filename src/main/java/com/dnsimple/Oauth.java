@@ -4,7 +4,8 @@ import java.io.InputStream;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
-import java.util.HashMap;
+
+import com.dnsimple.request.OauthAccessTokenRequest;
 
 import com.dnsimple.exception.DnsimpleException;
 
@@ -40,12 +41,15 @@ public class Oauth {
    * @throws IOException Any IO error
    */
   public OauthToken exchangeAuthorizationForToken(String code, String clientId, String clientSecret) throws DnsimpleException, IOException {
-    return exchangeAuthorizationForToken(code, clientId, clientSecret, new HashMap<String, Object>());
+    return exchangeAuthorizationForToken(code, clientId, clientSecret, Collections.<String, Object>emptyMap());
   }
 
   /**
    * Exchange the short-lived authorization code for an access token
    * that is used to authenticate API calls.
+   * <p>
+   * If the client has a token store, the token is also saved there and used for
+   * the account's requests from then on.
    *
    * @see <a href="https://developer.dnsimple.com/v2/oauth">https://developer.dnsimple.com/v2/oauth</a>
    *
@@ -58,28 +62,24 @@ public class Oauth {
    * @throws IOException Any IO error
    */
   public OauthToken exchangeAuthorizationForToken(String code, String clientId, String clientSecret, Map<String, Object> options) throws DnsimpleException, IOException {
-    Map<String, Object> attributes = new HashMap<String, Object>();
-    attributes.put("code", code);
-    attributes.put("client_id", clientId);
-    attributes.put("client_secret", clientSecret);
-    attributes.put("grant_type", "authorization_code");
-
-    if (options.containsKey("state")) {
-      attributes.put("state", options.remove("state"));
-    }
-
-    if (options.containsKey("redirect_uri")) {
-      attributes.put("redirect_uri", options.remove("redirect_uri"));
-    }
+    Object state = options.get("state");
+    Object redirectUri = options.get("redirect_uri");
+    OauthAccessTokenRequest attributes = new OauthAccessTokenRequest(code, clientId, clientSecret,
+      state == null ? null : state.toString(),
+      redirectUri == null ? null : redirectUri.toString());
 
     HttpResponse response = httpClient.post("oauth/access_token", attributes);
-    InputStream in = response.getContent();
+    InputStream in = HttpClient.content(response);
     if (in == null) {
       throw new DnsimpleException("Response was empty", null, response.getStatusCode());
     } else {
       try {
         JsonParser jsonParser = GsonFactory.getDefaultInstance().createJsonParser(in);
-        return jsonParser.parse(OauthToken.class);
+        OauthToken token = jsonParser.parse(OauthToken.class);
+        if (httpClient.getTokenStore() != null && token.getAccountId() != null) {
+          httpClient.getTokenStore().putToken(token);
+        }
+        return token;
       } finally {
         in.close();
       }
@@ -108,7 +108,7 @@ public class Oauth {
    * @return The authorize URL string
    */
   public String authorizeUrl(String clientId, Map<Object, Object> options) {
-    UrlBuilder urlBuilder = UrlBuilder.fromString(Dnsimple.getApiBase().replaceFirst("api\\.", "") + "/oauth/authorize")
+    UrlBuilder urlBuilder = UrlBuilder.fromString(httpClient.getApiBase().replaceFirst("api\\.", "") + "/oauth/authorize")
       .addParameter("client_id", clientId)
       .addParameter("response_type", "code");
 
@@ -15,6 +15,16 @@ public class OauthToken {
   @Key("account_id")
   private Integer accountId;
 
+  public OauthToken() {
+  }
+
+  public OauthToken(String accessToken, String tokenType, String scope, Integer accountId) {
+    this.accessToken = accessToken;
+    this.tokenType = tokenType;
+    this.scope = scope;
+    this.accountId = accountId;
+  }
+
   public String getAccessToken() {
     return accessToken;
   }
@@ -0,0 +1,56 @@
+package com.dnsimple;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.dnsimple.exception.DnsimpleException;
+
+/**
+ * Walks every page of a list endpoint, asking for the largest pages the API serves.
+ * <p>
+ * For example:
+ * <p>
+ * new Paginator() {
+ *   Pagination fetch(Map&lt;String, Object&gt; options) throws DnsimpleException, IOException {
+ *     ListDomainsResponse response = domains.listDomains(accountId, options);
+ *     all.addAll(response.getData());
+ *     return response.getPagination();
+ *   }
+ * }.fetchAll();
+ */
+abstract class Paginator {
+  static final int PAGE_SIZE = 100;
+
+  /**
+   * Fetch one page and handle its items.
+   *
+   * @param options The page and per_page options to send
+   * @return The pagination of the response, or null if it has none
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  abstract Pagination fetch(Map<String, Object> options) throws DnsimpleException, IOException;
+
+  /**
+   * Fetch every page in order, until the last page reported by the API.
+   *
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  void fetchAll() throws DnsimpleException, IOException {
+    int page = 1;
+    int totalPages = 1;
+    do {
+      Map<String, Object> options = new HashMap<String, Object>();
+      options.put("page", page);
+      options.put("per_page", PAGE_SIZE);
+
+      Pagination pagination = fetch(options);
+      if (pagination != null && pagination.getTotalPages() != null) {
+        totalPages = pagination.getTotalPages();
+      }
+      page++;
+    } while (page <= totalPages);
+  }
+}
@@ -1,5 +1,7 @@
 package com.dnsimple;
 
+import java.util.Date;
+
 import com.google.api.client.util.Key;
 
 public class Push {
@@ -24,6 +26,12 @@ public class Push {
   @Key("updated_at")
   private String updatedAt;
 
+  private volatile long acceptedAtMillis = Timestamps.UNPARSED;
+
+  private volatile long createdAtMillis = Timestamps.UNPARSED;
+
+  private volatile long updatedAtMillis = Timestamps.UNPARSED;
+
   public Integer getId() {
     return id;
   }
@@ -44,11 +52,47 @@ public class Push {
     return acceptedAt;
   }
 
+  /**
+   * @return The time the push was accepted, or null if unknown
+   */
+  public Date getAcceptedAtDate() {
+    long millis = acceptedAtMillis;
+    if (millis == Timestamps.UNPARSED) {
+      millis = Timestamps.parseMillis(getAcceptedAt());
+      acceptedAtMillis = millis;
+    }
+    return Timestamps.toDate(millis);
+  }
+
   public String getCreatedAt() {
     return createdAt;
   }
 
+  /**
+   * @return The creation time, or null if unknown
+   */
+  public Date getCreatedAtDate() {
+    long millis = createdAtMillis;
+    if (millis == Timestamps.UNPARSED) {
+      millis = Timestamps.parseMillis(getCreatedAt());
+      createdAtMillis = millis;
+    }
+    return Timestamps.toDate(millis);
+  }
+
   public String getUpdatedAt() {
     return updatedAt;
   }
+
+  /**
+   * @return The time of the last update, or null if unknown
+   */
+  public Date getUpdatedAtDate() {
+    long millis = updatedAtMillis;
+    if (millis == Timestamps.UNPARSED) {
+      millis = Timestamps.parseMillis(getUpdatedAt());
+      updatedAtMillis = millis;
+    }
+    return Timestamps.toDate(millis);
+  }
 }
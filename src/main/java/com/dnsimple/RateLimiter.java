@@ -0,0 +1,83 @@
+package com.dnsimple;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket that spaces requests out to a fixed rate, allowing short bursts.
+ * <p>
+ * Callers that find the bucket empty reserve the next token and sleep until it is due,
+ * so waiting callers are served in the order they arrived.
+ */
+public final class RateLimiter {
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final double nanosPerPermit;
+  private final double burst;
+
+  private double available;
+  private long refilledAt;
+
+  /**
+   * @param permitsPerSecond The sustained rate
+   * @param burst The number of permits that can be taken at once after an idle period
+   */
+  public RateLimiter(double permitsPerSecond, int burst) {
+    if (permitsPerSecond <= 0) {
+      throw new IllegalArgumentException("permitsPerSecond must be positive");
+    }
+    if (burst < 1) {
+      throw new IllegalArgumentException("burst must be at least 1");
+    }
+    this.nanosPerPermit = NANOS_PER_SECOND / permitsPerSecond;
+    this.burst = burst;
+    this.available = burst;
+    this.refilledAt = System.nanoTime();
+  }
+
+  /**
+   * Take a permit, waiting until one is available.
+   *
+   * @throws InterruptedException If interrupted while waiting
+   */
+  public void acquire() throws InterruptedException {
+    long waitNanos = reserve(Long.MAX_VALUE);
+    if (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+  }
+
+  /**
+   * Take a permit if one is available within the timeout, waiting for it. No permit is
+   * reserved when the wait would be longer.
+   *
+   * @param timeout The longest time to wait
+   * @param unit The unit of the timeout
+   * @return Whether a permit was taken
+   * @throws InterruptedException If interrupted while waiting
+   */
+  public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+    long waitNanos = reserve(unit.toNanos(timeout));
+    if (waitNanos < 0) {
+      return false;
+    }
+    if (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+    return true;
+  }
+
+  /**
+   * @return The time until the reserved permit is due, or -1 if it would be due after maxWaitNanos
+   */
+  private synchronized long reserve(long maxWaitNanos) {
+    long now = System.nanoTime();
+    available = Math.min(burst, available + (now - refilledAt) / nanosPerPermit);
+    refilledAt = now;
+    long waitNanos = available >= 1 ? 0 : (long) ((1 - available) * nanosPerPermit);
+    if (waitNanos > maxWaitNanos) {
+      return -1;
+    }
+    available -= 1;
+    return waitNanos;
+  }
+}
@@ -19,6 +19,8 @@ import com.dnsimple.response.ChangeDomainDelegationResponse;
 import com.dnsimple.response.ChangeDomainDelegationToVanityResponse;
 import com.dnsimple.response.ChangeDomainDelegationFromVanityResponse;
 
+import com.dnsimple.request.DomainRegistration;
+
 import com.dnsimple.exception.DnsimpleException;
 
 import com.google.api.client.http.HttpResponse;
@@ -35,6 +37,14 @@ public class Registrar {
     this.httpClient = httpClient;
   }
 
+  /**
+   * @return The scope of an operation made of several calls, such as renewing many domains
+   * @see HttpClient#beginCall()
+   */
+  CallContext.Scope beginCall() {
+    return httpClient.beginCall();
+  }
+
   /**
    * Checks whether a domain is available for registration.
    *
@@ -68,6 +78,23 @@ public class Registrar {
     return (RegisterDomainResponse) httpClient.parseResponse(response, RegisterDomainResponse.class);
   }
 
+  /**
+   * Registers a domain.
+   *
+   * @see <a href="https://developer.dnsimple.com/v2/registrar/#register">https://developer.dnsimple.com/v2/registrar/#register</a>
+   *
+   * @param accountId The account ID
+   * @param domainName The domain to register
+   * @param registration Attributes to use for the registration
+   * @return The register domain response
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public RegisterDomainResponse registerDomain(String accountId, String domainName, DomainRegistration registration) throws DnsimpleException, IOException {
+    HttpResponse response = httpClient.post(accountId + "/registrar/domains/" + domainName + "/register", registration);
+    return (RegisterDomainResponse) httpClient.parseResponse(response, RegisterDomainResponse.class);
+  }
+
   /**
    * Renews a domain.
    *
@@ -0,0 +1,262 @@
+package com.dnsimple;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.dnsimple.response.ListDomainsResponse;
+import com.dnsimple.response.GetDomainResponse;
+import com.dnsimple.response.RenewDomainResponse;
+
+import com.dnsimple.exception.DnsimpleException;
+
+/**
+ * Keeps the registered domains of an account ordered by expiration date so that
+ * upcoming renewals can be looked up without listing every domain again.
+ * <p>
+ * The index is built with a single paginated scan of the domains API and can then be kept
+ * up to date one domain at a time. Domains that are not registered, or that have no
+ * expiration date, are not indexed.
+ * <p>
+ * For example:
+ * <p>
+ * RenewalPlanner planner = new RenewalPlanner(client.domains, client.registrar, accountId);
+ * planner.refresh();
+ * List&lt;Domain&gt; expiring = planner.expiringWithin(30);
+ */
+public class RenewalPlanner {
+  private static final String REGISTERED_STATE = "registered";
+
+  private final Domains domains;
+  private final Registrar registrar;
+  private final String accountId;
+
+  private final ExpiryIndex<Domain> index = new ExpiryIndex<Domain>() {
+    String expiresOn(Domain domain) {
+      return domain.getExpiresOn();
+    }
+
+    int id(Domain domain) {
+      return domain.getId();
+    }
+  };
+
+  public RenewalPlanner(Domains domains, Registrar registrar, String accountId) {
+    this.domains = domains;
+    this.registrar = registrar;
+    this.accountId = accountId;
+  }
+
+  /**
+   * Scan all the domains in the account and bring the index up to date.
+   * <p>
+   * Domains that are no longer returned by the API are removed from the index.
+   *
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public void refresh() throws DnsimpleException, IOException {
+    final Set<Integer> seen = new HashSet<Integer>();
+    CallContext.Scope scope = domains.beginCall();
+    try {
+      new Paginator() {
+        Pagination fetch(Map<String, Object> options) throws DnsimpleException, IOException {
+          ListDomainsResponse response = domains.listDomains(accountId, options);
+          for (Domain domain : response.getData()) {
+            seen.add(domain.getId());
+            update(domain);
+          }
+          return response.getPagination();
+        }
+      }.fetchAll();
+    } finally {
+      scope.detach();
+    }
+
+    for (Integer domainId : index.domainIds()) {
+      if (!seen.contains(domainId)) {
+        remove(domainId);
+      }
+    }
+  }
+
+  /**
+   * Fetch a single domain and update its position in the index.
+   *
+   * @param domainId The domain name or ID
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public void refreshDomain(String domainId) throws DnsimpleException, IOException {
+    GetDomainResponse response = domains.getDomain(accountId, domainId);
+    update(response.getData());
+  }
+
+  /**
+   * Add or replace a domain in the index.
+   *
+   * @param domain The domain as returned by the API
+   */
+  public void update(Domain domain) {
+    if (!isRenewable(domain)) {
+      remove(domain.getId());
+      return;
+    }
+    index.replace(domain.getId(), Collections.singletonList(domain));
+  }
+
+  /**
+   * Remove a domain from the index.
+   *
+   * @param domainId The domain ID
+   */
+  public void remove(Integer domainId) {
+    index.remove(domainId);
+  }
+
+  /**
+   * @return The number of domains in the index
+   */
+  public int size() {
+    return index.size();
+  }
+
+  /**
+   * List the domains expiring within the given number of days, excluding the domains
+   * that will be renewed automatically.
+   *
+   * @param days The number of days from today
+   * @return The domains, ordered by expiration date
+   */
+  public List<Domain> expiringWithin(int days) {
+    return expiringWithin(days, false);
+  }
+
+  /**
+   * List the domains expiring within the given number of days.
+   *
+   * @param days The number of days from today
+   * @param includeAutoRenew Whether domains with auto-renewal enabled should be included
+   * @return The domains, ordered by expiration date
+   */
+  public List<Domain> expiringWithin(int days, boolean includeAutoRenew) {
+    return expiringOnOrBefore(ExpiryIndex.daysFromToday(days), includeAutoRenew);
+  }
+
+  /**
+   * List the domains expiring on or before the given date.
+   *
+   * @param date The date, formatted as yyyy-MM-dd
+   * @param includeAutoRenew Whether domains with auto-renewal enabled should be included
+   * @return The domains, ordered by expiration date
+   */
+  public List<Domain> expiringOnOrBefore(String date, boolean includeAutoRenew) {
+    List<Domain> expiring = new ArrayList<Domain>();
+    for (Domain domain : index.onOrBefore(date)) {
+      if (includeAutoRenew || !domain.getAutoRenew()) {
+        expiring.add(domain);
+      }
+    }
+    return expiring;
+  }
+
+  /**
+   * Renew the domains expiring within the given number of days, excluding the domains
+   * that will be renewed automatically.
+   * <p>
+   * Renewed domains are removed from the index until their new expiration date is picked
+   * up by {@link #refresh()} or {@link #refreshDomain(String)}.
+   *
+   * @param days The number of days from today
+   * @param concurrency The maximum number of renewals in flight at once
+   * @param attributes Attributes to use for each renewal
+   * @return One renewal per domain, ordered by expiration date
+   * @throws InterruptedException If interrupted while waiting for the renewals
+   */
+  public List<Renewal> renewExpiring(int days, int concurrency, final Map<String, Object> attributes) throws InterruptedException {
+    List<Domain> expiring = expiringWithin(days);
+    List<Renewal> renewals = new ArrayList<Renewal>();
+    if (expiring.isEmpty()) {
+      return renewals;
+    }
+
+    CallContext.Scope scope = registrar.beginCall();
+    final CallContext context = CallContext.current();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(concurrency, expiring.size())));
+    try {
+      List<Future<RenewDomainResponse>> futures = new ArrayList<Future<RenewDomainResponse>>();
+      for (final Domain domain : expiring) {
+        futures.add(executor.submit(new Callable<RenewDomainResponse>() {
+          public RenewDomainResponse call() throws Exception {
+            CallContext.Scope scope = context == null ? CallContext.Scope.NONE : context.attach();
+            try {
+              return registrar.renewDomain(accountId, domain.getId().toString(), attributes);
+            } finally {
+              scope.detach();
+            }
+          }
+        }));
+      }
+
+      for (int i = 0; i < expiring.size(); i++) {
+        Domain domain = expiring.get(i);
+        try {
+          RenewDomainResponse response = futures.get(i).get();
+          remove(domain.getId());
+          renewals.add(new Renewal(domain, response, null));
+        } catch (ExecutionException e) {
+          renewals.add(new Renewal(domain, null, e.getCause()));
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+      scope.detach();
+    }
+
+    return renewals;
+  }
+
+  private boolean isRenewable(Domain domain) {
+    return domain.getExpiresOn() != null && REGISTERED_STATE.equals(domain.getState());
+  }
+
+  /**
+   * The outcome of renewing a single domain.
+   */
+  public static class Renewal {
+    private final Domain domain;
+    private final RenewDomainResponse response;
+    private final Throwable error;
+
+    Renewal(Domain domain, RenewDomainResponse response, Throwable error) {
+      this.domain = domain;
+      this.response = response;
+      this.error = error;
+    }
+
+    public Domain getDomain() {
+      return domain;
+    }
+
+    public RenewDomainResponse getResponse() {
+      return response;
+    }
+
+    public Throwable getError() {
+      return error;
+    }
+
+    public boolean isSuccessful() {
+      return error == null;
+    }
+  }
+}
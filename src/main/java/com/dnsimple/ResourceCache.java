@@ -0,0 +1,361 @@
+package com.dnsimple;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.dnsimple.exception.DnsimpleException;
+
+/**
+ * A read-through cache of domains, zones and zone records.
+ * <p>
+ * Entries expire after a fixed time to live, but are meant to be kept fresh by webhook events
+ * through a {@link WebhookCacheInvalidator}, which allows long times to live.
+ * <p>
+ * A fetch that overlaps an invalidation for the same account returns its result without
+ * caching it, so an event can never be overwritten by an older response. Events may also
+ * arrive out of order, so a put keeps the cached copy when it was updated later than the one
+ * put, and drops it when the two cannot be ordered by their updated_at. Zone records are
+ * cached under the zone name, whether they are looked up by zone name or ID.
+ * <p>
+ * For example:
+ * <p>
+ * ResourceCache cache = new ResourceCache(client, 3600000);
+ * Domain domain = cache.getDomain(accountId, "example.com");
+ */
+public class ResourceCache {
+  private static final int OLDER = -1;
+  private static final int UNORDERED = 0;
+  private static final int NEWER = 1;
+
+  private final Client client;
+  private final long ttlMillis;
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+  private final ConcurrentHashMap<String, Account> accounts = new ConcurrentHashMap<String, Account>();
+  private final ConcurrentHashMap<String, String> zoneNames = new ConcurrentHashMap<String, String>();
+
+  /**
+   * @param client The client used to fetch missing entries
+   * @param ttlMillis How long an entry is kept without being invalidated or replaced
+   */
+  public ResourceCache(Client client, long ttlMillis) {
+    this.client = client;
+    this.ttlMillis = ttlMillis;
+  }
+
+  /**
+   * @param accountId The account ID
+   * @param domainId The domain name or ID
+   * @return The domain
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public Domain getDomain(String accountId, String domainId) throws DnsimpleException, IOException {
+    Domain domain = (Domain) cached(domainKey(accountId, domainId));
+    if (domain == null) {
+      Account account = account(accountId);
+      long generation = account.generation();
+      domain = client.domains.getDomain(accountId, domainId).getData();
+      synchronized (account) {
+        if (account.generation == generation) {
+          storeDomain(accountId, domain);
+        }
+      }
+    }
+    return domain;
+  }
+
+  /**
+   * @param accountId The account ID
+   * @param zoneId The zone name or ID
+   * @return The zone
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public Zone getZone(String accountId, String zoneId) throws DnsimpleException, IOException {
+    Zone zone = (Zone) cached(zoneKey(accountId, zoneId));
+    if (zone == null) {
+      Account account = account(accountId);
+      long generation = account.generation();
+      zone = client.zones.getZone(accountId, zoneId).getData();
+      synchronized (account) {
+        if (account.generation == generation) {
+          storeZone(accountId, zone);
+        }
+      }
+    }
+    return zone;
+  }
+
+  /**
+   * @param accountId The account ID
+   * @param zoneId The zone name or ID
+   * @param recordId The record ID
+   * @return The zone record
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public ZoneRecord getZoneRecord(String accountId, String zoneId, String recordId) throws DnsimpleException, IOException {
+    ZoneRecord record = (ZoneRecord) cached(recordKey(accountId, zoneName(accountId, zoneId), recordId));
+    if (record == null) {
+      Account account = account(accountId);
+      long generation = account.generation();
+      record = client.zones.getZoneRecord(accountId, zoneId, recordId).getData();
+      if (!zoneId.equals(record.getZoneId())) {
+        zoneNames.put(zoneKey(accountId, zoneId), record.getZoneId());
+      }
+      synchronized (account) {
+        if (account.generation == generation) {
+          storeRecord(accountId, record);
+        }
+      }
+    }
+    return record;
+  }
+
+  /**
+   * Replace the cached copy of a domain, unless the cached copy is newer.
+   *
+   * @param accountId The account ID
+   * @param domain The domain
+   */
+  public void putDomain(String accountId, Domain domain) {
+    Account account = account(accountId);
+    synchronized (account) {
+      account.generation++;
+      int order = order(domainKey(accountId, String.valueOf(domain.getId())), domain.getUpdatedAt());
+      if (order == NEWER) {
+        storeDomain(accountId, domain);
+      } else if (order == UNORDERED) {
+        entries.remove(domainKey(accountId, domain.getName()));
+        entries.remove(domainKey(accountId, String.valueOf(domain.getId())));
+      }
+    }
+  }
+
+  /**
+   * Replace the cached copy of a zone, unless the cached copy is newer.
+   *
+   * @param accountId The account ID
+   * @param zone The zone
+   */
+  public void putZone(String accountId, Zone zone) {
+    Account account = account(accountId);
+    synchronized (account) {
+      account.generation++;
+      int order = order(zoneKey(accountId, String.valueOf(zone.getId())), zone.getUpdatedAt());
+      if (order == NEWER) {
+        storeZone(accountId, zone);
+      } else if (order == UNORDERED) {
+        entries.remove(zoneKey(accountId, zone.getName()));
+        entries.remove(zoneKey(accountId, String.valueOf(zone.getId())));
+      }
+    }
+  }
+
+  /**
+   * Replace the cached copy of a zone record, unless the cached copy is newer.
+   *
+   * @param accountId The account ID
+   * @param record The zone record
+   */
+  public void putZoneRecord(String accountId, ZoneRecord record) {
+    Account account = account(accountId);
+    synchronized (account) {
+      account.generation++;
+      String key = recordKey(accountId, record.getZoneId(), String.valueOf(record.getId()));
+      int order = order(key, record.getUpdatedAt());
+      if (order == NEWER) {
+        storeRecord(accountId, record);
+      } else if (order == UNORDERED) {
+        entries.remove(key);
+      }
+    }
+  }
+
+  /**
+   * @param accountId The account ID
+   * @param domain The domain to drop, matched by name and ID
+   */
+  public void removeDomain(String accountId, Domain domain) {
+    Account account = account(accountId);
+    synchronized (account) {
+      account.generation++;
+      entries.remove(domainKey(accountId, domain.getName()));
+      entries.remove(domainKey(accountId, String.valueOf(domain.getId())));
+    }
+  }
+
+  /**
+   * Drop a zone and all its cached records.
+   *
+   * @param accountId The account ID
+   * @param zone The zone to drop, matched by name and ID
+   */
+  public void removeZone(String accountId, Zone zone) {
+    Account account = account(accountId);
+    synchronized (account) {
+      account.generation++;
+      entries.remove(zoneKey(accountId, zone.getName()));
+      entries.remove(zoneKey(accountId, String.valueOf(zone.getId())));
+      removeByPrefix(recordKey(accountId, zone.getName(), ""));
+    }
+  }
+
+  /**
+   * @param accountId The account ID
+   * @param record The zone record to drop
+   */
+  public void removeZoneRecord(String accountId, ZoneRecord record) {
+    Account account = account(accountId);
+    synchronized (account) {
+      account.generation++;
+      entries.remove(recordKey(accountId, record.getZoneId(), String.valueOf(record.getId())));
+    }
+  }
+
+  /**
+   * Drop everything cached for an account.
+   *
+   * @param accountId The account ID
+   */
+  public void invalidateAccount(String accountId) {
+    Account account = account(accountId);
+    synchronized (account) {
+      account.generation++;
+      removeByPrefix(accountId + "/");
+    }
+  }
+
+  /**
+   * @return The number of cached entries, including expired ones not yet replaced
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  private Object cached(String key) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.expiresAt < System.currentTimeMillis()) {
+      entries.remove(key, entry);
+      return null;
+    }
+    return entry.value;
+  }
+
+  /**
+   * @param key The key of the cached copy
+   * @param updatedAt When the copy being put was updated
+   * @return {@link #NEWER} if there is no cached copy or the one being put is newer, {@link #OLDER}
+   *     if the cached copy is newer, or {@link #UNORDERED} if the two cannot be told apart
+   */
+  private int order(String key, String updatedAt) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return NEWER;
+    }
+    long cached = Timestamps.parseMillis(updatedAt(entry.value));
+    long received = Timestamps.parseMillis(updatedAt);
+    if (cached == Timestamps.NONE || received == Timestamps.NONE || cached == received) {
+      return UNORDERED;
+    }
+    return received > cached ? NEWER : OLDER;
+  }
+
+  private static String updatedAt(Object value) {
+    if (value instanceof Domain) {
+      return ((Domain) value).getUpdatedAt();
+    }
+    if (value instanceof Zone) {
+      return ((Zone) value).getUpdatedAt();
+    }
+    return ((ZoneRecord) value).getUpdatedAt();
+  }
+
+  private void storeDomain(String accountId, Domain domain) {
+    Entry entry = new Entry(domain, expiresAt());
+    entries.put(domainKey(accountId, domain.getName()), entry);
+    entries.put(domainKey(accountId, String.valueOf(domain.getId())), entry);
+  }
+
+  private void storeZone(String accountId, Zone zone) {
+    Entry entry = new Entry(zone, expiresAt());
+    entries.put(zoneKey(accountId, zone.getName()), entry);
+    entries.put(zoneKey(accountId, String.valueOf(zone.getId())), entry);
+    zoneNames.put(zoneKey(accountId, String.valueOf(zone.getId())), zone.getName());
+  }
+
+  private void storeRecord(String accountId, ZoneRecord record) {
+    entries.put(recordKey(accountId, record.getZoneId(), String.valueOf(record.getId())), new Entry(record, expiresAt()));
+  }
+
+  /**
+   * @return The name of a zone given by name or ID, if known, so records are cached under one key
+   */
+  private String zoneName(String accountId, String zoneId) {
+    String name = zoneNames.get(zoneKey(accountId, zoneId));
+    return name == null ? zoneId : name;
+  }
+
+  private void removeByPrefix(String prefix) {
+    for (Iterator<String> keys = entries.keySet().iterator(); keys.hasNext(); ) {
+      if (keys.next().startsWith(prefix)) {
+        keys.remove();
+      }
+    }
+  }
+
+  private Account account(String accountId) {
+    Account account = accounts.get(accountId);
+    if (account == null) {
+      Account created = new Account();
+      account = accounts.putIfAbsent(accountId, created);
+      if (account == null) {
+        account = created;
+      }
+    }
+    return account;
+  }
+
+  private long expiresAt() {
+    return System.currentTimeMillis() + ttlMillis;
+  }
+
+  private static String domainKey(String accountId, String domainId) {
+    return accountId + "/domain/" + domainId;
+  }
+
+  private static String zoneKey(String accountId, String zoneId) {
+    return accountId + "/zone/" + zoneId;
+  }
+
+  private static String recordKey(String accountId, String zoneName, String recordId) {
+    return accountId + "/record/" + zoneName + "/" + recordId;
+  }
+
+  /**
+   * The lock and invalidation count of one account. A fetched value is only stored if no
+   * event for the account was applied since the fetch started, checked under the lock the
+   * events are applied with.
+   */
+  private static final class Account {
+    long generation;
+
+    synchronized long generation() {
+      return generation;
+    }
+  }
+
+  private static final class Entry {
+    final Object value;
+    final long expiresAt;
+
+    Entry(Object value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
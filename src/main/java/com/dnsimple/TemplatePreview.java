@@ -0,0 +1,266 @@
+package com.dnsimple;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.dnsimple.exception.DnsimpleException;
+
+/**
+ * Expands a template locally and compares the result with the records already in a zone,
+ * without calling the API.
+ * <p>
+ * A preview is built once per template and can then be used for any number of domains.
+ * The "{{domain}}" placeholder in record content is replaced with the domain name.
+ * <p>
+ * For example:
+ * <p>
+ * TemplatePreview preview = TemplatePreview.load(client.templates, accountId, templateId);
+ * TemplatePreview.Diff diff = preview.diff("example.com", zoneRecords);
+ */
+public class TemplatePreview {
+  private static final String DOMAIN_PLACEHOLDER = "{{domain}}";
+  private static final String CNAME = "CNAME";
+
+  private final Template template;
+  private final List<TemplateRecord> records;
+  private final List<String[]> contentParts;
+
+  public TemplatePreview(Template template, List<TemplateRecord> records) {
+    this.template = template;
+    this.records = Collections.unmodifiableList(new ArrayList<TemplateRecord>(records));
+    this.contentParts = new ArrayList<String[]>(records.size());
+    for (TemplateRecord record : records) {
+      contentParts.add(split(record.getContent()));
+    }
+  }
+
+  /**
+   * Fetch a template and all its records and build a preview for it.
+   *
+   * @param templates The templates API
+   * @param accountId The account ID
+   * @param templateId The template ID
+   * @return The template preview
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public static TemplatePreview load(Templates templates, String accountId, String templateId) throws DnsimpleException, IOException {
+    Template template = templates.getTemplate(accountId, templateId).getData();
+    return new TemplatePreview(template, templates.listAllTemplateRecords(accountId, templateId));
+  }
+
+  public Template getTemplate() {
+    return template;
+  }
+
+  public List<TemplateRecord> getTemplateRecords() {
+    return records;
+  }
+
+  /**
+   * Expand the template records for a domain.
+   *
+   * @param domainName The domain name
+   * @return The records that applying the template would create
+   */
+  public List<Record> expand(String domainName) {
+    List<Record> expanded = new ArrayList<Record>(records.size());
+    for (int i = 0; i < records.size(); i++) {
+      TemplateRecord record = records.get(i);
+      expanded.add(new Record(record.getName(), record.getType(), join(contentParts.get(i), domainName), record.getTtl(), record.getPriority()));
+    }
+    return expanded;
+  }
+
+  /**
+   * Expand the template records for a domain and compare them with the records in its zone.
+   *
+   * @param domainName The domain name
+   * @param existingRecords The records currently in the zone
+   * @return The difference between the expanded template and the zone
+   */
+  public Diff diff(String domainName, List<ZoneRecord> existingRecords) {
+    Map<String, List<ZoneRecord>> byName = new HashMap<String, List<ZoneRecord>>();
+    for (ZoneRecord existing : existingRecords) {
+      List<ZoneRecord> named = byName.get(existing.getName());
+      if (named == null) {
+        named = new ArrayList<ZoneRecord>(2);
+        byName.put(existing.getName(), named);
+      }
+      named.add(existing);
+    }
+
+    Diff diff = new Diff();
+    for (Record record : expand(domainName)) {
+      List<ZoneRecord> named = byName.get(record.getName());
+      if (named == null) {
+        diff.added.add(record);
+        continue;
+      }
+
+      ZoneRecord conflicting = null;
+      boolean unchanged = false;
+      for (ZoneRecord existing : named) {
+        if (equal(record.getType(), existing.getType()) && equal(record.getContent(), existing.getContent())) {
+          if (equalIfKnown(record.getTtl(), existing.getTtl()) && equalIfKnown(record.getPriority(), existing.getPriority())) {
+            unchanged = true;
+            break;
+          }
+          if (conflicting == null) {
+            conflicting = existing;
+          }
+        } else if (conflicting == null && (CNAME.equals(record.getType()) || CNAME.equals(existing.getType()))) {
+          conflicting = existing;
+        }
+      }
+
+      if (unchanged) {
+        diff.unchanged.add(record);
+      } else if (conflicting != null) {
+        diff.conflicts.add(new Conflict(record, conflicting));
+      } else {
+        diff.added.add(record);
+      }
+    }
+    return diff;
+  }
+
+  private static boolean equal(Object a, Object b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  /**
+   * @return Whether two values are equal, where a missing value matches any other
+   */
+  private static boolean equalIfKnown(Object a, Object b) {
+    return a == null || b == null || a.equals(b);
+  }
+
+  private static String[] split(String content) {
+    if (content == null) {
+      return new String[] { "" };
+    }
+    List<String> parts = new ArrayList<String>();
+    int start = 0;
+    int found;
+    while ((found = content.indexOf(DOMAIN_PLACEHOLDER, start)) >= 0) {
+      parts.add(content.substring(start, found));
+      start = found + DOMAIN_PLACEHOLDER.length();
+    }
+    parts.add(content.substring(start));
+    return parts.toArray(new String[parts.size()]);
+  }
+
+  private static String join(String[] parts, String domainName) {
+    if (parts.length == 1) {
+      return parts[0];
+    }
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < parts.length; i++) {
+      if (i > 0) {
+        content.append(domainName);
+      }
+      content.append(parts[i]);
+    }
+    return content.toString();
+  }
+
+  /**
+   * A record produced by expanding a template record.
+   */
+  public static class Record {
+    private final String name;
+    private final String type;
+    private final String content;
+    private final Integer ttl;
+    private final Integer priority;
+
+    Record(String name, String type, String content, Integer ttl, Integer priority) {
+      this.name = name;
+      this.type = type;
+      this.content = content;
+      this.ttl = ttl;
+      this.priority = priority;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getType() {
+      return type;
+    }
+
+    public String getContent() {
+      return content;
+    }
+
+    public Integer getTtl() {
+      return ttl;
+    }
+
+    public Integer getPriority() {
+      return priority;
+    }
+  }
+
+  /**
+   * An expanded record that cannot coexist with a record already in the zone, or that has the
+   * same type and content as one but a different TTL or priority.
+   */
+  public static class Conflict {
+    private final Record record;
+    private final ZoneRecord existing;
+
+    Conflict(Record record, ZoneRecord existing) {
+      this.record = record;
+      this.existing = existing;
+    }
+
+    public Record getRecord() {
+      return record;
+    }
+
+    public ZoneRecord getExisting() {
+      return existing;
+    }
+  }
+
+  /**
+   * The difference between an expanded template and the records in a zone.
+   */
+  public static class Diff {
+    private final List<Record> added = new ArrayList<Record>();
+    private final List<Record> unchanged = new ArrayList<Record>();
+    private final List<Conflict> conflicts = new ArrayList<Conflict>();
+
+    /**
+     * @return The records that would be created
+     */
+    public List<Record> getAdded() {
+      return added;
+    }
+
+    /**
+     * @return The records that already exist in the zone
+     */
+    public List<Record> getUnchanged() {
+      return unchanged;
+    }
+
+    /**
+     * @return The records that conflict with a record in the zone
+     */
+    public List<Conflict> getConflicts() {
+      return conflicts;
+    }
+
+    public boolean hasConflicts() {
+      return !conflicts.isEmpty();
+    }
+  }
+}
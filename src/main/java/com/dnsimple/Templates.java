@@ -1,7 +1,19 @@
 package com.dnsimple;
 
 import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.dnsimple.response.ListTemplatesResponse;
 import com.dnsimple.response.GetTemplateResponse;
@@ -25,6 +37,10 @@ import com.google.api.client.http.HttpResponse;
  * @see <a href="https://developer.dnsimple.com/v2/templates">https://developer.dnsimple.com/v2/templates</a>
  */
 public class Templates {
+  private static final int DEFAULT_CONCURRENCY = 4;
+  private static final int DEFAULT_MAX_ATTEMPTS = 3;
+  private static final long RETRY_BACKOFF_MILLIS = 250;
+
   private HttpClient httpClient;
 
   protected Templates(HttpClient httpClient) {
@@ -143,6 +159,206 @@ public class Templates {
   }
 
 
+  /**
+   * Apply a template from the account to many domains.
+   *
+   * @see #applyTemplateToDomains(String, String, List, int, int, ApplyProgressListener)
+   * @param accountId The account ID
+   * @param templateId The template ID
+   * @param domainIds The domain IDs or names
+   * @return The outcome for each domain, keyed by domain ID and in the order given
+   * @throws DnsimpleException Any API errors while loading the template
+   * @throws IOException Any IO errors while loading the template
+   * @throws InterruptedException If interrupted while waiting for the domains
+   */
+  public Map<String, ApplyOutcome> applyTemplateToDomains(String accountId, String templateId, List<String> domainIds) throws DnsimpleException, IOException, InterruptedException {
+    return applyTemplateToDomains(accountId, templateId, domainIds, DEFAULT_CONCURRENCY, DEFAULT_MAX_ATTEMPTS, null);
+  }
+
+  /**
+   * Apply a template from the account to many domains.
+   * <p>
+   * The template and its records are loaded once and validated before any domain is
+   * touched. Each domain is then applied independently: rate limiting (429), unavailability
+   * (503) and failures to connect are retried, and a failure on one domain does not stop the others.
+   * Other IO errors are not retried, since the template may already have been applied, and
+   * are left to the caller to check. A
+   * {@link CallContext} attached to the calling thread applies to every domain.
+   *
+   * @see <a href="https://developer.dnsimple.com/v2/domains/templates/#apply">https://developer.dnsimple.com/v2/domains/templates/#apply</a>
+   * @param accountId The account ID
+   * @param templateId The template ID
+   * @param domainIds The domain IDs or names
+   * @param concurrency The maximum number of domains applied at once
+   * @param maxAttempts The maximum number of attempts for each domain
+   * @param listener Notified each time a domain completes, may be null. Exceptions it throws are ignored
+   * @return The outcome for each domain, keyed by domain ID and in the order given
+   * @throws DnsimpleException Any API errors while loading the template, or if the template has no records
+   * @throws IOException Any IO errors while loading the template
+   * @throws InterruptedException If interrupted while waiting for the domains
+   */
+  public Map<String, ApplyOutcome> applyTemplateToDomains(final String accountId, final String templateId, List<String> domainIds, int concurrency, final int maxAttempts, final ApplyProgressListener listener) throws DnsimpleException, IOException, InterruptedException {
+    getTemplate(accountId, templateId);
+    validateTemplateRecords(templateId, listAllTemplateRecords(accountId, templateId));
+
+    Map<String, ApplyOutcome> outcomes = new LinkedHashMap<String, ApplyOutcome>();
+    if (domainIds.isEmpty()) {
+      return outcomes;
+    }
+
+    final int total = domainIds.size();
+    final AtomicInteger completed = new AtomicInteger();
+    final CallContext context = CallContext.current();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(concurrency, total)));
+    try {
+      List<Future<ApplyOutcome>> futures = new ArrayList<Future<ApplyOutcome>>();
+      for (final String domainId : domainIds) {
+        futures.add(executor.submit(new Callable<ApplyOutcome>() {
+          public ApplyOutcome call() throws Exception {
+            CallContext.Scope scope = context == null ? CallContext.Scope.NONE : context.attach();
+            ApplyOutcome outcome;
+            try {
+              outcome = applyWithRetries(accountId, templateId, domainId, maxAttempts);
+            } finally {
+              scope.detach();
+            }
+            int done = completed.incrementAndGet();
+            if (listener != null) {
+              try {
+                listener.onDomainCompleted(outcome, done, total);
+              } catch (RuntimeException e) {
+                // The listener only observes progress; its failure does not change the outcome
+              }
+            }
+            return outcome;
+          }
+        }));
+      }
+
+      for (int i = 0; i < total; i++) {
+        try {
+          outcomes.put(domainIds.get(i), futures.get(i).get());
+        } catch (ExecutionException e) {
+          outcomes.put(domainIds.get(i), new ApplyOutcome(domainIds.get(i), null, e.getCause(), 0));
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return outcomes;
+  }
+
+  private ApplyOutcome applyWithRetries(String accountId, String templateId, String domainId, int maxAttempts) throws InterruptedException {
+    CallContext context = CallContext.current();
+    Exception error = null;
+    for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+      try {
+        return new ApplyOutcome(domainId, applyTemplate(accountId, templateId, domainId), null, attempt);
+      } catch (DnsimpleException e) {
+        error = e;
+        if (!isTransient(e) || attempt == maxAttempts) {
+          return new ApplyOutcome(domainId, null, e, attempt);
+        }
+      } catch (IOException e) {
+        error = e;
+        if (!isNotSent(e) || attempt == maxAttempts) {
+          return new ApplyOutcome(domainId, null, e, attempt);
+        }
+      }
+      long backoff = RETRY_BACKOFF_MILLIS << (attempt - 1);
+      if (context == null) {
+        Thread.sleep(backoff);
+      } else {
+        context.sleep(backoff);
+        if (!context.isActive()) {
+          return new ApplyOutcome(domainId, null, error, attempt);
+        }
+      }
+    }
+    return new ApplyOutcome(domainId, null, error, maxAttempts);
+  }
+
+  /**
+   * Applying a template is not idempotent, so only IO errors raised before the request
+   * reached the server are retried. After a read timeout, the template may have been applied.
+   */
+  private static boolean isNotSent(IOException e) {
+    return e instanceof ConnectException || e instanceof NoRouteToHostException || e instanceof UnknownHostException;
+  }
+
+  /**
+   * Only responses that say the template was not applied are retried. Other server errors,
+   * such as a 502 or 504 from a proxy, may come after it was.
+   */
+  private static boolean isTransient(DnsimpleException e) {
+    Integer statusCode = e.getStatusCode();
+    return statusCode != null && (statusCode == 429 || statusCode == 503);
+  }
+
+  private static void validateTemplateRecords(String templateId, List<TemplateRecord> records) throws DnsimpleException {
+    if (records.isEmpty()) {
+      throw new DnsimpleException("Template " + templateId + " has no records", null, null);
+    }
+    for (TemplateRecord record : records) {
+      if (record.getType() == null || record.getContent() == null) {
+        throw new DnsimpleException("Template " + templateId + " has an incomplete record " + record.getId(), null, null);
+      }
+    }
+  }
+
+  /**
+   * Receives progress notifications from {@link #applyTemplateToDomains}.
+   * <p>
+   * Notifications are delivered from the worker threads, possibly concurrently.
+   */
+  public interface ApplyProgressListener {
+    /**
+     * @param outcome The outcome for the domain that completed
+     * @param completed The number of domains completed so far
+     * @param total The total number of domains
+     */
+    void onDomainCompleted(ApplyOutcome outcome, int completed, int total);
+  }
+
+  /**
+   * The outcome of applying a template to a single domain.
+   */
+  public static class ApplyOutcome {
+    private final String domainId;
+    private final ApplyTemplateResponse response;
+    private final Throwable error;
+    private final int attempts;
+
+    ApplyOutcome(String domainId, ApplyTemplateResponse response, Throwable error, int attempts) {
+      this.domainId = domainId;
+      this.response = response;
+      this.error = error;
+      this.attempts = attempts;
+    }
+
+    public String getDomainId() {
+      return domainId;
+    }
+
+    public ApplyTemplateResponse getResponse() {
+      return response;
+    }
+
+    public Throwable getError() {
+      return error;
+    }
+
+    public int getAttempts() {
+      return attempts;
+    }
+
+    public boolean isSuccessful() {
+      return error == null;
+    }
+  }
+
+
   // Template records
 
   /**
@@ -177,6 +393,37 @@ public class Templates {
     return (ListTemplateRecordsResponse) httpClient.parseResponse(response, ListTemplateRecordsResponse.class);
   }
 
+  /**
+   * Lists all the records in the template, following pagination. All pages share the time
+   * budget of a single call.
+   *
+   * @see <a href="https://developer.dnsimple.com/v2/templates/records#list">https://developer.dnsimple.com/v2/templates/records#list</a>
+   *
+   * @param accountId The account ID
+   * @param templateId The template ID
+   * @return The template records
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public List<TemplateRecord> listAllTemplateRecords(final String accountId, final String templateId) throws DnsimpleException, IOException {
+    final List<TemplateRecord> records = new ArrayList<TemplateRecord>();
+
+    CallContext.Scope scope = httpClient.beginCall();
+    try {
+      new Paginator() {
+        Pagination fetch(Map<String, Object> options) throws DnsimpleException, IOException {
+          ListTemplateRecordsResponse response = listTemplateRecords(accountId, templateId, options);
+          records.addAll(response.getData());
+          return response.getPagination();
+        }
+      }.fetchAll();
+    } finally {
+      scope.detach();
+    }
+
+    return records;
+  }
+
   /**
    * Get a specific record associated to a template using the record's ID.
    *
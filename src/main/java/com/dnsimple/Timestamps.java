@@ -0,0 +1,180 @@
+package com.dnsimple;
+
+import java.util.Date;
+
+/**
+ * Converts the API's UTC timestamps, such as "2016-01-07T16:30:05.379Z", and dates, such
+ * as "2016-01-07", to and from milliseconds since the epoch without allocating or going
+ * through a date format.
+ */
+final class Timestamps {
+  /**
+   * Returned for null or malformed timestamps.
+   */
+  static final long NONE = Long.MIN_VALUE;
+
+  /**
+   * Marks a cached timestamp that has not been parsed yet.
+   */
+  static final long UNPARSED = Long.MIN_VALUE + 1;
+
+  private Timestamps() {
+  }
+
+  /**
+   * Parse a timestamp of the form yyyy-MM-ddTHH:mm:ssZ, with optional fractional seconds.
+   * Digits beyond milliseconds are truncated.
+   *
+   * @param timestamp The timestamp, or null
+   * @return The milliseconds since the epoch, or {@link #NONE}
+   */
+  static long parseMillis(String timestamp) {
+    if (timestamp == null || timestamp.length() < 20 || timestamp.charAt(timestamp.length() - 1) != 'Z'
+        || timestamp.charAt(4) != '-' || timestamp.charAt(7) != '-' || timestamp.charAt(10) != 'T'
+        || timestamp.charAt(13) != ':' || timestamp.charAt(16) != ':') {
+      return NONE;
+    }
+    int year = digits(timestamp, 0, 4);
+    int month = digits(timestamp, 5, 2);
+    int day = digits(timestamp, 8, 2);
+    int hour = digits(timestamp, 11, 2);
+    int minute = digits(timestamp, 14, 2);
+    int second = digits(timestamp, 17, 2);
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month) || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 60) {
+      return NONE;
+    }
+
+    int millis = 0;
+    int end = timestamp.length() - 1;
+    if (end > 19) {
+      if (timestamp.charAt(19) != '.' || end == 20) {
+        return NONE;
+      }
+      for (int i = 20; i < end; i++) {
+        int digit = timestamp.charAt(i) - '0';
+        if (digit < 0 || digit > 9) {
+          return NONE;
+        }
+        if (i < 23) {
+          millis = millis * 10 + digit;
+        }
+      }
+      for (int i = Math.min(end, 23); i < 23; i++) {
+        millis *= 10;
+      }
+    }
+    return ((daysFromCivil(year, month, day) * 24 + hour) * 60 + minute) * 60000L + second * 1000L + millis;
+  }
+
+  /**
+   * Parse a date of the form yyyy-MM-dd.
+   *
+   * @param date The date, or null
+   * @return The milliseconds since the epoch at midnight UTC, or {@link #NONE}
+   */
+  static long parseDateMillis(String date) {
+    if (date == null || date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+      return NONE;
+    }
+    int year = digits(date, 0, 4);
+    int month = digits(date, 5, 2);
+    int day = digits(date, 8, 2);
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+      return NONE;
+    }
+    return daysFromCivil(year, month, day) * 86400000L;
+  }
+
+  /**
+   * @param millis The milliseconds since the epoch, or {@link #NONE}
+   * @return A new date, or null
+   */
+  static Date toDate(long millis) {
+    return millis == NONE ? null : new Date(millis);
+  }
+
+  /**
+   * Format a timestamp the way the API does, always with milliseconds.
+   *
+   * @param millis The milliseconds since the epoch
+   * @return The timestamp, or null for {@link #NONE}
+   */
+  static String formatMillis(long millis) {
+    if (millis == NONE) {
+      return null;
+    }
+    long days = floorDiv(millis, 86400000L);
+    int ofDay = (int) (millis - days * 86400000L);
+
+    // Civil date from days since the epoch, after Howard Hinnant's civil_from_days
+    long z = days + 719468;
+    long era = (z >= 0 ? z : z - 146096) / 146097;
+    int dayOfEra = (int) (z - era * 146097);
+    int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    int monthIndex = (5 * dayOfYear + 2) / 153;
+    int day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+    int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+    long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+    char[] out = new char[24];
+    write(out, 0, (int) year, 4);
+    out[4] = '-';
+    write(out, 5, month, 2);
+    out[7] = '-';
+    write(out, 8, day, 2);
+    out[10] = 'T';
+    write(out, 11, ofDay / 3600000, 2);
+    out[13] = ':';
+    write(out, 14, ofDay / 60000 % 60, 2);
+    out[16] = ':';
+    write(out, 17, ofDay / 1000 % 60, 2);
+    out[19] = '.';
+    write(out, 20, ofDay % 1000, 3);
+    out[23] = 'Z';
+    return new String(out);
+  }
+
+  /**
+   * @return The days since 1970-01-01 of a date in the proleptic Gregorian calendar
+   */
+  static long daysFromCivil(int year, int month, int day) {
+    int y = month <= 2 ? year - 1 : year;
+    int era = (y >= 0 ? y : y - 399) / 400;
+    int yearOfEra = y - era * 400;
+    int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097L + dayOfEra - 719468;
+  }
+
+  private static int daysInMonth(int year, int month) {
+    if (month == 2) {
+      return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+    }
+    return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+  }
+
+  private static int digits(String s, int offset, int count) {
+    int value = 0;
+    for (int i = offset; i < offset + count; i++) {
+      int digit = s.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  private static void write(char[] out, int offset, int value, int count) {
+    for (int i = offset + count - 1; i >= offset; i--) {
+      out[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+  }
+
+  private static long floorDiv(long x, long y) {
+    long q = x / y;
+    return (x % y != 0 && (x < 0) != (y < 0)) ? q - 1 : q;
+  }
+}
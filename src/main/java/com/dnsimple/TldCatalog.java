@@ -0,0 +1,234 @@
+package com.dnsimple;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.dnsimple.response.ListTldsResponse;
+
+import com.dnsimple.exception.DnsimpleException;
+
+/**
+ * An in-process copy of the TLD catalog, extended attributes included.
+ * <p>
+ * The whole catalog is loaded into an immutable snapshot, which is replaced in one step when
+ * the catalog is refreshed. Lookups read the current snapshot without locking and never see
+ * a partly refreshed catalog. If a refresh fails, the previous snapshot stays in use.
+ * <p>
+ * For example:
+ * <p>
+ * TldCatalog catalog = new TldCatalog(client.tlds, 8);
+ * catalog.refresh();
+ * catalog.startBackgroundRefresh(3600000);
+ * List&lt;TldExtendedAttribute&gt; attributes = catalog.getExtendedAttributes("uk");
+ */
+public class TldCatalog {
+  private final Tlds tlds;
+  private final int concurrency;
+
+  private volatile Snapshot snapshot = new Snapshot(Collections.<Tld>emptyList(), Collections.<String, Entry>emptyMap(), 0);
+  private ScheduledExecutorService scheduler;
+
+  /**
+   * @param tlds The TLDs API
+   * @param concurrency The number of extended attribute requests in flight during a refresh
+   */
+  public TldCatalog(Tlds tlds, int concurrency) {
+    this.tlds = tlds;
+    this.concurrency = Math.max(1, concurrency);
+  }
+
+  /**
+   * @param tld The TLD, with or without a leading dot
+   * @return The TLD, or null if it is not in the catalog
+   */
+  public Tld getTld(String tld) {
+    Entry entry = snapshot.entries.get(normalize(tld));
+    return entry == null ? null : entry.tld;
+  }
+
+  /**
+   * @param tld The TLD, with or without a leading dot
+   * @return The extended attributes of the TLD, empty if it has none or is not in the catalog
+   */
+  public List<TldExtendedAttribute> getExtendedAttributes(String tld) {
+    Entry entry = snapshot.entries.get(normalize(tld));
+    return entry == null ? Collections.<TldExtendedAttribute>emptyList() : entry.extendedAttributes;
+  }
+
+  /**
+   * @return All the TLDs, in the order returned by the API
+   */
+  public List<Tld> getTlds() {
+    return snapshot.tlds;
+  }
+
+  /**
+   * @return Whether the catalog has been loaded at least once
+   */
+  public boolean isLoaded() {
+    return snapshot.loadedAt > 0;
+  }
+
+  /**
+   * @return When the current snapshot was loaded, in milliseconds since the epoch, or 0 if never
+   */
+  public long getLoadedAt() {
+    return snapshot.loadedAt;
+  }
+
+  /**
+   * Load every TLD and its extended attributes, then replace the current snapshot.
+   *
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public void refresh() throws DnsimpleException, IOException {
+    CallContext.Scope scope = tlds.beginCall();
+    try {
+      load();
+    } finally {
+      scope.detach();
+    }
+  }
+
+  private void load() throws DnsimpleException, IOException {
+    final List<Tld> all = new ArrayList<Tld>();
+    new Paginator() {
+      Pagination fetch(Map<String, Object> options) throws DnsimpleException, IOException {
+        ListTldsResponse response = tlds.listTlds(options);
+        all.addAll(response.getData());
+        return response.getPagination();
+      }
+    }.fetchAll();
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, Math.max(1, all.size())));
+    Map<String, Entry> entries = new HashMap<String, Entry>(all.size() * 2);
+    final CallContext context = CallContext.current();
+    try {
+      List<Future<List<TldExtendedAttribute>>> futures = new ArrayList<Future<List<TldExtendedAttribute>>>(all.size());
+      for (final Tld tld : all) {
+        futures.add(executor.submit(new Callable<List<TldExtendedAttribute>>() {
+          public List<TldExtendedAttribute> call() throws Exception {
+            CallContext.Scope scope = context == null ? CallContext.Scope.NONE : context.attach();
+            try {
+              return tlds.getTldExtendedAttributes(tld.getTld()).getData();
+            } finally {
+              scope.detach();
+            }
+          }
+        }));
+      }
+
+      for (int i = 0; i < all.size(); i++) {
+        Tld tld = all.get(i);
+        List<TldExtendedAttribute> attributes = futures.get(i).get();
+        attributes = attributes == null ? Collections.<TldExtendedAttribute>emptyList() : Collections.unmodifiableList(attributes);
+        entries.put(normalize(tld.getTld()), new Entry(tld, attributes));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while loading the TLD catalog");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof DnsimpleException) {
+        throw (DnsimpleException) cause;
+      }
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw (Error) cause;
+    } finally {
+      executor.shutdownNow();
+    }
+
+    snapshot = new Snapshot(Collections.unmodifiableList(all), Collections.unmodifiableMap(entries), System.currentTimeMillis());
+  }
+
+  /**
+   * Refresh the catalog periodically on a background thread. The first refresh happens after
+   * one interval, so call {@link #refresh()} first if the catalog is needed right away.
+   *
+   * @param intervalMillis The time between two refreshes
+   */
+  public synchronized void startBackgroundRefresh(long intervalMillis) {
+    if (scheduler != null) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "dnsimple-tld-catalog");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    scheduler.scheduleWithFixedDelay(new Runnable() {
+      public void run() {
+        try {
+          refresh();
+        } catch (Exception e) {
+          onRefreshError(e);
+        }
+      }
+    }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  public synchronized void stopBackgroundRefresh() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+  }
+
+  /**
+   * Called on the background thread when a refresh fails. The previous snapshot stays in use.
+   * The default does nothing; override to log the failure.
+   *
+   * @param error The error
+   */
+  protected void onRefreshError(Exception error) {
+  }
+
+  private static String normalize(String tld) {
+    String name = tld.startsWith(".") ? tld.substring(1) : tld;
+    return name.toLowerCase(Locale.ENGLISH);
+  }
+
+  private static final class Entry {
+    final Tld tld;
+    final List<TldExtendedAttribute> extendedAttributes;
+
+    Entry(Tld tld, List<TldExtendedAttribute> extendedAttributes) {
+      this.tld = tld;
+      this.extendedAttributes = extendedAttributes;
+    }
+  }
+
+  private static final class Snapshot {
+    final List<Tld> tlds;
+    final Map<String, Entry> entries;
+    final long loadedAt;
+
+    Snapshot(List<Tld> tlds, Map<String, Entry> entries, long loadedAt) {
+      this.tlds = tlds;
+      this.entries = entries;
+      this.loadedAt = loadedAt;
+    }
+  }
+}
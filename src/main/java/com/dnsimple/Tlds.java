@@ -25,6 +25,14 @@ public class Tlds {
     this.httpClient = httpClient;
   }
 
+  /**
+   * @return The scope of an operation made of several calls, such as listing every TLD
+   * @see HttpClient#beginCall()
+   */
+  CallContext.Scope beginCall() {
+    return httpClient.beginCall();
+  }
+
   /**
    * Lists supported TLDs for registration
    *
@@ -0,0 +1,28 @@
+package com.dnsimple;
+
+/**
+ * Holds the OAuth access tokens used to authenticate requests, one per account.
+ * <p>
+ * The HttpClient looks up the token for the account in the request path on every request,
+ * so implementations should make {@link #getToken(String)} cheap and safe to call
+ * concurrently.
+ */
+public interface TokenStore {
+  /**
+   * @param accountId The account ID
+   * @return The token for the account, or null if there is none
+   */
+  OauthToken getToken(String accountId);
+
+  /**
+   * Store a token under its account ID, replacing any previous token for the account.
+   *
+   * @param token The token
+   */
+  void putToken(OauthToken token);
+
+  /**
+   * @param accountId The account ID
+   */
+  void removeToken(String accountId);
+}
@@ -0,0 +1,82 @@
+package com.dnsimple;
+
+import java.io.IOException;
+
+import com.dnsimple.exception.DnsimpleException;
+import com.dnsimple.request.WebhookCreate;
+
+/**
+ * Keeps a {@link ResourceCache} up to date from webhook events.
+ * <p>
+ * Delete events drop the matching entries. Other domain, zone and zone record events carry
+ * the current state of the resource, which replaces the cached copy.
+ * <p>
+ * For example:
+ * <p>
+ * WebhookCacheInvalidator.register(client.webhooks, accountId, "https://example.com/webhooks");
+ * WebhookDispatcher dispatcher = WebhookDispatcher.builder()
+ *   .onAny(new WebhookCacheInvalidator(cache))
+ *   .build();
+ */
+public class WebhookCacheInvalidator implements WebhookEventHandler {
+  private final ResourceCache cache;
+
+  public WebhookCacheInvalidator(ResourceCache cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Register a webhook URL for an account, unless it is already registered.
+   *
+   * @param webhooks The webhooks API
+   * @param accountId The account ID
+   * @param url The URL events are sent to
+   * @return The registered webhook
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public static Webhook register(Webhooks webhooks, String accountId, String url) throws DnsimpleException, IOException {
+    for (Webhook webhook : webhooks.listWebhooks(accountId).getData()) {
+      if (url.equals(webhook.getUrl())) {
+        return webhook;
+      }
+    }
+    return webhooks.createWebhook(accountId, WebhookCreate.builder().url(url).build()).getData();
+  }
+
+  public void onEvent(WebhookEvent event) {
+    if (event.getAccount() == null || event.getAccount().getId() == null || event.getData() == null) {
+      return;
+    }
+
+    String accountId = event.getAccount().getId().toString();
+    String name = event.getName();
+    int dot = name.indexOf('.');
+    if (dot < 0) {
+      return;
+    }
+    String resource = name.substring(0, dot);
+    boolean deleted = name.endsWith(".delete");
+    WebhookEvent.Data data = event.getData();
+
+    if ("domain".equals(resource) && data.getDomain() != null) {
+      if (deleted) {
+        cache.removeDomain(accountId, data.getDomain());
+      } else {
+        cache.putDomain(accountId, data.getDomain());
+      }
+    } else if ("zone".equals(resource) && data.getZone() != null) {
+      if (deleted) {
+        cache.removeZone(accountId, data.getZone());
+      } else {
+        cache.putZone(accountId, data.getZone());
+      }
+    } else if (("zone_record".equals(resource) || "record".equals(resource)) && data.getZoneRecord() != null) {
+      if (deleted) {
+        cache.removeZoneRecord(accountId, data.getZoneRecord());
+      } else {
+        cache.putZoneRecord(accountId, data.getZoneRecord());
+      }
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.dnsimple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes webhook events to handlers by event name.
+ * <p>
+ * The handlers for each event name are resolved when the dispatcher is built, so dispatching
+ * is a single map lookup followed by a loop over an array.
+ * <p>
+ * For example:
+ * <p>
+ * WebhookDispatcher dispatcher = WebhookDispatcher.builder()
+ *   .on("domain.create", domainCreated)
+ *   .onAny(auditLog)
+ *   .build();
+ */
+public class WebhookDispatcher {
+  private static final WebhookEventHandler[] NO_HANDLERS = new WebhookEventHandler[0];
+
+  private final Map<String, WebhookEventHandler[]> handlersByName;
+  private final WebhookEventHandler[] anyHandlers;
+
+  private WebhookDispatcher(Builder builder) {
+    this.anyHandlers = builder.anyHandlers.toArray(NO_HANDLERS);
+    this.handlersByName = new HashMap<String, WebhookEventHandler[]>(builder.handlers.size() * 2);
+    for (Map.Entry<String, List<WebhookEventHandler>> entry : builder.handlers.entrySet()) {
+      List<WebhookEventHandler> handlers = new ArrayList<WebhookEventHandler>(entry.getValue());
+      Collections.addAll(handlers, anyHandlers);
+      handlersByName.put(entry.getKey(), handlers.toArray(NO_HANDLERS));
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Pass an event to the handlers registered for its name, then to the handlers registered
+   * for all events. Exceptions thrown by a handler propagate to the caller and skip the
+   * remaining handlers.
+   *
+   * @param event The event
+   * @return The number of handlers called
+   */
+  public int dispatch(WebhookEvent event) {
+    WebhookEventHandler[] handlers = handlersByName.get(event.getName());
+    if (handlers == null) {
+      handlers = anyHandlers;
+    }
+    for (WebhookEventHandler handler : handlers) {
+      handler.onEvent(event);
+    }
+    return handlers.length;
+  }
+
+  public static class Builder {
+    private final Map<String, List<WebhookEventHandler>> handlers = new LinkedHashMap<String, List<WebhookEventHandler>>();
+    private final List<WebhookEventHandler> anyHandlers = new ArrayList<WebhookEventHandler>();
+
+    private Builder() {
+    }
+
+    /**
+     * @param eventName The event name, such as "domain.create"
+     * @param handler The handler for events with that name
+     * @return The builder
+     */
+    public Builder on(String eventName, WebhookEventHandler handler) {
+      List<WebhookEventHandler> named = handlers.get(eventName);
+      if (named == null) {
+        named = new ArrayList<WebhookEventHandler>(1);
+        handlers.put(eventName, named);
+      }
+      named.add(handler);
+      return this;
+    }
+
+    /**
+     * @param handler The handler for all events
+     * @return The builder
+     */
+    public Builder onAny(WebhookEventHandler handler) {
+      anyHandlers.add(handler);
+      return this;
+    }
+
+    public WebhookDispatcher build() {
+      return new WebhookDispatcher(this);
+    }
+  }
+}
@@ -0,0 +1,239 @@
+package com.dnsimple;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import com.google.api.client.json.JsonParser;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.Key;
+
+/**
+ * An event delivered by DNSimple to a webhook URL.
+ * <p>
+ * The payload is parsed in a single pass straight into the typed event, including the
+ * resource in the data section, so no intermediate maps are built.
+ *
+ * @see <a href="https://developer.dnsimple.com/v2/webhooks/events/">https://developer.dnsimple.com/v2/webhooks/events/</a>
+ */
+public class WebhookEvent {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  @Key("name")
+  private String name;
+
+  @Key("api_version")
+  private String apiVersion;
+
+  @Key("request_identifier")
+  private String requestIdentifier;
+
+  @Key("data")
+  private Data data;
+
+  @Key("account")
+  private Account account;
+
+  @Key("actor")
+  private Actor actor;
+
+  public WebhookEvent() {}
+
+  /**
+   * Parse an event payload.
+   *
+   * @param payload The JSON payload
+   * @return The event
+   * @throws IOException If the payload is not a valid event
+   */
+  public static WebhookEvent parse(byte[] payload) throws IOException {
+    return parse(payload, 0, payload.length);
+  }
+
+  /**
+   * Parse an event payload held in part of an array.
+   *
+   * @param payload The array holding the JSON payload
+   * @param offset The offset of the payload in the array
+   * @param length The length of the payload
+   * @return The event
+   * @throws IOException If the payload is not a valid event
+   */
+  public static WebhookEvent parse(byte[] payload, int offset, int length) throws IOException {
+    WebhookEvent event;
+    try {
+      JsonParser parser = GsonFactory.getDefaultInstance().createJsonParser(new ByteArrayInputStream(payload, offset, length), UTF_8);
+      event = parser.parse(WebhookEvent.class);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Invalid webhook event: " + e.getMessage());
+    }
+    if (event == null || event.name == null) {
+      throw new IOException("Invalid webhook event: no event name");
+    }
+    return event;
+  }
+
+  /**
+   * Parse the remaining bytes of a buffer as an event payload. The buffer position is not changed.
+   *
+   * @param payload The buffer holding the JSON payload
+   * @return The event
+   * @throws IOException If the payload is not a valid event
+   */
+  public static WebhookEvent parse(ByteBuffer payload) throws IOException {
+    if (payload.hasArray()) {
+      return parse(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining());
+    }
+    byte[] copy = new byte[payload.remaining()];
+    payload.duplicate().get(copy);
+    return parse(copy);
+  }
+
+  /**
+   * @return The event name, such as "domain.create"
+   */
+  public String getName() {
+    return name;
+  }
+
+  public String getApiVersion() {
+    return apiVersion;
+  }
+
+  public String getRequestIdentifier() {
+    return requestIdentifier;
+  }
+
+  /**
+   * @return The resource the event is about
+   */
+  public Data getData() {
+    return data;
+  }
+
+  public Account getAccount() {
+    return account;
+  }
+
+  public Actor getActor() {
+    return actor;
+  }
+
+  /**
+   * The resource an event is about. Only the field matching the event is set.
+   */
+  public static class Data {
+    @Key("domain")
+    private Domain domain;
+
+    @Key("zone")
+    private Zone zone;
+
+    @Key("zone_record")
+    private ZoneRecord zoneRecord;
+
+    @Key("record")
+    private ZoneRecord record;
+
+    @Key("contact")
+    private Contact contact;
+
+    @Key("certificate")
+    private Certificate certificate;
+
+    @Key("email_forward")
+    private EmailForward emailForward;
+
+    @Key("template")
+    private Template template;
+
+    @Key("template_record")
+    private TemplateRecord templateRecord;
+
+    @Key("webhook")
+    private Webhook webhook;
+
+    @Key("whois_privacy")
+    private WhoisPrivacy whoisPrivacy;
+
+    public Data() {}
+
+    public Domain getDomain() {
+      return domain;
+    }
+
+    public Zone getZone() {
+      return zone;
+    }
+
+    /**
+     * @return The zone record, from either the "zone_record" or the older "record" key
+     */
+    public ZoneRecord getZoneRecord() {
+      return zoneRecord != null ? zoneRecord : record;
+    }
+
+    public Contact getContact() {
+      return contact;
+    }
+
+    public Certificate getCertificate() {
+      return certificate;
+    }
+
+    public EmailForward getEmailForward() {
+      return emailForward;
+    }
+
+    public Template getTemplate() {
+      return template;
+    }
+
+    public TemplateRecord getTemplateRecord() {
+      return templateRecord;
+    }
+
+    public Webhook getWebhook() {
+      return webhook;
+    }
+
+    public WhoisPrivacy getWhoisPrivacy() {
+      return whoisPrivacy;
+    }
+  }
+
+  /**
+   * Who triggered an event.
+   */
+  public static class Actor {
+    @Key("id")
+    private String id;
+
+    @Key("entity")
+    private String entity;
+
+    @Key("pretty")
+    private String pretty;
+
+    public Actor() {}
+
+    public String getId() {
+      return id;
+    }
+
+    /**
+     * @return The kind of actor, such as "user" or "dnsimple"
+     */
+    public String getEntity() {
+      return entity;
+    }
+
+    /**
+     * @return A readable description of the actor, such as an email address
+     */
+    public String getPretty() {
+      return pretty;
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package com.dnsimple;
+
+/**
+ * Handles webhook events dispatched by a {@link WebhookDispatcher}.
+ */
+public interface WebhookEventHandler {
+  /**
+   * @param event The event
+   */
+  void onEvent(WebhookEvent event);
+}
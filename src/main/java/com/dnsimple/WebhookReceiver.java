@@ -0,0 +1,184 @@
+package com.dnsimple;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Queues webhook events and dispatches them on a fixed set of worker threads.
+ * <p>
+ * The queue is bounded. When it is full, {@link #offer(WebhookEvent, long, TimeUnit)} waits up
+ * to the given time and then refuses the event, so the sender can be told to retry later
+ * instead of the receiver running out of memory.
+ * <p>
+ * For example:
+ * <p>
+ * WebhookReceiver receiver = new WebhookReceiver(dispatcher, 10000, 4);
+ * receiver.start();
+ * receiver.offer(WebhookEvent.parse(body), 100, TimeUnit.MILLISECONDS);
+ */
+public class WebhookReceiver {
+  private final WebhookDispatcher dispatcher;
+  private final BlockingQueue<WebhookEvent> queue;
+  private final Thread[] workers;
+  private final AtomicLong dispatched = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  // Offers hold the read lock while queueing, so once shutdown has taken the write lock no
+  // accepted event can be queued after the workers start draining
+  private final ReadWriteLock offers = new ReentrantReadWriteLock();
+
+  private volatile boolean running;
+
+  /**
+   * @param dispatcher The dispatcher events are passed to
+   * @param queueCapacity The number of events that can wait to be dispatched
+   * @param workerThreads The number of threads dispatching events
+   */
+  public WebhookReceiver(WebhookDispatcher dispatcher, int queueCapacity, int workerThreads) {
+    if (workerThreads < 1) {
+      throw new IllegalArgumentException("workerThreads must be at least 1");
+    }
+    this.dispatcher = dispatcher;
+    this.queue = new ArrayBlockingQueue<WebhookEvent>(queueCapacity);
+    this.workers = new Thread[workerThreads];
+    for (int i = 0; i < workerThreads; i++) {
+      workers[i] = new Thread(new Worker(), "dnsimple-webhook-" + i);
+      workers[i].setDaemon(true);
+    }
+  }
+
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    running = true;
+    for (Thread worker : workers) {
+      worker.start();
+    }
+  }
+
+  /**
+   * Stop accepting events, dispatch the events already queued, and wait for the workers to finish.
+   * Offers already waiting for room in the queue are allowed to finish first.
+   *
+   * @param timeout How long to wait
+   * @param unit The unit of the timeout
+   * @return True if all queued events were dispatched in time
+   * @throws InterruptedException If interrupted while waiting
+   */
+  public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+    offers.writeLock().lock();
+    try {
+      running = false;
+    } finally {
+      offers.writeLock().unlock();
+    }
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (Thread worker : workers) {
+      long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      if (remaining > 0) {
+        worker.join(remaining);
+      }
+    }
+    for (Thread worker : workers) {
+      if (worker.isAlive()) {
+        return false;
+      }
+    }
+    return queue.isEmpty();
+  }
+
+  /**
+   * Queue an event, waiting if the queue is full.
+   *
+   * @param event The event
+   * @param timeout How long to wait for room in the queue
+   * @param unit The unit of the timeout
+   * @return True if the event was queued, false if the queue stayed full or the receiver is stopped
+   * @throws InterruptedException If interrupted while waiting
+   */
+  public boolean offer(WebhookEvent event, long timeout, TimeUnit unit) throws InterruptedException {
+    offers.readLock().lock();
+    try {
+      return running && queue.offer(event, timeout, unit);
+    } finally {
+      offers.readLock().unlock();
+    }
+  }
+
+  /**
+   * Parse a payload and queue the event without waiting.
+   *
+   * @param payload The JSON payload
+   * @return True if the event was queued, false if the queue is full or the receiver is stopped
+   * @throws IOException If the payload is not a valid event
+   */
+  public boolean offer(byte[] payload) throws IOException {
+    WebhookEvent event = WebhookEvent.parse(payload);
+    offers.readLock().lock();
+    try {
+      return running && queue.offer(event);
+    } finally {
+      offers.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return The number of events waiting to be dispatched
+   */
+  public int getQueuedCount() {
+    return queue.size();
+  }
+
+  /**
+   * @return The number of events dispatched to all their handlers
+   */
+  public long getDispatchedCount() {
+    return dispatched.get();
+  }
+
+  /**
+   * @return The number of events for which a handler threw an exception
+   */
+  public long getFailedCount() {
+    return failed.get();
+  }
+
+  /**
+   * Called on a worker thread when a handler throws an exception. The default does nothing;
+   * override to log or record the failure.
+   *
+   * @param event The event being dispatched
+   * @param error The exception thrown by the handler
+   */
+  protected void onHandlerError(WebhookEvent event, RuntimeException error) {
+  }
+
+  private final class Worker implements Runnable {
+    public void run() {
+      while (running || !queue.isEmpty()) {
+        WebhookEvent event;
+        try {
+          event = queue.poll(100, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          return;
+        }
+        if (event == null) {
+          continue;
+        }
+
+        try {
+          dispatcher.dispatch(event);
+          dispatched.incrementAndGet();
+        } catch (RuntimeException e) {
+          failed.incrementAndGet();
+          onHandlerError(event, e);
+        }
+      }
+    }
+  }
+}
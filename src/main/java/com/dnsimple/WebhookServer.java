@@ -0,0 +1,156 @@
+package com.dnsimple;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A small HTTP endpoint, bound to the loopback address, that feeds the events POSTed to it
+ * into a {@link WebhookReceiver}. It is meant for local development and tests; production
+ * deployments should call {@link WebhookReceiver#offer(byte[])} from their own web server.
+ * <p>
+ * Responses are 202 when the event is queued, 400 when the payload is not an event or its
+ * Content-Length is malformed, 413 when the payload is larger than the maximum, 503 when the
+ * queue is full and 405 for anything but POST.
+ */
+public class WebhookServer {
+  /**
+   * The default maximum payload size, well above the size of any event.
+   */
+  public static final int DEFAULT_MAX_BODY_BYTES = 1024 * 1024;
+
+  private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final String path;
+
+  /**
+   * @param receiver The receiver events are queued on
+   * @param port The port to listen on, or 0 to pick a free one
+   * @param path The path events are POSTed to, such as "/webhooks"
+   * @throws IOException If the port cannot be bound
+   */
+  public WebhookServer(WebhookReceiver receiver, int port, String path) throws IOException {
+    this(receiver, port, path, DEFAULT_MAX_BODY_BYTES);
+  }
+
+  /**
+   * @param receiver The receiver events are queued on
+   * @param port The port to listen on, or 0 to pick a free one
+   * @param path The path events are POSTed to, such as "/webhooks"
+   * @param maxBodyBytes The largest payload accepted, in bytes
+   * @throws IOException If the port cannot be bound
+   */
+  public WebhookServer(WebhookReceiver receiver, int port, String path, int maxBodyBytes) throws IOException {
+    if (maxBodyBytes <= 0) {
+      throw new IllegalArgumentException("maxBodyBytes must be positive, was " + maxBodyBytes);
+    }
+    this.path = path;
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getByName(null), port), 0);
+    this.server.createContext(path, new EventHandler(receiver, maxBodyBytes));
+    this.executor = Executors.newCachedThreadPool();
+    this.server.setExecutor(executor);
+  }
+
+  public void start() {
+    server.start();
+  }
+
+  public void stop() {
+    server.stop(0);
+    executor.shutdown();
+  }
+
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * @return The URL to register as the webhook URL
+   */
+  public String getUrl() {
+    return "http://" + server.getAddress().getAddress().getHostAddress() + ":" + getPort() + path;
+  }
+
+  private static final class EventHandler implements HttpHandler {
+    private final WebhookReceiver receiver;
+    private final int maxBodyBytes;
+
+    EventHandler(WebhookReceiver receiver, int maxBodyBytes) {
+      this.receiver = receiver;
+      this.maxBodyBytes = maxBodyBytes;
+    }
+
+    public void handle(HttpExchange exchange) throws IOException {
+      try {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+          exchange.sendResponseHeaders(405, -1);
+          return;
+        }
+
+        long length = contentLength(exchange);
+        if (length < -1) {
+          exchange.sendResponseHeaders(400, -1);
+          return;
+        }
+        byte[] body = length > maxBodyBytes ? null : readBody(exchange, length);
+        if (body == null) {
+          exchange.sendResponseHeaders(413, -1);
+          return;
+        }
+
+        int status;
+        try {
+          status = receiver.offer(body) ? 202 : 503;
+        } catch (IOException e) {
+          status = 400;
+        }
+        exchange.sendResponseHeaders(status, -1);
+      } finally {
+        exchange.close();
+      }
+    }
+
+    /**
+     * @return The Content-Length of the request, -1 if it has none, or -2 if it is malformed
+     */
+    private static long contentLength(HttpExchange exchange) {
+      String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+      if (contentLength == null) {
+        return -1;
+      }
+      try {
+        long length = Long.parseLong(contentLength.trim());
+        return length < 0 ? -2 : length;
+      } catch (NumberFormatException e) {
+        return -2;
+      }
+    }
+
+    /**
+     * @param length The Content-Length of the request, or -1 if it has none
+     * @return The body, or null if it is larger than the maximum
+     */
+    private byte[] readBody(HttpExchange exchange, long length) throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(length < 0 ? 1024 : (int) Math.min(length, INITIAL_BUFFER_BYTES));
+      InputStream in = exchange.getRequestBody();
+      byte[] buffer = new byte[4096];
+      for (int read = in.read(buffer); read > 0; read = in.read(buffer)) {
+        if (out.size() + read > maxBodyBytes) {
+          return null;
+        }
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    }
+  }
+}
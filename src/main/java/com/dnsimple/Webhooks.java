@@ -8,6 +8,8 @@ import com.dnsimple.response.GetWebhookResponse;
 import com.dnsimple.response.CreateWebhookResponse;
 import com.dnsimple.response.DeleteWebhookResponse;
 
+import com.dnsimple.request.WebhookCreate;
+
 import com.dnsimple.exception.DnsimpleException;
 
 import com.google.api.client.http.HttpResponse;
@@ -86,6 +88,22 @@ public class Webhooks {
     return (CreateWebhookResponse) httpClient.parseResponse(response, CreateWebhookResponse.class);
   }
 
+  /**
+   * Create a webhook in the account.
+   *
+   * @see <a href="https://developer.dnsimple.com/v2/webhooks/#create">https://developer.dnsimple.com/v2/webhooks/#create</a>
+   *
+   * @param accountId The account ID
+   * @param webhook The webhook to create
+   * @return The create webhook response
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public CreateWebhookResponse createWebhook(String accountId, WebhookCreate webhook) throws DnsimpleException, IOException {
+    HttpResponse response = httpClient.post(accountId + "/webhooks", webhook);
+    return (CreateWebhookResponse) httpClient.parseResponse(response, CreateWebhookResponse.class);
+  }
+
   /**
    * Delete a webhook from the account.
    *
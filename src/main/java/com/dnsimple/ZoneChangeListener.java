@@ -0,0 +1,13 @@
+package com.dnsimple;
+
+/**
+ * Receives the changes found by a {@link ZoneWatcher}.
+ */
+public interface ZoneChangeListener {
+  /**
+   * Called on a watcher I/O thread each time a poll finds the records of a zone changed.
+   *
+   * @param change The change
+   */
+  void onZoneChanged(ZoneWatcher.ZoneChange change);
+}
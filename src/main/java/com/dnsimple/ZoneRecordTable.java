@@ -0,0 +1,622 @@
+package com.dnsimple;
+
+import java.io.UnsupportedEncodingException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.api.client.util.Data;
+
+/**
+ * Holds a large number of zone records in a fraction of the memory that {@link ZoneRecord}
+ * objects take.
+ * <p>
+ * Records are stored column by column in primitive arrays: numbers unboxed, zone IDs,
+ * names and types interned, contents as UTF-8 bytes, and timestamps as milliseconds since
+ * the epoch. {@link #get(int)} returns a lightweight view with the same getters as a
+ * {@link ZoneRecord}, which reads from the columns when called. Scans that only need a few
+ * fields can use the per-row accessors, such as {@link #getTtl(int)}, and allocate nothing.
+ * <p>
+ * Rows are numbered from 0 in insertion order, until a record is removed: the last row
+ * then takes the place of the removed one. Views follow their row number, not their record.
+ * Like the java.util collections, a table is not safe for concurrent modification.
+ * <p>
+ * For example:
+ * <p>
+ * ZoneRecordTable table = new ZoneRecordTable();
+ * table.addAll(client.zones.listZoneRecords(accountId, zoneId).getData());
+ * ZoneRecord record = table.findById(64779);
+ */
+public class ZoneRecordTable {
+  private static final int NO_VALUE = -1;
+
+  private static final byte PARENT_ID_NULL = 1;
+  private static final byte TTL_NULL = 2;
+  private static final byte PRIORITY_NULL = 4;
+  private static final byte SYSTEM_RECORD_NULL = 8;
+  private static final byte SYSTEM_RECORD = 16;
+  private static final byte ID_NULL = 32;
+
+  private final List<String> strings = new ArrayList<String>();
+  private final Map<String, Integer> stringIndex = new HashMap<String, Integer>();
+  private final Map<Long, String> irregularTimestamps = new HashMap<Long, String>();
+  private final IdIndex idIndex = new IdIndex();
+
+  private int size;
+  private int[] ids;
+  private int[] parentIds;
+  private int[] ttls;
+  private int[] priorities;
+  private int[] zoneIds;
+  private int[] names;
+  private int[] types;
+  private int[] contentOffsets;
+  private int[] contentLengths;
+  private long[] createdAt;
+  private long[] updatedAt;
+  private byte[] flags;
+
+  private byte[] contentBytes;
+  private int contentSize;
+  private int contentGarbage;
+
+  public ZoneRecordTable() {
+    this(1024);
+  }
+
+  /**
+   * @param initialCapacity The number of records to allocate room for
+   */
+  public ZoneRecordTable(int initialCapacity) {
+    int capacity = Math.max(16, initialCapacity);
+    ids = new int[capacity];
+    parentIds = new int[capacity];
+    ttls = new int[capacity];
+    priorities = new int[capacity];
+    zoneIds = new int[capacity];
+    names = new int[capacity];
+    types = new int[capacity];
+    contentOffsets = new int[capacity];
+    contentLengths = new int[capacity];
+    createdAt = new long[capacity];
+    updatedAt = new long[capacity];
+    flags = new byte[capacity];
+    contentBytes = new byte[capacity * 16];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Add a record, or replace the record with the same ID.
+   *
+   * @param record The record
+   * @return The row of the record
+   */
+  public int add(ZoneRecord record) {
+    int row = absent(record.getId()) ? NO_VALUE : idIndex.get(record.getId());
+    if (row == NO_VALUE) {
+      ensureCapacity(size + 1);
+      row = size++;
+      if (!absent(record.getId())) {
+        idIndex.put(record.getId(), row);
+      }
+    } else {
+      contentGarbage += contentLengths[row];
+      contentOffsets[row] = NO_VALUE;
+    }
+    set(row, record);
+    return row;
+  }
+
+  /**
+   * Add records, replacing the records with the same IDs.
+   *
+   * @param records The records
+   */
+  public void addAll(Collection<? extends ZoneRecord> records) {
+    ensureCapacity(size + records.size());
+    for (ZoneRecord record : records) {
+      add(record);
+    }
+  }
+
+  /**
+   * @param row The row, from 0 to {@link #size()} - 1
+   * @return A view of the record in the row
+   */
+  public ZoneRecord get(int row) {
+    checkRow(row);
+    return new Row(row);
+  }
+
+  /**
+   * @param id The record ID
+   * @return The row of the record, or -1 if it is not in the table
+   */
+  public int indexOf(int id) {
+    return idIndex.get(id);
+  }
+
+  /**
+   * @param id The record ID
+   * @return A view of the record, or null if it is not in the table
+   */
+  public ZoneRecord findById(int id) {
+    int row = idIndex.get(id);
+    return row == NO_VALUE ? null : new Row(row);
+  }
+
+  /**
+   * Remove a record. The last row is moved into its place.
+   *
+   * @param id The record ID
+   * @return Whether the record was in the table
+   */
+  public boolean removeById(int id) {
+    int row = idIndex.remove(id);
+    if (row == NO_VALUE) {
+      return false;
+    }
+    contentGarbage += contentLengths[row];
+    irregularTimestamps.remove(timestampKey(row, false));
+    irregularTimestamps.remove(timestampKey(row, true));
+
+    int last = --size;
+    if (row != last) {
+      ids[row] = ids[last];
+      parentIds[row] = parentIds[last];
+      ttls[row] = ttls[last];
+      priorities[row] = priorities[last];
+      zoneIds[row] = zoneIds[last];
+      names[row] = names[last];
+      types[row] = types[last];
+      contentOffsets[row] = contentOffsets[last];
+      contentLengths[row] = contentLengths[last];
+      createdAt[row] = createdAt[last];
+      updatedAt[row] = updatedAt[last];
+      flags[row] = flags[last];
+      moveIrregularTimestamp(last, row, false);
+      moveIrregularTimestamp(last, row, true);
+      if ((flags[row] & ID_NULL) == 0) {
+        idIndex.put(ids[row], row);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return Views of all the records, in row order
+   */
+  public List<ZoneRecord> asList() {
+    return new AbstractList<ZoneRecord>() {
+      @Override
+      public ZoneRecord get(int row) {
+        return ZoneRecordTable.this.get(row);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  public int getId(int row) {
+    checkRow(row);
+    return ids[row];
+  }
+
+  /**
+   * @return The TTL of the record in the row, or -1 if it has none
+   */
+  public int getTtl(int row) {
+    checkRow(row);
+    return (flags[row] & TTL_NULL) != 0 ? NO_VALUE : ttls[row];
+  }
+
+  /**
+   * @return The priority of the record in the row, or -1 if it has none
+   */
+  public int getPriority(int row) {
+    checkRow(row);
+    return (flags[row] & PRIORITY_NULL) != 0 ? NO_VALUE : priorities[row];
+  }
+
+  /**
+   * @return The interned zone ID of the record in the row
+   */
+  public String getZoneId(int row) {
+    checkRow(row);
+    return string(zoneIds[row]);
+  }
+
+  /**
+   * @return The interned name of the record in the row
+   */
+  public String getName(int row) {
+    checkRow(row);
+    return string(names[row]);
+  }
+
+  /**
+   * @return The interned type of the record in the row
+   */
+  public String getType(int row) {
+    checkRow(row);
+    return string(types[row]);
+  }
+
+  /**
+   * @return The creation time of the record in the row in milliseconds since the epoch, or Long.MIN_VALUE if unknown
+   */
+  public long getCreatedAtMillis(int row) {
+    checkRow(row);
+    return createdAt[row];
+  }
+
+  /**
+   * @return The update time of the record in the row in milliseconds since the epoch, or Long.MIN_VALUE if unknown
+   */
+  public long getUpdatedAtMillis(int row) {
+    checkRow(row);
+    return updatedAt[row];
+  }
+
+  /**
+   * @return An estimate of the heap used by the table, in bytes
+   */
+  public long estimatedBytes() {
+    long bytes = (long) ids.length * (9 * 4 + 2 * 8 + 1) + contentBytes.length + idIndex.keys.length * 8L;
+    for (String string : strings) {
+      bytes += 40 + string.length() * 2 + 48;
+    }
+    return bytes;
+  }
+
+  private void set(int row, ZoneRecord record) {
+    byte flag = 0;
+    if (absent(record.getId())) {
+      flag |= ID_NULL;
+    } else {
+      ids[row] = record.getId();
+    }
+    if (absent(record.getParentId())) {
+      flag |= PARENT_ID_NULL;
+    } else {
+      parentIds[row] = record.getParentId();
+    }
+    if (absent(record.getTtl())) {
+      flag |= TTL_NULL;
+    } else {
+      ttls[row] = record.getTtl();
+    }
+    if (absent(record.getPriority())) {
+      flag |= PRIORITY_NULL;
+    } else {
+      priorities[row] = record.getPriority();
+    }
+    if (absent(record.getSystemRecord())) {
+      flag |= SYSTEM_RECORD_NULL;
+    } else if (record.getSystemRecord()) {
+      flag |= SYSTEM_RECORD;
+    }
+    flags[row] = flag;
+
+    // JSON nulls are decoded to placeholder values, which are stored as nulls
+    zoneIds[row] = intern(record.getZoneId());
+    names[row] = intern(record.getName());
+    types[row] = intern(record.getType());
+    setContent(row, record.getContent());
+    createdAt[row] = timestamp(row, false, record.getCreatedAt());
+    updatedAt[row] = timestamp(row, true, record.getUpdatedAt());
+  }
+
+  private int intern(String string) {
+    if (absent(string)) {
+      return NO_VALUE;
+    }
+    Integer index = stringIndex.get(string);
+    if (index == null) {
+      index = strings.size();
+      strings.add(string);
+      stringIndex.put(string, index);
+    }
+    return index;
+  }
+
+  private String string(int index) {
+    return index == NO_VALUE ? null : strings.get(index);
+  }
+
+  private void setContent(int row, String content) {
+    if (absent(content)) {
+      contentOffsets[row] = NO_VALUE;
+      contentLengths[row] = 0;
+      return;
+    }
+    byte[] bytes;
+    try {
+      bytes = content.getBytes("UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+    if (contentSize + bytes.length > contentBytes.length) {
+      compactContent(bytes.length);
+    }
+    System.arraycopy(bytes, 0, contentBytes, contentSize, bytes.length);
+    contentOffsets[row] = contentSize;
+    contentLengths[row] = bytes.length;
+    contentSize += bytes.length;
+  }
+
+  private String content(int row) {
+    if (contentOffsets[row] == NO_VALUE) {
+      return null;
+    }
+    try {
+      return new String(contentBytes, contentOffsets[row], contentLengths[row], "UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Make room for more content, dropping the content of replaced and removed records
+   * if that frees enough space.
+   */
+  private void compactContent(int needed) {
+    int live = contentSize - contentGarbage;
+    int capacity = contentBytes.length;
+    while (capacity < live + needed || (contentGarbage < capacity / 4 && capacity < contentSize + needed)) {
+      capacity *= 2;
+    }
+    byte[] compacted = new byte[capacity];
+    int position = 0;
+    for (int row = 0; row < size; row++) {
+      if (contentOffsets[row] != NO_VALUE) {
+        System.arraycopy(contentBytes, contentOffsets[row], compacted, position, contentLengths[row]);
+        contentOffsets[row] = position;
+        position += contentLengths[row];
+      }
+    }
+    contentBytes = compacted;
+    contentSize = position;
+    contentGarbage = 0;
+  }
+
+  private long timestamp(int row, boolean updated, String timestamp) {
+    Long key = timestampKey(row, updated);
+    irregularTimestamps.remove(key);
+    if (absent(timestamp)) {
+      return Timestamps.NONE;
+    }
+    long millis = Timestamps.parseMillis(timestamp);
+    if (millis == Timestamps.NONE || !timestamp.equals(Timestamps.formatMillis(millis))) {
+      // Keep timestamps that would not survive the round trip as they are
+      irregularTimestamps.put(key, timestamp);
+    }
+    return millis;
+  }
+
+  private String timestamp(int row, boolean updated) {
+    if (!irregularTimestamps.isEmpty()) {
+      String irregular = irregularTimestamps.get(timestampKey(row, updated));
+      if (irregular != null) {
+        return irregular;
+      }
+    }
+    return Timestamps.formatMillis(updated ? updatedAt[row] : createdAt[row]);
+  }
+
+  private void moveIrregularTimestamp(int from, int to, boolean updated) {
+    String irregular = irregularTimestamps.remove(timestampKey(from, updated));
+    if (irregular != null) {
+      irregularTimestamps.put(timestampKey(to, updated), irregular);
+    }
+  }
+
+  private static boolean absent(Object value) {
+    return value == null || Data.isNull(value);
+  }
+
+  private static Long timestampKey(int row, boolean updated) {
+    return ((long) row << 1) | (updated ? 1 : 0);
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= ids.length) {
+      return;
+    }
+    int grown = Math.max(capacity, ids.length + (ids.length >> 1));
+    ids = Arrays.copyOf(ids, grown);
+    parentIds = Arrays.copyOf(parentIds, grown);
+    ttls = Arrays.copyOf(ttls, grown);
+    priorities = Arrays.copyOf(priorities, grown);
+    zoneIds = Arrays.copyOf(zoneIds, grown);
+    names = Arrays.copyOf(names, grown);
+    types = Arrays.copyOf(types, grown);
+    contentOffsets = Arrays.copyOf(contentOffsets, grown);
+    contentLengths = Arrays.copyOf(contentLengths, grown);
+    createdAt = Arrays.copyOf(createdAt, grown);
+    updatedAt = Arrays.copyOf(updatedAt, grown);
+    flags = Arrays.copyOf(flags, grown);
+  }
+
+  private void checkRow(int row) {
+    if (row < 0 || row >= size) {
+      throw new IndexOutOfBoundsException("Row " + row + ", size " + size);
+    }
+  }
+
+  /**
+   * A view of one row, with the getters of a zone record.
+   */
+  private final class Row extends ZoneRecord {
+    private final int row;
+
+    Row(int row) {
+      this.row = row;
+    }
+
+    @Override
+    public Integer getId() {
+      checkRow(row);
+      return (flags[row] & ID_NULL) != 0 ? null : Integer.valueOf(ids[row]);
+    }
+
+    @Override
+    public String getZoneId() {
+      return ZoneRecordTable.this.getZoneId(row);
+    }
+
+    @Override
+    public Integer getParentId() {
+      checkRow(row);
+      return (flags[row] & PARENT_ID_NULL) != 0 ? null : Integer.valueOf(parentIds[row]);
+    }
+
+    @Override
+    public String getName() {
+      return ZoneRecordTable.this.getName(row);
+    }
+
+    @Override
+    public String getContent() {
+      checkRow(row);
+      return content(row);
+    }
+
+    @Override
+    public Integer getTtl() {
+      checkRow(row);
+      return (flags[row] & TTL_NULL) != 0 ? null : Integer.valueOf(ttls[row]);
+    }
+
+    @Override
+    public Integer getPriority() {
+      checkRow(row);
+      return (flags[row] & PRIORITY_NULL) != 0 ? null : Integer.valueOf(priorities[row]);
+    }
+
+    @Override
+    public String getType() {
+      return ZoneRecordTable.this.getType(row);
+    }
+
+    @Override
+    public Boolean getSystemRecord() {
+      checkRow(row);
+      return (flags[row] & SYSTEM_RECORD_NULL) != 0 ? null : Boolean.valueOf((flags[row] & SYSTEM_RECORD) != 0);
+    }
+
+    @Override
+    public String getCreatedAt() {
+      checkRow(row);
+      return timestamp(row, false);
+    }
+
+    @Override
+    public String getUpdatedAt() {
+      checkRow(row);
+      return timestamp(row, true);
+    }
+
+    @Override
+    public Date getCreatedAtDate() {
+      checkRow(row);
+      return Timestamps.toDate(createdAt[row]);
+    }
+
+    @Override
+    public Date getUpdatedAtDate() {
+      checkRow(row);
+      return Timestamps.toDate(updatedAt[row]);
+    }
+  }
+
+  /**
+   * An open addressing map from record ID to row, with no boxing.
+   */
+  private static final class IdIndex {
+    private long[] keys = new long[64];
+    private int count;
+
+    int get(int id) {
+      int mask = keys.length - 1;
+      for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+        long entry = keys[slot];
+        if (entry == 0) {
+          return NO_VALUE;
+        }
+        if ((int) (entry >>> 32) == id) {
+          return (int) entry - 1;
+        }
+      }
+    }
+
+    void put(int id, int row) {
+      if ((count + 1) * 2 > keys.length) {
+        resize();
+      }
+      int mask = keys.length - 1;
+      for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+        long entry = keys[slot];
+        if (entry == 0 || (int) (entry >>> 32) == id) {
+          if (entry == 0) {
+            count++;
+          }
+          keys[slot] = ((long) id << 32) | ((row + 1) & 0xffffffffL);
+          return;
+        }
+      }
+    }
+
+    int remove(int id) {
+      int mask = keys.length - 1;
+      int slot = hash(id) & mask;
+      while (keys[slot] != 0 && (int) (keys[slot] >>> 32) != id) {
+        slot = (slot + 1) & mask;
+      }
+      if (keys[slot] == 0) {
+        return NO_VALUE;
+      }
+      int row = (int) keys[slot] - 1;
+      keys[slot] = 0;
+      count--;
+
+      // Shift back the entries that probed past the freed slot
+      for (int next = (slot + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+        int home = hash((int) (keys[next] >>> 32)) & mask;
+        if (((next - home) & mask) >= ((next - slot) & mask)) {
+          keys[slot] = keys[next];
+          keys[next] = 0;
+          slot = next;
+        }
+      }
+      return row;
+    }
+
+    private void resize() {
+      long[] old = keys;
+      keys = new long[old.length * 2];
+      count = 0;
+      for (long entry : old) {
+        if (entry != 0) {
+          put((int) (entry >>> 32), (int) entry - 1);
+        }
+      }
+    }
+
+    private static int hash(int id) {
+      int h = id * 0x9E3779B9;
+      return h ^ (h >>> 16);
+    }
+  }
+}
@@ -0,0 +1,378 @@
+package com.dnsimple;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dnsimple.exception.DnsimpleException;
+import com.dnsimple.response.ListZoneRecordsResponse;
+
+/**
+ * Polls the records of a set of zones and reports the changes to listeners, for
+ * environments that cannot receive webhooks.
+ * <p>
+ * All zones share one scheduler thread, which only hands due polls to a small I/O pool.
+ * Each page of records is requested with the ETag of the previous response, so an unchanged
+ * zone costs one "304 Not Modified" response per page and no parsing.
+ * <p>
+ * Each zone has its own poll interval. It is halved when a poll finds a change and grows by
+ * half when it does not, within the configured bounds, so busy zones are polled often and
+ * quiet ones rarely. Polls are jittered so zones watched at the same time do not stay in step.
+ * The first poll of a zone records its records without reporting them.
+ * <p>
+ * For example:
+ * <p>
+ * ZoneWatcher watcher = new ZoneWatcher(client.zones, 4, 30000, 900000);
+ * watcher.addListener(listener);
+ * watcher.watch(accountId, "example.com");
+ * watcher.start();
+ */
+public class ZoneWatcher {
+  private static final int PER_PAGE = 100;
+  private static final double JITTER = 0.1;
+
+  private final Zones zones;
+  private final long minIntervalMillis;
+  private final long maxIntervalMillis;
+  private final ScheduledExecutorService scheduler;
+  private final ExecutorService ioPool;
+  private final ConcurrentHashMap<String, WatchedZone> watched = new ConcurrentHashMap<String, WatchedZone>();
+  private final CopyOnWriteArrayList<ZoneChangeListener> listeners = new CopyOnWriteArrayList<ZoneChangeListener>();
+  private final Random random = new Random();
+
+  private volatile boolean running;
+
+  /**
+   * @param zones The zones API
+   * @param ioThreads The number of threads polling zones
+   * @param minIntervalMillis The shortest interval between two polls of a zone
+   * @param maxIntervalMillis The longest interval between two polls of a zone
+   */
+  public ZoneWatcher(Zones zones, int ioThreads, long minIntervalMillis, long maxIntervalMillis) {
+    if (minIntervalMillis <= 0 || maxIntervalMillis < minIntervalMillis) {
+      throw new IllegalArgumentException("Intervals must be positive and minIntervalMillis must not exceed maxIntervalMillis");
+    }
+    this.zones = zones;
+    this.minIntervalMillis = minIntervalMillis;
+    this.maxIntervalMillis = maxIntervalMillis;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("dnsimple-zone-watcher"));
+    this.ioPool = Executors.newFixedThreadPool(ioThreads, new NamedThreadFactory("dnsimple-zone-poll"));
+  }
+
+  public void addListener(ZoneChangeListener listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(ZoneChangeListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Start watching a zone. Watching a zone twice has no effect.
+   *
+   * @param accountId The account ID
+   * @param zoneName The zone name
+   */
+  public void watch(String accountId, String zoneName) {
+    WatchedZone zone = new WatchedZone(accountId, zoneName, minIntervalMillis);
+    if (watched.putIfAbsent(zone.key(), zone) == null && running) {
+      schedule(zone, (long) (random.nextDouble() * minIntervalMillis));
+    }
+  }
+
+  /**
+   * Stop watching a zone. A poll already running completes, but its changes are not reported.
+   *
+   * @param accountId The account ID
+   * @param zoneName The zone name
+   */
+  public void unwatch(String accountId, String zoneName) {
+    WatchedZone zone = watched.remove(accountId + "/" + zoneName);
+    if (zone != null) {
+      zone.cancelled = true;
+    }
+  }
+
+  /**
+   * @return The number of watched zones
+   */
+  public int size() {
+    return watched.size();
+  }
+
+  /**
+   * Start polling. The first polls are spread over the minimum interval.
+   */
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    running = true;
+    for (WatchedZone zone : watched.values()) {
+      schedule(zone, (long) (random.nextDouble() * minIntervalMillis));
+    }
+  }
+
+  /**
+   * Stop polling and release the threads. A stopped watcher cannot be restarted.
+   */
+  public synchronized void stop() {
+    running = false;
+    scheduler.shutdownNow();
+    ioPool.shutdownNow();
+  }
+
+  /**
+   * Poll a zone now, on the calling thread.
+   *
+   * @param accountId The account ID
+   * @param zoneName The zone name
+   * @return The change found, or null if the zone is unchanged, not watched, or polled for the first time
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public ZoneChange pollNow(String accountId, String zoneName) throws DnsimpleException, IOException {
+    WatchedZone zone = watched.get(accountId + "/" + zoneName);
+    return zone == null ? null : poll(zone);
+  }
+
+  /**
+   * Called on an I/O thread when a poll fails. The zone is polled again after its interval,
+   * which grows as for an unchanged zone. The default does nothing; override to log the failure.
+   *
+   * @param accountId The account ID
+   * @param zoneName The zone name
+   * @param error The error
+   */
+  protected void onPollError(String accountId, String zoneName, Exception error) {
+  }
+
+  private void schedule(final WatchedZone zone, long delayMillis) {
+    if (!running || zone.cancelled) {
+      return;
+    }
+    scheduler.schedule(new Runnable() {
+      public void run() {
+        ioPool.execute(new Runnable() {
+          public void run() {
+            try {
+              poll(zone);
+            } catch (Exception e) {
+              zone.slowDown(maxIntervalMillis);
+              onPollError(zone.accountId, zone.zoneName, e);
+            }
+            schedule(zone, jittered(zone.intervalMillis));
+          }
+        });
+      }
+    }, delayMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private long jittered(long intervalMillis) {
+    double factor = 1 + JITTER * (2 * random.nextDouble() - 1);
+    return (long) (intervalMillis * factor);
+  }
+
+  private ZoneChange poll(WatchedZone zone) throws DnsimpleException, IOException {
+    synchronized (zone) {
+      boolean changed = false;
+      List<String> etags = new ArrayList<String>(zone.etags);
+      List<List<ZoneRecord>> pages = new ArrayList<List<ZoneRecord>>(zone.pages);
+
+      Map<String, Object> options = new HashMap<String, Object>();
+      options.put("per_page", PER_PAGE);
+      int page = 1;
+      int totalPages;
+      do {
+        options.put("page", page);
+        String etag = page <= etags.size() ? etags.get(page - 1) : null;
+        ListZoneRecordsResponse response = zones.listZoneRecordsIfChanged(zone.accountId, zone.zoneName, options, etag);
+        if (response == null) {
+          totalPages = Math.max(pages.size(), page);
+        } else {
+          changed = true;
+          String newEtag = response.getHttpResponse().getHeaders().getETag();
+          set(etags, page - 1, newEtag);
+          set(pages, page - 1, response.getData());
+          Pagination pagination = response.getPagination();
+          totalPages = pagination == null || pagination.getTotalPages() == null ? 1 : pagination.getTotalPages();
+        }
+        page++;
+      } while (page <= totalPages);
+
+      while (etags.size() > totalPages) {
+        etags.remove(etags.size() - 1);
+        pages.remove(pages.size() - 1);
+        changed = true;
+      }
+
+      if (!changed) {
+        zone.slowDown(maxIntervalMillis);
+        return null;
+      }
+
+      List<ZoneRecord> previous = zone.records;
+      List<ZoneRecord> current = new ArrayList<ZoneRecord>();
+      for (List<ZoneRecord> records : pages) {
+        current.addAll(records);
+      }
+      zone.etags = etags;
+      zone.pages = pages;
+      zone.records = current;
+
+      if (previous == null) {
+        return null;
+      }
+      ZoneChange change = diff(zone, previous, current);
+      if (change.isEmpty()) {
+        zone.slowDown(maxIntervalMillis);
+        return null;
+      }
+      zone.speedUp(minIntervalMillis);
+      if (!zone.cancelled) {
+        for (ZoneChangeListener listener : listeners) {
+          listener.onZoneChanged(change);
+        }
+      }
+      return change;
+    }
+  }
+
+  private static ZoneChange diff(WatchedZone zone, List<ZoneRecord> previous, List<ZoneRecord> current) {
+    Map<Integer, ZoneRecord> previousById = new HashMap<Integer, ZoneRecord>(previous.size() * 2);
+    for (ZoneRecord record : previous) {
+      previousById.put(record.getId(), record);
+    }
+
+    ZoneChange change = new ZoneChange(zone.accountId, zone.zoneName);
+    for (ZoneRecord record : current) {
+      ZoneRecord before = previousById.remove(record.getId());
+      if (before == null) {
+        change.added.add(record);
+      } else if (!sameRecord(before, record)) {
+        change.updated.add(record);
+      }
+    }
+    change.removed.addAll(previousById.values());
+    return change;
+  }
+
+  private static boolean sameRecord(ZoneRecord a, ZoneRecord b) {
+    return equal(a.getUpdatedAt(), b.getUpdatedAt())
+      && equal(a.getName(), b.getName())
+      && equal(a.getType(), b.getType())
+      && equal(a.getContent(), b.getContent())
+      && equal(a.getTtl(), b.getTtl())
+      && equal(a.getPriority(), b.getPriority());
+  }
+
+  private static boolean equal(Object a, Object b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  private static <T> void set(List<T> list, int index, T value) {
+    if (index < list.size()) {
+      list.set(index, value);
+    } else {
+      list.add(value);
+    }
+  }
+
+  private static final class WatchedZone {
+    final String accountId;
+    final String zoneName;
+    volatile long intervalMillis;
+    volatile boolean cancelled;
+    List<String> etags = Collections.emptyList();
+    List<List<ZoneRecord>> pages = Collections.emptyList();
+    List<ZoneRecord> records;
+
+    WatchedZone(String accountId, String zoneName, long intervalMillis) {
+      this.accountId = accountId;
+      this.zoneName = zoneName;
+      this.intervalMillis = intervalMillis;
+    }
+
+    String key() {
+      return accountId + "/" + zoneName;
+    }
+
+    void slowDown(long maxIntervalMillis) {
+      intervalMillis = Math.min(maxIntervalMillis, intervalMillis + intervalMillis / 2);
+    }
+
+    void speedUp(long minIntervalMillis) {
+      intervalMillis = Math.max(minIntervalMillis, intervalMillis / 2);
+    }
+  }
+
+  private static final class NamedThreadFactory implements ThreadFactory {
+    private final String prefix;
+    private final AtomicInteger count = new AtomicInteger();
+
+    NamedThreadFactory(String prefix) {
+      this.prefix = prefix;
+    }
+
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, prefix + "-" + count.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+  /**
+   * The records added, updated and removed in a zone between two polls.
+   */
+  public static class ZoneChange {
+    private final String accountId;
+    private final String zoneName;
+    private final List<ZoneRecord> added = new ArrayList<ZoneRecord>();
+    private final List<ZoneRecord> updated = new ArrayList<ZoneRecord>();
+    private final List<ZoneRecord> removed = new ArrayList<ZoneRecord>();
+
+    ZoneChange(String accountId, String zoneName) {
+      this.accountId = accountId;
+      this.zoneName = zoneName;
+    }
+
+    public String getAccountId() {
+      return accountId;
+    }
+
+    public String getZoneName() {
+      return zoneName;
+    }
+
+    public List<ZoneRecord> getAdded() {
+      return added;
+    }
+
+    /**
+     * @return The current version of the records that changed
+     */
+    public List<ZoneRecord> getUpdated() {
+      return updated;
+    }
+
+    public List<ZoneRecord> getRemoved() {
+      return removed;
+    }
+
+    public boolean isEmpty() {
+      return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+    }
+  }
+}
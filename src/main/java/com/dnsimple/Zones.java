@@ -7,12 +7,15 @@ import com.dnsimple.response.ListZonesResponse;
 import com.dnsimple.response.GetZoneResponse;
 import com.dnsimple.response.GetZoneFileResponse;
 
+import com.dnsimple.response.LazyListResponse;
 import com.dnsimple.response.ListZoneRecordsResponse;
 import com.dnsimple.response.GetZoneRecordResponse;
 import com.dnsimple.response.CreateZoneRecordResponse;
 import com.dnsimple.response.UpdateZoneRecordResponse;
 import com.dnsimple.response.DeleteZoneRecordResponse;
 
+import com.dnsimple.request.ZoneRecordCreate;
+
 import com.dnsimple.exception.DnsimpleException;
 
 import com.google.api.client.http.HttpResponse;
@@ -121,8 +124,50 @@ public class Zones {
     return (ListZoneRecordsResponse) httpClient.parseResponse(response, ListZoneRecordsResponse.class);
   }
 
+  /**
+   * Lists the records in the zone, decoding each field of a record only when it is first read.
+   * <p>
+   * This suits scans of many records that read a few fields, such as the ID and name.
+   * Naming those fields lets them be located while the page is scanned.
+   *
+   * @see <a href="https://developer.dnsimple.com/v2/zones/records/#list">https://developer.dnsimple.com/v2/zones/records/#list</a>
+   * @param accountId The account ID
+   * @param zoneId The zone name or ID
+   * @param options A Map of options to pass to the zones API
+   * @param fields The JSON names of the fields that will be read, such as "id" and "content"
+   * @return The list zone records response
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public LazyListResponse<ZoneRecord> listZoneRecordsLazily(String accountId, String zoneId, Map<String,Object> options, String... fields) throws DnsimpleException, IOException {
+    HttpResponse response = httpClient.get(accountId + "/zones/" + zoneId + "/records", options);
+    return LazyJson.listResponse(response, LazyZoneRecord.KEYS, fields, LazyZoneRecord.FACTORY);
+  }
+
+  /**
+   * Lists the records in the zone, unless they are unchanged since the response with the given entity tag.
+   *
+   * @see <a href="https://developer.dnsimple.com/v2/zones/records/#list">https://developer.dnsimple.com/v2/zones/records/#list</a>
+   * @param accountId The account ID
+   * @param zoneId The zone name or ID
+   * @param options A Map of options to pass to the zones API
+   * @param etag The ETag header of a previous response, or null
+   * @return The list zone records response, or null if the records are unchanged
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public ListZoneRecordsResponse listZoneRecordsIfChanged(String accountId, String zoneId, Map<String,Object> options, String etag) throws DnsimpleException, IOException {
+    HttpResponse response = httpClient.getIfNoneMatch(accountId + "/zones/" + zoneId + "/records", options, etag);
+    if (response == null) {
+      return null;
+    }
+    return (ListZoneRecordsResponse) httpClient.parseResponse(response, ListZoneRecordsResponse.class);
+  }
+
   /**
    * Get a specific record associated to a zone using the zone's name or ID.
+   * <p>
+   * The request is hedged if the client is configured with a {@link HedgePolicy}.
    *
    * @see <a href="https://developer.dnsimple.com/v2/zones/records/#get">https://developer.dnsimple.com/v2/zones/records/#get</a>
    * @param accountId The account ID
@@ -133,7 +178,7 @@ public class Zones {
    * @throws IOException Any IO errors
    */
   public GetZoneRecordResponse getZoneRecord(String accountId, String zoneId, String recordId) throws DnsimpleException, IOException {
-    HttpResponse response = httpClient.get(accountId + "/zones/" + zoneId + "/records/" + recordId);
+    HttpResponse response = httpClient.hedgedGet("zones.records.get", accountId + "/zones/" + zoneId + "/records/" + recordId);
     return (GetZoneRecordResponse) httpClient.parseResponse(response, GetZoneRecordResponse.class);
   }
 
@@ -153,6 +198,23 @@ public class Zones {
     return (CreateZoneRecordResponse) httpClient.parseResponse(response, CreateZoneRecordResponse.class);
   }
 
+  /**
+   * Create a record in the zone.
+   *
+   * @see <a href="https://developer.dnsimple.com/v2/zones/records/#create">https://developer.dnsimple.com/v2/zones/records/#create</a>
+   *
+   * @param accountId The account ID
+   * @param zoneId The zone ID
+   * @param record The record to create
+   * @return The create zone record response
+   * @throws DnsimpleException Any API errors
+   * @throws IOException Any IO errors
+   */
+  public CreateZoneRecordResponse createZoneRecord(String accountId, String zoneId, ZoneRecordCreate record) throws DnsimpleException, IOException {
+    HttpResponse response = httpClient.post(accountId + "/zones/" + zoneId + "/records", record);
+    return (CreateZoneRecordResponse) httpClient.parseResponse(response, CreateZoneRecordResponse.class);
+  }
+
   /**
    * Update a record in a zone.
    *
@@ -0,0 +1,19 @@
+package com.dnsimple.exception;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Thrown when a call is stopped by cancelling its {@link com.dnsimple.CallContext}.
+ */
+public class CallCancelledException extends InterruptedIOException {
+  public CallCancelledException(String message) {
+    super(message);
+  }
+
+  public CallCancelledException(String message, Throwable e) {
+    super(message);
+    initCause(e);
+  }
+
+  public static final long serialVersionUID = 1L;
+}
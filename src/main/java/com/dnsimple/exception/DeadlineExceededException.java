@@ -0,0 +1,19 @@
+package com.dnsimple.exception;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Thrown when a call runs out of the time budget of its {@link com.dnsimple.CallContext}.
+ */
+public class DeadlineExceededException extends InterruptedIOException {
+  public DeadlineExceededException(String message) {
+    super(message);
+  }
+
+  public DeadlineExceededException(String message, Throwable e) {
+    super(message);
+    initCause(e);
+  }
+
+  public static final long serialVersionUID = 1L;
+}
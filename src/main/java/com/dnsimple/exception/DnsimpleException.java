@@ -4,7 +4,6 @@ import com.google.api.client.http.HttpResponseException;
 
 public class DnsimpleException extends Exception {
 
-  // These fields are private, do not have accessors, and are not used.
   private String requestId;
   private Integer statusCode;
 
@@ -20,6 +19,14 @@ public class DnsimpleException extends Exception {
     this.statusCode = statusCode;
   }
 
+  public String getRequestId() {
+    return requestId;
+  }
+
+  public Integer getStatusCode() {
+    return statusCode;
+  }
+
   /**
    * Transform an HttpResponseException into a DnsimpleException.
    *
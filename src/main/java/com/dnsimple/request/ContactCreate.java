@@ -0,0 +1,157 @@
+package com.dnsimple.request;
+
+/**
+ * The attributes of a contact to create.
+ *
+ * @see <a href="https://developer.dnsimple.com/v2/contacts/#create">https://developer.dnsimple.com/v2/contacts/#create</a>
+ */
+public class ContactCreate extends JsonRequest {
+  private final String label;
+  private final String firstName;
+  private final String lastName;
+  private final String jobTitle;
+  private final String organizationName;
+  private final String email;
+  private final String phone;
+  private final String fax;
+  private final String address1;
+  private final String address2;
+  private final String city;
+  private final String stateProvince;
+  private final String postalCode;
+  private final String country;
+
+  private ContactCreate(Builder builder) {
+    this.label = builder.label;
+    this.firstName = builder.firstName;
+    this.lastName = builder.lastName;
+    this.jobTitle = builder.jobTitle;
+    this.organizationName = builder.organizationName;
+    this.email = builder.email;
+    this.phone = builder.phone;
+    this.fax = builder.fax;
+    this.address1 = builder.address1;
+    this.address2 = builder.address2;
+    this.city = builder.city;
+    this.stateProvince = builder.stateProvince;
+    this.postalCode = builder.postalCode;
+    this.country = builder.country;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @Override
+  protected void writeFields(JsonRequestWriter writer) {
+    writer
+      .field("label", label)
+      .field("first_name", firstName)
+      .field("last_name", lastName)
+      .field("job_title", jobTitle)
+      .field("organization_name", organizationName)
+      .field("email", email)
+      .field("phone", phone)
+      .field("fax", fax)
+      .field("address1", address1)
+      .field("address2", address2)
+      .field("city", city)
+      .field("state_province", stateProvince)
+      .field("postal_code", postalCode)
+      .field("country", country);
+  }
+
+  public static class Builder {
+    private String label;
+    private String firstName;
+    private String lastName;
+    private String jobTitle;
+    private String organizationName;
+    private String email;
+    private String phone;
+    private String fax;
+    private String address1;
+    private String address2;
+    private String city;
+    private String stateProvince;
+    private String postalCode;
+    private String country;
+
+    private Builder() {
+    }
+
+    public Builder label(String label) {
+      this.label = label;
+      return this;
+    }
+
+    public Builder firstName(String firstName) {
+      this.firstName = firstName;
+      return this;
+    }
+
+    public Builder lastName(String lastName) {
+      this.lastName = lastName;
+      return this;
+    }
+
+    public Builder jobTitle(String jobTitle) {
+      this.jobTitle = jobTitle;
+      return this;
+    }
+
+    public Builder organizationName(String organizationName) {
+      this.organizationName = organizationName;
+      return this;
+    }
+
+    public Builder email(String email) {
+      this.email = email;
+      return this;
+    }
+
+    public Builder phone(String phone) {
+      this.phone = phone;
+      return this;
+    }
+
+    public Builder fax(String fax) {
+      this.fax = fax;
+      return this;
+    }
+
+    public Builder address1(String address1) {
+      this.address1 = address1;
+      return this;
+    }
+
+    public Builder address2(String address2) {
+      this.address2 = address2;
+      return this;
+    }
+
+    public Builder city(String city) {
+      this.city = city;
+      return this;
+    }
+
+    public Builder stateProvince(String stateProvince) {
+      this.stateProvince = stateProvince;
+      return this;
+    }
+
+    public Builder postalCode(String postalCode) {
+      this.postalCode = postalCode;
+      return this;
+    }
+
+    public Builder country(String country) {
+      this.country = country;
+      return this;
+    }
+
+    public ContactCreate build() {
+      return new ContactCreate(this);
+    }
+  }
+}
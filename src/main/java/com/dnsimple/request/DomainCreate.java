@@ -0,0 +1,40 @@
+package com.dnsimple.request;
+
+/**
+ * The attributes of a domain to create.
+ *
+ * @see <a href="https://developer.dnsimple.com/v2/domains/#create">https://developer.dnsimple.com/v2/domains/#create</a>
+ */
+public class DomainCreate extends JsonRequest {
+  private final String name;
+
+  private DomainCreate(Builder builder) {
+    this.name = builder.name;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @Override
+  protected void writeFields(JsonRequestWriter writer) {
+    writer
+      .field("name", name);
+  }
+
+  public static class Builder {
+    private String name;
+
+    private Builder() {
+    }
+
+    public Builder name(String name) {
+      this.name = name;
+      return this;
+    }
+
+    public DomainCreate build() {
+      return new DomainCreate(this);
+    }
+  }
+}
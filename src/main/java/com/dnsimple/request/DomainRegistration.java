@@ -0,0 +1,67 @@
+package com.dnsimple.request;
+
+/**
+ * The attributes used to register a domain.
+ *
+ * @see <a href="https://developer.dnsimple.com/v2/registrar/#register">https://developer.dnsimple.com/v2/registrar/#register</a>
+ */
+public class DomainRegistration extends JsonRequest {
+  private final Integer registrantId;
+  private final Boolean whoisPrivacy;
+  private final Boolean autoRenew;
+  private final String premiumPrice;
+
+  private DomainRegistration(Builder builder) {
+    this.registrantId = builder.registrantId;
+    this.whoisPrivacy = builder.whoisPrivacy;
+    this.autoRenew = builder.autoRenew;
+    this.premiumPrice = builder.premiumPrice;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @Override
+  protected void writeFields(JsonRequestWriter writer) {
+    writer
+      .field("registrant_id", registrantId)
+      .field("whois_privacy", whoisPrivacy)
+      .field("auto_renew", autoRenew)
+      .field("premium_price", premiumPrice);
+  }
+
+  public static class Builder {
+    private Integer registrantId;
+    private Boolean whoisPrivacy;
+    private Boolean autoRenew;
+    private String premiumPrice;
+
+    private Builder() {
+    }
+
+    public Builder registrantId(Integer registrantId) {
+      this.registrantId = registrantId;
+      return this;
+    }
+
+    public Builder whoisPrivacy(Boolean whoisPrivacy) {
+      this.whoisPrivacy = whoisPrivacy;
+      return this;
+    }
+
+    public Builder autoRenew(Boolean autoRenew) {
+      this.autoRenew = autoRenew;
+      return this;
+    }
+
+    public Builder premiumPrice(String premiumPrice) {
+      this.premiumPrice = premiumPrice;
+      return this;
+    }
+
+    public DomainRegistration build() {
+      return new DomainRegistration(this);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.dnsimple.request;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.google.api.client.http.HttpContent;
+
+/**
+ * Base class for typed request bodies.
+ * <p>
+ * The JSON body is written once, without reflection, and the encoded bytes are reused
+ * for the content length, for retries and for every subsequent write.
+ */
+public abstract class JsonRequest implements HttpContent {
+  private static final String CONTENT_TYPE = "application/json; charset=UTF-8";
+
+  private volatile byte[] encoded;
+
+  /**
+   * Write the fields of this request.
+   *
+   * @param writer The writer, positioned inside the top-level JSON object
+   */
+  protected abstract void writeFields(JsonRequestWriter writer);
+
+  /**
+   * @return The UTF-8 encoded JSON body
+   */
+  public byte[] toByteArray() {
+    byte[] bytes = encoded;
+    if (bytes == null) {
+      JsonRequestWriter writer = new JsonRequestWriter();
+      writeFields(writer);
+      bytes = writer.toByteArray();
+      encoded = bytes;
+    }
+    return bytes;
+  }
+
+  public long getLength() {
+    return toByteArray().length;
+  }
+
+  public String getType() {
+    return CONTENT_TYPE;
+  }
+
+  public boolean retrySupported() {
+    return true;
+  }
+
+  public void writeTo(OutputStream out) throws IOException {
+    out.write(toByteArray());
+    out.flush();
+  }
+
+  @Override
+  public String toString() {
+    return new String(toByteArray(), JsonRequestWriter.UTF_8);
+  }
+}
@@ -0,0 +1,103 @@
+package com.dnsimple.request;
+
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * A minimal writer for the flat JSON objects sent as request bodies.
+ * <p>
+ * Fields with a null value are skipped.
+ */
+public class JsonRequestWriter {
+  static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final StringBuilder json = new StringBuilder(128).append('{');
+  private boolean first = true;
+
+  JsonRequestWriter() {
+  }
+
+  public JsonRequestWriter field(String name, String value) {
+    if (value != null) {
+      name(name);
+      string(value);
+    }
+    return this;
+  }
+
+  public JsonRequestWriter field(String name, Integer value) {
+    if (value != null) {
+      name(name);
+      json.append(value.intValue());
+    }
+    return this;
+  }
+
+  public JsonRequestWriter field(String name, Boolean value) {
+    if (value != null) {
+      name(name);
+      json.append(value.booleanValue());
+    }
+    return this;
+  }
+
+  public JsonRequestWriter field(String name, List<String> values) {
+    if (values != null) {
+      name(name);
+      json.append('[');
+      for (int i = 0; i < values.size(); i++) {
+        if (i > 0) {
+          json.append(',');
+        }
+        string(values.get(i));
+      }
+      json.append(']');
+    }
+    return this;
+  }
+
+  byte[] toByteArray() {
+    return json.append('}').toString().getBytes(UTF_8);
+  }
+
+  private void name(String name) {
+    if (!first) {
+      json.append(',');
+    }
+    first = false;
+    json.append('"').append(name).append("\":");
+  }
+
+  private void string(String value) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          json.append("\\\"");
+          break;
+        case '\\':
+          json.append("\\\\");
+          break;
+        case '\n':
+          json.append("\\n");
+          break;
+        case '\r':
+          json.append("\\r");
+          break;
+        case '\t':
+          json.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            json.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+          } else {
+            json.append(c);
+          }
+      }
+    }
+    json.append('"');
+  }
+}
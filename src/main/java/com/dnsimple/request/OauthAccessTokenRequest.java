@@ -0,0 +1,35 @@
+package com.dnsimple.request;
+
+/**
+ * The attributes used to exchange an authorization code for an access token.
+ *
+ * @see <a href="https://developer.dnsimple.com/v2/oauth">https://developer.dnsimple.com/v2/oauth</a>
+ */
+public class OauthAccessTokenRequest extends JsonRequest {
+  private static final String GRANT_TYPE = "authorization_code";
+
+  private final String code;
+  private final String clientId;
+  private final String clientSecret;
+  private final String state;
+  private final String redirectUri;
+
+  public OauthAccessTokenRequest(String code, String clientId, String clientSecret, String state, String redirectUri) {
+    this.code = code;
+    this.clientId = clientId;
+    this.clientSecret = clientSecret;
+    this.state = state;
+    this.redirectUri = redirectUri;
+  }
+
+  @Override
+  protected void writeFields(JsonRequestWriter writer) {
+    writer
+      .field("code", code)
+      .field("client_id", clientId)
+      .field("client_secret", clientSecret)
+      .field("grant_type", GRANT_TYPE)
+      .field("state", state)
+      .field("redirect_uri", redirectUri);
+  }
+}
@@ -0,0 +1,40 @@
+package com.dnsimple.request;
+
+/**
+ * The attributes of a webhook to create.
+ *
+ * @see <a href="https://developer.dnsimple.com/v2/webhooks/#create">https://developer.dnsimple.com/v2/webhooks/#create</a>
+ */
+public class WebhookCreate extends JsonRequest {
+  private final String url;
+
+  private WebhookCreate(Builder builder) {
+    this.url = builder.url;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @Override
+  protected void writeFields(JsonRequestWriter writer) {
+    writer
+      .field("url", url);
+  }
+
+  public static class Builder {
+    private String url;
+
+    private Builder() {
+    }
+
+    public Builder url(String url) {
+      this.url = url;
+      return this;
+    }
+
+    public WebhookCreate build() {
+      return new WebhookCreate(this);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.dnsimple.request;
+
+import java.util.List;
+
+/**
+ * The attributes of a zone record to create.
+ *
+ * @see <a href="https://developer.dnsimple.com/v2/zones/records/#create">https://developer.dnsimple.com/v2/zones/records/#create</a>
+ */
+public class ZoneRecordCreate extends JsonRequest {
+  private final String name;
+  private final String type;
+  private final String content;
+  private final Integer ttl;
+  private final Integer priority;
+  private final List<String> regions;
+
+  private ZoneRecordCreate(Builder builder) {
+    this.name = builder.name;
+    this.type = builder.type;
+    this.content = builder.content;
+    this.ttl = builder.ttl;
+    this.priority = builder.priority;
+    this.regions = builder.regions;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @Override
+  protected void writeFields(JsonRequestWriter writer) {
+    writer
+      .field("name", name)
+      .field("type", type)
+      .field("content", content)
+      .field("ttl", ttl)
+      .field("priority", priority)
+      .field("regions", regions);
+  }
+
+  public static class Builder {
+    private String name;
+    private String type;
+    private String content;
+    private Integer ttl;
+    private Integer priority;
+    private List<String> regions;
+
+    private Builder() {
+    }
+
+    public Builder name(String name) {
+      this.name = name;
+      return this;
+    }
+
+    public Builder type(String type) {
+      this.type = type;
+      return this;
+    }
+
+    public Builder content(String content) {
+      this.content = content;
+      return this;
+    }
+
+    public Builder ttl(Integer ttl) {
+      this.ttl = ttl;
+      return this;
+    }
+
+    public Builder priority(Integer priority) {
+      this.priority = priority;
+      return this;
+    }
+
+    public Builder regions(List<String> regions) {
+      this.regions = regions;
+      return this;
+    }
+
+    public ZoneRecordCreate build() {
+      return new ZoneRecordCreate(this);
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.dnsimple.response;
+
+import com.dnsimple.Pagination;
+
+import java.util.List;
+
+/**
+ * A list response whose elements decode each field from the raw JSON on first access.
+ * <p>
+ * Each element keeps the bytes of its whole page alive until it is discarded.
+ */
+public class LazyListResponse<T> extends ApiResponse {
+  private final List<T> data;
+  private final Pagination pagination;
+
+  public LazyListResponse(List<T> data, Pagination pagination) {
+    this.data = data;
+    this.pagination = pagination;
+  }
+
+  public List<T> getData() {
+    return data;
+  }
+
+  public Pagination getPagination() {
+    return pagination;
+  }
+}
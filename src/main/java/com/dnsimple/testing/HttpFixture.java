@@ -0,0 +1,171 @@
+package com.dnsimple.testing;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.api.client.http.LowLevelHttpResponse;
+
+/**
+ * A recorded HTTP response in the ".http" fixture format of the test resources: the status
+ * line, one "Name: value" line per header, a blank line and the body.
+ */
+final class HttpFixture {
+  private static final String CRLF = "\r\n";
+
+  final int statusCode;
+  final String reasonPhrase;
+  final List<String[]> headers;
+  final byte[] body;
+
+  HttpFixture(int statusCode, String reasonPhrase, List<String[]> headers, byte[] body) {
+    this.statusCode = statusCode;
+    this.reasonPhrase = reasonPhrase == null || reasonPhrase.length() == 0 ? "Unknown" : reasonPhrase;
+    this.headers = headers;
+    this.body = body;
+  }
+
+  /**
+   * @return The value of the first header with the given name, or null
+   */
+  String header(String name) {
+    for (String[] header : headers) {
+      if (header[0].equalsIgnoreCase(name)) {
+        return header[1];
+      }
+    }
+    return null;
+  }
+
+  void write(OutputStream out) throws IOException {
+    StringBuilder head = new StringBuilder();
+    head.append("HTTP/1.1 ").append(statusCode).append(' ').append(reasonPhrase).append(CRLF);
+    for (String[] header : headers) {
+      head.append(header[0]).append(": ").append(header[1]).append(CRLF);
+    }
+    head.append(CRLF);
+    out.write(head.toString().getBytes("UTF-8"));
+    out.write(body);
+  }
+
+  static HttpFixture read(byte[] data) throws IOException {
+    int bodyStart = data.length;
+    int lineStart = 0;
+    List<String> lines = new ArrayList<String>();
+    for (int i = 0; i < data.length; i++) {
+      if (data[i] == '\n') {
+        int lineEnd = i > lineStart && data[i - 1] == '\r' ? i - 1 : i;
+        if (lineEnd == lineStart) {
+          bodyStart = i + 1;
+          break;
+        }
+        lines.add(new String(data, lineStart, lineEnd - lineStart, "UTF-8"));
+        lineStart = i + 1;
+      }
+    }
+    if (lines.isEmpty()) {
+      throw new IOException("Missing status line");
+    }
+
+    String[] status = lines.get(0).split("\\s+", 3);
+    if (status.length < 2) {
+      throw new IOException("Invalid status line " + lines.get(0));
+    }
+    List<String[]> headers = new ArrayList<String[]>(lines.size() - 1);
+    for (int i = 1; i < lines.size(); i++) {
+      int colon = lines.get(i).indexOf(": ");
+      if (colon > 0) {
+        headers.add(new String[] { lines.get(i).substring(0, colon), lines.get(i).substring(colon + 2) });
+      }
+    }
+
+    byte[] body = new byte[data.length - bodyStart];
+    System.arraycopy(data, bodyStart, body, 0, body.length);
+    return new HttpFixture(Integer.parseInt(status[1]), status.length > 2 ? status[2] : null, headers, body);
+  }
+
+  static byte[] readFully(InputStream in) throws IOException {
+    if (in == null) {
+      return new byte[0];
+    }
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+      byte[] buffer = new byte[4096];
+      for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * @return A response that serves this fixture
+   */
+  LowLevelHttpResponse toResponse() {
+    return new FixtureResponse(this);
+  }
+
+  private static final class FixtureResponse extends LowLevelHttpResponse {
+    private final HttpFixture fixture;
+
+    FixtureResponse(HttpFixture fixture) {
+      this.fixture = fixture;
+    }
+
+    @Override
+    public InputStream getContent() {
+      return fixture.body.length == 0 ? null : new ByteArrayInputStream(fixture.body);
+    }
+
+    @Override
+    public String getContentEncoding() {
+      return fixture.header("Content-Encoding");
+    }
+
+    @Override
+    public long getContentLength() {
+      return fixture.body.length;
+    }
+
+    @Override
+    public String getContentType() {
+      return fixture.header("Content-Type");
+    }
+
+    @Override
+    public String getStatusLine() {
+      return "HTTP/1.1 " + fixture.statusCode + " " + fixture.reasonPhrase;
+    }
+
+    @Override
+    public int getStatusCode() {
+      return fixture.statusCode;
+    }
+
+    @Override
+    public String getReasonPhrase() {
+      return fixture.reasonPhrase;
+    }
+
+    @Override
+    public int getHeaderCount() {
+      return fixture.headers.size();
+    }
+
+    @Override
+    public String getHeaderName(int index) {
+      return fixture.headers.get(index)[0];
+    }
+
+    @Override
+    public String getHeaderValue(int index) {
+      return fixture.headers.get(index)[1];
+    }
+  }
+}
@@ -0,0 +1,231 @@
+package com.dnsimple.testing;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.dnsimple.HttpClient;
+import com.google.api.client.http.ByteArrayContent;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+
+/**
+ * Wraps a transport and saves every response it receives as a fixture, so real traffic can
+ * be replayed later with {@link ReplayTransport}.
+ * <p>
+ * Each response is written to its own file in the ".http" format of the test resources,
+ * and a line is added to the "index.txt" file of the directory with the request method,
+ * path and query, the time the response took and the file name. Credentials are never
+ * recorded: request headers are not saved, cookies are dropped from responses, and tokens
+ * and secrets are masked in query strings and response bodies. Gzip and deflate bodies are
+ * saved decompressed; bodies in other encodings are saved as received, with their
+ * Content-Encoding.
+ * <p>
+ * For example:
+ * <p>
+ * RecordingTransport recorder = new RecordingTransport(new NetHttpTransport(), new File("recorded"));
+ * Client client = new Client(ClientConfig.builder().transport(recorder).accessToken(token).build());
+ */
+public class RecordingTransport extends HttpTransport {
+  static final String INDEX = "index.txt";
+  static final String FILTERED = "[FILTERED]";
+
+  private static final Set<String> DROPPED_HEADERS = new HashSet<String>(Arrays.asList("set-cookie", "content-length"));
+  private static final Pattern SECRET_QUERY = Pattern.compile("((?:^|&)(?:access_token|client_secret|code|state)=)[^&]*");
+  private static final Pattern SECRET_JSON = Pattern.compile("(\"(?:access_token|refresh_token|client_secret)\"\\s*:\\s*)\"[^\"]*\"");
+
+  private final HttpTransport delegate;
+  private final File directory;
+  private int recorded;
+
+  /**
+   * @param delegate The transport that sends the requests
+   * @param directory The directory to save fixtures to, created if needed
+   * @throws IOException If the directory cannot be created
+   */
+  public RecordingTransport(HttpTransport delegate, File directory) throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Cannot create " + directory);
+    }
+    this.delegate = delegate;
+    this.directory = directory;
+  }
+
+  /**
+   * @return The number of responses recorded so far
+   */
+  public synchronized int getRecordedCount() {
+    return recorded;
+  }
+
+  @Override
+  public boolean supportsMethod(String method) throws IOException {
+    return delegate.supportsMethod(method);
+  }
+
+  @Override
+  public void shutdown() throws IOException {
+    delegate.shutdown();
+  }
+
+  @Override
+  protected LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+    return new RecordingRequest(method, url);
+  }
+
+  /**
+   * Mask credentials in a response body before it is saved. The default masks the values
+   * of the "access_token", "refresh_token" and "client_secret" JSON properties.
+   *
+   * @param body The response body
+   * @return The body to save
+   */
+  protected String scrubBody(String body) {
+    return SECRET_JSON.matcher(body).replaceAll("$1\"" + Matcher.quoteReplacement(FILTERED) + "\"");
+  }
+
+  private synchronized void record(String method, String url, long elapsedMillis, HttpFixture fixture) throws IOException {
+    String target = target(url);
+    String name = String.format("%05d-%s%s.http", ++recorded, method, target.replaceFirst("\\?.*", "").replaceAll("[^A-Za-z0-9.]+", "_"));
+
+    OutputStream out = new FileOutputStream(new File(directory, name));
+    try {
+      fixture.write(out);
+    } finally {
+      out.close();
+    }
+
+    Writer index = new OutputStreamWriter(new FileOutputStream(new File(directory, INDEX), true), "UTF-8");
+    try {
+      index.write(method + " " + target + " " + elapsedMillis + " " + name + "\n");
+    } finally {
+      index.close();
+    }
+  }
+
+  /**
+   * Strip the scheme and host from a URL and mask credentials in its query.
+   *
+   * @return The path and query to save in the index
+   */
+  static String target(String url) {
+    GenericUrl parsed = new GenericUrl(url);
+    String path = parsed.getRawPath();
+    int query = url.indexOf('?');
+    if (query < 0) {
+      return path;
+    }
+    return path + "?" + SECRET_QUERY.matcher(url.substring(query + 1)).replaceAll("$1" + Matcher.quoteReplacement(FILTERED));
+  }
+
+  private final class RecordingRequest extends LowLevelHttpRequest {
+    private final String method;
+    private final String url;
+    private final Map<String, List<String>> headers = new LinkedHashMap<String, List<String>>();
+    private Integer connectTimeout;
+    private Integer readTimeout;
+
+    RecordingRequest(String method, String url) {
+      this.method = method;
+      this.url = url;
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+      if (name.equalsIgnoreCase("User-Agent") && value.endsWith(" " + HttpRequest.USER_AGENT_SUFFIX)) {
+        // The delegate request adds the suffix again
+        value = value.substring(0, value.length() - HttpRequest.USER_AGENT_SUFFIX.length() - 1);
+      }
+      List<String> values = headers.get(name);
+      if (values == null) {
+        values = new ArrayList<String>(1);
+        headers.put(name, values);
+      }
+      values.add(value);
+    }
+
+    @Override
+    public void setTimeout(int connectTimeout, int readTimeout) {
+      this.connectTimeout = connectTimeout;
+      this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public LowLevelHttpResponse execute() throws IOException {
+      ByteArrayContent content = null;
+      if (getStreamingContent() != null) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        getStreamingContent().writeTo(out);
+        content = new ByteArrayContent(getContentType(), out.toByteArray());
+      }
+
+      // The delegate's low level requests are not accessible from here, so send a plain
+      // request through it that neither retries, redirects nor throws on error statuses
+      HttpRequest request = delegate.createRequestFactory().buildRequest(method, new GenericUrl(url), content);
+      request.setNumberOfRetries(0);
+      request.setFollowRedirects(false);
+      request.setThrowExceptionOnExecuteError(false);
+      if (connectTimeout != null) {
+        request.setConnectTimeout(connectTimeout);
+        request.setReadTimeout(readTimeout);
+      }
+      for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+        request.getHeaders().set(header.getKey(), header.getValue());
+      }
+
+      long start = System.nanoTime();
+      HttpResponse response = request.execute();
+      String encoding = response.getContentEncoding();
+      boolean decoded = encoding == null || encoding.contains("gzip") || encoding.trim().equalsIgnoreCase("deflate");
+      byte[] body;
+      try {
+        // Gzip and deflate bodies are decompressed here, the way the client reads them
+        body = HttpFixture.readFully(HttpClient.content(response));
+      } finally {
+        response.disconnect();
+      }
+      long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+      List<String[]> responseHeaders = new ArrayList<String[]>();
+      for (Map.Entry<String, Object> header : response.getHeaders().entrySet()) {
+        if (DROPPED_HEADERS.contains(header.getKey().toLowerCase())
+            || (decoded && header.getKey().equalsIgnoreCase("content-encoding"))) {
+          continue;
+        }
+        if (header.getValue() instanceof Collection) {
+          for (Object value : (Collection<?>) header.getValue()) {
+            responseHeaders.add(new String[] { header.getKey(), String.valueOf(value) });
+          }
+        } else if (header.getValue() != null) {
+          responseHeaders.add(new String[] { header.getKey(), String.valueOf(header.getValue()) });
+        }
+      }
+
+      HttpFixture fixture = new HttpFixture(response.getStatusCode(), response.getStatusMessage(), responseHeaders, body);
+      String text = new String(body, "UTF-8");
+      String scrubbed = scrubBody(text);
+      record(method, url, elapsedMillis, scrubbed.equals(text) ? fixture : new HttpFixture(fixture.statusCode, fixture.reasonPhrase, responseHeaders, scrubbed.getBytes("UTF-8")));
+
+      // The caller gets the original body, only the saved copy is scrubbed
+      return fixture.toResponse();
+    }
+  }
+}
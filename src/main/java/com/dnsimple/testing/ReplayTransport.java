@@ -0,0 +1,148 @@
+package com.dnsimple.testing;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+
+/**
+ * Serves the responses saved by a {@link RecordingTransport}, without any network access.
+ * <p>
+ * Requests are matched on method, path and query, falling back to method and path. When a
+ * request was recorded several times, its responses are served in recording order and then
+ * from the start again, so a short recording can drive a long benchmark. All fixtures are
+ * loaded up front, so replaying does not read from disk.
+ * <p>
+ * Responses are served at full speed with a time scale of 0, with the recorded latency
+ * with a time scale of 1, or anything in between or beyond.
+ * <p>
+ * For example:
+ * <p>
+ * ReplayTransport replay = new ReplayTransport(new File("recorded"), 0);
+ * Client client = new Client(ClientConfig.builder().transport(replay).build());
+ */
+public class ReplayTransport extends HttpTransport {
+  private final Map<String, Recording> recordings = new HashMap<String, Recording>();
+  private final double timeScale;
+  private final AtomicInteger replayed = new AtomicInteger();
+
+  /**
+   * @param directory A directory written by a {@link RecordingTransport}
+   * @param timeScale The factor applied to the recorded latency of each response
+   * @throws IOException If the recording cannot be read
+   */
+  public ReplayTransport(File directory, double timeScale) throws IOException {
+    if (timeScale < 0) {
+      throw new IllegalArgumentException("timeScale must not be negative");
+    }
+    this.timeScale = timeScale;
+
+    BufferedReader index = new BufferedReader(new InputStreamReader(new FileInputStream(new File(directory, RecordingTransport.INDEX)), "UTF-8"));
+    try {
+      for (String line = index.readLine(); line != null; line = index.readLine()) {
+        String[] fields = line.split(" ");
+        if (fields.length != 4) {
+          continue;
+        }
+        Exchange exchange = new Exchange(read(new File(directory, fields[3])), Long.parseLong(fields[2]));
+        recording(fields[0] + " " + fields[1]).exchanges.add(exchange);
+        int query = fields[1].indexOf('?');
+        if (query >= 0) {
+          recording(fields[0] + " " + fields[1].substring(0, query)).exchanges.add(exchange);
+        }
+      }
+    } finally {
+      index.close();
+    }
+  }
+
+  /**
+   * @return The number of responses served so far
+   */
+  public int getReplayedCount() {
+    return replayed.get();
+  }
+
+  @Override
+  public boolean supportsMethod(String method) {
+    return true;
+  }
+
+  @Override
+  protected LowLevelHttpRequest buildRequest(final String method, final String url) throws IOException {
+    String target = RecordingTransport.target(url);
+    Recording recording = recordings.get(method + " " + target);
+    if (recording == null) {
+      int query = target.indexOf('?');
+      recording = query < 0 ? null : recordings.get(method + " " + target.substring(0, query));
+    }
+    if (recording == null) {
+      throw new IOException("No recorded response for " + method + " " + target);
+    }
+
+    final Exchange exchange = recording.next();
+    return new LowLevelHttpRequest() {
+      @Override
+      public void addHeader(String name, String value) {
+      }
+
+      @Override
+      public LowLevelHttpResponse execute() throws IOException {
+        long delay = (long) (exchange.elapsedMillis * timeScale);
+        if (delay > 0) {
+          try {
+            Thread.sleep(delay);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while replaying " + method + " " + url);
+          }
+        }
+        replayed.incrementAndGet();
+        return exchange.fixture.toResponse();
+      }
+    };
+  }
+
+  private Recording recording(String key) {
+    Recording recording = recordings.get(key);
+    if (recording == null) {
+      recording = new Recording();
+      recordings.put(key, recording);
+    }
+    return recording;
+  }
+
+  private static HttpFixture read(File file) throws IOException {
+    return HttpFixture.read(HttpFixture.readFully(new FileInputStream(file)));
+  }
+
+  private static final class Exchange {
+    final HttpFixture fixture;
+    final long elapsedMillis;
+
+    Exchange(HttpFixture fixture, long elapsedMillis) {
+      this.fixture = fixture;
+      this.elapsedMillis = elapsedMillis;
+    }
+  }
+
+  private static final class Recording {
+    final List<Exchange> exchanges = new ArrayList<Exchange>();
+    final AtomicInteger cursor = new AtomicInteger();
+
+    Exchange next() {
+      return exchanges.get((cursor.getAndIncrement() & Integer.MAX_VALUE) % exchanges.size());
+    }
+  }
+}
@@ -0,0 +1,717 @@
+package com.dnsimple.testing;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.gson.GsonFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A fake DNSimple API, for integration and load tests that must not touch the network.
+ * <p>
+ * The server keeps domains, zones, zone records and templates in memory, so a record
+ * created through the SDK can be listed, updated and deleted again. It serves the v2 routes
+ * the SDK uses for identity, domains, zones, zone records, templates and the registrar
+ * (check, register, renew, auto-renewal). Accounts are created on first use.
+ * <p>
+ * Responses can be slowed down, some of them far more than others, failed at random or on demand, and are rate limited with
+ * the same X-RateLimit headers as the real API. GET responses carry an ETag and honour
+ * If-None-Match. Responses are gzip or deflate compressed when the client accepts it, and
+ * gzip compressed request bodies are understood. A bandwidth limit makes the size of
+ * responses show up in their timing.
+ * <p>
+ * For latency measurements, run with -Dsun.net.httpserver.nodelay=true. Without
+ * TCP_NODELAY, small responses wait for the client's delayed ACK, which adds about 40ms to
+ * every request. The JDK server reads the property once, when it is first used, and it
+ * applies to every such server in the JVM, so it is left to the caller to set.
+ * <p>
+ * For example:
+ * <p>
+ * StubServer server = StubServer.builder().latency(5, 10).rateLimit(2400, 3600000).build();
+ * server.start();
+ * Client client = new Client(ClientConfig.builder().apiBase(server.getApiBase()).build());
+ */
+public class StubServer {
+  private static final String PREFIX = "/v2/";
+  private static final int COMPRESSION_THRESHOLD = 256;
+
+  private final StubStore store = new StubStore();
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final long latencyMillis;
+  private final long latencyJitterMillis;
+  private final double tailFraction;
+  private final long tailLatencyMillis;
+  private final double errorRate;
+  private final int rateLimit;
+  private final long rateLimitWindowMillis;
+  private final String accountId;
+  private final long bandwidthBytesPerSecond;
+  private final Random random = new Random();
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong bytesReceived = new AtomicLong();
+  private final AtomicLong bytesSent = new AtomicLong();
+  private final Map<InetSocketAddress, Boolean> clientAddresses = new ConcurrentHashMap<InetSocketAddress, Boolean>();
+  private final LinkedList<Integer> injectedErrors = new LinkedList<Integer>();
+
+  private long windowStart = System.currentTimeMillis();
+  private int windowCount;
+
+  private StubServer(Builder builder) throws IOException {
+    this.latencyMillis = builder.latencyMillis;
+    this.latencyJitterMillis = builder.latencyJitterMillis;
+    this.tailFraction = builder.tailFraction;
+    this.tailLatencyMillis = builder.tailLatencyMillis;
+    this.errorRate = builder.errorRate;
+    this.rateLimit = builder.rateLimit;
+    this.rateLimitWindowMillis = builder.rateLimitWindowMillis;
+    this.accountId = builder.accountId;
+    this.bandwidthBytesPerSecond = builder.bandwidthBytesPerSecond;
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getByName(null), builder.port), 0);
+    this.server.createContext("/", new Handler());
+    this.executor = Executors.newCachedThreadPool();
+    this.server.setExecutor(executor);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public void start() {
+    server.start();
+  }
+
+  public void stop() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  /**
+   * @return The base URL to configure clients with, such as "http://127.0.0.1:54321"
+   */
+  public String getApiBase() {
+    return "http://" + server.getAddress().getAddress().getHostAddress() + ":" + server.getAddress().getPort();
+  }
+
+  /**
+   * @return The account returned by the whoami endpoint
+   */
+  public String getAccountId() {
+    return accountId;
+  }
+
+  /**
+   * @return The number of requests received, including rejected ones
+   */
+  public long getRequestCount() {
+    return requests.get();
+  }
+
+  /**
+   * @return The number of request body bytes received, as sent on the wire
+   */
+  public long getBytesReceived() {
+    return bytesReceived.get();
+  }
+
+  /**
+   * @return The number of response body bytes sent, after compression
+   */
+  public long getBytesSent() {
+    return bytesSent.get();
+  }
+
+  /**
+   * @return The number of distinct client addresses seen, roughly the number of connections opened
+   */
+  public int getConnectionCount() {
+    return clientAddresses.size();
+  }
+
+  /**
+   * Add a domain, and its zone, without going through the API.
+   *
+   * @param accountId The account ID
+   * @param name The domain name
+   * @param registered Whether the domain is registered, with an expiration date a year away, rather than hosted
+   * @return The domain ID
+   */
+  public int addDomain(String accountId, String name, boolean registered) {
+    return (Integer) store.createDomain(accountId, name, registered ? "registered" : "hosted").get("id");
+  }
+
+  /**
+   * Answer the next requests with an error, before any other processing.
+   *
+   * @param count The number of requests to fail
+   * @param status The HTTP status to answer with, such as 500 or 503
+   */
+  public void failNext(int count, int status) {
+    synchronized (injectedErrors) {
+      for (int i = 0; i < count; i++) {
+        injectedErrors.add(status);
+      }
+    }
+  }
+
+  private Response route(String method, List<String> path, Map<String, String> query, Map<String, Object> body) {
+    int size = path.size();
+    if (size == 1 && path.get(0).equals("whoami")) {
+      Map<String, Object> account = new LinkedHashMap<String, Object>();
+      account.put("id", Integer.valueOf(accountId));
+      account.put("email", "stub@example.com");
+      Map<String, Object> data = new LinkedHashMap<String, Object>();
+      data.put("account", account);
+      return Response.data(200, data);
+    }
+    if (size == 1 && path.get(0).equals("accounts")) {
+      Map<String, Object> account = new LinkedHashMap<String, Object>();
+      account.put("id", Integer.valueOf(accountId));
+      account.put("email", "stub@example.com");
+      return Response.data(200, Collections.singletonList(account));
+    }
+    if (size < 2) {
+      return Response.notFound("Route");
+    }
+
+    String account = path.get(0);
+    String collection = path.get(1);
+    if (collection.equals("domains")) {
+      return domains(method, account, path, query, body);
+    }
+    if (collection.equals("zones")) {
+      return zones(method, account, path, query, body);
+    }
+    if (collection.equals("templates")) {
+      return templates(method, account, path, query, body);
+    }
+    if (collection.equals("registrar") && size >= 4 && path.get(2).equals("domains")) {
+      return registrar(method, account, path, body);
+    }
+    return Response.notFound("Route");
+  }
+
+  private Response domains(String method, String account, List<String> path, Map<String, String> query, Map<String, Object> body) {
+    int size = path.size();
+    if (size == 2 && method.equals("GET")) {
+      return Response.page(store.domains(account), query);
+    }
+    if (size == 2 && method.equals("POST")) {
+      if (body.get("name") == null) {
+        return Response.validation("name", "can't be blank");
+      }
+      if (store.domain(account, String.valueOf(body.get("name"))) != null) {
+        return Response.validation("name", "has already been taken");
+      }
+      return Response.data(201, store.createDomain(account, String.valueOf(body.get("name")), "hosted"));
+    }
+    String domainId = path.get(2);
+    if (size == 3 && method.equals("GET")) {
+      return Response.dataOrNotFound(store.domain(account, domainId), "Domain `" + domainId + "`");
+    }
+    if (size == 3 && method.equals("DELETE")) {
+      return store.deleteDomain(account, domainId) ? Response.empty() : Response.notFound("Domain `" + domainId + "`");
+    }
+    if (size == 5 && path.get(3).equals("templates") && method.equals("POST")) {
+      return store.applyTemplate(account, domainId, path.get(4)) ? Response.empty() : Response.notFound("Domain or template");
+    }
+    return Response.notFound("Route");
+  }
+
+  private Response zones(String method, String account, List<String> path, Map<String, String> query, Map<String, Object> body) {
+    int size = path.size();
+    if (size == 2 && method.equals("GET")) {
+      return Response.page(store.zones(account), query);
+    }
+    String zoneId = path.get(2);
+    if (size == 3 && method.equals("GET")) {
+      return Response.dataOrNotFound(store.zone(account, zoneId), "Zone `" + zoneId + "`");
+    }
+    if (size < 4 || !path.get(3).equals("records")) {
+      return Response.notFound("Route");
+    }
+    if (size == 4 && method.equals("GET")) {
+      List<Map<String, Object>> records = store.records(account, zoneId);
+      return records == null ? Response.notFound("Zone `" + zoneId + "`") : Response.page(records, query);
+    }
+    if (size == 4 && method.equals("POST")) {
+      if (body.get("type") == null || body.get("content") == null) {
+        return Response.validation(body.get("type") == null ? "type" : "content", "can't be blank");
+      }
+      return Response.dataOrNotFound(store.createRecord(account, zoneId, body, false), "Zone `" + zoneId + "`", 201);
+    }
+    String recordId = path.get(4);
+    if (size == 5 && method.equals("GET")) {
+      return Response.dataOrNotFound(store.record(account, zoneId, recordId), "Record `" + recordId + "`");
+    }
+    if (size == 5 && method.equals("PATCH")) {
+      return Response.dataOrNotFound(store.updateRecord(account, zoneId, recordId, body), "Record `" + recordId + "`");
+    }
+    if (size == 5 && method.equals("DELETE")) {
+      return store.deleteRecord(account, zoneId, recordId) ? Response.empty() : Response.notFound("Record `" + recordId + "`");
+    }
+    return Response.notFound("Route");
+  }
+
+  private Response templates(String method, String account, List<String> path, Map<String, String> query, Map<String, Object> body) {
+    int size = path.size();
+    if (size == 2 && method.equals("GET")) {
+      return Response.page(store.templates(account), query);
+    }
+    if (size == 2 && method.equals("POST")) {
+      if (body.get("name") == null) {
+        return Response.validation("name", "can't be blank");
+      }
+      return Response.data(201, store.createTemplate(account, body));
+    }
+    String templateId = path.get(2);
+    if (size == 3 && method.equals("GET")) {
+      return Response.dataOrNotFound(store.template(account, templateId), "Template `" + templateId + "`");
+    }
+    if (size == 3 && method.equals("PATCH")) {
+      return Response.dataOrNotFound(store.updateTemplate(account, templateId, body), "Template `" + templateId + "`");
+    }
+    if (size == 3 && method.equals("DELETE")) {
+      return store.deleteTemplate(account, templateId) ? Response.empty() : Response.notFound("Template `" + templateId + "`");
+    }
+    if (size < 4 || !path.get(3).equals("records")) {
+      return Response.notFound("Route");
+    }
+    if (size == 4 && method.equals("GET")) {
+      List<Map<String, Object>> records = store.templateRecords(account, templateId);
+      return records == null ? Response.notFound("Template `" + templateId + "`") : Response.page(records, query);
+    }
+    if (size == 4 && method.equals("POST")) {
+      return Response.dataOrNotFound(store.createTemplateRecord(account, templateId, body), "Template `" + templateId + "`", 201);
+    }
+    if (size == 5 && method.equals("DELETE")) {
+      return store.deleteTemplateRecord(account, templateId, path.get(4)) ? Response.empty() : Response.notFound("Record `" + path.get(4) + "`");
+    }
+    return Response.notFound("Route");
+  }
+
+  private Response registrar(String method, String account, List<String> path, Map<String, Object> body) {
+    String domainName = path.get(3);
+    String action = path.size() == 5 ? path.get(4) : "";
+    if (action.equals("check") && method.equals("GET")) {
+      Map<String, Object> check = new LinkedHashMap<String, Object>();
+      check.put("domain", domainName);
+      check.put("available", store.domain(account, domainName) == null);
+      check.put("premium", false);
+      return Response.data(200, check);
+    }
+    if (action.equals("register") && method.equals("POST")) {
+      if (store.domain(account, domainName) != null) {
+        return Response.validation("domain", "is not available");
+      }
+      return Response.data(201, store.createDomain(account, domainName, "registered"));
+    }
+    if (action.equals("renewal") && method.equals("POST")) {
+      int years = body.get("period") instanceof Number ? ((Number) body.get("period")).intValue() : 1;
+      return Response.dataOrNotFound(store.renewDomain(account, domainName, years), "Registered domain `" + domainName + "`", 201);
+    }
+    if (action.equals("auto_renewal") && (method.equals("PUT") || method.equals("DELETE"))) {
+      return store.setAutoRenew(account, domainName, method.equals("PUT")) == null ? Response.notFound("Domain `" + domainName + "`") : Response.empty();
+    }
+    return Response.notFound("Route");
+  }
+
+  /**
+   * Count a request against the rate limit window and fill in the rate limit headers.
+   *
+   * @return Whether the request is within the limit
+   */
+  private synchronized boolean countRequest(Map<String, String> headers) {
+    long now = System.currentTimeMillis();
+    if (now - windowStart >= rateLimitWindowMillis) {
+      windowStart = now;
+      windowCount = 0;
+    }
+    windowCount++;
+    headers.put("X-RateLimit-Limit", String.valueOf(rateLimit));
+    headers.put("X-RateLimit-Remaining", String.valueOf(Math.max(0, rateLimit - windowCount)));
+    headers.put("X-RateLimit-Reset", String.valueOf((windowStart + rateLimitWindowMillis) / 1000));
+    return windowCount <= rateLimit;
+  }
+
+  private Integer injectedError() {
+    synchronized (injectedErrors) {
+      if (!injectedErrors.isEmpty()) {
+        return injectedErrors.removeFirst();
+      }
+    }
+    if (errorRate > 0 && random.nextDouble() < errorRate) {
+      return 500;
+    }
+    return null;
+  }
+
+  private final class Handler implements HttpHandler {
+    public void handle(HttpExchange exchange) throws IOException {
+      try {
+        requests.incrementAndGet();
+        clientAddresses.put(exchange.getRemoteAddress(), Boolean.TRUE);
+        long delay = latencyMillis + (latencyJitterMillis > 0 ? (long) (random.nextDouble() * latencyJitterMillis) : 0);
+        if (tailFraction > 0 && random.nextDouble() < tailFraction) {
+          delay += tailLatencyMillis;
+        }
+        if (delay > 0) {
+          Thread.sleep(delay);
+        }
+
+        Map<String, String> headers = new LinkedHashMap<String, String>();
+        Response response;
+        Integer injected = injectedError();
+        if (injected != null) {
+          response = Response.message(injected, "Injected failure");
+        } else if (!countRequest(headers)) {
+          response = Response.message(429, "API rate limit exceeded");
+        } else {
+          response = handleRequest(exchange);
+        }
+        send(exchange, response, headers);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (RuntimeException e) {
+        try {
+          send(exchange, Response.message(500, e.toString()), Collections.<String, String>emptyMap());
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      } finally {
+        exchange.close();
+      }
+    }
+
+    private Response handleRequest(HttpExchange exchange) throws IOException {
+      String rawPath = exchange.getRequestURI().getRawPath();
+      if (!rawPath.startsWith(PREFIX)) {
+        return Response.notFound("Route");
+      }
+      List<String> path = new ArrayList<String>();
+      for (String segment : rawPath.substring(PREFIX.length()).split("/")) {
+        if (segment.length() > 0) {
+          path.add(URLDecoder.decode(segment, "UTF-8"));
+        }
+      }
+
+      Map<String, String> query = new HashMap<String, String>();
+      String rawQuery = exchange.getRequestURI().getRawQuery();
+      if (rawQuery != null) {
+        for (String pair : rawQuery.split("&")) {
+          int equals = pair.indexOf('=');
+          if (equals > 0) {
+            query.put(URLDecoder.decode(pair.substring(0, equals), "UTF-8"), URLDecoder.decode(pair.substring(equals + 1), "UTF-8"));
+          }
+        }
+      }
+
+      Map<String, Object> body = Collections.emptyMap();
+      byte[] raw = HttpFixture.readFully(exchange.getRequestBody());
+      bytesReceived.addAndGet(raw.length);
+      if (raw.length > 0) {
+        try {
+          if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            raw = HttpFixture.readFully(new GZIPInputStream(new ByteArrayInputStream(raw)));
+          }
+          GenericJson json = GsonFactory.getDefaultInstance().createJsonParser(new ByteArrayInputStream(raw)).parseAndClose(GenericJson.class);
+          if (json != null) {
+            body = json;
+          }
+        } catch (IOException e) {
+          return Response.message(400, "Invalid request body");
+        } catch (IllegalArgumentException e) {
+          return Response.message(400, "Invalid JSON body");
+        }
+      }
+
+      Response response = route(exchange.getRequestMethod(), path, query, body);
+      if (exchange.getRequestMethod().equals("GET") && response.status == 200) {
+        String etag = etag(response.body);
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+          return new Response(304, null, etag);
+        }
+        return new Response(200, response.body, etag);
+      }
+      return response;
+    }
+
+    private void send(HttpExchange exchange, Response response, Map<String, String> headers) throws IOException, InterruptedException {
+      for (Map.Entry<String, String> header : headers.entrySet()) {
+        exchange.getResponseHeaders().set(header.getKey(), header.getValue());
+      }
+      if (response.etag != null) {
+        exchange.getResponseHeaders().set("ETag", response.etag);
+      }
+      if (response.body == null) {
+        exchange.sendResponseHeaders(response.status, -1);
+        return;
+      }
+      exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+      byte[] bytes = response.body.getBytes("UTF-8");
+      String encoding = bytes.length >= COMPRESSION_THRESHOLD ? encoding(exchange.getRequestHeaders().getFirst("Accept-Encoding")) : null;
+      if (encoding != null) {
+        bytes = compress(bytes, encoding);
+        exchange.getResponseHeaders().set("Content-Encoding", encoding);
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+      }
+      bytesSent.addAndGet(bytes.length);
+      if (bandwidthBytesPerSecond > 0) {
+        Thread.sleep(bytes.length * 1000L / bandwidthBytesPerSecond);
+      }
+      exchange.sendResponseHeaders(response.status, bytes.length);
+      OutputStream out = exchange.getResponseBody();
+      out.write(bytes);
+      out.close();
+    }
+  }
+
+  /**
+   * Pick the response encoding from an Accept-Encoding header, preferring gzip. Quality
+   * values other than q=0 are not weighed against each other.
+   */
+  private static String encoding(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return null;
+    }
+    boolean deflate = false;
+    for (String accepted : acceptEncoding.split(",")) {
+      String[] parts = accepted.trim().split(";");
+      String coding = parts[0].trim().toLowerCase();
+      if (parts.length > 1 && parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?")) {
+        continue;
+      }
+      if (coding.equals("gzip")) {
+        return coding;
+      }
+      deflate |= coding.equals("deflate");
+    }
+    return deflate ? "deflate" : null;
+  }
+
+  private static byte[] compress(byte[] bytes, String encoding) throws IOException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    OutputStream out = encoding.equals("gzip") ? new GZIPOutputStream(buffer) : new DeflaterOutputStream(buffer);
+    out.write(bytes);
+    out.close();
+    return buffer.toByteArray();
+  }
+
+  private static String etag(String body) throws IOException {
+    try {
+      byte[] digest = MessageDigest.getInstance("MD5").digest(body.getBytes("UTF-8"));
+      StringBuilder etag = new StringBuilder("W/\"");
+      for (byte b : digest) {
+        etag.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return etag.append('"').toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static final class Response {
+    final int status;
+    final String body;
+    final String etag;
+
+    Response(int status, String body, String etag) {
+      this.status = status;
+      this.body = body;
+      this.etag = etag;
+    }
+
+    static Response json(int status, Map<String, Object> json) {
+      try {
+        return new Response(status, GsonFactory.getDefaultInstance().toString(json), null);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    static Response data(int status, Object data) {
+      Map<String, Object> json = new LinkedHashMap<String, Object>();
+      json.put("data", data);
+      return json(status, json);
+    }
+
+    static Response dataOrNotFound(Object data, String what) {
+      return dataOrNotFound(data, what, 200);
+    }
+
+    static Response dataOrNotFound(Object data, String what, int status) {
+      return data == null ? notFound(what) : data(status, data);
+    }
+
+    static Response page(List<Map<String, Object>> resources, Map<String, String> query) {
+      int perPage = query.containsKey("per_page") ? Math.min(100, Math.max(1, Integer.parseInt(query.get("per_page")))) : 30;
+      int page = query.containsKey("page") ? Math.max(1, Integer.parseInt(query.get("page"))) : 1;
+      int from = Math.min(resources.size(), (page - 1) * perPage);
+      int to = Math.min(resources.size(), from + perPage);
+
+      Map<String, Object> pagination = new LinkedHashMap<String, Object>();
+      pagination.put("current_page", page);
+      pagination.put("per_page", perPage);
+      pagination.put("total_entries", resources.size());
+      pagination.put("total_pages", Math.max(1, (resources.size() + perPage - 1) / perPage));
+
+      Map<String, Object> json = new LinkedHashMap<String, Object>();
+      json.put("data", new ArrayList<Map<String, Object>>(resources.subList(from, to)));
+      json.put("pagination", pagination);
+      return json(200, json);
+    }
+
+    static Response empty() {
+      return new Response(204, null, null);
+    }
+
+    static Response message(int status, String message) {
+      Map<String, Object> json = new LinkedHashMap<String, Object>();
+      json.put("message", message);
+      return json(status, json);
+    }
+
+    static Response notFound(String what) {
+      return message(404, what + " not found");
+    }
+
+    static Response validation(String field, String problem) {
+      Map<String, Object> errors = new LinkedHashMap<String, Object>();
+      errors.put(field, Collections.singletonList(problem));
+      Map<String, Object> json = new LinkedHashMap<String, Object>();
+      json.put("message", "Validation failed");
+      json.put("errors", errors);
+      return json(400, json);
+    }
+  }
+
+  public static class Builder {
+    private int port;
+    private long latencyMillis;
+    private long latencyJitterMillis;
+    private double tailFraction;
+    private long tailLatencyMillis;
+    private double errorRate;
+    private int rateLimit = 2400;
+    private long rateLimitWindowMillis = 3600000;
+    private String accountId = "1010";
+    private long bandwidthBytesPerSecond;
+
+    private Builder() {
+    }
+
+    /**
+     * @param port The port to listen on; the default 0 picks a free one
+     * @return The builder
+     */
+    public Builder port(int port) {
+      this.port = port;
+      return this;
+    }
+
+    /**
+     * @param latencyMillis The delay added to every response
+     * @param jitterMillis A random extra delay of up to this many milliseconds
+     * @return The builder
+     */
+    public Builder latency(long latencyMillis, long jitterMillis) {
+      if (latencyMillis < 0 || jitterMillis < 0) {
+        throw new IllegalArgumentException("latency must not be negative");
+      }
+      this.latencyMillis = latencyMillis;
+      this.latencyJitterMillis = jitterMillis;
+      return this;
+    }
+
+    /**
+     * @param fraction The fraction of responses that are slow, between 0 and 1
+     * @param extraMillis The delay added to a slow response
+     * @return The builder
+     */
+    public Builder tailLatency(double fraction, long extraMillis) {
+      if (fraction < 0 || fraction > 1 || extraMillis < 0) {
+        throw new IllegalArgumentException("fraction must be between 0 and 1 and extraMillis not negative");
+      }
+      this.tailFraction = fraction;
+      this.tailLatencyMillis = extraMillis;
+      return this;
+    }
+
+    /**
+     * @param errorRate The fraction of requests answered with a 500 error, between 0 and 1
+     * @return The builder
+     */
+    public Builder errorRate(double errorRate) {
+      if (errorRate < 0 || errorRate > 1) {
+        throw new IllegalArgumentException("errorRate must be between 0 and 1");
+      }
+      this.errorRate = errorRate;
+      return this;
+    }
+
+    /**
+     * @param limit The number of requests allowed per window; the default is 2400 per hour
+     * @param windowMillis The length of the window
+     * @return The builder
+     */
+    public Builder rateLimit(int limit, long windowMillis) {
+      if (limit < 1 || windowMillis < 1) {
+        throw new IllegalArgumentException("rate limit and window must be positive");
+      }
+      this.rateLimit = limit;
+      this.rateLimitWindowMillis = windowMillis;
+      return this;
+    }
+
+    /**
+     * @param accountId The account returned by the whoami endpoint; the default is 1010
+     * @return The builder
+     */
+    public Builder accountId(String accountId) {
+      this.accountId = accountId;
+      return this;
+    }
+
+    /**
+     * @param bytesPerSecond The rate at which response bodies are sent, or 0 for no limit
+     * @return The builder
+     */
+    public Builder bandwidth(long bytesPerSecond) {
+      if (bytesPerSecond < 0) {
+        throw new IllegalArgumentException("bandwidth must not be negative");
+      }
+      this.bandwidthBytesPerSecond = bytesPerSecond;
+      return this;
+    }
+
+    public StubServer build() throws IOException {
+      return new StubServer(this);
+    }
+  }
+}
@@ -0,0 +1,420 @@
+package com.dnsimple.testing;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * The in-memory state behind a {@link StubServer}: domains, zones, zone records, templates
+ * and template records, per account. Resources are held as the JSON objects the API returns.
+ * <p>
+ * All methods synchronize on the store, which keeps every request atomic. Resources are
+ * returned as copies, so they can be serialized while other requests change the store.
+ */
+class StubStore {
+  private final Map<String, Account> accounts = new LinkedHashMap<String, Account>();
+  private int nextId = 1;
+
+  synchronized Map<String, Object> createDomain(String accountId, String name, String state) {
+    Account account = account(accountId);
+    Map<String, Object> domain = new LinkedHashMap<String, Object>();
+    domain.put("id", nextId++);
+    domain.put("account_id", Integer.valueOf(accountId));
+    domain.put("name", name);
+    domain.put("unicode_name", name);
+    domain.put("token", "domain-token-" + domain.get("id"));
+    domain.put("state", state);
+    domain.put("auto_renew", false);
+    domain.put("private_whois", false);
+    if ("registered".equals(state)) {
+      domain.put("expires_on", date(365));
+    }
+    String now = now();
+    domain.put("created_at", now);
+    domain.put("updated_at", now);
+    account.domains.add(domain);
+
+    if (find(account.zones, name) == null) {
+      Map<String, Object> zone = new LinkedHashMap<String, Object>();
+      zone.put("id", nextId++);
+      zone.put("account_id", Integer.valueOf(accountId));
+      zone.put("name", name);
+      zone.put("reverse", false);
+      zone.put("created_at", now);
+      zone.put("updated_at", now);
+      account.zones.add(zone);
+      createRecord(accountId, name, recordAttributes("", "SOA", "ns1.dnsimple.com admin.dnsimple.com 1 86400 7200 604800 300", 3600, null), true);
+      createRecord(accountId, name, recordAttributes("", "NS", "ns1.dnsimple.com", 3600, null), true);
+    }
+    return copy(domain);
+  }
+
+  synchronized Map<String, Object> domain(String accountId, String domainId) {
+    return copy(find(account(accountId).domains, domainId));
+  }
+
+  synchronized List<Map<String, Object>> domains(String accountId) {
+    return copies(account(accountId).domains);
+  }
+
+  synchronized boolean deleteDomain(String accountId, String domainId) {
+    Account account = account(accountId);
+    Map<String, Object> domain = find(account.domains, domainId);
+    if (domain == null) {
+      return false;
+    }
+    account.domains.remove(domain);
+    Map<String, Object> zone = find(account.zones, (String) domain.get("name"));
+    if (zone != null) {
+      account.zones.remove(zone);
+      account.records.remove(zone.get("name"));
+    }
+    return true;
+  }
+
+  synchronized Map<String, Object> zone(String accountId, String zoneId) {
+    return copy(find(account(accountId).zones, zoneId));
+  }
+
+  synchronized List<Map<String, Object>> zones(String accountId) {
+    return copies(account(accountId).zones);
+  }
+
+  /**
+   * @return The records of the zone, or null if there is no such zone
+   */
+  synchronized List<Map<String, Object>> records(String accountId, String zoneId) {
+    Map<String, Object> zone = find(account(accountId).zones, zoneId);
+    if (zone == null) {
+      return null;
+    }
+    return copies(records(account(accountId), (String) zone.get("name")));
+  }
+
+  synchronized Map<String, Object> createRecord(String accountId, String zoneId, Map<String, Object> attributes, boolean system) {
+    Map<String, Object> zone = find(account(accountId).zones, zoneId);
+    if (zone == null) {
+      return null;
+    }
+    String zoneName = (String) zone.get("name");
+    Map<String, Object> record = new LinkedHashMap<String, Object>();
+    record.put("id", nextId++);
+    record.put("zone_id", zoneName);
+    record.put("name", attributes.containsKey("name") ? String.valueOf(attributes.get("name")) : "");
+    record.put("content", String.valueOf(attributes.get("content")));
+    record.put("ttl", attributes.containsKey("ttl") ? ((Number) attributes.get("ttl")).intValue() : 3600);
+    if (attributes.get("priority") instanceof Number) {
+      record.put("priority", ((Number) attributes.get("priority")).intValue());
+    }
+    record.put("type", String.valueOf(attributes.get("type")).toUpperCase());
+    List<String> regions = new ArrayList<String>();
+    regions.add("global");
+    record.put("regions", Collections.unmodifiableList(regions));
+    record.put("system_record", system);
+    String now = now();
+    record.put("created_at", now);
+    record.put("updated_at", now);
+    records(account(accountId), zoneName).add(record);
+    return copy(record);
+  }
+
+  synchronized Map<String, Object> record(String accountId, String zoneId, String recordId) {
+    return copy(findRecord(accountId, zoneId, recordId));
+  }
+
+  synchronized Map<String, Object> updateRecord(String accountId, String zoneId, String recordId, Map<String, Object> attributes) {
+    Map<String, Object> record = findRecord(accountId, zoneId, recordId);
+    if (record == null) {
+      return null;
+    }
+    for (String key : new String[] { "name", "content" }) {
+      if (attributes.containsKey(key)) {
+        record.put(key, String.valueOf(attributes.get(key)));
+      }
+    }
+    for (String key : new String[] { "ttl", "priority" }) {
+      if (attributes.get(key) instanceof Number) {
+        record.put(key, ((Number) attributes.get(key)).intValue());
+      }
+    }
+    record.put("updated_at", now());
+    return copy(record);
+  }
+
+  synchronized boolean deleteRecord(String accountId, String zoneId, String recordId) {
+    Map<String, Object> zone = find(account(accountId).zones, zoneId);
+    Map<String, Object> record = findRecord(accountId, zoneId, recordId);
+    if (zone == null || record == null) {
+      return false;
+    }
+    return records(account(accountId), (String) zone.get("name")).remove(record);
+  }
+
+  synchronized Map<String, Object> createTemplate(String accountId, Map<String, Object> attributes) {
+    Map<String, Object> template = new LinkedHashMap<String, Object>();
+    template.put("id", nextId++);
+    template.put("account_id", Integer.valueOf(accountId));
+    template.put("name", String.valueOf(attributes.get("name")));
+    template.put("sid", attributes.containsKey("sid") ? String.valueOf(attributes.get("sid")) : "template-" + template.get("id"));
+    template.put("description", attributes.containsKey("description") ? String.valueOf(attributes.get("description")) : "");
+    String now = now();
+    template.put("created_at", now);
+    template.put("updated_at", now);
+    account(accountId).templates.add(template);
+    return copy(template);
+  }
+
+  synchronized Map<String, Object> template(String accountId, String templateId) {
+    return copy(findTemplate(accountId, templateId));
+  }
+
+  synchronized List<Map<String, Object>> templates(String accountId) {
+    return copies(account(accountId).templates);
+  }
+
+  synchronized Map<String, Object> updateTemplate(String accountId, String templateId, Map<String, Object> attributes) {
+    Map<String, Object> template = findTemplate(accountId, templateId);
+    if (template == null) {
+      return null;
+    }
+    for (String key : new String[] { "name", "sid", "description" }) {
+      if (attributes.containsKey(key)) {
+        template.put(key, String.valueOf(attributes.get(key)));
+      }
+    }
+    template.put("updated_at", now());
+    return copy(template);
+  }
+
+  synchronized boolean deleteTemplate(String accountId, String templateId) {
+    Map<String, Object> template = findTemplate(accountId, templateId);
+    if (template == null) {
+      return false;
+    }
+    Account account = account(accountId);
+    account.templates.remove(template);
+    account.templateRecords.remove(template.get("id"));
+    return true;
+  }
+
+  /**
+   * @return The records of the template, or null if there is no such template
+   */
+  synchronized List<Map<String, Object>> templateRecords(String accountId, String templateId) {
+    Map<String, Object> template = findTemplate(accountId, templateId);
+    if (template == null) {
+      return null;
+    }
+    return copies(templateRecords(account(accountId), (Integer) template.get("id")));
+  }
+
+  synchronized Map<String, Object> createTemplateRecord(String accountId, String templateId, Map<String, Object> attributes) {
+    Map<String, Object> template = findTemplate(accountId, templateId);
+    if (template == null) {
+      return null;
+    }
+    Map<String, Object> record = new LinkedHashMap<String, Object>();
+    record.put("id", nextId++);
+    record.put("template_id", template.get("id"));
+    record.put("name", attributes.containsKey("name") ? String.valueOf(attributes.get("name")) : "");
+    record.put("content", String.valueOf(attributes.get("content")));
+    record.put("ttl", attributes.containsKey("ttl") ? ((Number) attributes.get("ttl")).intValue() : 3600);
+    if (attributes.get("priority") instanceof Number) {
+      record.put("priority", ((Number) attributes.get("priority")).intValue());
+    }
+    record.put("type", String.valueOf(attributes.get("type")).toUpperCase());
+    String now = now();
+    record.put("created_at", now);
+    record.put("updated_at", now);
+    templateRecords(account(accountId), (Integer) template.get("id")).add(record);
+    return copy(record);
+  }
+
+  synchronized boolean deleteTemplateRecord(String accountId, String templateId, String recordId) {
+    Map<String, Object> template = findTemplate(accountId, templateId);
+    if (template == null) {
+      return false;
+    }
+    List<Map<String, Object>> records = templateRecords(account(accountId), (Integer) template.get("id"));
+    Map<String, Object> record = findById(records, recordId);
+    return record != null && records.remove(record);
+  }
+
+  /**
+   * Copy the records of a template into the zone of a domain.
+   *
+   * @return False if the domain or the template does not exist
+   */
+  synchronized boolean applyTemplate(String accountId, String domainId, String templateId) {
+    Map<String, Object> domain = find(account(accountId).domains, domainId);
+    List<Map<String, Object>> records = templateRecords(accountId, templateId);
+    if (domain == null || records == null) {
+      return false;
+    }
+    String domainName = (String) domain.get("name");
+    for (Map<String, Object> record : records) {
+      Map<String, Object> attributes = new LinkedHashMap<String, Object>(record);
+      attributes.put("content", String.valueOf(record.get("content")).replace("{{domain}}", domainName));
+      createRecord(accountId, domainName, attributes, false);
+    }
+    return true;
+  }
+
+  synchronized Map<String, Object> renewDomain(String accountId, String domainId, int years) {
+    Map<String, Object> domain = find(account(accountId).domains, domainId);
+    if (domain == null || !"registered".equals(domain.get("state"))) {
+      return null;
+    }
+    Calendar calendar = calendar();
+    try {
+      calendar.setTime(dateFormat().parse((String) domain.get("expires_on")));
+    } catch (ParseException e) {
+      throw new IllegalStateException(e);
+    }
+    calendar.add(Calendar.YEAR, years);
+    domain.put("expires_on", dateFormat().format(calendar.getTime()));
+    domain.put("updated_at", now());
+
+    Map<String, Object> renewal = new LinkedHashMap<String, Object>();
+    renewal.put("id", nextId++);
+    renewal.put("domain_id", domain.get("id"));
+    renewal.put("period", years);
+    renewal.put("state", "renewed");
+    renewal.put("created_at", domain.get("updated_at"));
+    renewal.put("updated_at", domain.get("updated_at"));
+    return renewal;
+  }
+
+  synchronized Map<String, Object> setAutoRenew(String accountId, String domainId, boolean autoRenew) {
+    Map<String, Object> domain = find(account(accountId).domains, domainId);
+    if (domain != null) {
+      domain.put("auto_renew", autoRenew);
+      domain.put("updated_at", now());
+    }
+    return copy(domain);
+  }
+
+  private Account account(String accountId) {
+    Account account = accounts.get(accountId);
+    if (account == null) {
+      account = new Account();
+      accounts.put(accountId, account);
+    }
+    return account;
+  }
+
+  private static List<Map<String, Object>> records(Account account, String zoneName) {
+    List<Map<String, Object>> records = account.records.get(zoneName);
+    if (records == null) {
+      records = new ArrayList<Map<String, Object>>();
+      account.records.put(zoneName, records);
+    }
+    return records;
+  }
+
+  private static List<Map<String, Object>> templateRecords(Account account, Integer templateId) {
+    List<Map<String, Object>> records = account.templateRecords.get(templateId);
+    if (records == null) {
+      records = new ArrayList<Map<String, Object>>();
+      account.templateRecords.put(templateId, records);
+    }
+    return records;
+  }
+
+  private Map<String, Object> findRecord(String accountId, String zoneId, String recordId) {
+    Map<String, Object> zone = find(account(accountId).zones, zoneId);
+    return zone == null ? null : findById(records(account(accountId), (String) zone.get("name")), recordId);
+  }
+
+  private Map<String, Object> findTemplate(String accountId, String templateId) {
+    for (Map<String, Object> template : account(accountId).templates) {
+      if (templateId.equals(String.valueOf(template.get("id"))) || templateId.equals(template.get("sid"))) {
+        return template;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Copy a resource for use outside the lock. Its values are never changed in place.
+   */
+  private static Map<String, Object> copy(Map<String, Object> resource) {
+    return resource == null ? null : new LinkedHashMap<String, Object>(resource);
+  }
+
+  private static List<Map<String, Object>> copies(List<Map<String, Object>> resources) {
+    List<Map<String, Object>> copies = new ArrayList<Map<String, Object>>(resources.size());
+    for (Map<String, Object> resource : resources) {
+      copies.add(copy(resource));
+    }
+    return copies;
+  }
+
+  /**
+   * Find a resource by name or ID.
+   */
+  private static Map<String, Object> find(List<Map<String, Object>> resources, String nameOrId) {
+    for (Map<String, Object> resource : resources) {
+      if (nameOrId.equals(resource.get("name")) || nameOrId.equals(String.valueOf(resource.get("id")))) {
+        return resource;
+      }
+    }
+    return null;
+  }
+
+  private static Map<String, Object> findById(List<Map<String, Object>> resources, String id) {
+    for (Map<String, Object> resource : resources) {
+      if (id.equals(String.valueOf(resource.get("id")))) {
+        return resource;
+      }
+    }
+    return null;
+  }
+
+  private static Map<String, Object> recordAttributes(String name, String type, String content, int ttl, Integer priority) {
+    Map<String, Object> record = new LinkedHashMap<String, Object>();
+    record.put("name", name);
+    record.put("type", type);
+    record.put("content", content);
+    record.put("ttl", ttl);
+    record.put("priority", priority);
+    return record;
+  }
+
+  private static Calendar calendar() {
+    return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+  }
+
+  private static SimpleDateFormat dateFormat() {
+    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+    format.setTimeZone(TimeZone.getTimeZone("UTC"));
+    return format;
+  }
+
+  private static String date(int daysFromNow) {
+    Calendar calendar = calendar();
+    calendar.add(Calendar.DAY_OF_MONTH, daysFromNow);
+    return dateFormat().format(calendar.getTime());
+  }
+
+  private static String now() {
+    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+    format.setTimeZone(TimeZone.getTimeZone("UTC"));
+    return format.format(new Date());
+  }
+
+  private static final class Account {
+    final List<Map<String, Object>> domains = new ArrayList<Map<String, Object>>();
+    final List<Map<String, Object>> zones = new ArrayList<Map<String, Object>>();
+    final Map<String, List<Map<String, Object>>> records = new LinkedHashMap<String, List<Map<String, Object>>>();
+    final List<Map<String, Object>> templates = new ArrayList<Map<String, Object>>();
+    final Map<Integer, List<Map<String, Object>>> templateRecords = new LinkedHashMap<Integer, List<Map<String, Object>>>();
+  }
+}
@@ -0,0 +1,285 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.CallCancelledException;
+import com.dnsimple.exception.DeadlineExceededException;
+import com.dnsimple.exception.DnsimpleException;
+import com.dnsimple.testing.StubServer;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CallContextTest {
+  private ServerSocket silentServer;
+  private final List<Socket> silentConnections = new ArrayList<Socket>();
+
+  /**
+   * Accepts connections and never answers, like a stuck server.
+   */
+  @Before
+  public void startSilentServer() throws IOException {
+    silentServer = new ServerSocket(0, 50, InetAddress.getByName(null));
+    Thread acceptor = new Thread() {
+      public void run() {
+        try {
+          while (true) {
+            Socket socket = silentServer.accept();
+            synchronized (silentConnections) {
+              silentConnections.add(socket);
+            }
+          }
+        } catch (IOException e) {
+          // Closed
+        }
+      }
+    };
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  @After
+  public void stopSilentServer() throws IOException {
+    silentServer.close();
+    synchronized (silentConnections) {
+      for (Socket socket : silentConnections) {
+        socket.close();
+      }
+    }
+  }
+
+  private Client silentClient() {
+    return new Client(ClientConfig.builder().apiBase("http://127.0.0.1:" + silentServer.getLocalPort()).build());
+  }
+
+  @Test
+  public void testDeadlineStopsStuckRequest() throws DnsimpleException, IOException {
+    Client client = silentClient();
+    CallContext.Scope scope = CallContext.builder().timeout(300).build().attach();
+    long start = System.currentTimeMillis();
+    try {
+      client.domains.getDomain("1010", "example.com");
+      fail("Expected DeadlineExceededException");
+    } catch (DeadlineExceededException expected) {
+      assertTrue(expected.getCause() instanceof SocketTimeoutException);
+    } finally {
+      scope.detach();
+    }
+    assertTrue(System.currentTimeMillis() - start < 2000);
+    assertNull(CallContext.current());
+  }
+
+  @Test
+  public void testCallTimeoutFromConfig() throws DnsimpleException, IOException {
+    Client client = new Client(ClientConfig.builder().apiBase("http://127.0.0.1:" + silentServer.getLocalPort()).callTimeout(300).build());
+    long start = System.currentTimeMillis();
+    try {
+      client.domains.getDomain("1010", "example.com");
+      fail("Expected DeadlineExceededException");
+    } catch (DeadlineExceededException expected) {
+    }
+    assertTrue(System.currentTimeMillis() - start < 2000);
+  }
+
+  @Test
+  public void testCancelAbortsRequestInFlight() throws Exception {
+    assertCancelAbortsRequest(silentClient());
+  }
+
+  @Test
+  public void testCancelAbortsRegistryRequestInFlight() throws Exception {
+    ClientRegistry registry = new ClientRegistry(ClientConfig.builder().apiBase("http://127.0.0.1:" + silentServer.getLocalPort()).build(), 0, 10, 60000);
+    registry.register("tenant", "token");
+    assertCancelAbortsRequest(registry.client("tenant"));
+  }
+
+  private void assertCancelAbortsRequest(Client client) throws Exception {
+    final CallContext call = CallContext.builder().build();
+    Thread canceller = new Thread() {
+      public void run() {
+        try {
+          Thread.sleep(200);
+        } catch (InterruptedException e) {
+          return;
+        }
+        call.cancel();
+      }
+    };
+    canceller.start();
+
+    CallContext.Scope scope = call.attach();
+    long start = System.currentTimeMillis();
+    try {
+      client.domains.getDomain("1010", "example.com");
+      fail("Expected CallCancelledException");
+    } catch (CallCancelledException expected) {
+    } finally {
+      scope.detach();
+    }
+    assertTrue(System.currentTimeMillis() - start < 2000);
+    assertTrue(call.isCancelled());
+  }
+
+  @Test
+  public void testCancelledContextFailsFast() throws DnsimpleException, IOException {
+    CallContext call = CallContext.builder().build();
+    call.cancel();
+    CallContext.Scope scope = call.attach();
+    try {
+      silentClient().domains.getDomain("1010", "example.com");
+      fail("Expected CallCancelledException");
+    } catch (CallCancelledException expected) {
+    } finally {
+      scope.detach();
+    }
+    assertTrue(silentConnections.isEmpty());
+  }
+
+  @Test
+  public void testReadTimeoutOverride() throws DnsimpleException, IOException {
+    CallContext.Scope scope = CallContext.builder().readTimeout(200).build().attach();
+    try {
+      silentClient().domains.getDomain("1010", "example.com");
+      fail("Expected SocketTimeoutException");
+    } catch (SocketTimeoutException expected) {
+    } finally {
+      scope.detach();
+    }
+  }
+
+  @Test
+  public void testDeadlineStopsRetries() throws DnsimpleException, IOException {
+    StubServer server = StubServer.builder().build();
+    server.start();
+    try {
+      server.addDomain("1010", "example.com", false);
+      server.failNext(100, 500);
+      Client client = new Client(ClientConfig.builder().apiBase(server.getApiBase()).maxRetries(10).callTimeout(1000).build());
+      long start = System.currentTimeMillis();
+      try {
+        client.domains.getDomain("1010", "example.com");
+        fail("Expected DeadlineExceededException");
+      } catch (DeadlineExceededException expected) {
+        assertTrue(expected.getCause() instanceof DnsimpleException);
+      }
+      long elapsed = System.currentTimeMillis() - start;
+      assertTrue(elapsed >= 900 && elapsed < 2000);
+      assertTrue(server.getRequestCount() > 1);
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testPaginationSharesOneBudget() throws DnsimpleException, IOException {
+    HttpClient httpClient = new HttpClient(ClientConfig.builder().transport(new SlowPagesTransport(5, 100)).build());
+    assertEquals(5, new Templates(httpClient).listAllTemplateRecords("1010", "1").size());
+
+    httpClient = new HttpClient(ClientConfig.builder().transport(new SlowPagesTransport(5, 100)).callTimeout(250).build());
+    try {
+      new Templates(httpClient).listAllTemplateRecords("1010", "1");
+      fail("Expected DeadlineExceededException");
+    } catch (DeadlineExceededException expected) {
+    }
+    assertNull(CallContext.current());
+  }
+
+  @Test
+  public void testFanOutSharesOneBudget() throws Exception {
+    StubServer server = StubServer.builder().latency(100, 0).build();
+    server.start();
+    try {
+      for (int i = 0; i < 5; i++) {
+        server.addDomain("1010", "example-" + i + ".com", true);
+      }
+      Client client = new Client(ClientConfig.builder().apiBase(server.getApiBase()).callTimeout(250).build());
+      RenewalPlanner planner = new RenewalPlanner(client.domains, client.registrar, "1010");
+      planner.refresh();
+
+      List<RenewalPlanner.Renewal> renewals = planner.renewExpiring(400, 1, new HashMap<String, Object>());
+      assertEquals(5, renewals.size());
+      assertTrue(renewals.get(0).isSuccessful());
+      assertTrue(renewals.get(4).getError() instanceof DeadlineExceededException);
+      assertNull(CallContext.current());
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testRateLimitWaitRespectsDeadline() throws DnsimpleException, IOException {
+    HttpClient httpClient = new HttpClient(ClientConfig.builder().transport(new SlowPagesTransport(1, 0)).requestsPerSecond(0.5, 1).build());
+    Templates templates = new Templates(httpClient);
+    templates.listTemplateRecords("1010", "1");
+
+    CallContext.Scope scope = CallContext.builder().timeout(200).build().attach();
+    long start = System.currentTimeMillis();
+    try {
+      templates.listTemplateRecords("1010", "1");
+      fail("Expected DeadlineExceededException");
+    } catch (DeadlineExceededException expected) {
+    } finally {
+      scope.detach();
+    }
+    assertTrue(System.currentTimeMillis() - start < 1000);
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testNegativeTimeoutIsRejected() {
+    CallContext.builder().timeout(-1);
+  }
+
+  @Test
+  public void testCancelledExceptionIsInterruptedIOException() {
+    assertTrue(InterruptedIOException.class.isAssignableFrom(CallCancelledException.class));
+    assertTrue(InterruptedIOException.class.isAssignableFrom(DeadlineExceededException.class));
+  }
+
+  /**
+   * Serves pages of one template record each, taking a while to answer.
+   */
+  private static final class SlowPagesTransport extends MockHttpTransport {
+    private final int pages;
+    private final long delayMillis;
+
+    SlowPagesTransport(int pages, long delayMillis) {
+      this.pages = pages;
+      this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public LowLevelHttpRequest buildRequest(String method, final String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+          try {
+            Thread.sleep(delayMillis);
+          } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+          }
+          int page = url.contains("page=") ? Integer.parseInt(url.replaceAll(".*[?&]page=(\\d+).*", "$1")) : 1;
+          String body = "{\"data\":[{\"id\":" + page + ",\"template_id\":1,\"name\":\"\",\"content\":\"192.0.2." + page + "\",\"ttl\":3600,\"type\":\"A\"}],"
+              + "\"pagination\":{\"current_page\":" + page + ",\"per_page\":1,\"total_entries\":" + pages + ",\"total_pages\":" + pages + "}}";
+          return new MockLowLevelHttpResponse().setContentType("application/json").setContent(body);
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CertificateExpiryScannerTest extends DnsimpleTestBase {
+  private static final String NO_CERTIFICATES = "HTTP/1.1 200 OK\nContent-Type: application/json; charset=utf-8\n\n"
+    + "{\"data\":[],\"pagination\":{\"current_page\":1,\"per_page\":100,\"total_entries\":0,\"total_pages\":1}}";
+
+  private Map<String, String> responses() throws IOException {
+    Map<String, String> responses = new HashMap<String, String>();
+    responses.put("GET /v2/1010/domains", resource("listDomains/success.http"));
+    responses.put("GET /v2/1010/domains/1/certificates", resource("listCertificates/success.http"));
+    responses.put("GET /v2/1010/domains/2/certificates", NO_CERTIFICATES);
+    return responses;
+  }
+
+  @Test
+  public void testScanIndexesCertificatesWithExpiry() throws DnsimpleException, IOException {
+    HttpClient httpClient = routingClient(responses());
+    CertificateExpiryScanner scanner = new CertificateExpiryScanner(new Domains(httpClient), new Certificates(httpClient), "1010");
+
+    CertificateExpiryScanner.Scan scan = scanner.scan(4, false);
+
+    assertTrue(scan.isSuccessful());
+    assertEquals(2, scan.getScanned());
+    assertEquals(1, scanner.size());
+    assertEquals(0, scanner.expiringOnOrBefore("2016-09-08").size());
+    List<Certificate> expiring = scanner.expiringOnOrBefore("2016-09-09");
+    assertEquals(1, expiring.size());
+    assertEquals(Integer.valueOf(1), expiring.get(0).getId());
+  }
+
+  @Test
+  public void testUnchangedDomainsAreSkipped() throws DnsimpleException, IOException {
+    Map<String, String> responses = responses();
+    HttpClient httpClient = routingClient(responses);
+    CertificateExpiryScanner scanner = new CertificateExpiryScanner(new Domains(httpClient), new Certificates(httpClient), "1010");
+    scanner.scan(4, false);
+
+    responses.remove("GET /v2/1010/domains/1/certificates");
+    responses.remove("GET /v2/1010/domains/2/certificates");
+    CertificateExpiryScanner.Scan scan = scanner.scan(4, false);
+
+    assertEquals(0, scan.getScanned());
+    assertEquals(2, scan.getSkipped());
+    assertEquals(1, scanner.size());
+  }
+
+  @Test
+  public void testFailedDomainIsReported() throws DnsimpleException, IOException {
+    Map<String, String> responses = responses();
+    responses.put("GET /v2/1010/domains/2/certificates", resource("notfound-domain.http"));
+    HttpClient httpClient = routingClient(responses);
+    CertificateExpiryScanner scanner = new CertificateExpiryScanner(new Domains(httpClient), new Certificates(httpClient), "1010");
+
+    CertificateExpiryScanner.Scan scan = scanner.scan(2, false);
+
+    assertEquals(1, scan.getScanned());
+    assertEquals(1, scan.getErrors().size());
+    assertEquals("example-beta.com", scan.getErrors().keySet().iterator().next().getName());
+  }
+}
@@ -0,0 +1,80 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+
+public class ClientConfigTest extends DnsimpleTestBase {
+
+  private MockHttpTransport recordingTransport(final List<String> urls, final int... statusCodes) {
+    return new MockHttpTransport() {
+      @Override
+      public LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+        final int statusCode = statusCodes[Math.min(urls.size(), statusCodes.length - 1)];
+        urls.add(url);
+        return new MockLowLevelHttpRequest() {
+          @Override
+          public LowLevelHttpResponse execute() throws IOException {
+            return new MockLowLevelHttpResponse().setStatusCode(statusCode);
+          }
+        };
+      }
+    };
+  }
+
+  @Test
+  public void testClientsUseTheirOwnApiBase() throws DnsimpleException, IOException {
+    List<String> urls = new ArrayList<String>();
+    HttpClient sandbox = new HttpClient(ClientConfig.builder().apiBase("https://api.sandbox.dnsimple.com").transport(recordingTransport(urls, 204)).build());
+    HttpClient production = new HttpClient(ClientConfig.builder().transport(recordingTransport(urls, 204)).build());
+
+    new Domains(sandbox).getDomain("1010", "example.com");
+    new Domains(production).getDomain("1010", "example.com");
+
+    assertEquals("https://api.sandbox.dnsimple.com/v2/1010/domains/example.com", urls.get(0));
+    assertEquals("https://api.dnsimple.com/v2/1010/domains/example.com", urls.get(1));
+  }
+
+  @Test
+  public void testAuthorizeUrlUsesConfiguredApiBase() {
+    Client client = new Client(ClientConfig.builder().apiBase("https://api.sandbox.dnsimple.com").build());
+
+    assertEquals("https://sandbox.dnsimple.com/oauth/authorize?client_id=great-app&response_type=code", client.oauth.authorizeUrl("great-app"));
+  }
+
+  @Test
+  public void testIdempotentRequestsAreRetried() throws DnsimpleException, IOException {
+    List<String> urls = new ArrayList<String>();
+    HttpClient httpClient = new HttpClient(ClientConfig.builder().maxRetries(2).transport(recordingTransport(urls, 503, 204)).build());
+
+    new Domains(httpClient).getDomain("1010", "example.com");
+
+    assertEquals(2, urls.size());
+  }
+
+  @Test
+  public void testNonIdempotentRequestsAreNotRetried() throws IOException {
+    List<String> urls = new ArrayList<String>();
+    HttpClient httpClient = new HttpClient(ClientConfig.builder().maxRetries(2).transport(recordingTransport(urls, 503, 204)).build());
+
+    try {
+      new Domains(httpClient).resetDomainToken("1010", "example.com");
+      fail("Expected a DnsimpleException");
+    } catch (DnsimpleException e) {
+      assertEquals(503, e.getStatusCode().intValue());
+    }
+    assertEquals(1, urls.size());
+  }
+}
@@ -0,0 +1,113 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+
+public class ClientRegistryTest extends DnsimpleTestBase {
+
+  private MockHttpTransport authorizationRecordingTransport(final List<String> authorizations) {
+    return new MockHttpTransport() {
+      @Override
+      public LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+        return new MockLowLevelHttpRequest() {
+          @Override
+          public LowLevelHttpResponse execute() throws IOException {
+            authorizations.add(getFirstHeaderValue("Authorization"));
+            return new MockLowLevelHttpResponse().setStatusCode(204);
+          }
+        };
+      }
+    };
+  }
+
+  @Test
+  public void testTenantsShareTransportWithTheirOwnToken() throws DnsimpleException, IOException {
+    List<String> authorizations = Collections.synchronizedList(new ArrayList<String>());
+    ClientConfig config = ClientConfig.builder().transport(authorizationRecordingTransport(authorizations)).build();
+    ClientRegistry registry = new ClientRegistry(config, 100, 4, 60000);
+    registry.register("alpha", "alpha-token");
+    registry.register("beta", "beta-token");
+
+    registry.client("alpha").domains.getDomain("1", "example.com");
+    registry.client("beta").domains.getDomain("2", "example.com");
+
+    assertEquals("Bearer alpha-token", authorizations.get(0));
+    assertEquals("Bearer beta-token", authorizations.get(1));
+    assertSame(registry.client("alpha"), registry.client("alpha"));
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testUnknownTenant() {
+    ClientRegistry registry = new ClientRegistry(ClientConfig.builder().build(), 10, 4, 60000);
+
+    registry.client("missing");
+  }
+
+  @Test
+  public void testIdleTenantsAreEvicted() throws InterruptedException {
+    ClientRegistry registry = new ClientRegistry(ClientConfig.builder().build(), 10, 4, 1);
+    registry.register("alpha", "alpha-token");
+    Client client = registry.client("alpha");
+    assertEquals(1, registry.activeClients());
+
+    Thread.sleep(5);
+
+    assertEquals(1, registry.evictIdle());
+    assertEquals(0, registry.activeClients());
+    assertNotSame(client, registry.client("alpha"));
+  }
+
+  @Test
+  public void testTenantRequestRateIsLimited() throws DnsimpleException, IOException {
+    List<String> authorizations = Collections.synchronizedList(new ArrayList<String>());
+    ClientConfig config = ClientConfig.builder().transport(authorizationRecordingTransport(authorizations)).build();
+    ClientRegistry registry = new ClientRegistry(config, 20, 4, 60000);
+    registry.register("alpha", "alpha-token");
+
+    long start = System.nanoTime();
+    for (int i = 0; i < 25; i++) {
+      registry.client("alpha").domains.getDomain("1", "example.com");
+    }
+    long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+    // 20 requests are available as a burst, the remaining 5 are spaced 50ms apart.
+    assertTrue("elapsed " + elapsedMillis, elapsedMillis >= 200);
+  }
+
+  @Test
+  public void testEvictionKeepsTenantRateBudget() throws DnsimpleException, IOException, InterruptedException {
+    List<String> authorizations = Collections.synchronizedList(new ArrayList<String>());
+    ClientConfig config = ClientConfig.builder().transport(authorizationRecordingTransport(authorizations)).build();
+    ClientRegistry registry = new ClientRegistry(config, 5, 4, 1);
+    registry.register("alpha", "alpha-token");
+    Client evicted = registry.client("alpha");
+    for (int i = 0; i < 5; i++) {
+      evicted.domains.getDomain("1", "example.com");
+    }
+
+    Thread.sleep(5);
+    assertEquals(1, registry.evictIdle());
+
+    // The rebuilt client does not get a fresh burst: both wait for the same bucket to refill.
+    long start = System.nanoTime();
+    registry.client("alpha").domains.getDomain("1", "example.com");
+    evicted.domains.getDomain("1", "example.com");
+    long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+    assertTrue("elapsed " + elapsedMillis, elapsedMillis >= 300);
+  }
+}
@@ -0,0 +1,117 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+import com.dnsimple.exception.ResourceNotFoundException;
+import com.dnsimple.testing.StubServer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CompressionTest {
+  private StubServer server;
+
+  @Before
+  public void startServer() throws IOException {
+    server = StubServer.builder().build();
+    server.start();
+    for (int i = 0; i < 30; i++) {
+      server.addDomain("1010", "example-" + i + ".com", i % 2 == 0);
+    }
+  }
+
+  @After
+  public void stopServer() {
+    server.stop();
+  }
+
+  private Client client(ClientConfig.Builder builder) {
+    return new Client(builder.apiBase(server.getApiBase()).build());
+  }
+
+  private long bytesForListing(String acceptEncoding) throws DnsimpleException, IOException {
+    long before = server.getBytesSent();
+    List<Domain> domains = client(ClientConfig.builder().acceptEncoding(acceptEncoding)).domains.listDomains("1010").getData();
+    assertEquals(30, domains.size());
+    assertEquals("example-29.com", domains.get(29).getName());
+    return server.getBytesSent() - before;
+  }
+
+  @Test
+  public void testCompressedResponsesAreDecoded() throws DnsimpleException, IOException {
+    long identity = bytesForListing("identity");
+    long gzip = bytesForListing("gzip");
+    long deflate = bytesForListing("deflate");
+
+    assertTrue(gzip < identity / 3);
+    assertTrue(deflate < identity / 3);
+  }
+
+  @Test
+  public void testDefaultAcceptsGzip() throws DnsimpleException, IOException {
+    assertEquals(bytesForListing("gzip"), bytesForListing(null));
+  }
+
+  @Test
+  public void testLazyListDecodesDeflate() throws DnsimpleException, IOException {
+    Client client = client(ClientConfig.builder().acceptEncoding("deflate"));
+    List<Domain> domains = client.domains.listDomainsLazily("1010", null).getData();
+    assertEquals(30, domains.size());
+    assertEquals("example-0.com", domains.get(0).getName());
+  }
+
+  @Test
+  public void testErrorMessagesAreDecoded() throws IOException {
+    StringBuilder zone = new StringBuilder("missing");
+    for (int i = 0; i < 30; i++) {
+      zone.append("-zone-").append(i);
+    }
+    zone.append(".com");
+
+    for (String encoding : new String[] { "gzip", "deflate" }) {
+      try {
+        client(ClientConfig.builder().acceptEncoding(encoding)).zones.listZoneRecords("1010", zone.toString());
+        fail("Expected a ResourceNotFoundException");
+      } catch (ResourceNotFoundException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("Zone `" + zone + "` not found"));
+      } catch (DnsimpleException e) {
+        fail("Expected a ResourceNotFoundException, got " + e);
+      }
+    }
+  }
+
+  @Test
+  public void testRequestBodiesAreCompressedAboveThreshold() throws DnsimpleException, IOException {
+    StringBuilder content = new StringBuilder("v=spf1");
+    for (int i = 0; i < 50; i++) {
+      content.append(" include:_spf").append(i).append(".example.com");
+    }
+    Map<String, Object> record = new HashMap<String, Object>();
+    record.put("name", "");
+    record.put("type", "TXT");
+    record.put("content", content.toString());
+
+    long before = server.getBytesReceived();
+    client(ClientConfig.builder()).zones.createZoneRecord("1010", "example-1.com", record);
+    long plain = server.getBytesReceived() - before;
+
+    before = server.getBytesReceived();
+    ZoneRecord created = client(ClientConfig.builder().requestCompressionThreshold(512)).zones.createZoneRecord("1010", "example-1.com", record).getData();
+    long compressed = server.getBytesReceived() - before;
+
+    assertEquals(content.toString(), created.getContent());
+    assertTrue(compressed < plain / 2);
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testNegativeThresholdIsRejected() {
+    ClientConfig.builder().requestCompressionThreshold(-2);
+  }
+}
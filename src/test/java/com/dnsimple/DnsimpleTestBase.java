@@ -10,6 +10,7 @@ import java.util.Map;
 import java.util.HashMap;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpTransport;
@@ -55,6 +56,39 @@ public abstract class DnsimpleTestBase {
     return httpClient;
   }
 
+  /**
+   * Return a HttpClient that is mocked to return a different HTTP response for each request.
+   * <p>
+   * Responses are keyed by HTTP method and URL path, for example "GET /v2/1010/domains".
+   * Requests that match no key fail the test.
+   *
+   * @param httpResponses The full HTTP response data for each method and path
+   * @return The HttpClient instance
+   */
+  public HttpClient routingClient(final Map<String,String> httpResponses) {
+    HttpClient httpClient = new HttpClient();
+
+    HttpTransport transport = new MockHttpTransport() {
+      @Override
+      public LowLevelHttpRequest buildRequest(final String method, final String url) throws IOException {
+        final String key = method + " " + new GenericUrl(url).getRawPath();
+        assertTrue("Unexpected request " + key, httpResponses.containsKey(key));
+
+        return new MockLowLevelHttpRequest() {
+          @Override
+          public LowLevelHttpResponse execute() throws IOException {
+            MockLowLevelHttpResponse response = new MockLowLevelHttpResponse();
+            return mockResponse(response, httpResponses.get(key));
+          }
+        };
+      }
+    };
+
+    httpClient.setTransport(transport);
+
+    return httpClient;
+  }
+
   /**
    * Return a HttpClient that is configured to expect a specific URL.
    *
@@ -196,7 +230,7 @@ public abstract class DnsimpleTestBase {
 
   }
 
-  private MockLowLevelHttpResponse mockResponse(MockLowLevelHttpResponse response, String httpResponse) throws IOException {
+  protected MockLowLevelHttpResponse mockResponse(MockLowLevelHttpResponse response, String httpResponse) throws IOException {
     final Map<String,String> headers = new HashMap<String,String>();
     final ArrayList<String> data = new ArrayList<String>();
     String[] lines = httpResponse.split("\\r?\\n");
@@ -0,0 +1,59 @@
+package com.dnsimple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import com.google.api.client.json.gson.GsonFactory;
+
+public class DomainNameMatcherTest {
+
+  private static Tld tld(String name, boolean idn) throws Exception {
+    return GsonFactory.getDefaultInstance().fromString("{\"tld\":\"" + name + "\",\"idn\":" + idn + "}", Tld.class);
+  }
+
+  private DomainNameMatcher matcher() throws Exception {
+    List<Tld> tlds = new ArrayList<Tld>();
+    tlds.add(tld("com", true));
+    tlds.add(tld("uk", false));
+    tlds.add(tld("co.uk", false));
+    return new DomainNameMatcher(tlds);
+  }
+
+  @Test
+  public void testMatchesLongestTld() throws Exception {
+    DomainNameMatcher.Match match = matcher().match("www.Example.co.uk.");
+
+    assertTrue(match.isValid());
+    assertEquals("co.uk", match.getTld().getTld());
+    assertEquals("example.co.uk", match.getRegistrableName());
+    assertEquals("example.uk", matcher().match("example.uk").getRegistrableName());
+  }
+
+  @Test
+  public void testInternationalizedNames() throws Exception {
+    DomainNameMatcher.Match match = matcher().match("b\u00fccher.com");
+
+    assertTrue(match.isValid());
+    assertEquals("xn--bcher-kva.com", match.getRegistrableName());
+    assertEquals("b\u00fccher.com", match.getUnicodeRegistrableName());
+    assertEquals(DomainNameMatcher.Problem.IDN_NOT_SUPPORTED, matcher().match("b\u00fccher.co.uk").getProblem());
+  }
+
+  @Test
+  public void testRejectsInvalidNames() throws Exception {
+    DomainNameMatcher matcher = matcher();
+
+    assertEquals(DomainNameMatcher.Problem.EMPTY, matcher.match(" ").getProblem());
+    assertEquals(DomainNameMatcher.Problem.UNKNOWN_TLD, matcher.match("example.org").getProblem());
+    assertEquals(DomainNameMatcher.Problem.NO_LABEL_BEFORE_TLD, matcher.match("co.uk").getProblem());
+    assertEquals(DomainNameMatcher.Problem.INVALID_HYPHEN, matcher.match("-example.com").getProblem());
+    assertEquals(DomainNameMatcher.Problem.INVALID_HYPHEN, matcher.match("ab--cd.com").getProblem());
+    assertEquals(DomainNameMatcher.Problem.INVALID_CHARACTER, matcher.match("exa_mple.com").getProblem());
+    assertEquals(DomainNameMatcher.Problem.EMPTY_LABEL, matcher.match("example..com").getProblem());
+    assertEquals(DomainNameMatcher.Problem.LABEL_TOO_LONG, matcher.match(new String(new char[64]).replace('\0', 'a') + ".com").getProblem());
+  }
+}
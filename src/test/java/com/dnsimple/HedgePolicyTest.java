@@ -0,0 +1,160 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+import com.dnsimple.exception.ResourceNotFoundException;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HedgePolicyTest {
+  private static final long FAST = 5;
+  private static final long SLOW = 1000;
+  // Keeps the fast requests from ever being hedged
+  private static final long MIN_DELAY = 50;
+
+  private Client client(DelayedTransport transport, HedgePolicy policy) {
+    return new Client(ClientConfig.builder().transport(transport).hedgePolicy(policy).build());
+  }
+
+  private void warmUp(Client client, int requests) throws DnsimpleException, IOException {
+    for (int i = 0; i < requests; i++) {
+      client.domains.getDomain("1010", "example.com");
+    }
+  }
+
+  @Test
+  public void testNoHedgingUntilEnoughSamples() throws DnsimpleException, IOException {
+    DelayedTransport transport = new DelayedTransport();
+    HedgePolicy policy = HedgePolicy.builder().samples(100, 20).minDelay(MIN_DELAY).build();
+    Client client = client(transport, policy);
+
+    transport.delays.add(200L);
+    long start = System.currentTimeMillis();
+    assertEquals("example.com", client.domains.getDomain("1010", "example.com").getData().getName());
+    assertTrue(System.currentTimeMillis() - start >= 200);
+    assertEquals(0, policy.getHedgeCount());
+    assertEquals(1, transport.requests.get());
+    assertEquals(-1, policy.hedgeDelayMillis("domains.get"));
+  }
+
+  @Test
+  public void testSlowRequestIsHedged() throws DnsimpleException, IOException {
+    DelayedTransport transport = new DelayedTransport();
+    HedgePolicy policy = HedgePolicy.builder().samples(100, 20).minDelay(MIN_DELAY).build();
+    Client client = client(transport, policy);
+    warmUp(client, 30);
+    long delay = policy.hedgeDelayMillis("domains.get");
+    assertTrue("delay " + delay, delay >= FAST && delay < 100);
+
+    transport.delays.add(SLOW);
+    long start = System.currentTimeMillis();
+    assertEquals("example.com", client.domains.getDomain("1010", "example.com").getData().getName());
+    assertTrue(System.currentTimeMillis() - start < SLOW / 2);
+    assertEquals(1, policy.getHedgeCount());
+    assertEquals(1, policy.getHedgeWinCount());
+    assertEquals(32, transport.requests.get());
+  }
+
+  @Test
+  public void testEndpointsAreTrackedSeparately() throws DnsimpleException, IOException {
+    DelayedTransport transport = new DelayedTransport();
+    HedgePolicy policy = HedgePolicy.builder().samples(100, 20).minDelay(MIN_DELAY).build();
+    Client client = client(transport, policy);
+    warmUp(client, 30);
+
+    assertTrue(policy.hedgeDelayMillis("domains.get") >= 0);
+    assertEquals(-1, policy.hedgeDelayMillis("zones.records.get"));
+  }
+
+  @Test
+  public void testBudgetLimitsHedges() throws DnsimpleException, IOException {
+    DelayedTransport transport = new DelayedTransport();
+    HedgePolicy policy = HedgePolicy.builder().samples(100, 20).minDelay(MIN_DELAY).budget(0, 1).build();
+    Client client = client(transport, policy);
+    warmUp(client, 30);
+
+    transport.delays.add(SLOW);
+    client.domains.getDomain("1010", "example.com");
+    assertEquals(1, policy.getHedgeCount());
+
+    transport.delays.add(300L);
+    long start = System.currentTimeMillis();
+    client.domains.getDomain("1010", "example.com");
+    assertTrue(System.currentTimeMillis() - start >= 300);
+    assertEquals(1, policy.getHedgeCount());
+    assertEquals(32, policy.getRequestCount());
+  }
+
+  @Test
+  public void testApiErrorsAreAnswers() throws DnsimpleException, IOException {
+    DelayedTransport transport = new DelayedTransport();
+    HedgePolicy policy = HedgePolicy.builder().samples(100, 20).minDelay(MIN_DELAY).build();
+    Client client = client(transport, policy);
+    warmUp(client, 30);
+
+    transport.notFound = true;
+    transport.delays.add(0L);
+    try {
+      client.domains.getDomain("1010", "missing.com");
+      fail("Expected ResourceNotFoundException");
+    } catch (ResourceNotFoundException expected) {
+    }
+    assertEquals(0, policy.getHedgeCount());
+  }
+
+  @Test
+  public void testWithoutPolicyNothingIsHedged() throws DnsimpleException, IOException {
+    DelayedTransport transport = new DelayedTransport();
+    Client client = new Client(ClientConfig.builder().transport(transport).build());
+    transport.delays.add(100L);
+    client.zones.getZoneRecord("1010", "example.com", "1");
+    assertEquals(1, transport.requests.get());
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testPercentileMustBeAFraction() {
+    HedgePolicy.builder().percentile(95);
+  }
+
+  /**
+   * Answers after the next queued delay, or quickly once the queue is empty.
+   */
+  private static final class DelayedTransport extends MockHttpTransport {
+    final ConcurrentLinkedQueue<Long> delays = new ConcurrentLinkedQueue<Long>();
+    final AtomicInteger requests = new AtomicInteger();
+    volatile boolean notFound;
+
+    @Override
+    public LowLevelHttpRequest buildRequest(String method, String url) {
+      return new MockLowLevelHttpRequest(url) {
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+          requests.incrementAndGet();
+          Long delay = delays.poll();
+          try {
+            Thread.sleep(delay == null ? FAST : delay);
+          } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+          }
+          if (notFound) {
+            return new MockLowLevelHttpResponse().setStatusCode(404).setContentType("application/json").setContent("{\"message\":\"Domain `missing.com` not found\"}");
+          }
+          return new MockLowLevelHttpResponse().setContentType("application/json")
+              .setContent("{\"data\":{\"id\":1,\"account_id\":1010,\"name\":\"example.com\",\"state\":\"hosted\"}}");
+        }
+      };
+    }
+  }
+}
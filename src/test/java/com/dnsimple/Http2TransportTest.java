@@ -0,0 +1,147 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.CallCancelledException;
+import com.dnsimple.exception.DnsimpleException;
+import com.dnsimple.exception.ResourceNotFoundException;
+import com.dnsimple.testing.StubServer;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class Http2TransportTest {
+  private StubServer server;
+
+  @Before
+  public void startServer() throws IOException {
+    server = StubServer.builder().latency(50, 0).build();
+    server.start();
+    server.addDomain("1010", "example.com", false);
+  }
+
+  @After
+  public void stopServer() {
+    server.stop();
+  }
+
+  @Test
+  public void testBuildFallsBackWithoutJavaNetHttp() throws IOException {
+    HttpTransport transport = Http2Transport.builder().build();
+    if (Http2Transport.isSupported()) {
+      assertTrue(transport instanceof Http2Transport);
+    } else {
+      assertTrue(transport instanceof NetHttpTransport);
+    }
+  }
+
+  @Test
+  public void testFallsBackToHttp1() throws DnsimpleException, IOException {
+    assumeTrue(Http2Transport.isSupported());
+    // A single stream, so a response that is not released would block the next request
+    Http2Transport transport = (Http2Transport) Http2Transport.builder().connections(1).maxConcurrentStreams(1).build();
+    Client client = new Client(ClientConfig.builder().apiBase(server.getApiBase()).transport(transport).build());
+
+    Map<String, Object> record = new HashMap<String, Object>();
+    record.put("name", "www");
+    record.put("type", "A");
+    record.put("content", "192.0.2.1");
+    ZoneRecord created = client.zones.createZoneRecord("1010", "example.com", record).getData();
+
+    Map<String, Object> update = new HashMap<String, Object>();
+    update.put("content", "192.0.2.2");
+    assertEquals("192.0.2.2", client.zones.updateZoneRecord("1010", "example.com", String.valueOf(created.getId()), update).getData().getContent());
+
+    client.zones.deleteZoneRecord("1010", "example.com", String.valueOf(created.getId()));
+    try {
+      client.zones.getZoneRecord("1010", "example.com", String.valueOf(created.getId()));
+      fail("Expected ResourceNotFoundException");
+    } catch (ResourceNotFoundException expected) {
+    }
+    assertEquals("example.com", client.domains.getDomain("1010", "example.com").getData().getName());
+
+    // The stub server only speaks HTTP/1.1
+    assertEquals(5, transport.getResponseCount());
+    assertEquals(0, transport.getHttp2ResponseCount());
+  }
+
+  @Test
+  public void testConcurrentRequestsWaitForFreeStreams() throws Exception {
+    assumeTrue(Http2Transport.isSupported());
+    HttpTransport transport = Http2Transport.builder().connections(1).maxConcurrentStreams(2).build();
+    final Client client = new Client(ClientConfig.builder().apiBase(server.getApiBase()).transport(transport).build());
+
+    ExecutorService executor = Executors.newFixedThreadPool(6);
+    try {
+      List<Future<String>> names = new ArrayList<Future<String>>();
+      long start = System.nanoTime();
+      for (int i = 0; i < 6; i++) {
+        names.add(executor.submit(new Callable<String>() {
+          public String call() throws Exception {
+            return client.domains.getDomain("1010", "example.com").getData().getName();
+          }
+        }));
+      }
+      for (Future<String> name : names) {
+        assertEquals("example.com", name.get());
+      }
+      // Six requests of 50ms, two at a time
+      assertTrue((System.nanoTime() - start) / 1000000 >= 150);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testCancelAbortsWaitForResponse() throws Exception {
+    assumeTrue(Http2Transport.isSupported());
+    StubServer slow = StubServer.builder().latency(3000, 0).build();
+    slow.start();
+    try {
+      Client client = new Client(ClientConfig.builder().apiBase(slow.getApiBase()).transport(Http2Transport.builder().build()).build());
+      final CallContext call = CallContext.builder().build();
+      ScheduledExecutorService canceller = Executors.newSingleThreadScheduledExecutor();
+      canceller.schedule(new Runnable() {
+        public void run() {
+          call.cancel();
+        }
+      }, 200, TimeUnit.MILLISECONDS);
+
+      CallContext.Scope scope = call.attach();
+      long start = System.currentTimeMillis();
+      try {
+        client.identity.whoami();
+        fail("Expected CallCancelledException");
+      } catch (CallCancelledException expected) {
+      } finally {
+        scope.detach();
+        canceller.shutdown();
+      }
+      assertTrue(System.currentTimeMillis() - start < 2000);
+    } finally {
+      slow.stop();
+    }
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testStreamLimitMustBePositive() {
+    Http2Transport.builder().maxConcurrentStreams(0);
+  }
+}
@@ -0,0 +1,64 @@
+package com.dnsimple;
+
+import com.dnsimple.benchmark.Benchmark;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+
+/**
+ * Measures the time and allocation of the request pipeline, from the service call down to
+ * the transport, against a transport that does no IO.
+ * <p>
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.dnsimple.HttpClientBenchmark
+ */
+public class HttpClientBenchmark {
+  private static final int ITERATIONS = 200000;
+
+  public static void main(String[] args) throws Exception {
+    final HttpClient httpClient = new HttpClient();
+    httpClient.setTransport(new MockHttpTransport() {
+      @Override
+      public LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+        return new MockLowLevelHttpRequest() {
+          @Override
+          public LowLevelHttpResponse execute() throws IOException {
+            return new MockLowLevelHttpResponse().setStatusCode(204);
+          }
+        };
+      }
+    });
+
+    Benchmark get = new Benchmark("HttpClient.get", ITERATIONS) {
+      protected int operation() throws Exception {
+        return httpClient.get("1010/domains/example.com").getStatusCode();
+      }
+    };
+
+    Benchmark getWithOptions = new Benchmark("HttpClient.get with options", ITERATIONS) {
+      protected int operation() throws Exception {
+        Map<String, Object> options = new HashMap<String, Object>();
+        options.put("page", 2);
+        return httpClient.get("1010/domains", options).getStatusCode();
+      }
+    };
+
+    Benchmark post = new Benchmark("HttpClient.post", ITERATIONS) {
+      protected int operation() throws Exception {
+        return httpClient.post("1010/domains/example.com/templates/1").getStatusCode();
+      }
+    };
+
+    for (int round = 0; round < 2; round++) {
+      get.run();
+      getWithOptions.run();
+      post.run();
+    }
+  }
+}
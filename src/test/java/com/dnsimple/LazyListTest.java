@@ -0,0 +1,103 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+import com.dnsimple.response.LazyListResponse;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import com.google.api.client.util.Data;
+
+public class LazyListTest extends DnsimpleTestBase {
+
+  private static Object value(Object decoded) {
+    return Data.isNull(decoded) ? null : decoded;
+  }
+
+  @Test
+  public void testLazyDomainsMatchDecodedDomains() throws DnsimpleException, IOException {
+    List<Domain> domains = new Domains(mockClient(resource("listDomains/success.http"))).listDomains("1010").getData();
+    LazyListResponse<Domain> response = new Domains(mockClient(resource("listDomains/success.http"))).listDomainsLazily("1010", null);
+
+    assertEquals(domains.size(), response.getData().size());
+    assertEquals(Integer.valueOf(1), response.getPagination().getCurrentPage());
+    for (int i = 0; i < domains.size(); i++) {
+      Domain expected = domains.get(i);
+      Domain actual = response.getData().get(i);
+      assertEquals(value(expected.getId()), actual.getId());
+      assertEquals(value(expected.getAccountId()), actual.getAccountId());
+      assertEquals(value(expected.getRegistrantId()), actual.getRegistrantId());
+      assertEquals(value(expected.getName()), actual.getName());
+      assertEquals(value(expected.getUnicodeName()), actual.getUnicodeName());
+      assertEquals(value(expected.getToken()), actual.getToken());
+      assertEquals(value(expected.getState()), actual.getState());
+      assertEquals(expected.getAutoRenew(), actual.getAutoRenew());
+      assertEquals(expected.getPrivateWhois(), actual.getPrivateWhois());
+      assertEquals(value(expected.getExpiresOn()), actual.getExpiresOn());
+      assertEquals(value(expected.getCreatedAt()), actual.getCreatedAt());
+      assertEquals(value(expected.getUpdatedAt()), actual.getUpdatedAt());
+    }
+  }
+
+  @Test
+  public void testLazyZoneRecordsWithFieldHints() throws DnsimpleException, IOException {
+    List<ZoneRecord> records = new Zones(mockClient(resource("listZoneRecords/success.http"))).listZoneRecords("1010", "example.com").getData();
+    LazyListResponse<ZoneRecord> response = new Zones(mockClient(resource("listZoneRecords/success.http"))).listZoneRecordsLazily("1010", "example.com", null, "id", "name", "priority");
+
+    assertEquals(records.size(), response.getData().size());
+    for (int i = 0; i < records.size(); i++) {
+      ZoneRecord expected = records.get(i);
+      ZoneRecord actual = response.getData().get(i);
+      assertEquals(value(expected.getId()), actual.getId());
+      assertEquals(value(expected.getName()), actual.getName());
+      assertEquals(value(expected.getPriority()), actual.getPriority());
+      assertEquals(value(expected.getContent()), actual.getContent());
+      assertEquals(value(expected.getTtl()), actual.getTtl());
+      assertEquals(value(expected.getSystemRecord()), actual.getSystemRecord());
+      assertEquals(value(expected.getParentId()), actual.getParentId());
+      assertEquals(value(expected.getUpdatedAt()), actual.getUpdatedAt());
+    }
+  }
+
+  @Test
+  public void testEscapedStringsAndMissingFields() throws IOException {
+    LazyJson json = new LazyJson(("{\"pagination\":null, \"data\" : [ {\"name\" : \"a\\\"b\\u00e9\\n\", \"content\":\"caf\u00e9\", \"ttl\": 60, \"extra\": {\"x\": [1, \"]\"]}},"
+        + " {\"id\": -5} ]}").getBytes("UTF-8"));
+    List<LazyJson.Fields> elements = json.list(LazyZoneRecord.KEYS, Collections.singletonList("ttl"));
+
+    assertEquals(2, elements.size());
+    ZoneRecord first = LazyZoneRecord.FACTORY.create(elements.get(0));
+    assertEquals("a\"b\u00e9\n", first.getName());
+    assertEquals("caf\u00e9", first.getContent());
+    assertEquals(Integer.valueOf(60), first.getTtl());
+    assertNull(first.getId());
+    ZoneRecord second = LazyZoneRecord.FACTORY.create(elements.get(1));
+    assertEquals(Integer.valueOf(-5), second.getId());
+    assertNull(second.getTtl());
+  }
+
+  @Test
+  public void testIntegerBounds() throws IOException {
+    LazyJson json = new LazyJson("{\"data\": [{\"id\": 2147483647}, {\"id\": -2147483648}, {\"id\": 2147483648}]}".getBytes("UTF-8"));
+    List<LazyJson.Fields> elements = json.list(LazyZoneRecord.KEYS, Collections.<String>emptyList());
+
+    assertEquals(Integer.valueOf(Integer.MAX_VALUE), LazyZoneRecord.FACTORY.create(elements.get(0)).getId());
+    assertEquals(Integer.valueOf(Integer.MIN_VALUE), LazyZoneRecord.FACTORY.create(elements.get(1)).getId());
+    try {
+      LazyZoneRecord.FACTORY.create(elements.get(2)).getId();
+      fail("Expected 2147483648 to overflow");
+    } catch (IllegalStateException e) {
+      assertTrue(e.getCause() instanceof IOException);
+    }
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testUnknownFieldHint() throws DnsimpleException, IOException {
+    new Domains(mockClient(resource("listDomains/success.http"))).listDomainsLazily("1010", null, "nope");
+  }
+}
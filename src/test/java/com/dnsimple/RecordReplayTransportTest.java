@@ -0,0 +1,121 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+import com.dnsimple.testing.RecordingTransport;
+import com.dnsimple.testing.ReplayTransport;
+import com.dnsimple.testing.StubServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+
+public class RecordReplayTransportTest extends DnsimpleTestBase {
+  private File directory;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = File.createTempFile("recording", "");
+    directory.delete();
+  }
+
+  @After
+  public void tearDown() {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+
+  @Test
+  public void testRecordedTrafficIsReplayed() throws DnsimpleException, IOException {
+    StubServer server = StubServer.builder().build();
+    server.start();
+    try {
+      server.addDomain("1010", "example.com", true);
+      RecordingTransport recorder = new RecordingTransport(new NetHttpTransport(), directory);
+      Client client = new Client(ClientConfig.builder().apiBase(server.getApiBase()).transport(recorder).accessToken("secret").build());
+
+      client.domains.getDomain("1010", "example.com");
+      Map<String, Object> options = new HashMap<String, Object>();
+      options.put("page", 1);
+      client.zones.listZoneRecords("1010", "example.com", options);
+      assertEquals(2, recorder.getRecordedCount());
+    } finally {
+      server.stop();
+    }
+
+    for (File file : directory.listFiles()) {
+      if (file.getName().endsWith(".http")) {
+        MockLowLevelHttpResponse response = mockResponse(new MockLowLevelHttpResponse(), new String(readFile(file), "UTF-8"));
+        assertEquals(200, response.getStatusCode());
+      }
+    }
+
+    ReplayTransport replay = new ReplayTransport(directory, 0);
+    Client client = new Client(ClientConfig.builder().apiBase("https://api.example.test").transport(replay).build());
+    assertEquals("example.com", client.domains.getDomain("1010", "example.com").getData().getName());
+    List<ZoneRecord> records = client.zones.listZoneRecords("1010", "example.com").getData();
+    assertEquals(2, records.size());
+    assertEquals("SOA", records.get(0).getType());
+    assertEquals(2, replay.getReplayedCount());
+  }
+
+  @Test
+  public void testCredentialsAreScrubbed() throws DnsimpleException, IOException {
+    HttpTransport oauth = new MockHttpTransport() {
+      @Override
+      public LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+        return new MockLowLevelHttpRequest() {
+          @Override
+          public LowLevelHttpResponse execute() throws IOException {
+            return mockResponse(new MockLowLevelHttpResponse(), resource("oauthAccessToken/success.http"));
+          }
+        };
+      }
+    };
+    RecordingTransport recorder = new RecordingTransport(oauth, directory);
+    Oauth client = new Oauth(new HttpClient(ClientConfig.builder().transport(recorder).build()));
+
+    OauthToken token = client.exchangeAuthorizationForToken("code", "id", "secret");
+    assertEquals("zKQ7OLqF5N1gylcJweA9WodA000BUNJD", token.getAccessToken());
+
+    for (File file : directory.listFiles()) {
+      String saved = new String(readFile(file), "UTF-8");
+      assertFalse(saved.contains("zKQ7OLqF5N1gylcJweA9WodA000BUNJD"));
+      if (file.getName().endsWith(".http")) {
+        assertTrue(saved.contains("\"access_token\":\"[FILTERED]\""));
+      }
+    }
+  }
+
+  private static byte[] readFile(File file) throws IOException {
+    RandomAccessFile in = new RandomAccessFile(file, "r");
+    try {
+      byte[] data = new byte[(int) in.length()];
+      in.readFully(data);
+      return data;
+    } finally {
+      in.close();
+    }
+  }
+}
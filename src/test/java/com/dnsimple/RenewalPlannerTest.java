@@ -0,0 +1,66 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RenewalPlannerTest extends DnsimpleTestBase {
+
+  @Test
+  public void testRefreshIndexesRegisteredDomainsOnly() throws DnsimpleException, IOException {
+    HttpClient httpClient = mockClient(resource("listDomains/success.http"));
+    RenewalPlanner planner = new RenewalPlanner(new Domains(httpClient), new Registrar(httpClient), "1010");
+
+    planner.refresh();
+
+    assertEquals(1, planner.size());
+  }
+
+  @Test
+  public void testExpiringOnOrBefore() throws DnsimpleException, IOException {
+    HttpClient httpClient = mockClient(resource("listDomains/success.http"));
+    RenewalPlanner planner = new RenewalPlanner(new Domains(httpClient), new Registrar(httpClient), "1010");
+    planner.refresh();
+
+    assertEquals(0, planner.expiringOnOrBefore("2015-12-05", true).size());
+
+    List<Domain> expiring = planner.expiringOnOrBefore("2015-12-06", true);
+    assertEquals(1, expiring.size());
+    assertEquals("example-beta.com", expiring.get(0).getName());
+  }
+
+  @Test
+  public void testUpdateAddsDomainToIndex() throws DnsimpleException, IOException {
+    HttpClient httpClient = mockClient(resource("listDomains/success.http"));
+    RenewalPlanner planner = new RenewalPlanner(new Domains(httpClient), new Registrar(httpClient), "1010");
+    planner.refresh();
+
+    Domains renewedDomains = new Domains(mockClient(resource("renewDomain/success.http")));
+    planner.update(renewedDomains.getDomain("1010", "example.com").getData());
+
+    assertEquals(2, planner.size());
+    assertEquals(1, planner.expiringOnOrBefore("2015-12-06", true).size());
+    assertEquals(2, planner.expiringOnOrBefore("2018-01-16", true).size());
+  }
+
+  @Test
+  public void testRenewExpiringUpdatesIndex() throws DnsimpleException, IOException, InterruptedException {
+    Domains domains = new Domains(mockClient(resource("listDomains/success.http")));
+    Registrar registrar = new Registrar(mockClient(resource("renewDomain/success.http")));
+    RenewalPlanner planner = new RenewalPlanner(domains, registrar, "1010");
+    planner.refresh();
+
+    List<RenewalPlanner.Renewal> renewals = planner.renewExpiring(0, 4, new HashMap<String, Object>());
+
+    assertEquals(1, renewals.size());
+    assertTrue(renewals.get(0).isSuccessful());
+    assertEquals("example-beta.com", renewals.get(0).getDomain().getName());
+    assertEquals(0, planner.expiringOnOrBefore("2015-12-06", true).size());
+  }
+}
@@ -0,0 +1,93 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ResourceCacheTest extends DnsimpleTestBase {
+
+  @Test
+  public void testDomainIsServedFromCacheByNameAndId() throws DnsimpleException, IOException {
+    Map<String, String> responses = new HashMap<String, String>();
+    responses.put("GET /v2/1010/domains/example-alpha.com", resource("getDomain/success.http"));
+    ResourceCache cache = new ResourceCache(new Client(routingClient(responses)), 60000);
+
+    Domain fetched = cache.getDomain("1010", "example-alpha.com");
+    responses.clear();
+
+    assertSame(fetched, cache.getDomain("1010", "example-alpha.com"));
+    assertSame(fetched, cache.getDomain("1010", "1"));
+  }
+
+  @Test
+  public void testDeleteEventInvalidatesDomain() throws DnsimpleException, IOException {
+    Map<String, String> responses = new HashMap<String, String>();
+    responses.put("GET /v2/1010/domains/example-alpha.com", resource("getDomain/success.http"));
+    ResourceCache cache = new ResourceCache(new Client(routingClient(responses)), 60000);
+    cache.getDomain("1010", "example-alpha.com");
+    assertEquals(2, cache.size());
+
+    String deleted = resource("webhookEvent/domain.create.json").replace("\"domain.create\"", "\"domain.delete\"");
+    new WebhookCacheInvalidator(cache).onEvent(WebhookEvent.parse(deleted.getBytes("UTF-8")));
+
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testRecordEventPatchesCache() throws DnsimpleException, IOException {
+    ResourceCache cache = new ResourceCache(new Client(routingClient(new HashMap<String, String>())), 60000);
+
+    new WebhookCacheInvalidator(cache).onEvent(WebhookEvent.parse(resource("webhookEvent/zone_record.create.json").getBytes("UTF-8")));
+
+    assertEquals("192.0.2.1", cache.getZoneRecord("1010", "example.com", "64784").getContent());
+  }
+
+  @Test
+  public void testOlderEventDoesNotReplaceNewerEntry() throws DnsimpleException, IOException {
+    ResourceCache cache = new ResourceCache(new Client(routingClient(new HashMap<String, String>())), 60000);
+    WebhookCacheInvalidator invalidator = new WebhookCacheInvalidator(cache);
+    String created = resource("webhookEvent/zone_record.create.json");
+    String updated = created.replace("\"zone_record.create\"", "\"zone_record.update\"")
+        .replace("192.0.2.1", "192.0.2.2")
+        .replace("\"updated_at\":\"2016-01-07T17:45:13.653Z\"", "\"updated_at\":\"2016-01-07T17:50:00.000Z\"");
+
+    invalidator.onEvent(WebhookEvent.parse(updated.getBytes("UTF-8")));
+    invalidator.onEvent(WebhookEvent.parse(created.getBytes("UTF-8")));
+    assertEquals("192.0.2.2", cache.getZoneRecord("1010", "example.com", "64784").getContent());
+
+    invalidator.onEvent(WebhookEvent.parse(updated.replace("192.0.2.2", "192.0.2.3").getBytes("UTF-8")));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testRecordFetchedByZoneIdIsInvalidatedByName() throws DnsimpleException, IOException {
+    Map<String, String> responses = new HashMap<String, String>();
+    responses.put("GET /v2/1010/zones/7/records/64784", resource("getZoneRecord/success.http"));
+    ResourceCache cache = new ResourceCache(new Client(routingClient(responses)), 60000);
+
+    ZoneRecord record = cache.getZoneRecord("1010", "7", "64784");
+    responses.clear();
+    assertSame(record, cache.getZoneRecord("1010", "7", "64784"));
+    assertSame(record, cache.getZoneRecord("1010", "example.com", "64784"));
+
+    cache.removeZoneRecord("1010", record);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testRegisterReusesExistingWebhook() throws DnsimpleException, IOException {
+    Map<String, String> responses = new HashMap<String, String>();
+    responses.put("GET /v2/1010/webhooks", resource("listWebhooks/success.http"));
+    Webhooks webhooks = new Webhooks(routingClient(responses));
+
+    Webhook webhook = WebhookCacheInvalidator.register(webhooks, "1010", "https://webhook.test");
+
+    assertEquals(Integer.valueOf(1), webhook.getId());
+  }
+}
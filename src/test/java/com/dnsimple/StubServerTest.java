@@ -0,0 +1,142 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+import com.dnsimple.exception.ResourceNotFoundException;
+import com.dnsimple.testing.StubServer;
+
+import com.google.api.client.http.apache.ApacheHttpTransport;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StubServerTest {
+  private StubServer server;
+  private Client client;
+
+  @Before
+  public void startServer() throws IOException {
+    server = StubServer.builder().build();
+    server.start();
+    // NetHttpTransport cannot send PATCH requests
+    client = new Client(ClientConfig.builder().apiBase(server.getApiBase()).transport(new ApacheHttpTransport()).build());
+  }
+
+  @After
+  public void stopServer() {
+    server.stop();
+  }
+
+  @Test
+  public void testRecordsRoundTrip() throws DnsimpleException, IOException {
+    Map<String, Object> domain = new HashMap<String, Object>();
+    domain.put("name", "example.com");
+    assertEquals("example.com", client.domains.createDomain("1010", domain).getData().getName());
+
+    Map<String, Object> record = new HashMap<String, Object>();
+    record.put("name", "www");
+    record.put("type", "A");
+    record.put("content", "192.0.2.1");
+    record.put("ttl", 600);
+    ZoneRecord created = client.zones.createZoneRecord("1010", "example.com", record).getData();
+    assertEquals("192.0.2.1", created.getContent());
+    assertEquals(Integer.valueOf(600), created.getTtl());
+
+    Map<String, Object> update = new HashMap<String, Object>();
+    update.put("content", "192.0.2.2");
+    client.zones.updateZoneRecord("1010", "example.com", String.valueOf(created.getId()), update);
+
+    List<ZoneRecord> records = client.zones.listZoneRecords("1010", "example.com").getData();
+    assertEquals(3, records.size());
+    assertEquals("192.0.2.2", records.get(2).getContent());
+
+    client.zones.deleteZoneRecord("1010", "example.com", String.valueOf(created.getId()));
+    assertEquals(2, client.zones.listZoneRecords("1010", "example.com").getData().size());
+  }
+
+  @Test
+  public void testApplyTemplate() throws DnsimpleException, IOException {
+    server.addDomain("1010", "example.com", false);
+
+    Map<String, Object> template = new HashMap<String, Object>();
+    template.put("name", "Mail");
+    template.put("sid", "mail");
+    client.templates.createTemplate("1010", template);
+
+    Map<String, Object> record = new HashMap<String, Object>();
+    record.put("name", "");
+    record.put("type", "MX");
+    record.put("content", "mx.{{domain}}");
+    record.put("priority", 10);
+    client.templates.createTemplateRecord("1010", "mail", record);
+
+    client.templates.applyTemplate("1010", "mail", "example.com");
+
+    List<ZoneRecord> records = client.zones.listZoneRecords("1010", "example.com").getData();
+    ZoneRecord mx = records.get(records.size() - 1);
+    assertEquals("MX", mx.getType());
+    assertEquals("mx.example.com", mx.getContent());
+    assertEquals(Integer.valueOf(10), mx.getPriority());
+  }
+
+  @Test(expected=ResourceNotFoundException.class)
+  public void testUnknownZone() throws DnsimpleException, IOException {
+    client.zones.listZoneRecords("1010", "missing.com");
+  }
+
+  @Test
+  public void testInjectedErrors() throws DnsimpleException, IOException {
+    server.failNext(1, 503);
+    try {
+      client.identity.whoami();
+      fail("Expected the injected error");
+    } catch (DnsimpleException e) {
+      assertEquals(Integer.valueOf(503), e.getStatusCode());
+    }
+    assertEquals("1010", String.valueOf(client.identity.whoami().getData().getAccount().getId()));
+    assertEquals(2, server.getRequestCount());
+  }
+
+  @Test
+  public void testRateLimitHeaders() throws IOException {
+    server.stop();
+    server = StubServer.builder().rateLimit(5, 60000).build();
+    server.start();
+
+    URL whoami = new URL(server.getApiBase() + "/v2/whoami");
+    for (int i = 1; i <= 5; i++) {
+      HttpURLConnection connection = (HttpURLConnection) whoami.openConnection();
+      assertEquals(200, connection.getResponseCode());
+      assertEquals("5", connection.getHeaderField("X-RateLimit-Limit"));
+      assertEquals(String.valueOf(5 - i), connection.getHeaderField("X-RateLimit-Remaining"));
+      connection.getInputStream().close();
+    }
+    HttpURLConnection connection = (HttpURLConnection) whoami.openConnection();
+    assertEquals(429, connection.getResponseCode());
+    connection.disconnect();
+  }
+
+  @Test
+  public void testConditionalGet() throws IOException {
+    server.addDomain("1010", "example.com", true);
+    URL domain = new URL(server.getApiBase() + "/v2/1010/domains/example.com");
+    HttpURLConnection first = (HttpURLConnection) domain.openConnection();
+    assertEquals(200, first.getResponseCode());
+    String etag = first.getHeaderField("ETag");
+    first.getInputStream().close();
+
+    HttpURLConnection second = (HttpURLConnection) domain.openConnection();
+    second.setRequestProperty("If-None-Match", etag);
+    assertEquals(304, second.getResponseCode());
+    second.disconnect();
+  }
+}
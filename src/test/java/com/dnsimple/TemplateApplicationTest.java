@@ -0,0 +1,203 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+import com.dnsimple.exception.ResourceNotFoundException;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TemplateApplicationTest extends DnsimpleTestBase {
+
+  private Map<String, String> templateResponses() throws IOException {
+    Map<String, String> responses = new HashMap<String, String>();
+    responses.put("GET /v2/1010/templates/1", resource("getTemplate/success.http"));
+    responses.put("GET /v2/1010/templates/1/records", resource("listTemplateRecords/success.http"));
+    return responses;
+  }
+
+  @Test
+  public void testApplyTemplateToDomains() throws DnsimpleException, IOException, InterruptedException {
+    Map<String, String> responses = templateResponses();
+    responses.put("POST /v2/1010/domains/example.com/templates/1", resource("applyTemplate/success.http"));
+    responses.put("POST /v2/1010/domains/example.net/templates/1", resource("applyTemplate/success.http"));
+    Templates templates = new Templates(routingClient(responses));
+
+    final AtomicInteger notifications = new AtomicInteger();
+    Map<String, Templates.ApplyOutcome> outcomes = templates.applyTemplateToDomains("1010", "1", Arrays.asList("example.com", "example.net"), 2, 3, new Templates.ApplyProgressListener() {
+      public void onDomainCompleted(Templates.ApplyOutcome outcome, int completed, int total) {
+        notifications.incrementAndGet();
+        assertEquals(2, total);
+      }
+    });
+
+    assertEquals(2, notifications.get());
+    assertEquals(Arrays.asList("example.com", "example.net"), new ArrayList<String>(outcomes.keySet()));
+    assertTrue(outcomes.get("example.com").isSuccessful());
+    assertTrue(outcomes.get("example.net").isSuccessful());
+  }
+
+  @Test
+  public void testFailingListenerKeepsOutcome() throws DnsimpleException, IOException, InterruptedException {
+    Map<String, String> responses = templateResponses();
+    responses.put("POST /v2/1010/domains/example.com/templates/1", resource("applyTemplate/success.http"));
+    Templates templates = new Templates(routingClient(responses));
+
+    Map<String, Templates.ApplyOutcome> outcomes = templates.applyTemplateToDomains("1010", "1", Arrays.asList("example.com"), 1, 3, new Templates.ApplyProgressListener() {
+      public void onDomainCompleted(Templates.ApplyOutcome outcome, int completed, int total) {
+        throw new IllegalStateException("listener failed");
+      }
+    });
+
+    Templates.ApplyOutcome outcome = outcomes.get("example.com");
+    assertTrue(outcome.isSuccessful());
+    assertNotNull(outcome.getResponse());
+    assertEquals(1, outcome.getAttempts());
+  }
+
+  @Test
+  public void testApplyTemplateToDomainsRecordsFailures() throws DnsimpleException, IOException, InterruptedException {
+    Map<String, String> responses = templateResponses();
+    responses.put("POST /v2/1010/domains/example.com/templates/1", resource("applyTemplate/success.http"));
+    responses.put("POST /v2/1010/domains/missing.com/templates/1", resource("notfound-domain.http"));
+    Templates templates = new Templates(routingClient(responses));
+
+    Map<String, Templates.ApplyOutcome> outcomes = templates.applyTemplateToDomains("1010", "1", Arrays.asList("example.com", "missing.com"));
+
+    assertTrue(outcomes.get("example.com").isSuccessful());
+    Templates.ApplyOutcome failed = outcomes.get("missing.com");
+    assertFalse(failed.isSuccessful());
+    assertTrue(failed.getError() instanceof ResourceNotFoundException);
+    assertEquals(1, failed.getAttempts());
+  }
+
+  @Test
+  public void testApplyTemplateToDomainsRetriesConnectFailures() throws DnsimpleException, IOException, InterruptedException {
+    AtomicInteger posts = new AtomicInteger();
+    Templates templates = new Templates(failingPostClient(templateResponses(), new ConnectException("Connection refused"), posts));
+
+    Templates.ApplyOutcome outcome = templates.applyTemplateToDomains("1010", "1", Arrays.asList("example.com"), 1, 2, null).get("example.com");
+
+    assertTrue(outcome.getError() instanceof ConnectException);
+    assertEquals(2, outcome.getAttempts());
+    assertEquals(2, posts.get());
+  }
+
+  @Test
+  public void testRetryBackoffStopsAtDeadline() throws DnsimpleException, IOException, InterruptedException {
+    AtomicInteger posts = new AtomicInteger();
+    Templates templates = new Templates(failingPostClient(templateResponses(), new ConnectException("Connection refused"), posts));
+
+    long start = System.nanoTime();
+    Templates.ApplyOutcome outcome;
+    CallContext.Scope scope = CallContext.builder().timeout(400).build().attach();
+    try {
+      outcome = templates.applyTemplateToDomains("1010", "1", Arrays.asList("example.com"), 1, 10, null).get("example.com");
+    } finally {
+      scope.detach();
+    }
+    long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+    assertTrue(String.valueOf(outcome.getError()), outcome.getError() instanceof ConnectException);
+    assertEquals(2, outcome.getAttempts());
+    assertTrue("Slept " + elapsedMillis + "ms", elapsedMillis < 700);
+  }
+
+  @Test
+  public void testApplyTemplateToDomainsDoesNotRetryAfterSending() throws DnsimpleException, IOException, InterruptedException {
+    AtomicInteger posts = new AtomicInteger();
+    Templates templates = new Templates(failingPostClient(templateResponses(), new SocketTimeoutException("Read timed out"), posts));
+
+    Templates.ApplyOutcome outcome = templates.applyTemplateToDomains("1010", "1", Arrays.asList("example.com"), 1, 3, null).get("example.com");
+
+    assertTrue(outcome.getError() instanceof SocketTimeoutException);
+    assertEquals(1, outcome.getAttempts());
+    assertEquals(1, posts.get());
+  }
+
+  @Test
+  public void testOnlyUnavailableAndRateLimitedAreRetried() throws DnsimpleException, IOException, InterruptedException {
+    int[][] expectations = { { 429, 2 }, { 503, 2 }, { 500, 1 }, { 502, 1 }, { 504, 1 } };
+    for (int[] expectation : expectations) {
+      AtomicInteger posts = new AtomicInteger();
+      Templates templates = new Templates(statusPostClient(templateResponses(), expectation[0], posts));
+
+      Templates.ApplyOutcome outcome = templates.applyTemplateToDomains("1010", "1", Arrays.asList("example.com"), 1, 2, null).get("example.com");
+
+      assertEquals(Integer.valueOf(expectation[0]), ((DnsimpleException) outcome.getError()).getStatusCode());
+      assertEquals("Attempts for " + expectation[0], expectation[1], outcome.getAttempts());
+      assertEquals(expectation[1], posts.get());
+    }
+  }
+
+  @Test(expected=ResourceNotFoundException.class)
+  public void testApplyTemplateToDomainsWhenTemplateNotFound() throws DnsimpleException, IOException, InterruptedException {
+    Map<String, String> responses = new HashMap<String, String>();
+    responses.put("GET /v2/1010/templates/0", resource("notfound-template.http"));
+    Templates templates = new Templates(routingClient(responses));
+
+    templates.applyTemplateToDomains("1010", "0", Arrays.asList("example.com"));
+  }
+
+  /**
+   * Serve GET requests from the given responses and fail every POST with the given error.
+   */
+  private HttpClient failingPostClient(final Map<String, String> responses, final IOException error, final AtomicInteger posts) {
+    HttpClient httpClient = new HttpClient();
+    httpClient.setTransport(new MockHttpTransport() {
+      @Override
+      public LowLevelHttpRequest buildRequest(final String method, final String url) throws IOException {
+        return new MockLowLevelHttpRequest() {
+          @Override
+          public LowLevelHttpResponse execute() throws IOException {
+            if (method.equals("POST")) {
+              posts.incrementAndGet();
+              throw error;
+            }
+            return mockResponse(new MockLowLevelHttpResponse(), responses.get(method + " " + new GenericUrl(url).getRawPath()));
+          }
+        };
+      }
+    });
+    return httpClient;
+  }
+
+  /**
+   * Serve GET requests from the given responses and answer every POST with the given status.
+   */
+  private HttpClient statusPostClient(final Map<String, String> responses, final int status, final AtomicInteger posts) {
+    HttpClient httpClient = new HttpClient();
+    httpClient.setTransport(new MockHttpTransport() {
+      @Override
+      public LowLevelHttpRequest buildRequest(final String method, final String url) throws IOException {
+        return new MockLowLevelHttpRequest() {
+          @Override
+          public LowLevelHttpResponse execute() throws IOException {
+            if (method.equals("POST")) {
+              posts.incrementAndGet();
+              return new MockLowLevelHttpResponse().setStatusCode(status).setContentType("application/json").setContent("{\"message\":\"Failed\"}");
+            }
+            return mockResponse(new MockLowLevelHttpResponse(), responses.get(method + " " + new GenericUrl(url).getRawPath()));
+          }
+        };
+      }
+    });
+    return httpClient;
+  }
+}
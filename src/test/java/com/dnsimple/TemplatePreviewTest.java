@@ -0,0 +1,83 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import com.google.api.client.json.gson.GsonFactory;
+
+public class TemplatePreviewTest extends DnsimpleTestBase {
+
+  private TemplatePreview loadPreview() throws DnsimpleException, IOException {
+    Map<String, String> responses = new HashMap<String, String>();
+    responses.put("GET /v2/1010/templates/1", resource("getTemplate/success.http"));
+    responses.put("GET /v2/1010/templates/1/records", resource("listTemplateRecords/success.http"));
+    return TemplatePreview.load(new Templates(routingClient(responses)), "1010", "1");
+  }
+
+  private ZoneRecord zoneRecord(String json) throws IOException {
+    return GsonFactory.getDefaultInstance().fromString(json, ZoneRecord.class);
+  }
+
+  @Test
+  public void testExpandReplacesDomainPlaceholder() throws DnsimpleException, IOException {
+    TemplatePreview preview = loadPreview();
+
+    List<TemplatePreview.Record> records = preview.expand("example.com");
+
+    assertEquals(2, records.size());
+    assertEquals("192.168.1.1", records.get(0).getContent());
+    assertEquals("www", records.get(1).getName());
+    assertEquals("example.com", records.get(1).getContent());
+  }
+
+  @Test
+  public void testDiffAgainstZoneRecords() throws DnsimpleException, IOException {
+    TemplatePreview preview = loadPreview();
+    List<ZoneRecord> existing = new ArrayList<ZoneRecord>();
+    existing.add(zoneRecord("{\"id\":1,\"name\":\"\",\"type\":\"A\",\"content\":\"192.168.1.1\"}"));
+    existing.add(zoneRecord("{\"id\":2,\"name\":\"www\",\"type\":\"A\",\"content\":\"192.168.1.2\"}"));
+    existing.add(zoneRecord("{\"id\":3,\"name\":\"\",\"type\":\"NS\",\"content\":\"ns1.dnsimple.com\"}"));
+
+    TemplatePreview.Diff diff = preview.diff("example.com", existing);
+
+    assertEquals(0, diff.getAdded().size());
+    assertEquals(1, diff.getUnchanged().size());
+    assertTrue(diff.hasConflicts());
+    assertEquals(2, diff.getConflicts().get(0).getExisting().getId().intValue());
+  }
+
+  @Test
+  public void testDiffComparesTtlAndPriority() throws DnsimpleException, IOException {
+    TemplatePreview preview = loadPreview();
+    List<ZoneRecord> existing = new ArrayList<ZoneRecord>();
+    existing.add(zoneRecord("{\"id\":1,\"name\":\"\",\"type\":\"A\",\"content\":\"192.168.1.1\",\"ttl\":60}"));
+    existing.add(zoneRecord("{\"id\":2,\"name\":\"www\",\"content\":\"example.com\"}"));
+
+    TemplatePreview.Diff diff = preview.diff("example.com", existing);
+
+    assertEquals(0, diff.getUnchanged().size());
+    assertEquals(0, diff.getAdded().size());
+    assertEquals(2, diff.getConflicts().size());
+    assertEquals(1, diff.getConflicts().get(0).getExisting().getId().intValue());
+    assertEquals(2, diff.getConflicts().get(1).getExisting().getId().intValue());
+  }
+
+  @Test
+  public void testDiffAgainstEmptyZone() throws DnsimpleException, IOException {
+    TemplatePreview preview = loadPreview();
+
+    TemplatePreview.Diff diff = preview.diff("example.com", new ArrayList<ZoneRecord>());
+
+    assertEquals(2, diff.getAdded().size());
+    assertFalse(diff.hasConflicts());
+  }
+}
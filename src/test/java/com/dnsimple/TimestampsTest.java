@@ -0,0 +1,81 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import com.google.api.client.json.gson.GsonFactory;
+
+public class TimestampsTest extends DnsimpleTestBase {
+
+  private static Date utc(String pattern, String value) throws ParseException {
+    SimpleDateFormat format = new SimpleDateFormat(pattern);
+    format.setTimeZone(TimeZone.getTimeZone("UTC"));
+    return format.parse(value);
+  }
+
+  @Test
+  public void testParseMatchesSimpleDateFormat() throws ParseException {
+    String[] timestamps = { "1970-01-01T00:00:00.000Z", "1999-12-31T23:59:59.999Z", "2000-02-29T12:00:00.001Z", "2016-01-07T16:30:05.379Z", "2038-01-19T03:14:08.000Z" };
+    for (String timestamp : timestamps) {
+      assertEquals(timestamp, utc("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timestamp).getTime(), Timestamps.parseMillis(timestamp));
+      assertEquals(timestamp, Timestamps.formatMillis(Timestamps.parseMillis(timestamp)));
+    }
+    assertEquals(utc("yyyy-MM-dd", "2016-02-29").getTime(), Timestamps.parseDateMillis("2016-02-29"));
+  }
+
+  @Test
+  public void testMalformedValuesAreUnknown() {
+    assertEquals(Timestamps.NONE, Timestamps.parseMillis(null));
+    assertEquals(Timestamps.NONE, Timestamps.parseMillis("2016-01-07 16:30:05Z"));
+    assertEquals(Timestamps.NONE, Timestamps.parseMillis("2016-01-07T16:30:05.Z"));
+    assertEquals(Timestamps.NONE, Timestamps.parseDateMillis("2016-1-07"));
+    assertEquals(Timestamps.NONE, Timestamps.parseDateMillis("2016-00-07"));
+  }
+
+  @Test
+  public void testImpossibleDatesAreUnknown() {
+    assertEquals(Timestamps.NONE, Timestamps.parseDateMillis("2016-02-31"));
+    assertEquals(Timestamps.NONE, Timestamps.parseDateMillis("2016-04-31"));
+    assertEquals(Timestamps.NONE, Timestamps.parseDateMillis("2100-02-29"));
+    assertEquals(Timestamps.NONE, Timestamps.parseMillis("2015-02-29T00:00:00Z"));
+    assertEquals(Timestamps.parseDateMillis("2016-03-01") - 86400000L, Timestamps.parseDateMillis("2016-02-29"));
+    assertEquals(Timestamps.parseDateMillis("2000-03-01") - 86400000L, Timestamps.parseMillis("2000-02-29T00:00:00Z"));
+  }
+
+  @Test
+  public void testModelDateAccessors() throws DnsimpleException, IOException, ParseException {
+    Domain domain = new Domains(mockClient(resource("getDomain/success.http"))).getDomain("1010", "1").getData();
+
+    assertEquals(utc("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", "2014-12-06T15:56:55.573Z"), domain.getCreatedAtDate());
+    assertEquals(utc("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", "2015-12-09T00:20:56.056Z"), domain.getUpdatedAtDate());
+    assertNull(domain.getExpiresOnDate());
+
+    Date created = domain.getCreatedAtDate();
+    created.setTime(0);
+    assertFalse(created.equals(domain.getCreatedAtDate()));
+  }
+
+  @Test
+  public void testDateAccessorsOfDerivedModels() throws IOException, ParseException {
+    String json = "{\"data\":[{\"id\":1,\"name\":\"example.com\",\"expires_on\":\"2017-01-07\",\"created_at\":\"2016-01-07T16:30:05.379Z\"}]}";
+    List<LazyJson.Fields> elements = new LazyJson(json.getBytes("UTF-8")).list(LazyDomain.KEYS, Collections.<String>emptyList());
+    Domain lazy = LazyDomain.FACTORY.create(elements.get(0));
+    assertEquals(utc("yyyy-MM-dd", "2017-01-07"), lazy.getExpiresOnDate());
+
+    ZoneRecordTable table = new ZoneRecordTable();
+    table.add(GsonFactory.getDefaultInstance().fromString("{\"id\":1,\"created_at\":\"2016-01-07T16:30:05.379Z\"}", ZoneRecord.class));
+    assertEquals(utc("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", "2016-01-07T16:30:05.379Z"), table.get(0).getCreatedAtDate());
+    assertNull(table.get(0).getUpdatedAtDate());
+  }
+}
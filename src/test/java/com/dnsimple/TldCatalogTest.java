@@ -0,0 +1,53 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TldCatalogTest extends DnsimpleTestBase {
+
+  private Map<String, String> responses() throws IOException {
+    Map<String, String> responses = new HashMap<String, String>();
+    responses.put("GET /v2/tlds", resource("listTlds/success.http").replace("\"total_pages\":79", "\"total_pages\":1"));
+    responses.put("GET /v2/tlds/ac/extended_attributes", resource("getTldExtendedAttributes/success.http"));
+    responses.put("GET /v2/tlds/academy/extended_attributes", resource("getTldExtendedAttributes/success.http"));
+    return responses;
+  }
+
+  @Test
+  public void testRefreshLoadsTldsAndExtendedAttributes() throws DnsimpleException, IOException {
+    TldCatalog catalog = new TldCatalog(new Tlds(routingClient(responses())), 2);
+    assertFalse(catalog.isLoaded());
+
+    catalog.refresh();
+
+    assertTrue(catalog.isLoaded());
+    assertEquals(2, catalog.getTlds().size());
+    assertEquals(Integer.valueOf(3), catalog.getTld(".Academy").getTldType());
+    assertFalse(catalog.getExtendedAttributes("ac").isEmpty());
+    assertNull(catalog.getTld("com"));
+    assertTrue(catalog.getExtendedAttributes("com").isEmpty());
+  }
+
+  @Test
+  public void testFailedRefreshKeepsPreviousSnapshot() throws DnsimpleException, IOException {
+    Map<String, String> responses = responses();
+    TldCatalog catalog = new TldCatalog(new Tlds(routingClient(responses)), 2);
+    catalog.refresh();
+
+    responses.put("GET /v2/tlds/academy/extended_attributes", resource("notfound-domain.http"));
+    try {
+      catalog.refresh();
+      fail("Expected the refresh to fail");
+    } catch (DnsimpleException e) {
+      assertEquals(2, catalog.getTlds().size());
+      assertNotNull(catalog.getTld("academy"));
+    }
+  }
+}
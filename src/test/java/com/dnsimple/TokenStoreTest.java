@@ -0,0 +1,99 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+
+public class TokenStoreTest extends DnsimpleTestBase {
+
+  private MockHttpTransport authorizationRecordingTransport(final List<String> authorizations) {
+    return new MockHttpTransport() {
+      @Override
+      public LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+        return new MockLowLevelHttpRequest() {
+          @Override
+          public LowLevelHttpResponse execute() throws IOException {
+            authorizations.add(getFirstHeaderValue("Authorization"));
+            return new MockLowLevelHttpResponse().setStatusCode(204);
+          }
+        };
+      }
+    };
+  }
+
+  @Test
+  public void testRequestsUseTheAccountToken() throws DnsimpleException, IOException {
+    List<String> authorizations = new ArrayList<String>();
+    TokenStore store = new InMemoryTokenStore();
+    store.putToken(new OauthToken("token-1", "Bearer", null, 1));
+    store.putToken(new OauthToken("token-2", "Bearer", null, 2));
+    ClientConfig config = ClientConfig.builder()
+      .transport(authorizationRecordingTransport(authorizations))
+      .accessToken("default-token")
+      .tokenStore(store)
+      .build();
+    Client client = new Client(config);
+
+    client.domains.getDomain("1", "example.com");
+    client.domains.getDomain("2", "example.com");
+    client.domains.getDomain("3", "example.com");
+
+    assertEquals("Bearer token-1", authorizations.get(0));
+    assertEquals("Bearer token-2", authorizations.get(1));
+    assertEquals("Bearer default-token", authorizations.get(2));
+  }
+
+  @Test
+  public void testExchangedTokenIsStored() throws DnsimpleException, IOException {
+    TokenStore store = new InMemoryTokenStore();
+    final String httpResponse = resource("oauthAccessToken/success.http");
+    HttpClient httpClient = new HttpClient(ClientConfig.builder().tokenStore(store).build());
+    httpClient.setTransport(new MockHttpTransport() {
+      @Override
+      public LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+        return new MockLowLevelHttpRequest() {
+          @Override
+          public LowLevelHttpResponse execute() throws IOException {
+            return mockResponse(new MockLowLevelHttpResponse(), httpResponse);
+          }
+        };
+      }
+    });
+
+    OauthToken token = new Oauth(httpClient).exchangeAuthorizationForToken("code", "id", "secret");
+
+    assertSame(token, store.getToken("1"));
+  }
+
+  @Test
+  public void testFileTokenStoreSurvivesReload() throws IOException {
+    File file = File.createTempFile("tokens", ".properties");
+    file.delete();
+    try {
+      FileTokenStore store = new FileTokenStore(file);
+      store.putToken(new OauthToken("token-1", "Bearer", null, 1));
+      store.putToken(new OauthToken("token-2", "Bearer", null, 2));
+      store.removeToken("2");
+
+      FileTokenStore reloaded = new FileTokenStore(file);
+      assertEquals("token-1", reloaded.getToken("1").getAccessToken());
+      assertEquals(Integer.valueOf(1), reloaded.getToken("1").getAccountId());
+      assertNull(reloaded.getToken("2"));
+    } finally {
+      file.delete();
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package com.dnsimple;
+
+import com.dnsimple.request.ContactCreate;
+import com.dnsimple.request.DomainCreate;
+import com.dnsimple.request.DomainRegistration;
+import com.dnsimple.request.WebhookCreate;
+import com.dnsimple.request.ZoneRecordCreate;
+
+import com.dnsimple.exception.DnsimpleException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import com.google.api.client.http.HttpMethods;
+
+public class TypedRequestsTest extends DnsimpleTestBase {
+
+  @Test
+  public void testZoneRecordCreateSerialization() {
+    ZoneRecordCreate record = ZoneRecordCreate.builder()
+      .name("www")
+      .type("TXT")
+      .content("v=spf1 \"quoted\" \\ end\n")
+      .ttl(3600)
+      .regions(Arrays.asList("SV1", "IAD"))
+      .build();
+
+    assertEquals("{\"name\":\"www\",\"type\":\"TXT\",\"content\":\"v=spf1 \\\"quoted\\\" \\\\ end\\n\",\"ttl\":3600,\"regions\":[\"SV1\",\"IAD\"]}", record.toString());
+    assertEquals(record.toByteArray().length, record.getLength());
+  }
+
+  @Test
+  public void testCreateZoneRecordSendsCorrectRequest() throws DnsimpleException, IOException {
+    HashMap<String, Object> attributes = new HashMap<String, Object>();
+    attributes.put("name", "www");
+    attributes.put("type", "A");
+
+    HttpClient httpClient = expectClient("https://api.dnsimple.com/v2/1010/zones/example.com/records", HttpMethods.POST, attributes);
+
+    new Zones(httpClient).createZoneRecord("1010", "example.com", ZoneRecordCreate.builder().name("www").type("A").build());
+  }
+
+  @Test
+  public void testCreateDomainSendsCorrectRequest() throws DnsimpleException, IOException {
+    HashMap<String, Object> attributes = new HashMap<String, Object>();
+    attributes.put("name", "example.com");
+
+    HttpClient httpClient = expectClient("https://api.dnsimple.com/v2/1010/domains", HttpMethods.POST, attributes);
+
+    new Domains(httpClient).createDomain("1010", DomainCreate.builder().name("example.com").build());
+  }
+
+  @Test
+  public void testRegisterDomainSendsCorrectRequest() throws DnsimpleException, IOException {
+    HashMap<String, Object> attributes = new HashMap<String, Object>();
+    attributes.put("whois_privacy", true);
+
+    HttpClient httpClient = expectClient("https://api.dnsimple.com/v2/1010/registrar/domains/example.com/register", HttpMethods.POST, attributes);
+
+    new Registrar(httpClient).registerDomain("1010", "example.com", DomainRegistration.builder().whoisPrivacy(true).build());
+  }
+
+  @Test
+  public void testCreateContactSendsCorrectRequest() throws DnsimpleException, IOException {
+    HashMap<String, Object> attributes = new HashMap<String, Object>();
+    attributes.put("first_name", "John");
+    attributes.put("last_name", "Smith");
+
+    HttpClient httpClient = expectClient("https://api.dnsimple.com/v2/1010/contacts", HttpMethods.POST, attributes);
+
+    new Contacts(httpClient).createContact("1010", ContactCreate.builder().firstName("John").lastName("Smith").build());
+  }
+
+  @Test
+  public void testCreateWebhookSendsCorrectRequest() throws DnsimpleException, IOException {
+    HashMap<String, Object> attributes = new HashMap<String, Object>();
+    attributes.put("url", "https://webhook.test");
+
+    HttpClient httpClient = expectClient("https://api.dnsimple.com/v2/1010/webhooks", HttpMethods.POST, attributes);
+
+    new Webhooks(httpClient).createWebhook("1010", WebhookCreate.builder().url("https://webhook.test").build());
+  }
+}
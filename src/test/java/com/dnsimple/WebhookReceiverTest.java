@@ -0,0 +1,238 @@
+package com.dnsimple;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WebhookReceiverTest extends DnsimpleTestBase {
+
+  private byte[] payload(String name) throws IOException {
+    return resource("webhookEvent/" + name + ".json").getBytes("UTF-8");
+  }
+
+  @Test
+  public void testParseEvent() throws IOException {
+    WebhookEvent event = WebhookEvent.parse(payload("domain.create"));
+
+    assertEquals("domain.create", event.getName());
+    assertEquals("v2", event.getApiVersion());
+    assertEquals("0f31483c-c303-497b-8a88-2edb48aa111e", event.getRequestIdentifier());
+    assertEquals(Integer.valueOf(1010), event.getAccount().getId());
+    assertEquals("user", event.getActor().getEntity());
+    assertEquals("example-alpha.com", event.getData().getDomain().getName());
+    assertNull(event.getData().getZoneRecord());
+  }
+
+  @Test
+  public void testParseEventFromByteBuffer() throws IOException {
+    byte[] bytes = payload("zone_record.create");
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+    direct.put(bytes).flip();
+
+    WebhookEvent event = WebhookEvent.parse(direct);
+
+    assertEquals("www", event.getData().getZoneRecord().getName());
+    assertEquals(0, direct.position());
+  }
+
+  @Test(expected=IOException.class)
+  public void testParseRejectsPayloadWithoutName() throws IOException {
+    WebhookEvent.parse("{\"data\":{}}".getBytes("UTF-8"));
+  }
+
+  @Test
+  public void testDispatchByName() throws IOException {
+    final List<String> calls = new ArrayList<String>();
+    WebhookDispatcher dispatcher = WebhookDispatcher.builder()
+      .on("domain.create", new WebhookEventHandler() {
+        public void onEvent(WebhookEvent event) {
+          calls.add("domain");
+        }
+      })
+      .onAny(new WebhookEventHandler() {
+        public void onEvent(WebhookEvent event) {
+          calls.add("any:" + event.getName());
+        }
+      })
+      .build();
+
+    assertEquals(2, dispatcher.dispatch(WebhookEvent.parse(payload("domain.create"))));
+    assertEquals(1, dispatcher.dispatch(WebhookEvent.parse(payload("zone_record.create"))));
+    assertEquals(3, calls.size());
+    assertEquals("domain", calls.get(0));
+    assertEquals("any:domain.create", calls.get(1));
+    assertEquals("any:zone_record.create", calls.get(2));
+  }
+
+  @Test
+  public void testReceiverRefusesEventsWhenFull() throws IOException, InterruptedException {
+    final CountDownLatch release = new CountDownLatch(1);
+    WebhookDispatcher dispatcher = WebhookDispatcher.builder().onAny(new WebhookEventHandler() {
+      public void onEvent(WebhookEvent event) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }).build();
+    WebhookReceiver receiver = new WebhookReceiver(dispatcher, 1, 1);
+    receiver.start();
+
+    assertTrue(receiver.offer(payload("domain.create")));
+    while (receiver.getQueuedCount() > 0) {
+      Thread.sleep(1);
+    }
+    assertTrue(receiver.offer(payload("domain.create")));
+    assertFalse(receiver.offer(payload("domain.create")));
+
+    release.countDown();
+    assertTrue(receiver.shutdown(5, TimeUnit.SECONDS));
+    assertEquals(2, receiver.getDispatchedCount());
+  }
+
+  @Test
+  public void testEventAcceptedDuringShutdownIsDispatched() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    WebhookDispatcher dispatcher = WebhookDispatcher.builder().onAny(new WebhookEventHandler() {
+      public void onEvent(WebhookEvent event) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }).build();
+    final WebhookReceiver receiver = new WebhookReceiver(dispatcher, 1, 1);
+    receiver.start();
+    assertTrue(receiver.offer(payload("domain.create")));
+    while (receiver.getQueuedCount() > 0) {
+      Thread.sleep(1);
+    }
+    assertTrue(receiver.offer(payload("domain.create")));
+
+    // Waits for room in the full queue while the receiver shuts down
+    final WebhookEvent event = WebhookEvent.parse(payload("domain.create"));
+    final boolean[] accepted = new boolean[1];
+    Thread offering = new Thread() {
+      public void run() {
+        try {
+          accepted[0] = receiver.offer(event, 5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          // Not accepted
+        }
+      }
+    };
+    offering.start();
+    Thread.sleep(50);
+    final boolean[] drained = new boolean[1];
+    Thread stopping = new Thread() {
+      public void run() {
+        try {
+          drained[0] = receiver.shutdown(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          // Not drained
+        }
+      }
+    };
+    stopping.start();
+    Thread.sleep(50);
+
+    release.countDown();
+    offering.join();
+    stopping.join();
+    assertTrue(drained[0]);
+    assertEquals(accepted[0] ? 3 : 2, receiver.getDispatchedCount());
+  }
+
+  @Test
+  public void testServerQueuesPostedEvents() throws IOException, InterruptedException {
+    final CountDownLatch received = new CountDownLatch(1);
+    WebhookDispatcher dispatcher = WebhookDispatcher.builder().on("domain.create", new WebhookEventHandler() {
+      public void onEvent(WebhookEvent event) {
+        received.countDown();
+      }
+    }).build();
+    WebhookReceiver receiver = new WebhookReceiver(dispatcher, 10, 1);
+    receiver.start();
+    WebhookServer server = new WebhookServer(receiver, 0, "/webhooks");
+    server.start();
+    try {
+      assertEquals(202, post(server.getUrl(), payload("domain.create")));
+      assertEquals(400, post(server.getUrl(), "not json".getBytes("UTF-8")));
+      assertTrue(received.await(5, TimeUnit.SECONDS));
+    } finally {
+      server.stop();
+      receiver.shutdown(5, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  public void testServerRejectsOversizedAndMalformedBodies() throws IOException, InterruptedException {
+    WebhookReceiver receiver = new WebhookReceiver(WebhookDispatcher.builder().build(), 10, 1);
+    receiver.start();
+    WebhookServer server = new WebhookServer(receiver, 0, "/webhooks", 1024);
+    server.start();
+    try {
+      byte[] oversized = new byte[2048];
+      assertEquals(413, post(server.getUrl(), oversized));
+      assertEquals(413, post(server.getUrl(), oversized, 512));
+      assertEquals(400, post(server.getUrl(), "not json".getBytes("UTF-8"), 512));
+
+      Socket socket = new Socket("127.0.0.1", server.getPort());
+      try {
+        OutputStream out = socket.getOutputStream();
+        out.write("POST /webhooks HTTP/1.1\r\nHost: localhost\r\nContent-Length: 99999999999999999999\r\n\r\n".getBytes("US-ASCII"));
+        out.flush();
+        String status = new BufferedReader(new InputStreamReader(socket.getInputStream(), "US-ASCII")).readLine();
+        assertTrue(status, status.startsWith("HTTP/1.1 400"));
+      } finally {
+        socket.close();
+      }
+      assertEquals(0, receiver.getDispatchedCount());
+    } finally {
+      server.stop();
+      receiver.shutdown(5, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testServerRejectsNonPositiveMaximum() throws IOException {
+    new WebhookServer(new WebhookReceiver(WebhookDispatcher.builder().build(), 10, 1), 0, "/webhooks", 0);
+  }
+
+  private int post(String url, byte[] body) throws IOException {
+    return post(url, body, 0);
+  }
+
+  /**
+   * @param chunkLength The chunk length to stream the body with, or 0 to send its Content-Length
+   */
+  private int post(String url, byte[] body, int chunkLength) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    if (chunkLength > 0) {
+      connection.setChunkedStreamingMode(chunkLength);
+    }
+    OutputStream out = connection.getOutputStream();
+    out.write(body);
+    out.close();
+    int status = connection.getResponseCode();
+    connection.disconnect();
+    return status;
+  }
+}
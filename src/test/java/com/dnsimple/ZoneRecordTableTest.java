@@ -0,0 +1,110 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.Data;
+
+public class ZoneRecordTableTest extends DnsimpleTestBase {
+
+  private static ZoneRecord record(String json) throws IOException {
+    return GsonFactory.getDefaultInstance().fromString(json, ZoneRecord.class);
+  }
+
+  private static Object value(Object decoded) {
+    return Data.isNull(decoded) ? null : decoded;
+  }
+
+  private static void assertSameRecord(ZoneRecord expected, ZoneRecord actual) {
+    assertEquals(value(expected.getId()), actual.getId());
+    assertEquals(value(expected.getZoneId()), actual.getZoneId());
+    assertEquals(value(expected.getParentId()), actual.getParentId());
+    assertEquals(value(expected.getName()), actual.getName());
+    assertEquals(value(expected.getContent()), actual.getContent());
+    assertEquals(value(expected.getTtl()), actual.getTtl());
+    assertEquals(value(expected.getPriority()), actual.getPriority());
+    assertEquals(value(expected.getType()), actual.getType());
+    assertEquals(value(expected.getSystemRecord()), actual.getSystemRecord());
+    assertEquals(value(expected.getCreatedAt()), actual.getCreatedAt());
+    assertEquals(value(expected.getUpdatedAt()), actual.getUpdatedAt());
+  }
+
+  @Test
+  public void testViewsMatchTheOriginalRecords() throws DnsimpleException, IOException {
+    List<ZoneRecord> records = new Zones(mockClient(resource("listZoneRecords/success.http"))).listZoneRecords("1010", "example.com").getData();
+    ZoneRecordTable table = new ZoneRecordTable(2);
+    table.addAll(records);
+
+    assertEquals(records.size(), table.size());
+    for (int i = 0; i < records.size(); i++) {
+      assertSameRecord(records.get(i), table.get(i));
+      assertSameRecord(records.get(i), table.findById(records.get(i).getId()));
+    }
+    assertSame(table.getZoneId(0), table.getZoneId(1));
+    assertEquals(3600, table.getTtl(0));
+    assertEquals(-1, table.getPriority(0));
+    assertNull(table.get(0).getPriority());
+    assertNull(table.get(0).getParentId());
+    assertEquals(1452184205379L, table.getCreatedAtMillis(0));
+  }
+
+  @Test
+  public void testAddReplacesRecordWithSameId() throws IOException {
+    ZoneRecordTable table = new ZoneRecordTable();
+    table.add(record("{\"id\":1,\"name\":\"www\",\"type\":\"A\",\"content\":\"192.0.2.1\",\"ttl\":600}"));
+    table.add(record("{\"id\":2,\"name\":\"\",\"type\":\"MX\",\"content\":\"mx.example.com\",\"priority\":10}"));
+    table.add(record("{\"id\":1,\"name\":\"www\",\"type\":\"A\",\"content\":\"192.0.2.222\",\"ttl\":60}"));
+
+    assertEquals(2, table.size());
+    assertEquals("192.0.2.222", table.findById(1).getContent());
+    assertEquals(Integer.valueOf(60), table.findById(1).getTtl());
+    assertEquals(Integer.valueOf(10), table.findById(2).getPriority());
+    assertNull(table.findById(2).getTtl());
+  }
+
+  @Test
+  public void testRemoveMovesLastRow() throws IOException {
+    ZoneRecordTable table = new ZoneRecordTable();
+    for (int id = 1; id <= 100; id++) {
+      table.add(record("{\"id\":" + id + ",\"name\":\"r" + id + "\",\"type\":\"TXT\",\"content\":\"" + id + "\"}"));
+    }
+
+    assertTrue(table.removeById(1));
+    assertFalse(table.removeById(1));
+    assertEquals(99, table.size());
+    assertEquals(0, table.indexOf(100));
+    assertEquals("100", table.get(0).getContent());
+
+    for (int id = 2; id <= 100; id++) {
+      assertEquals(String.valueOf(id), table.findById(id).getContent());
+    }
+  }
+
+  @Test
+  public void testIrregularTimestampsArePreserved() throws IOException {
+    ZoneRecordTable table = new ZoneRecordTable();
+    table.add(record("{\"id\":1,\"created_at\":\"2016-01-07T16:30:05Z\",\"updated_at\":\"yesterday\"}"));
+
+    assertEquals("2016-01-07T16:30:05Z", table.get(0).getCreatedAt());
+    assertEquals(1452184205000L, table.getCreatedAtMillis(0));
+    assertEquals("yesterday", table.get(0).getUpdatedAt());
+    assertEquals(Long.MIN_VALUE, table.getUpdatedAtMillis(0));
+  }
+
+  @Test
+  public void testTimestampsRoundTrip() {
+    assertEquals(0L, Timestamps.parseMillis("1970-01-01T00:00:00.000Z"));
+    assertEquals(951782400500L, Timestamps.parseMillis("2000-02-29T00:00:00.5Z"));
+    assertEquals("2000-02-29T00:00:00.500Z", Timestamps.formatMillis(951782400500L));
+    assertEquals("1969-12-31T23:59:59.999Z", Timestamps.formatMillis(-1L));
+    assertEquals(Timestamps.NONE, Timestamps.parseMillis("2016-13-01T00:00:00Z"));
+    assertNull(Timestamps.formatMillis(Timestamps.NONE));
+  }
+}
@@ -0,0 +1,99 @@
+package com.dnsimple;
+
+import com.dnsimple.exception.DnsimpleException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+
+public class ZoneWatcherTest extends DnsimpleTestBase {
+  private static final String ETAG = "W/\"1ae3e2e65dbcc2c2a7237e3e564129dd\"";
+
+  /**
+   * A transport serving the list zone records fixture, which answers "304 Not Modified"
+   * while the fixture is unchanged.
+   */
+  private class ZoneRecordsTransport extends MockHttpTransport {
+    volatile String body;
+    final List<String> sentEtags = new ArrayList<String>();
+
+    ZoneRecordsTransport(String body) {
+      this.body = body;
+    }
+
+    @Override
+    public LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+      return new MockLowLevelHttpRequest() {
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+          String ifNoneMatch = getFirstHeaderValue("If-None-Match");
+          sentEtags.add(ifNoneMatch);
+          String current = body;
+          String etag = current.contains(ETAG) ? ETAG : "W/\"changed\"";
+          if (etag.equals(ifNoneMatch)) {
+            return new MockLowLevelHttpResponse().setStatusCode(304);
+          }
+          return mockResponse(new MockLowLevelHttpResponse(), current);
+        }
+      };
+    }
+  }
+
+  private ZoneWatcher watcher(ZoneRecordsTransport transport) {
+    HttpClient httpClient = new HttpClient(ClientConfig.builder().transport(transport).build());
+    return new ZoneWatcher(new Zones(httpClient), 1, 1000, 60000);
+  }
+
+  @Test
+  public void testUnchangedZoneUsesConditionalRequest() throws DnsimpleException, IOException {
+    ZoneRecordsTransport transport = new ZoneRecordsTransport(resource("listZoneRecords/success.http"));
+    ZoneWatcher watcher = watcher(transport);
+    watcher.watch("1010", "example.com");
+
+    assertNull(watcher.pollNow("1010", "example.com"));
+    assertNull(watcher.pollNow("1010", "example.com"));
+
+    assertNull(transport.sentEtags.get(0));
+    assertEquals(ETAG, transport.sentEtags.get(1));
+    watcher.stop();
+  }
+
+  @Test
+  public void testChangesAreReportedToListeners() throws DnsimpleException, IOException {
+    String original = resource("listZoneRecords/success.http");
+    ZoneRecordsTransport transport = new ZoneRecordsTransport(original);
+    ZoneWatcher watcher = watcher(transport);
+    final List<ZoneWatcher.ZoneChange> changes = new ArrayList<ZoneWatcher.ZoneChange>();
+    watcher.addListener(new ZoneChangeListener() {
+      public void onZoneChanged(ZoneWatcher.ZoneChange change) {
+        changes.add(change);
+      }
+    });
+    watcher.watch("1010", "example.com");
+    watcher.pollNow("1010", "example.com");
+
+    transport.body = original
+      .replace(ETAG, "W/\"changed\"")
+      .replace("\"id\":64779,", "\"id\":99999,")
+      .replace("\"content\":\"ns1.dnsimple.com\",\"ttl\":3600", "\"content\":\"ns1.dnsimple.com\",\"ttl\":600");
+    ZoneWatcher.ZoneChange change = watcher.pollNow("1010", "example.com");
+
+    assertNotNull(change);
+    assertEquals(1, changes.size());
+    assertEquals("example.com", change.getZoneName());
+    assertEquals(Integer.valueOf(99999), change.getAdded().get(0).getId());
+    assertEquals(Integer.valueOf(64779), change.getRemoved().get(0).getId());
+    assertEquals(Integer.valueOf(64780), change.getUpdated().get(0).getId());
+    watcher.stop();
+  }
+}
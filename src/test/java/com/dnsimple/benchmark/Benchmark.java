@@ -0,0 +1,62 @@
+package com.dnsimple.benchmark;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * A minimal benchmark harness reporting time and bytes allocated per operation.
+ * <p>
+ * Allocation is measured with the HotSpot per-thread allocation counter, so results
+ * are only reported on JVMs that support it.
+ */
+public abstract class Benchmark {
+  private static final int DEFAULT_ITERATIONS = 1000000;
+
+  private final String name;
+  private final int iterations;
+
+  protected Benchmark(String name) {
+    this(name, DEFAULT_ITERATIONS);
+  }
+
+  protected Benchmark(String name, int iterations) {
+    this.name = name;
+    this.iterations = iterations;
+  }
+
+  /**
+   * Run one operation.
+   *
+   * @return A value derived from the operation, to keep it from being optimized away
+   * @throws Exception Any error
+   */
+  protected abstract int operation() throws Exception;
+
+  public void run() throws Exception {
+    int sink = 0;
+    for (int i = 0; i < iterations / 5; i++) {
+      sink += operation();
+    }
+
+    long bytesBefore = allocatedBytes();
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      sink += operation();
+    }
+    long elapsed = System.nanoTime() - start;
+    long bytes = allocatedBytes() - bytesBefore;
+
+    System.out.println(String.format("%-40s %10.1f ns/op %10s B/op   (%d)",
+        name,
+        (double) elapsed / iterations,
+        bytes < 0 ? "n/a" : String.valueOf(bytes / iterations),
+        sink));
+  }
+
+  private static long allocatedBytes() {
+    java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return Long.MIN_VALUE;
+  }
+}
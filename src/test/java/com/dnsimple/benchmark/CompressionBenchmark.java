@@ -0,0 +1,60 @@
+package com.dnsimple.benchmark;
+
+import com.dnsimple.Client;
+import com.dnsimple.ClientConfig;
+import com.dnsimple.testing.StubServer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares listing 2000 domains, 100 per page, with identity, gzip and deflate responses
+ * from the stub server over a link limited to 1 MB/s.
+ * <p>
+ * Run with: mvn test-compile exec:java -Dsun.net.httpserver.nodelay=true -Dexec.classpathScope=test -Dexec.mainClass=com.dnsimple.benchmark.CompressionBenchmark
+ */
+public class CompressionBenchmark {
+  private static final int DOMAINS = 2000;
+  private static final int PER_PAGE = 100;
+
+  public static void main(String[] args) throws Exception {
+    StubServer server = StubServer.builder().bandwidth(1000000).build();
+    server.start();
+    try {
+      for (int i = 0; i < DOMAINS; i++) {
+        server.addDomain("1010", "example-" + i + ".com", i % 2 == 0);
+      }
+
+      String[] encodings = { "identity", "gzip", "deflate" };
+      for (int round = 0; round < 3; round++) {
+        for (String encoding : encodings) {
+          run(server, encoding);
+        }
+      }
+    } finally {
+      server.stop();
+    }
+  }
+
+  private static void run(StubServer server, String encoding) throws Exception {
+    Client client = new Client(ClientConfig.builder().apiBase(server.getApiBase()).acceptEncoding(encoding).build());
+    long bytesBefore = server.getBytesSent();
+    long start = System.nanoTime();
+    int domains = 0;
+    for (int page = 1; page <= DOMAINS / PER_PAGE; page++) {
+      Map<String, Object> options = new HashMap<String, Object>();
+      options.put("page", page);
+      options.put("per_page", PER_PAGE);
+      domains += client.domains.listDomains("1010", options).getData().size();
+    }
+    long elapsed = System.nanoTime() - start;
+    long bytes = server.getBytesSent() - bytesBefore;
+
+    System.out.println(String.format("%-10s %8.1f ms %10d bytes %8d B/page   (%d)",
+        encoding,
+        elapsed / 1e6,
+        bytes,
+        bytes / (DOMAINS / PER_PAGE),
+        domains));
+  }
+}
@@ -0,0 +1,51 @@
+package com.dnsimple.benchmark;
+
+import com.dnsimple.Client;
+import com.dnsimple.ClientConfig;
+import com.dnsimple.HedgePolicy;
+import com.dnsimple.testing.StubServer;
+
+/**
+ * Compares the latency of 2000 getDomain calls with and without hedging, against a stub
+ * server where 2% of responses take an extra 200 ms.
+ * <p>
+ * Run with: mvn test-compile exec:java -Dsun.net.httpserver.nodelay=true -Dexec.classpathScope=test -Dexec.mainClass=com.dnsimple.benchmark.HedgingBenchmark
+ */
+public class HedgingBenchmark {
+  private static final int CALLS = 2000;
+
+  public static void main(String[] args) throws Exception {
+    StubServer server = StubServer.builder().latency(2, 4).tailLatency(0.02, 200).rateLimit(100000, 3600000).build();
+    server.start();
+    try {
+      server.addDomain("1010", "example.com", true);
+      for (int round = 0; round < 3; round++) {
+        run(server, null);
+        run(server, HedgePolicy.builder().build());
+      }
+    } finally {
+      server.stop();
+    }
+  }
+
+  private static void run(StubServer server, HedgePolicy policy) throws Exception {
+    Client client = new Client(ClientConfig.builder().apiBase(server.getApiBase()).hedgePolicy(policy).build());
+    LatencyHistogram histogram = new LatencyHistogram();
+    long requestsBefore = server.getRequestCount();
+    for (int i = 0; i < CALLS; i++) {
+      long start = System.nanoTime();
+      client.domains.getDomain("1010", "example.com");
+      histogram.record((System.nanoTime() - start) / 1000);
+    }
+    long requests = server.getRequestCount() - requestsBefore;
+
+    System.out.println(String.format("%-8s p50 %6.1f ms  p99 %6.1f ms  p99.9 %6.1f ms  requests %5d  hedges %4d  won %4d",
+        policy == null ? "plain" : "hedged",
+        histogram.getValueAtPercentile(50) / 1000.0,
+        histogram.getValueAtPercentile(99) / 1000.0,
+        histogram.getValueAtPercentile(99.9) / 1000.0,
+        requests,
+        policy == null ? 0 : policy.getHedgeCount(),
+        policy == null ? 0 : policy.getHedgeWinCount()));
+  }
+}
@@ -0,0 +1,82 @@
+package com.dnsimple.benchmark;
+
+import com.dnsimple.Client;
+import com.dnsimple.ClientConfig;
+import com.dnsimple.Http2Transport;
+import com.dnsimple.testing.StubServer;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fans out 2000 getDomain calls from 200 threads against the stub server, answering each
+ * in 20ms, with the NetHttpTransport and with the Http2Transport at two stream limits.
+ * <p>
+ * The stub server only speaks HTTP/1.1, so this measures the cost of the transport and the
+ * effect of its stream limit, not HTTP/2 multiplexing itself. Run on Java 11 or later to
+ * use java.net.http.
+ * <p>
+ * Run with: mvn test-compile exec:java -Dsun.net.httpserver.nodelay=true -Dexec.classpathScope=test -Dexec.mainClass=com.dnsimple.benchmark.Http2TransportBenchmark
+ */
+public class Http2TransportBenchmark {
+  private static final int THREADS = 200;
+  private static final int CALLS = 2000;
+
+  public static void main(String[] args) throws Exception {
+    if (!Http2Transport.isSupported()) {
+      System.out.println("java.net.http is not available, Http2Transport falls back to NetHttpTransport");
+    }
+
+    for (int round = 0; round < 2; round++) {
+      run("NetHttpTransport", new NetHttpTransport());
+      run("Http2Transport 2x100", Http2Transport.builder().connections(2).maxConcurrentStreams(100).build());
+      run("Http2Transport 1x50", Http2Transport.builder().connections(1).maxConcurrentStreams(50).build());
+    }
+  }
+
+  private static void run(String name, HttpTransport transport) throws Exception {
+    StubServer server = StubServer.builder().latency(20, 0).rateLimit(Integer.MAX_VALUE, 3600000).build();
+    server.start();
+    server.addDomain("1010", "example.com", false);
+    final Client client = new Client(ClientConfig.builder().apiBase(server.getApiBase()).transport(transport).build());
+    final LatencyHistogram latencies = new LatencyHistogram();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Callable<Void>> calls = new ArrayList<Callable<Void>>(CALLS);
+      for (int i = 0; i < CALLS; i++) {
+        calls.add(new Callable<Void>() {
+          public Void call() throws Exception {
+            long start = System.nanoTime();
+            client.domains.getDomain("1010", "example.com");
+            latencies.record((System.nanoTime() - start) / 1000);
+            return null;
+          }
+        });
+      }
+
+      long start = System.nanoTime();
+      for (Future<Void> call : executor.invokeAll(calls)) {
+        call.get();
+      }
+      long elapsed = System.nanoTime() - start;
+
+      System.out.println(String.format("%-22s %8.1f ms %8.0f req/s   p50 %6.1f ms   p99 %6.1f ms   %4d connections",
+          name,
+          elapsed / 1e6,
+          CALLS / (elapsed / 1e9),
+          latencies.getValueAtPercentile(50) / 1e3,
+          latencies.getValueAtPercentile(99) / 1e3,
+          server.getConnectionCount()));
+    } finally {
+      executor.shutdown();
+      server.stop();
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package com.dnsimple.benchmark;
+
+import com.dnsimple.Client;
+import com.dnsimple.ClientConfig;
+import com.dnsimple.Domain;
+
+import java.io.IOException;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+
+/**
+ * Compares decoding a page of 100 domains fully with decoding only the ID and name of each.
+ * <p>
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.dnsimple.benchmark.LazyListBenchmark
+ */
+public class LazyListBenchmark {
+  public static void main(String[] args) throws Exception {
+    StringBuilder page = new StringBuilder("{\"data\":[");
+    for (int i = 0; i < 100; i++) {
+      page.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"account_id\":1010,\"registrant_id\":null,\"name\":\"example-")
+          .append(i).append(".com\",\"unicode_name\":\"example-").append(i).append(".com\",\"token\":\"domain-token-").append(i)
+          .append("\",\"state\":\"registered\",\"auto_renew\":false,\"private_whois\":false,\"expires_on\":\"2017-01-07\",")
+          .append("\"created_at\":\"2016-01-07T16:30:05.379Z\",\"updated_at\":\"2016-01-07T16:30:05.379Z\"}");
+    }
+    final String body = page.append("],\"pagination\":{\"current_page\":1,\"per_page\":100,\"total_entries\":100,\"total_pages\":1}}").toString();
+
+    MockHttpTransport transport = new MockHttpTransport() {
+      @Override
+      public LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+        return new MockLowLevelHttpRequest() {
+          @Override
+          public LowLevelHttpResponse execute() throws IOException {
+            return new MockLowLevelHttpResponse().setContentType("application/json").setContent(body).addHeader("Content-Length", String.valueOf(body.length()));
+          }
+        };
+      }
+    };
+    final Client client = new Client(ClientConfig.builder().transport(transport).build());
+
+    Benchmark eager = new Benchmark("listDomains, id + name", 20000) {
+      protected int operation() throws Exception {
+        int sink = 0;
+        for (Domain domain : client.domains.listDomains("1010").getData()) {
+          sink += domain.getId() + domain.getName().length();
+        }
+        return sink;
+      }
+    };
+
+    Benchmark lazy = new Benchmark("listDomainsLazily, id + name", 20000) {
+      protected int operation() throws Exception {
+        int sink = 0;
+        for (Domain domain : client.domains.listDomainsLazily("1010", null, "id", "name").getData()) {
+          sink += domain.getId() + domain.getName().length();
+        }
+        return sink;
+      }
+    };
+
+    for (int round = 0; round < 2; round++) {
+      eager.run();
+      lazy.run();
+    }
+  }
+}
@@ -0,0 +1,303 @@
+package com.dnsimple.benchmark;
+
+import com.dnsimple.Client;
+import com.dnsimple.ClientConfig;
+import com.dnsimple.ZoneRecord;
+import com.dnsimple.request.ZoneRecordCreate;
+import com.dnsimple.testing.StubServer;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a mixed workload of zone, domain and registrar calls through one shared client
+ * against a local {@link StubServer}, and reports throughput, latency percentiles, GC time
+ * and thread counts.
+ * <p>
+ * With a target rate, requests are scheduled at fixed intervals and latency is measured
+ * from the scheduled start, so a slow client shows up as latency rather than as a lower
+ * request rate. Without one, each worker sends its next request as soon as the previous one
+ * completes.
+ * <p>
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.dnsimple.benchmark.LoadTest -Dexec.args="concurrency=32 rps=2000 duration=30"
+ * <p>
+ * Arguments, all optional: concurrency (workers, default 16), rps (target rate, default 0 for
+ * as fast as possible), duration and warmup (seconds, default 30 and 5), domains (seeded,
+ * default 50) and latency (stub latency in milliseconds, default 2). The JDK transport keeps
+ * at most http.maxConnections (default 5) idle connections per host, so set that system
+ * property to the concurrency being sized.
+ */
+public class LoadTest {
+  private static final String ACCOUNT_ID = "1010";
+
+  enum Operation {
+    LIST_DOMAINS(10) {
+      void run(LoadTest test, Random random) throws Exception {
+        test.client.domains.listDomains(ACCOUNT_ID);
+      }
+    },
+    GET_DOMAIN(15) {
+      void run(LoadTest test, Random random) throws Exception {
+        test.client.domains.getDomain(ACCOUNT_ID, test.domain(random));
+      }
+    },
+    LIST_ZONE_RECORDS(25) {
+      void run(LoadTest test, Random random) throws Exception {
+        test.client.zones.listZoneRecords(ACCOUNT_ID, test.domain(random));
+      }
+    },
+    GET_ZONE_RECORD(20) {
+      void run(LoadTest test, Random random) throws Exception {
+        String[] record = test.seededRecords.get(random.nextInt(test.seededRecords.size()));
+        test.client.zones.getZoneRecord(ACCOUNT_ID, record[0], record[1]);
+      }
+    },
+    CREATE_ZONE_RECORD(10) {
+      void run(LoadTest test, Random random) throws Exception {
+        String zone = test.domain(random);
+        ZoneRecordCreate record = ZoneRecordCreate.builder().name("load" + random.nextInt(1000)).type("A").content("192.0.2.1").ttl(600).build();
+        ZoneRecord created = test.client.zones.createZoneRecord(ACCOUNT_ID, zone, record).getData();
+        test.createdRecords.add(new String[] { zone, String.valueOf(created.getId()) });
+      }
+    },
+    DELETE_ZONE_RECORD(10) {
+      void run(LoadTest test, Random random) throws Exception {
+        String[] record = test.createdRecords.poll();
+        if (record == null) {
+          CREATE_ZONE_RECORD.run(test, random);
+        } else {
+          test.client.zones.deleteZoneRecord(ACCOUNT_ID, record[0], record[1]);
+        }
+      }
+    },
+    CHECK_DOMAIN(7) {
+      void run(LoadTest test, Random random) throws Exception {
+        test.client.registrar.checkDomain(ACCOUNT_ID, "available-" + random.nextInt(1000000) + ".com");
+      }
+    },
+    RENEW_DOMAIN(3) {
+      void run(LoadTest test, Random random) throws Exception {
+        Map<String, Object> attributes = new HashMap<String, Object>();
+        attributes.put("period", 1);
+        test.client.registrar.renewDomain(ACCOUNT_ID, test.domain(random), attributes);
+      }
+    };
+
+    final int weight;
+
+    Operation(int weight) {
+      this.weight = weight;
+    }
+
+    abstract void run(LoadTest test, Random random) throws Exception;
+  }
+
+  private final Client client;
+  private final List<String> domains = new ArrayList<String>();
+  private final List<String[]> seededRecords = new ArrayList<String[]>();
+  private final ConcurrentLinkedQueue<String[]> createdRecords = new ConcurrentLinkedQueue<String[]>();
+  private final Operation[] schedule;
+  private final Map<Operation, LatencyHistogram> histograms = new EnumMap<Operation, LatencyHistogram>(Operation.class);
+  private final Map<Operation, AtomicLong> errors = new EnumMap<Operation, AtomicLong>(Operation.class);
+
+  LoadTest(Client client) {
+    this.client = client;
+    List<Operation> schedule = new ArrayList<Operation>();
+    for (Operation operation : Operation.values()) {
+      for (int i = 0; i < operation.weight; i++) {
+        schedule.add(operation);
+      }
+      histograms.put(operation, new LatencyHistogram());
+      errors.put(operation, new AtomicLong());
+    }
+    Collections.shuffle(schedule, new Random(42));
+    this.schedule = schedule.toArray(new Operation[schedule.size()]);
+  }
+
+  public static void main(String[] args) throws Exception {
+    // Without TCP_NODELAY, the stub server's small responses wait for the client's delayed
+    // ACK, about 40ms each. The JDK server reads this once, before the first server starts.
+    if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+    Map<String, String> options = new HashMap<String, String>();
+    for (String arg : args) {
+      int equals = arg.indexOf('=');
+      if (equals < 0) {
+        throw new IllegalArgumentException("Expected name=value, got " + arg);
+      }
+      options.put(arg.substring(0, equals), arg.substring(equals + 1));
+    }
+    int concurrency = Integer.parseInt(option(options, "concurrency", "16"));
+    double rps = Double.parseDouble(option(options, "rps", "0"));
+    int duration = Integer.parseInt(option(options, "duration", "30"));
+    int warmup = Integer.parseInt(option(options, "warmup", "5"));
+    int domainCount = Integer.parseInt(option(options, "domains", "50"));
+    long latency = Long.parseLong(option(options, "latency", "2"));
+
+    StubServer server = StubServer.builder().accountId(ACCOUNT_ID).latency(latency, latency).rateLimit(Integer.MAX_VALUE, 3600000).build();
+    server.start();
+    try {
+      Client client = new Client(ClientConfig.builder().apiBase(server.getApiBase()).accessToken("load-test").build());
+      LoadTest test = new LoadTest(client);
+      test.seed(server, domainCount);
+
+      System.out.println(String.format("Warming up for %ds with %d workers%s", warmup, concurrency, rps > 0 ? " at " + rps + " rps" : ""));
+      test.run(concurrency, rps, warmup * 1000L);
+      test.reset();
+
+      System.out.println(String.format("Measuring for %ds", duration));
+      RuntimeStats measured = RuntimeStats.start();
+      long elapsed = test.run(concurrency, rps, duration * 1000L);
+      test.report(elapsed, measured.stop());
+    } finally {
+      server.stop();
+    }
+  }
+
+  private static String option(Map<String, String> options, String name, String defaultValue) {
+    return options.containsKey(name) ? options.get(name) : defaultValue;
+  }
+
+  void seed(StubServer server, int domainCount) throws Exception {
+    for (int i = 0; i < domainCount; i++) {
+      String name = "load-" + i + ".com";
+      server.addDomain(ACCOUNT_ID, name, true);
+      domains.add(name);
+      for (ZoneRecord record : client.zones.listZoneRecords(ACCOUNT_ID, name).getData()) {
+        seededRecords.add(new String[] { name, String.valueOf(record.getId()) });
+      }
+    }
+  }
+
+  String domain(Random random) {
+    return domains.get(random.nextInt(domains.size()));
+  }
+
+  void reset() {
+    for (Operation operation : Operation.values()) {
+      histograms.put(operation, new LatencyHistogram());
+      errors.get(operation).set(0);
+    }
+  }
+
+  /**
+   * @return The elapsed time in nanoseconds
+   */
+  long run(final int concurrency, double rps, final long durationMillis) throws InterruptedException {
+    final long intervalNanos = rps > 0 ? (long) (1000000000L / rps) : 0;
+    final long start = System.nanoTime();
+    final long end = start + durationMillis * 1000000L;
+    final AtomicLong sequence = new AtomicLong();
+    final CountDownLatch done = new CountDownLatch(concurrency);
+
+    for (int i = 0; i < concurrency; i++) {
+      final Random random = new Random(i);
+      Thread worker = new Thread(new Runnable() {
+        public void run() {
+          try {
+            while (true) {
+              long n = sequence.getAndIncrement();
+              long scheduled = intervalNanos > 0 ? start + n * intervalNanos : System.nanoTime();
+              if (scheduled >= end) {
+                return;
+              }
+              long wait = scheduled - System.nanoTime();
+              if (wait > 0) {
+                Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+              }
+
+              Operation operation = schedule[(int) (n % schedule.length)];
+              try {
+                operation.run(LoadTest.this, random);
+              } catch (Exception e) {
+                errors.get(operation).incrementAndGet();
+              }
+              histograms.get(operation).record((System.nanoTime() - scheduled) / 1000);
+            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          } finally {
+            done.countDown();
+          }
+        }
+      }, "dnsimple-load-" + i);
+      worker.setDaemon(true);
+      worker.start();
+    }
+    done.await();
+    return System.nanoTime() - start;
+  }
+
+  void report(long elapsedNanos, RuntimeStats runtime) {
+    LatencyHistogram total = new LatencyHistogram();
+    long totalErrors = 0;
+    System.out.println(String.format("%-20s %9s %7s %9s %9s %9s %9s %9s", "operation", "requests", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+    for (Operation operation : Operation.values()) {
+      LatencyHistogram histogram = histograms.get(operation);
+      total.add(histogram);
+      totalErrors += errors.get(operation).get();
+      printRow(operation.name().toLowerCase(), histogram, errors.get(operation).get());
+    }
+    printRow("all", total, totalErrors);
+
+    double seconds = elapsedNanos / 1e9;
+    System.out.println(String.format("Throughput: %.1f requests/s, %.2f%% errors", total.getCount() / seconds, total.getCount() == 0 ? 0 : 100.0 * totalErrors / total.getCount()));
+    System.out.println(String.format("GC: %d collections, %d ms total (%.2f%% of wall time)", runtime.gcCount, runtime.gcMillis, runtime.gcMillis / (seconds * 10)));
+    System.out.println(String.format("Threads: %d live, %d peak", runtime.liveThreads, runtime.peakThreads));
+  }
+
+  private static void printRow(String name, LatencyHistogram histogram, long errors) {
+    System.out.println(String.format("%-20s %9d %7d %9.2f %9.2f %9.2f %9.2f %9.2f",
+        name,
+        histogram.getCount(),
+        errors,
+        histogram.getValueAtPercentile(50) / 1000.0,
+        histogram.getValueAtPercentile(90) / 1000.0,
+        histogram.getValueAtPercentile(99) / 1000.0,
+        histogram.getValueAtPercentile(99.9) / 1000.0,
+        histogram.getMax() / 1000.0));
+  }
+
+  /**
+   * GC and thread statistics over a measurement.
+   */
+  static final class RuntimeStats {
+    private long gcCount;
+    private long gcMillis;
+    private int liveThreads;
+    private int peakThreads;
+
+    static RuntimeStats start() {
+      RuntimeStats runtime = new RuntimeStats();
+      ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+      for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+        runtime.gcCount -= Math.max(0, gc.getCollectionCount());
+        runtime.gcMillis -= Math.max(0, gc.getCollectionTime());
+      }
+      return runtime;
+    }
+
+    RuntimeStats stop() {
+      for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+        gcCount += Math.max(0, gc.getCollectionCount());
+        gcMillis += Math.max(0, gc.getCollectionTime());
+      }
+      ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      liveThreads = threads.getThreadCount();
+      peakThreads = threads.getPeakThreadCount();
+      return this;
+    }
+  }
+}
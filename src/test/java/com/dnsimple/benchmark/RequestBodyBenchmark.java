@@ -0,0 +1,53 @@
+package com.dnsimple.benchmark;
+
+import com.dnsimple.request.ZoneRecordCreate;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.api.client.http.json.JsonHttpContent;
+import com.google.api.client.json.gson.GsonFactory;
+
+/**
+ * Compares writing a zone record body from a Map with writing it from a typed request.
+ * <p>
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.dnsimple.benchmark.RequestBodyBenchmark
+ */
+public class RequestBodyBenchmark {
+  public static void main(String[] args) throws Exception {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+
+    Benchmark mapBody = new Benchmark("Map + JsonHttpContent") {
+      protected int operation() throws Exception {
+        Map<String, Object> attributes = new HashMap<String, Object>();
+        attributes.put("name", "www");
+        attributes.put("type", "A");
+        attributes.put("content", "192.168.1.1");
+        attributes.put("ttl", 3600);
+        out.reset();
+        new JsonHttpContent(new GsonFactory(), attributes).writeTo(out);
+        return out.size();
+      }
+    };
+
+    Benchmark typedBody = new Benchmark("ZoneRecordCreate") {
+      protected int operation() throws Exception {
+        ZoneRecordCreate record = ZoneRecordCreate.builder()
+          .name("www")
+          .type("A")
+          .content("192.168.1.1")
+          .ttl(3600)
+          .build();
+        out.reset();
+        record.writeTo(out);
+        return out.size();
+      }
+    };
+
+    for (int round = 0; round < 2; round++) {
+      mapBody.run();
+      typedBody.run();
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.dnsimple.benchmark;
+
+import com.dnsimple.ZoneRecord;
+import com.dnsimple.ZoneRecordTable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.api.client.json.gson.GsonFactory;
+
+/**
+ * Compares the heap held by zone records as decoded objects and in a ZoneRecordTable.
+ * <p>
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.dnsimple.benchmark.ZoneRecordTableBenchmark -Dexec.args=1000000
+ */
+public class ZoneRecordTableBenchmark {
+  public static void main(String[] args) throws Exception {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+    long baseline = usedHeap();
+    List<ZoneRecord> records = new ArrayList<ZoneRecord>(count);
+    for (int i = 0; i < count; i++) {
+      records.add(GsonFactory.getDefaultInstance().fromString(json(i), ZoneRecord.class));
+    }
+    long objects = usedHeap() - baseline;
+
+    ZoneRecordTable table = new ZoneRecordTable(count);
+    table.addAll(records);
+    records = null;
+    long columns = usedHeap() - baseline;
+
+    System.out.println(String.format("%-20s %10d B/record", "ZoneRecord", objects / count));
+    System.out.println(String.format("%-20s %10d B/record   (%d records)", "ZoneRecordTable", columns / count, table.size()));
+  }
+
+  private static String json(int i) {
+    return "{\"id\":" + i + ",\"zone_id\":\"zone" + (i / 100) + ".com\",\"parent_id\":null,\"name\":\"host" + (i % 100)
+        + "\",\"content\":\"10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255) + "\",\"ttl\":3600,\"priority\":null,"
+        + "\"type\":\"A\",\"system_record\":false,\"created_at\":\"2016-01-07T16:30:05.379Z\",\"updated_at\":\"2016-01-07T16:30:05.379Z\"}";
+  }
+
+  private static long usedHeap() throws InterruptedException {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(100);
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,105 @@
+package com.dnsimple.testing;
+
+import com.dnsimple.Client;
+import com.dnsimple.ClientConfig;
+import com.dnsimple.Domain;
+import com.dnsimple.exception.DnsimpleException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import com.google.api.client.http.javanet.NetHttpTransport;
+
+/**
+ * Drives the stub server and the record/replay transports through the public API only, the
+ * way an application load testing or recording its own integration would.
+ */
+public class StubServerClientTest {
+  private StubServer server;
+  private File directory;
+
+  @Before
+  public void setUp() throws IOException {
+    server = StubServer.builder().accountId("2020").build();
+    server.start();
+    directory = File.createTempFile("recording", "");
+    directory.delete();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop();
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+
+  @Test
+  public void testClientAgainstStubServer() throws DnsimpleException, IOException {
+    server.addDomain(server.getAccountId(), "example.com", true);
+    Client client = new Client(ClientConfig.builder().apiBase(server.getApiBase()).accessToken("token").build());
+
+    List<Domain> domains = client.domains.listDomains(server.getAccountId()).getData();
+    assertEquals(1, domains.size());
+    assertEquals("example.com", domains.get(0).getName());
+
+    server.failNext(1, 500);
+    try {
+      client.domains.getDomain(server.getAccountId(), "example.com");
+      fail("Expected the injected failure");
+    } catch (DnsimpleException e) {
+      assertEquals(Integer.valueOf(500), e.getStatusCode());
+    }
+    assertEquals(2, server.getRequestCount());
+  }
+
+  @Test
+  public void testRecordAndReplay() throws DnsimpleException, IOException {
+    server.addDomain(server.getAccountId(), "example.com", true);
+    RecordingTransport recorder = new RecordingTransport(new NetHttpTransport(), directory);
+    Client recording = new Client(ClientConfig.builder().apiBase(server.getApiBase()).transport(recorder).accessToken("token").build());
+    recording.domains.getDomain(server.getAccountId(), "example.com");
+    assertEquals(1, recorder.getRecordedCount());
+
+    ReplayTransport replay = new ReplayTransport(directory, 0);
+    Client replaying = new Client(ClientConfig.builder().apiBase("https://api.example.test").transport(replay).build());
+    assertEquals("example.com", replaying.domains.getDomain(server.getAccountId(), "example.com").getData().getName());
+    assertEquals(1, replay.getReplayedCount());
+  }
+
+  @Test
+  public void testCompressedResponsesAreRecordedDecoded() throws DnsimpleException, IOException {
+    for (int i = 0; i < 30; i++) {
+      server.addDomain(server.getAccountId(), "example-" + i + ".com", false);
+    }
+
+    for (String encoding : new String[] { "gzip", "deflate" }) {
+      File recordings = new File(directory, encoding);
+      RecordingTransport recorder = new RecordingTransport(new NetHttpTransport(), recordings);
+      Client recording = new Client(ClientConfig.builder().apiBase(server.getApiBase()).transport(recorder).acceptEncoding(encoding).accessToken("token").build());
+      assertEquals(30, recording.domains.listDomains(server.getAccountId()).getData().size());
+
+      ReplayTransport replay = new ReplayTransport(recordings, 0);
+      Client replaying = new Client(ClientConfig.builder().apiBase("https://api.example.test").transport(replay).build());
+      List<Domain> domains = replaying.domains.listDomains(server.getAccountId()).getData();
+      assertEquals(30, domains.size());
+      assertEquals("example-29.com", domains.get(29).getName());
+
+      for (File file : recordings.listFiles()) {
+        file.delete();
+      }
+      recordings.delete();
+    }
+  }
+}